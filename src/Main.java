@@ -1,3 +1,7 @@
+import models.layers.DenseLayer;
+import models.math.MatrixBackends;
+import models.math.MatrixParallelism;
+import models.networks.Network;
 import models.trainers.FitResults;
 import options.AppProperties;
 import options.PrintOptions;
@@ -9,6 +13,7 @@ import utils.Utils;
 import utils.automatization.Experiment;
 import utils.automatization.ExperimentBuilder;
 import utils.automatization.RunConfiguration;
+import utils.copy.CopyUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -51,6 +56,15 @@ public class Main {
             return;
         }
 
+        // настройка выполнения матричных операций внутри одного обучения
+        MatrixParallelism.configure(appProperties.isMatrixParallelEnabled(),
+                appProperties.getMatrixParallelThreads(),
+                appProperties.getMatrixParallelThreshold());
+        MatrixBackends.configure(appProperties.getMatrixBackendType());
+        CopyUtils.configureDefensiveCopies(appProperties.isDebugDefensiveCopies());
+        DenseLayer.configureFused(appProperties.isLayersDenseFused());
+        Network.configureFlat(appProperties.isNetworkFlat());
+
         // чтение описания экспериментов
         final ExperimentBuilder[] experimentBuilders;
         switch (appProperties.getExperimentsSourceType()) {
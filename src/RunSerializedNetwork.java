@@ -52,7 +52,7 @@ public class RunSerializedNetwork {
 
         Matrix x = dataset.getValidData().getInputs();  // входные значения выборки
         Matrix t = dataset.getValidData().getOutputs();  // требуемые выходные значения выборки
-        Matrix y = network.forward(x);  // выход сети
+        Matrix y = network.predict(x);  // выход сети
         Matrix e = t.sub(y).abs();  // ошибки вычисления сети
         Errors errors = new Errors(t, y);  //  ошибки
 
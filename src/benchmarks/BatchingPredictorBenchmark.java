@@ -0,0 +1,123 @@
+package benchmarks;
+
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.networks.BatchingPredictor;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.TanhActivation;
+import models.operations.WeightMultiply;
+import serialization.SerializationType;
+import serialization.SerializationUtils;
+import serialization.exceptions.SerializationException;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Бенчмарк сервиса вывода с объединением запросов ({@link BatchingPredictor}). Несколько клиентских тредов отправляют
+ * запросы по одной строке и ждут ответа перед отправкой следующего; для каждого режима выводится пропускная способность
+ * и задержка ответа (медиана и 99-й процентиль). Первый режим - вывод по одной строке прямо из клиентских тредов
+ * (без сервиса). Аргументы (необязательные): количество клиентских тредов (по умолчанию 8), папка и имя файла сети в
+ * YAML (без расширения, как в RunSerializedNetwork; по умолчанию - случайная сеть 2-64-64-1).
+ */
+public class BatchingPredictorBenchmark {
+    private static final long durationNanos = 1_000_000_000L;  // длительность замера одного режима
+    private static final int[][] policies = {  // {maxBatchSize, maxDelayMicros}
+            {1, 0},
+            {16, 100},
+            {64, 200},
+            {64, 1000},
+            {256, 1000},
+    };
+
+    public static void main(String[] args) throws Exception {
+        final int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final Network network = args.length > 2 ? load(args[1], args[2]) : Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new TanhActivation(), new LinearActivation())
+                .sizes(2, 64, 64, 1)
+                .build();
+        final int inputs = network.getLayer(0).getParameter(WeightMultiply.class).getRows();
+        System.out.printf("клиентских тредов: %d, входов сети: %d%n", clients, inputs);
+        System.out.printf("%-28s %14s %14s %14s%n", "режим", "запросов/с", "медиана, мкс", "99%, мкс");
+        for (int round = 0; round < 2; round++) {  // первый круг - прогрев
+            final boolean print = round == 1;
+            run(print, "без объединения", clients, inputs, input -> network.predict(
+                    new Matrix(1, input.length, input)).getValue(0));
+            for (int[] policy: policies)
+                try (BatchingPredictor predictor = new BatchingPredictor(network, policy[0], policy[1])) {
+                    run(print, String.format("пакет %d, ожидание %d мкс", policy[0], policy[1]), clients, inputs,
+                            input -> predictor.submit(input).get());
+                }
+        }
+    }
+
+    /**
+     * Загрузка сети
+     */
+    private static Network load(String directory, String filename) throws SerializationException {
+        return (Network) SerializationUtils.load(Network.class, Paths.get(directory).toAbsolutePath().toString(),
+                filename, SerializationType.YAML);
+    }
+
+    /**
+     * Замер одного режима
+     * @param print   выводить ли результат
+     * @param title   название режима
+     * @param clients количество клиентских тредов
+     * @param inputs  количество входов сети
+     * @param call    вызов вывода для одной строки
+     */
+    private static void run(boolean print, String title, int clients, int inputs, Call call)
+            throws InterruptedException {
+        final long[][] latencies = new long[clients][];
+        final int[] counts = new int[clients];
+        final Thread[] threads = new Thread[clients];
+        final long stop = System.nanoTime() + durationNanos;
+        for (int t = 0; t < clients; t++) {
+            final int client = t;
+            threads[t] = new Thread(() -> {
+                final Random random = new Random(client);
+                long[] own = new long[1024];
+                int count = 0;
+                final double[] input = new double[inputs];
+                try {
+                    while (System.nanoTime() < stop) {
+                        for (int i = 0; i < inputs; i++)
+                            input[i] = random.nextDouble();
+                        final long start = System.nanoTime();
+                        call.predict(input);
+                        if (count == own.length)
+                            own = Arrays.copyOf(own, count * 2);
+                        own[count++] = System.nanoTime() - start;
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                latencies[client] = own;
+                counts[client] = count;
+            });
+            threads[t].start();
+        }
+        for (Thread thread: threads)
+            thread.join();
+        if (!print)
+            return;
+        final long[] all = new long[Arrays.stream(counts).sum()];
+        for (int t = 0, position = 0; t < clients; position += counts[t], t++)
+            System.arraycopy(latencies[t], 0, all, position, counts[t]);
+        Arrays.sort(all);
+        System.out.printf("%-28s %14.0f %14.1f %14.1f%n", title, all.length * 1e9 / durationNanos,
+                all[all.length / 2] / 1e3, all[(int) (all.length * 0.99)] / 1e3);
+    }
+
+    /**
+     * Вывод для одной строки
+     */
+    private interface Call {
+        double[] predict(double[] input) throws InterruptedException, ExecutionException;
+    }
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+/**
+ * Общие методы для замера времени в бенчмарках
+ */
+public abstract class BenchmarkUtils {
+    private static final long targetNanos = 200_000_000L;  // длительность замера одной конфигурации
+
+    /**
+     * Среднее время одного запуска в наносекундах (после прогрева)
+     * @param action замеряемое действие
+     * @return       время в наносекундах
+     */
+    public static double measure(Runnable action) {
+        long iterations = 1;
+        long elapsed = 0;
+        for (int warmup = 0; warmup < 3; warmup++)  // прогрев и подбор количества повторений
+            while ((elapsed = time(action, iterations)) < targetNanos / 10)
+                iterations *= 2;
+        elapsed = time(action, iterations);
+        return elapsed * 1.0 / iterations;
+    }
+
+    private static long time(Runnable action, long iterations) {
+        final long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++)
+            action.run();
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import models.math.Matrix;
+import models.math.MatrixBackendType;
+import models.math.MatrixBackends;
+import models.math.MatrixUtils;
+import models.math.functions.MatrixFunctions;
+import models.operations.Operation;
+import models.operations.SigmoidActivation;
+import models.operations.TanhActivation;
+
+/**
+ * Бенчмарк поэлементных операций и свёрток на эталонном и оптимизированном бэкендах ({@link MatrixBackends}).
+ * Матрицы имеют размер (batch; 16), что соответствует скрытому слою сети при обучении пакетами.
+ */
+public class ElementwiseBenchmark {
+    private static final int[] batchSizes = {100, 1_000, 10_000};
+    private static final int width = 16;
+
+    public static void main(String[] args) {
+        System.out.printf("%-28s %14s %14s %10s%n", "операция", "эталон., мкс", "оптим., мкс", "ускорение");
+        for (int batchSize: batchSizes) {
+            final Matrix a = MatrixUtils.getRandomMatrixNormal(batchSize, width);
+            final Matrix b = MatrixUtils.getRandomMatrixNormal(batchSize, width);
+            final Matrix row = MatrixUtils.getRandomMatrixNormal(1, width);
+            final Matrix col = MatrixUtils.getRandomMatrixNormal(batchSize, 1);
+            final String shape = String.format("(%d; %d)", batchSize, width);
+            run(shape + ".add(matrix)", () -> a.add(b));
+            run(shape + ".mul(matrix)", () -> a.mul(b));
+            run(shape + ".mul(number)", () -> a.mul(-1));
+            run(shape + ".addRow", () -> a.addRow(row));
+            run(shape + ".divCol", () -> a.divCol(col));
+            run(shape + ".sum()", a::sum);
+            run(shape + ".sum(1)", () -> a.sum(1));
+            run(shape + ".max(0)", () -> a.max(0));
+            run(shape + " exp", () -> MatrixFunctions.exp(a));
+            run(shape + " sigmoid", () -> forwardBackward(new SigmoidActivation(), a, b));
+            run(shape + " tanh", () -> forwardBackward(new TanhActivation(), a, b));
+        }
+        MatrixBackends.configure(MatrixBackendType.OPTIMIZED);
+    }
+
+    private static void forwardBackward(Operation operation, Matrix input, Matrix outputGradient) {
+        operation.forward(input);
+        operation.backward(outputGradient);
+    }
+
+    private static void run(String title, Runnable action) {
+        MatrixBackends.configure(MatrixBackendType.REFERENCE);
+        final double reference = BenchmarkUtils.measure(action);
+        MatrixBackends.configure(MatrixBackendType.OPTIMIZED);
+        final double optimized = BenchmarkUtils.measure(action);
+        System.out.printf("%-28s %14.3f %14.3f %9.1fx%n", title, reference / 1e3, optimized / 1e3,
+                reference / optimized);
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import models.math.Matrix;
+import models.math.MatrixUtils;
+
+import java.util.stream.IntStream;
+
+/**
+ * Микро-бенчмарк матричного умножения {@link Matrix#mulMatrix(Matrix)}. Сравнивает текущую реализацию с прежней,
+ * которая вычисляла каждый элемент результата как скалярное произведение отдельно созданных векторов. Для
+ * градиентов дополнительно замеряются {@link Matrix#mulMatrixTransB(Matrix)} и {@link Matrix#mulMatrixTransA(Matrix)},
+ * которые не строят транспонированную копию операнда.
+ * <pre>
+ * Формы матриц соответствуют слоям сетей, которые строит AnotherNetworkBuilder для sizes = [1, 8, 1] и
+ * sizes = [2, 16, 4, 1]. Для каждого слоя с inputs входами и neurons нейронами при размере пакета batch замеряются:
+ * <ul>
+ *  <li>прямой проход      - (batch; inputs) x (inputs; neurons);</li>
+ *  <li>градиент по входу  - (batch; neurons) x (neurons; inputs);</li>
+ *  <li>градиент по весам  - (inputs; batch) x (batch; neurons).</li>
+ * </ul>
+ * </pre>
+ */
+public class MulMatrixBenchmark {
+    private static final int[][] layerShapes = {{1, 8}, {8, 1}, {2, 16}, {16, 4}, {4, 1}};
+    private static final int[] batchSizes = {10, 100, 1_000, 10_000};
+
+    public static void main(String[] args) {
+        System.out.printf("%-28s %14s %14s %10s%n", "формы", "прежняя, мкс", "текущая, мкс", "ускорение");
+        for (int batchSize: batchSizes)
+            for (int[] shape: layerShapes) {
+                final int inputs = shape[0];
+                final int neurons = shape[1];
+                run(batchSize, inputs, inputs, neurons);  // прямой проход
+                run(batchSize, neurons, neurons, inputs);  // градиент по входу
+                run(inputs, batchSize, batchSize, neurons);  // градиент по весам
+            }
+        System.out.println();
+        System.out.printf("%-28s %14s %14s %10s%n", "формы", "с transpose, мкс", "без копии, мкс", "ускорение");
+        for (int batchSize: batchSizes)
+            for (int[] shape: layerShapes) {
+                final int inputs = shape[0];
+                final int neurons = shape[1];
+                runTransposed(batchSize, inputs, neurons);
+            }
+    }
+
+    /**
+     * Замер градиентов слоя WeightMultiply: через явное транспонирование и через mulMatrixTransA/mulMatrixTransB.
+     * {@link Matrix#transpose()} возвращает представление, поэтому транспонированная копия, которую строила прежняя
+     * реализация, получается через {@link Matrix#materialize()}
+     */
+    private static void runTransposed(int batchSize, int inputs, int neurons) {
+        final Matrix input = MatrixUtils.getRandomMatrixNormal(batchSize, inputs);
+        final Matrix weights = MatrixUtils.getRandomMatrixNormal(inputs, neurons);
+        final Matrix outputGradient = MatrixUtils.getRandomMatrixNormal(batchSize, neurons);
+        if (!outputGradient.mulMatrix(weights.transpose().materialize())
+                .equalValues(outputGradient.mulMatrixTransB(weights), 1e-9) ||
+                !input.transpose().materialize().mulMatrix(outputGradient)
+                        .equalValues(input.mulMatrixTransA(outputGradient), 1e-9))
+            throw new IllegalStateException("Результаты умножения не совпадают");
+        report(String.format("dX: (%d; %d) x (%d; %d)^T", batchSize, neurons, inputs, neurons),
+                BenchmarkUtils.measure(() -> outputGradient.mulMatrix(weights.transpose().materialize())),
+                BenchmarkUtils.measure(() -> outputGradient.mulMatrixTransB(weights)));
+        report(String.format("dW: (%d; %d)^T x (%d; %d)", batchSize, inputs, batchSize, neurons),
+                BenchmarkUtils.measure(() -> input.transpose().materialize().mulMatrix(outputGradient)),
+                BenchmarkUtils.measure(() -> input.mulMatrixTransA(outputGradient)));
+    }
+
+    private static void report(String title, double reference, double current) {
+        System.out.printf("%-28s %14.3f %14.3f %9.1fx%n", title, reference / 1e3, current / 1e3, reference / current);
+    }
+
+    /**
+     * Замер умножения матриц (rows1; cols1) x (rows2; cols2) двумя способами
+     */
+    private static void run(int rows1, int cols1, int rows2, int cols2) {
+        final Matrix m1 = MatrixUtils.getRandomMatrixNormal(rows1, cols1);
+        final Matrix m2 = MatrixUtils.getRandomMatrixNormal(rows2, cols2);
+        if (!m1.mulMatrix(m2).equalValues(referenceMulMatrix(m1, m2), 1e-9))
+            throw new IllegalStateException("Результаты умножения не совпадают");
+        final double reference = BenchmarkUtils.measure(() -> referenceMulMatrix(m1, m2));
+        final double current = BenchmarkUtils.measure(() -> m1.mulMatrix(m2));
+        report(String.format("(%d; %d) x (%d; %d)", rows1, cols1, rows2, cols2), reference, current);
+    }
+
+    /**
+     * Прежняя реализация матричного умножения (для сравнения)
+     */
+    private static Matrix referenceMulMatrix(Matrix m1, Matrix m2) {
+        double[][] result = new double[m1.getRows()][m2.getCols()];
+        Matrix[] rows1 = IntStream.range(0, m1.getRows()).mapToObj(row -> m1.getRow(row).transpose())
+                .toArray(Matrix[]::new);
+        Matrix[] cols2 = IntStream.range(0, m2.getCols()).mapToObj(m2::getCol).toArray(Matrix[]::new);
+        for (int row = 0; row < m1.getRows(); row++)
+            for (int col = 0; col < m2.getCols(); col++)
+                result[row][col] = MatrixUtils.mulScalar(rows1[row], cols2[col]);
+        return new Matrix(result);
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import models.math.Matrix;
+import models.math.MatrixParallelism;
+import models.math.MatrixUtils;
+import models.math.functions.MatrixFunctions;
+
+/**
+ * Бенчмарк параллельного режима матричных операций ({@link MatrixParallelism}). Для крупных пакетов сравнивается
+ * время последовательного и параллельного выполнения умножения, поэлементных операций, суммирования по осям и
+ * поэлементных функций. Количество тредов можно передать первым аргументом (по умолчанию - количество ядер).
+ */
+public class ParallelMatrixBenchmark {
+    private static final int[] batchSizes = {1_000, 10_000, 100_000};
+    private static final int width = 64;  // количество нейронов в слое
+
+    public static void main(String[] args) {
+        final int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("тредов: %d, порог: %d%n", threads, MatrixParallelism.getThreshold());
+        System.out.printf("%-36s %14s %14s %10s%n", "операция", "послед., мкс", "паралл., мкс", "ускорение");
+        for (int batchSize: batchSizes) {
+            final Matrix input = MatrixUtils.getRandomMatrixNormal(batchSize, width);
+            final Matrix weights = MatrixUtils.getRandomMatrixNormal(width, width);
+            final Matrix other = MatrixUtils.getRandomMatrixNormal(batchSize, width);
+            run(threads, String.format("(%d; %d) x (%d; %d)", batchSize, width, width, width),
+                    () -> input.mulMatrix(weights));
+            run(threads, String.format("(%d; %d)^T x (%d; %d)", batchSize, width, batchSize, width),
+                    () -> input.mulMatrixTransA(other));
+            run(threads, String.format("(%d; %d) + (%d; %d)", batchSize, width, batchSize, width),
+                    () -> input.add(other));
+            run(threads, String.format("(%d; %d).sum(1)", batchSize, width), () -> input.sum(1));
+            run(threads, String.format("(%d; %d).max(0)", batchSize, width), () -> input.max(0));
+            run(threads, String.format("tanh(%d; %d)", batchSize, width), () -> MatrixFunctions.tanh(input));
+        }
+        MatrixParallelism.configure(false, threads, MatrixParallelism.getThreshold());
+    }
+
+    private static void run(int threads, String title, Runnable action) {
+        MatrixParallelism.configure(false, threads, MatrixParallelism.getThreshold());
+        final double sequential = BenchmarkUtils.measure(action);
+        MatrixParallelism.configure(true, threads, MatrixParallelism.getThreshold());
+        final double parallel = BenchmarkUtils.measure(action);
+        System.out.printf("%-36s %14.3f %14.3f %9.1fx%n", title, sequential / 1e3, parallel / 1e3,
+                sequential / parallel);
+    }
+}
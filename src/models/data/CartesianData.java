@@ -0,0 +1,320 @@
+package models.data;
+
+import models.math.CartesianProduct;
+import models.math.Matrix;
+import models.math.MatrixUtils;
+import models.math.Precision;
+import models.math.RandomPermutation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Выборка, входы которой образуют декартово произведение векторов-столбцов (сетку) и не хранятся: строка входов
+ * вычисляется по номеру (см. {@link CartesianProduct}). Для сетки из N^d строк хранится O(N * d) значений вместо
+ * O(N^d * d), поэтому можно обучать сети на сетках, входы которых не помещаются в память. Выходы вычисляются функцией
+ * от строки входов и либо хранятся (вычисляются один раз при создании выборки, в том числе вне кучи), либо
+ * вычисляются заново для каждого пакета.
+ *
+ * Пакеты (в том числе перемешанные) собираются по номерам строк в переиспользуемые буферы, перестановка для
+ * перемешивания также вычисляется по номеру. Методы {@link #getInputs()} и {@link #getOutputs()} (для невычисленных
+ * выходов) строят полные матрицы при каждом вызове и предназначены для небольших выборок (например, валидационной).
+ * Атрибуты модели:
+ * <pre><ul>
+ *  <li>inputs       - декартово произведение, образующее входы;</li>
+ *  <li>outputsCount - количество выходов;</li>
+ *  <li>function     - функция, вычисляющая выходы по строке входов;</li>
+ *  <li>outputs      - вычисленные выходы (null, если выходы вычисляются для каждого пакета);</li>
+ *  <li>precision    - точность матриц входов и выходов.</li>
+ * </ul></pre>
+ */
+public class CartesianData extends Data {
+    /**
+     * Количество строк в части при вычислении выходов (входы части собираются в матрицу)
+     */
+    private static final int OUTPUTS_CHUNK = 1 << 16;
+
+    private final CartesianProduct inputs;
+    private final int outputsCount;
+    private final OutputsFunction function;
+    private final Matrix outputs;
+    private final Precision precision;
+
+    /**
+     * Функция, вычисляющая выходы по строке входов
+     */
+    public interface OutputsFunction {
+        /**
+         * Вычисление выходов
+         * @param inputs  строка входов
+         * @param outputs массив для выходов (длина равна количеству выходов)
+         */
+        void calculate(double[] inputs, double[] outputs);
+
+        /**
+         * Вычисление выходов для каждой строки матрицы входов. Реализация по умолчанию вычисляет строки по одной;
+         * реализация может вычислять пакет целиком (например, параллельно, см.
+         * {@link models.data.approximation.functions.Function#calculateBatch})
+         * @param inputs  матрица входов
+         * @param outputs массив для выходов, записываемых построчно (длина равна inputs.getRows() * количество
+         *                выходов)
+         */
+        default void calculateBatch(Matrix inputs, double[] outputs) {
+            final double[] row = new double[inputs.getCols()];
+            final double[] values = new double[outputs.length / inputs.getRows()];
+            for (int i = 0; i < inputs.getRows(); i++) {
+                for (int col = 0; col < row.length; col++)
+                    row[col] = inputs.getValue(i, col);
+                calculate(row, values);
+                System.arraycopy(values, 0, outputs, i * values.length, values.length);
+            }
+        }
+    }
+
+    /**
+     * Конструктор, см. описание параметров в {@link CartesianData}
+     * @param cacheOutputs вычислить ли выходы сразу (иначе выходы вычисляются для каждого пакета)
+     * @param offHeap      хранить ли вычисленные выходы вне кучи (см. {@link Matrix#toOffHeap()})
+     */
+    public CartesianData(CartesianProduct inputs, int outputsCount, OutputsFunction function,
+                         boolean cacheOutputs, boolean offHeap) {
+        this(inputs, outputsCount, function,
+                cacheOutputs ? calculateOutputs(inputs, outputsCount, function, offHeap) : null,
+                inputs.getPrecision());
+    }
+
+    /**
+     * Конструктор для создания копий
+     */
+    private CartesianData(CartesianProduct inputs, int outputsCount, OutputsFunction function, Matrix outputs,
+                          Precision precision) {
+        super();
+        this.inputs = inputs;
+        this.outputsCount = outputsCount;
+        this.function = function;
+        this.outputs = outputs == null ? null : outputs.toPrecision(precision);
+        this.precision = precision;
+    }
+
+    /**
+     * Вычисление выходов для всех строк сетки пакетами по OUTPUTS_CHUNK строк (см.
+     * {@link OutputsFunction#calculateBatch}): входы части собираются в матрицу (см. {@link CartesianProduct#gatherRows}),
+     * полная матрица входов не строится
+     * @param inputs       декартово произведение
+     * @param outputsCount количество выходов
+     * @param function     функция
+     * @param offHeap      хранить ли выходы вне кучи
+     * @return             матрица выходов двойной точности
+     */
+    private static Matrix calculateOutputs(CartesianProduct inputs, int outputsCount, OutputsFunction function,
+                                           boolean offHeap) {
+        final int rows = inputs.getRows();
+        if (offHeap) {
+            final double[][] chunk = new double[1][];
+            return MatrixUtils.getOffHeapMatrix(rows, outputsCount, Precision.DOUBLE, (row, values) -> {
+                // строки генерируются подряд, поэтому очередная часть вычисляется на её первой строке
+                if (row % OUTPUTS_CHUNK == 0) {
+                    final int to = Math.min(row + OUTPUTS_CHUNK, rows);
+                    chunk[0] = new double[(to - row) * outputsCount];
+                    function.calculateBatch(inputs.gatherRows(IntStream.range(row, to).toArray()), chunk[0]);
+                }
+                System.arraycopy(chunk[0], row % OUTPUTS_CHUNK * outputsCount, values, 0, outputsCount);
+            });
+        }
+        return calculateOutputs(inputs, outputsCount, function, IntStream.range(0, rows).toArray());
+    }
+
+    /**
+     * Вычисление выходов для строк с заданными номерами пакетами по OUTPUTS_CHUNK строк
+     * @param inputs       декартово произведение
+     * @param outputsCount количество выходов
+     * @param function     функция
+     * @param indices      номера строк
+     * @return             матрица выходов двойной точности размерности (indices.length; outputsCount)
+     */
+    private static Matrix calculateOutputs(CartesianProduct inputs, int outputsCount, OutputsFunction function,
+                                           int[] indices) {
+        final double[] result = new double[indices.length * outputsCount];
+        for (int from = 0; from < indices.length; from += OUTPUTS_CHUNK) {
+            final int to = Math.min(from + OUTPUTS_CHUNK, indices.length);
+            final double[] chunk = new double[(to - from) * outputsCount];
+            function.calculateBatch(inputs.gatherRows(Arrays.copyOfRange(indices, from, to)), chunk);
+            System.arraycopy(chunk, 0, result, from * outputsCount, (to - from) * outputsCount);
+        }
+        return new Matrix(indices.length, outputsCount, result);
+    }
+
+    /**
+     * Получение случайной перестановки номеров строк, элементы которой вычисляются по номеру (массив из getRows()
+     * номеров не создаётся, см. {@link RandomPermutation})
+     * @return перестановка
+     */
+    @Override
+    protected IntUnaryOperator getShuffleOrder() {
+        return new RandomPermutation(getRows())::get;
+    }
+
+    /**
+     * Буфер пакета. Если выходы вычисляются для каждого пакета, буфер также содержит массив для значений функции и
+     * (если точность выборки отличается от точности произведения) входы двойной точности, чтобы сборка пакета не
+     * создавала массивов размера пакета. Атрибуты модели:
+     * <pre><ul>
+     *  <li>exactInputs - входы в точности произведения (null, если точность совпадает с точностью выборки);</li>
+     *  <li>values      - значения функции, записанные построчно (null, если выходы вычислены заранее).</li>
+     * </ul></pre>
+     */
+    private static class BatchBuffer extends Data {
+        private final Matrix exactInputs;
+        private final double[] values;
+
+        BatchBuffer(Matrix inputs, Matrix outputs, Matrix exactInputs, double[] values) {
+            super(inputs, outputs);
+            this.exactInputs = exactInputs;
+            this.values = values;
+        }
+    }
+
+    @Override
+    protected Data getBatchBuffer(int rows) {
+        final boolean sameInputs = outputs != null || precision == inputs.getPrecision();
+        return new BatchBuffer(new Matrix(rows, getInputsCount(), precision), new Matrix(rows, outputsCount, precision),
+                sameInputs ? null : new Matrix(rows, getInputsCount(), inputs.getPrecision()),
+                outputs != null ? null : new double[rows * outputsCount]);
+    }
+
+    /**
+     * Сборка пакета в буфер: строки входов вычисляются по номерам, выходы берутся из вычисленных или вычисляются
+     * пакетом по входам (см. {@link OutputsFunction#calculateBatch}) в массив буфера; если точность выборки
+     * отличается от точности произведения, функция вычисляется от входов буфера в точности произведения, а не от
+     * округлённых входов
+     * @param indices номера строк
+     * @param buffer  буфер (см. {@link #getBatchBuffer(int)}) с количеством строк, равным количеству номеров
+     * @return        буфер с пакетом
+     */
+    @Override
+    protected Data getBatch(int[] indices, Data buffer) {
+        buffer.getInputs().fillRows((row, values) -> inputs.getRow(indices[row], values));
+        if (outputs != null) {
+            outputs.gatherRowsInto(indices, buffer.getOutputs());
+            return buffer;
+        }
+        final BatchBuffer batchBuffer = (BatchBuffer) buffer;
+        final double[] values = batchBuffer.values;
+        if (batchBuffer.exactInputs != null)
+            batchBuffer.exactInputs.fillRows((row, rowValues) -> inputs.getRow(indices[row], rowValues));
+        function.calculateBatch(batchBuffer.exactInputs != null ? batchBuffer.exactInputs : buffer.getInputs(), values);
+        buffer.getOutputs().fillRows((row, rowValues) ->
+                System.arraycopy(values, row * outputsCount, rowValues, 0, outputsCount));
+        return buffer;
+    }
+
+    @Override
+    protected Data getBatch(int from, int to) {
+        return getBatch(IntStream.range(from, to).toArray(), getBatchBuffer(to - from));
+    }
+
+    /**
+     * Получение полной матрицы входов (строится при каждом вызове)
+     * @return входы
+     */
+    @Override
+    public Matrix getInputs() {
+        return inputs.toMatrix().toPrecision(precision);
+    }
+
+    /**
+     * Получение выходов (если выходы не были вычислены при создании выборки, полная матрица строится при каждом
+     * вызове)
+     * @return выходы
+     */
+    @Override
+    public Matrix getOutputs() {
+        if (outputs != null)
+            return outputs;
+        return calculateOutputs(inputs, outputsCount, function, IntStream.range(0, getRows()).toArray())
+                .toPrecision(precision);
+    }
+
+    @Override
+    public int getRows() {
+        return inputs.getRows();
+    }
+
+    @Override
+    public int getInputsCount() {
+        return inputs.getCols();
+    }
+
+    @Override
+    public int getOutputsCount() {
+        return outputsCount;
+    }
+
+    public CartesianProduct getCartesianProduct() {
+        return inputs;
+    }
+
+    @Override
+    public CartesianData toPrecision(Precision precision) {
+        if (precision == this.precision)
+            return this;
+        return new CartesianData(inputs, outputsCount, function, outputs, precision);
+    }
+
+    /**
+     * Хранятся ли вычисленные выходы вне кучи (входы не хранятся)
+     * @return результат проверки
+     */
+    @Override
+    public boolean isOffHeap() {
+        return outputs == null || outputs.isOffHeap();
+    }
+
+    /**
+     * Получение выборки, вычисленные выходы которой хранятся вне кучи (входы по-прежнему вычисляются по номеру)
+     * @return выборка
+     */
+    @Override
+    public CartesianData toOffHeap() {
+        if (isOffHeap())
+            return this;
+        return new CartesianData(inputs, outputsCount, function, outputs.toOffHeap(), precision);
+    }
+
+    /**
+     * Глубокая копия выборки. Декартово произведение не изменяется, поэтому разделяется с копией, как и выходы,
+     * хранящиеся вне кучи
+     * @return копия
+     */
+    @Override
+    public CartesianData deepCopy() {
+        return new CartesianData(inputs, outputsCount, function,
+                outputs == null || outputs.isOffHeap() ? outputs : outputs.deepCopy(), precision);
+    }
+
+    @Override
+    public String toString() {
+        return "CartesianData{" +
+                "inputs=" + inputs +
+                ", outputsCount=" + outputsCount +
+                ", outputs=" + outputs +
+                ", precision=" + precision +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CartesianData that = (CartesianData) o;
+        return outputsCount == that.outputsCount && inputs.equals(that.inputs) && function == that.function &&
+                Objects.equals(outputs, that.outputs) && precision == that.precision;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(inputs, outputsCount, outputs, precision);
+    }
+}
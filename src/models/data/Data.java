@@ -2,10 +2,13 @@ package models.data;
 
 import models.math.Matrix;
 import models.math.MatrixUtils;
+import models.math.Precision;
 import utils.copy.DeepCopyable;
 
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Элемент выборки, объединяющий входные и соответствующие им выходные значения. Атрибуты модели:
@@ -13,6 +16,8 @@ import java.util.Objects;
  *  <li>inputs  - входные значения;</li>
  *  <li>outputs - выходные значения.</li>
  * </ul></pre>
+ * Наследники могут не хранить значения, а вычислять строки по номеру (см. {@link CartesianData}): для этого они
+ * переопределяют методы получения размеров, пакетов и значений.
  */
 public class Data implements DeepCopyable {
     private final Matrix inputs;
@@ -33,7 +38,22 @@ public class Data implements DeepCopyable {
     }
 
     /**
-     * Получение объекта для разбиения выборки на пакеты заданного размера для последующей итерации по нему
+     * Конструктор для наследников, вычисляющих значения по требованию (входы и выходы не хранятся)
+     */
+    protected Data() {
+        this.inputs = null;
+        this.outputs = null;
+    }
+
+    /**
+     * Получение объекта для разбиения выборки на пакеты заданного размера для последующей итерации по нему. Без
+     * перемешивания и зашумления пакеты хранимой выборки являются срезами (представлениями) входов и выходов. При
+     * перемешивании (а также у выборок, вычисляющих строки по номеру) пакет собирается из строк с номерами из
+     * случайной перестановки (или подряд идущими) в буферы размера пакета, которые создаются один раз при обходе (и
+     * ещё раз для последнего неполного пакета) и переиспользуются следующими пакетами. Шум генерируется
+     * для каждого пакета в отдельный буфер только при зашумлении. Полная перемешанная (или зашумлённая) копия
+     * выборки не создаётся, поэтому выборка может храниться вне кучи (см. {@link Matrix#toOffHeap()}).
+     * Пакет, собранный в буфер, действителен до получения следующего пакета
      * @param batchSize    размер выборки
      * @param needsShuffle требуется ли перемешивание выборки
      * @param needsNoise   требуется ли зашумление выборки
@@ -42,15 +62,12 @@ public class Data implements DeepCopyable {
     public Iterable<Data> getBatchesGenerator(int batchSize, boolean needsShuffle, boolean needsNoise) {
         return () -> new Iterator<Data>() {
             private int currentIndex = 0;  // текущий индекс, откуда начнется новый пакет
-            // индексы для перемешивания выборки
-            private final int[] indices = MatrixUtils.getRandomRangePermutation(getRows());
-            // входы и выходы выборки (полностью)
-            private final Matrix x = needsShuffle ? inputs.shuffle(indices, 0) : inputs;
-            private final Matrix y = needsShuffle ? outputs.shuffle(indices, 0) : outputs;
-            private final Matrix noise = needsNoise ?
-                    MatrixUtils.getRandomMatrixNormal(inputs.getRows(), inputs.getCols(),
-                            0.0, 1.0 / inputs.size()) :
-                    inputs.zerosLike();
+            // перестановка номеров строк для перемешивания выборки
+            private final IntUnaryOperator order = needsShuffle ? getShuffleOrder() : null;
+            private final Random random = needsNoise ? new Random() : null;
+            private int[] indices;  // номера строк пакета
+            private Data buffer;    // буфер пакета
+            private Matrix noise;   // буфер шума
 
             /**
              * Проверка наличия следующего пакета
@@ -68,17 +85,74 @@ public class Data implements DeepCopyable {
             @Override
             public Data next() {
                 // индекс конца пакета (с проверкой на соответствие диапазону)
-                int newIndex = Math.min(currentIndex + batchSize, getRows());
-                // новый пакет формируется из срезов от currentIndex до newIndex
-                Data result = new Data(x.getRowSlice(currentIndex, newIndex, 1)
-                                         .add(noise.getRowSlice(currentIndex, newIndex, 1)),
-                        y.getRowSlice(currentIndex, newIndex, 1));
+                final int newIndex = Math.min(currentIndex + batchSize, getRows());
+                final int size = newIndex - currentIndex;
+                if (order == null && !needsNoise && inputs != null) {  // срез хранимых строк [currentIndex; newIndex)
+                    final Data result = getBatch(currentIndex, newIndex);
+                    currentIndex = newIndex;
+                    return result;
+                }
+                if (buffer == null || buffer.getRows() != size) {  // буферы создаются для первого и последнего пакета
+                    indices = new int[size];
+                    buffer = getBatchBuffer(size);
+                    noise = needsNoise ? buffer.getInputs().zerosLike() : null;
+                }
+                // пакет собирается из строк с перемешанными (или подряд идущими) номерами
+                for (int i = 0; i < size; i++)
+                    indices[i] = order != null ? order.applyAsInt(currentIndex + i) : currentIndex + i;
+                final Data result = getBatch(indices, buffer);
+                if (needsNoise)  // шум с СКО, равным 1 / <размер выборки>, генерируется для каждого пакета
+                    result.getInputs().addInPlace(noise.fillRandomNormal(0.0,
+                            1.0 / (getRows() * getInputsCount()), random));
                 currentIndex = newIndex;  // сохранение последнего индекса
                 return result;  // возвращение пакета
             }
         };
     }
 
+    /**
+     * Получение случайной перестановки номеров строк для перемешивания выборки (новой при каждом обходе пакетов).
+     * Перестановка хранится массивом из getRows() номеров
+     * @return перестановка (номер позиции -> номер строки)
+     */
+    protected IntUnaryOperator getShuffleOrder() {
+        final int[] indices = MatrixUtils.getRandomRangePermutation(getRows());
+        return index -> indices[index];
+    }
+
+    /**
+     * Создание буфера для пакетов заданного размера (матрицы в куче той же точности, что и выборка)
+     * @param rows количество строк пакета
+     * @return     буфер
+     */
+    protected Data getBatchBuffer(int rows) {
+        return new Data(new Matrix(rows, getInputsCount(), inputs.getPrecision()),
+                new Matrix(rows, getOutputsCount(), outputs.getPrecision()));
+    }
+
+    /**
+     * Сборка пакета из строк с заданными номерами (в указанном порядке) в буфер
+     * @param indices номера строк
+     * @param buffer  буфер (см. {@link #getBatchBuffer(int)}) с количеством строк, равным количеству номеров
+     * @return        буфер с пакетом
+     */
+    protected Data getBatch(int[] indices, Data buffer) {
+        inputs.gatherRowsInto(indices, buffer.getInputs());
+        outputs.gatherRowsInto(indices, buffer.getOutputs());
+        return buffer;
+    }
+
+    /**
+     * Получение пакета из подряд идущих строк. Пакет состоит из срезов (представлений) входов и выходов, без
+     * копирования
+     * @param from номер первой строки
+     * @param to   номер строки, следующей за последней
+     * @return     пакет
+     */
+    protected Data getBatch(int from, int to) {
+        return new Data(inputs.getRowSlice(from, to, 1), outputs.getRowSlice(from, to, 1));
+    }
+
     public Matrix getInputs() {
         return inputs;
     }
@@ -91,6 +165,25 @@ public class Data implements DeepCopyable {
         return inputs.getRows();
     }
 
+    public int getInputsCount() {
+        return inputs.getCols();
+    }
+
+    public int getOutputsCount() {
+        return outputs.getCols();
+    }
+
+    /**
+     * Получение выборки заданной точности (если входы и выходы уже имеют эту точность, возвращается исходная выборка)
+     * @param precision точность
+     * @return          выборка заданной точности
+     */
+    public Data toPrecision(Precision precision) {
+        if (inputs.getPrecision() == precision && outputs.getPrecision() == precision)
+            return this;
+        return new Data(inputs.toPrecision(precision), outputs.toPrecision(precision));
+    }
+
     @Override
     public String toString() {
         return "Data{" +
@@ -99,9 +192,32 @@ public class Data implements DeepCopyable {
                 '}';
     }
 
+    /**
+     * Хранятся ли входы и выходы выборки вне кучи
+     * @return результат проверки
+     */
+    public boolean isOffHeap() {
+        return inputs.isOffHeap() && outputs.isOffHeap();
+    }
+
+    /**
+     * Получение выборки, входы и выходы которой хранятся вне кучи (см. {@link Matrix#toOffHeap()})
+     * @return выборка, хранящаяся вне кучи
+     */
+    public Data toOffHeap() {
+        if (isOffHeap())
+            return this;
+        return new Data(inputs.toOffHeap(), outputs.toOffHeap());
+    }
+
+    /**
+     * Глубокая копия выборки. Матрицы, хранящиеся вне кучи, доступны только для чтения, поэтому не копируются
+     * @return копия
+     */
     @Override
     public Data deepCopy() {
-        return new Data(inputs.deepCopy(), outputs.deepCopy());
+        return new Data(inputs.isOffHeap() ? inputs : inputs.deepCopy(),
+                outputs.isOffHeap() ? outputs : outputs.deepCopy());
     }
 
     @Override
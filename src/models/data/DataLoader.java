@@ -18,13 +18,23 @@ public abstract class DataLoader implements DeepCopyable, Serializable {
     public Dataset load(LoadParameters parameters) {
         return new Dataset(getTrainData(parameters),
                 getTestData(parameters),
-                getValidData(parameters));
+                getValidData(parameters),
+                getPoolData(parameters));
     }
 
     protected abstract Data getTrainData(LoadParameters parameters);
     protected abstract Data getTestData(LoadParameters parameters);
     protected abstract Data getValidData(LoadParameters parameters);
 
+    /**
+     * Генерация пула кандидатов для адаптивной обучающей выборки, по умолчанию пул отсутствует
+     * @param parameters параметры для генерации выборки
+     * @return           пул кандидатов или null
+     */
+    protected Data getPoolData(LoadParameters parameters) {
+        return null;
+    }
+
     @Override
     public abstract DataLoader deepCopy();
 }
@@ -1,5 +1,6 @@
 package models.data;
 
+import models.math.Precision;
 import utils.copy.DeepCopyable;
 
 import java.util.Comparator;
@@ -11,21 +12,32 @@ import java.util.stream.Stream;
  * <pre><ul>
  *  <li>trainData - данные для обучения (предполагается использование при обучении);</li>
  *  <li>testData  - данные для тестов (предполагается использование для оценки во время обучения);</li>
- *  <li>validData - данные для валидации (предполагается использование для оценки после обучения).</li>
+ *  <li>validData - данные для валидации (предполагается использование для оценки после обучения);</li>
+ *  <li>poolData  - пул кандидатов для адаптивной обучающей выборки (может отсутствовать, см.
+ *                  {@link models.trainers.AdaptiveSampling}).</li>
  * </ul></pre>
  */
 public class Dataset implements DeepCopyable {
     private final Data validData;
     private final Data testData;
     private final Data trainData;
+    private final Data poolData;
 
     /**
      * Конструктор, см описание параметров в {@link Dataset}
      */
-    public Dataset(Data trainData, Data testData, Data validData) {
+    public Dataset(Data trainData, Data testData, Data validData, Data poolData) {
         this.validData = validData;
         this.testData = testData;
         this.trainData = trainData;
+        this.poolData = poolData;
+    }
+
+    /**
+     * Конструктор выборки без пула кандидатов, см описание параметров в {@link Dataset}
+     */
+    public Dataset(Data trainData, Data testData, Data validData) {
+        this(trainData, testData, validData, null);
     }
 
     public Data getValidData() {
@@ -40,6 +52,10 @@ public class Dataset implements DeepCopyable {
         return trainData;
     }
 
+    public Data getPoolData() {
+        return poolData;
+    }
+
     public double getMinValue() {
         return Stream.of(trainData, testData, validData)
                 .map(data -> Math.min(data.getInputs().min(), data.getOutputs().min()))
@@ -55,29 +71,46 @@ public class Dataset implements DeepCopyable {
     }
 
     public int getInputsCount() {
-        return trainData.getInputs().getCols();
+        return trainData.getInputsCount();
     }
 
     public int getOutputsCount() {
-        return trainData.getOutputs().getCols();
+        return trainData.getOutputsCount();
     }
 
     public int getRows() {
         return trainData.getRows();
     }
 
+    /**
+     * Получение выборки заданной точности, см. {@link Data#toPrecision}
+     * @param precision точность
+     * @return          выборка заданной точности
+     */
+    public Dataset toPrecision(Precision precision) {
+        Data train = trainData.toPrecision(precision);
+        Data test = testData.toPrecision(precision);
+        Data valid = validData.toPrecision(precision);
+        Data pool = poolData == null ? null : poolData.toPrecision(precision);
+        if (train == trainData && test == testData && valid == validData && pool == poolData)
+            return this;
+        return new Dataset(train, test, valid, pool);
+    }
+
     @Override
     public String toString() {
         return "Dataset{" +
                 "validData=" + validData +
                 ", testData=" + testData +
                 ", trainData=" + trainData +
+                ", poolData=" + poolData +
                 '}';
     }
 
     @Override
     public Dataset deepCopy() {
-        return new Dataset(trainData.deepCopy(), testData.deepCopy(), validData.deepCopy());
+        return new Dataset(trainData.deepCopy(), testData.deepCopy(), validData.deepCopy(),
+                poolData == null ? null : poolData.deepCopy());
     }
 
     @Override
@@ -87,11 +120,12 @@ public class Dataset implements DeepCopyable {
         Dataset dataset = (Dataset) o;
         return validData.equals(dataset.validData) &&
                 testData.equals(dataset.testData) &&
-                trainData.equals(dataset.trainData);
+                trainData.equals(dataset.trainData) &&
+                Objects.equals(poolData, dataset.poolData);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(validData, testData, trainData);
+        return Objects.hash(validData, testData, trainData, poolData);
     }
 }
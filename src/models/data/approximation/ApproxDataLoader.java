@@ -1,11 +1,17 @@
 package models.data.approximation;
 
+import models.data.CartesianData;
 import models.data.Data;
 import models.data.DataLoader;
 import models.data.LoadParameters;
 import models.data.approximation.functions.Function;
+import models.data.approximation.functions.VariableRange;
+import models.data.approximation.sampling.Sampler;
+import models.data.approximation.sampling.SobolSampler;
+import models.math.CartesianProduct;
 import models.math.Matrix;
 import models.math.MatrixUtils;
+import models.math.Precision;
 
 import java.util.Arrays;
 import java.util.logging.Logger;
@@ -17,6 +23,10 @@ import java.util.stream.IntStream;
  */
 public class ApproxDataLoader extends DataLoader {
     private static final transient Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    /**
+     * Количество строк в части при вычислении выходов, хранящихся вне кучи
+     */
+    private static final int OFF_HEAP_OUTPUTS_CHUNK = 1 << 16;
 
     public ApproxDataLoader() {}
 
@@ -29,8 +39,14 @@ public class ApproxDataLoader extends DataLoader {
     protected Data getTrainData(LoadParameters parameters) {
         if (parameters instanceof ApproxLoadParameters) {
             ApproxLoadParameters approxLoadParameters = (ApproxLoadParameters) parameters;
+            if (approxLoadParameters.getSamplingMode() != SamplingMode.GRID)
+                return getExtendedSampledData(approxLoadParameters.getFunction(),
+                        approxLoadParameters.getSamplingMode(), approxLoadParameters.getSamples(), 0,
+                        approxLoadParameters.getExtendingFactors(), approxLoadParameters.getNoiseMode(),
+                        approxLoadParameters.isOffHeap());
             return getExtendedData(approxLoadParameters.getFunction(), approxLoadParameters.getSizes(),
-                    approxLoadParameters.getExtendingFactors(), approxLoadParameters.getNoiseMode());
+                    approxLoadParameters.getExtendingFactors(), approxLoadParameters.getNoiseMode(),
+                    approxLoadParameters.isOffHeap(), approxLoadParameters.isVirtual());
         }
         throw new IllegalArgumentException("Не известный класс с параметрами: " + parameters);
     }
@@ -44,8 +60,14 @@ public class ApproxDataLoader extends DataLoader {
     protected Data getTestData(LoadParameters parameters) {
         if (parameters instanceof ApproxLoadParameters) {
             ApproxLoadParameters approxLoadParameters = (ApproxLoadParameters) parameters;
+            if (approxLoadParameters.getSamplingMode() != SamplingMode.GRID)
+                return getSampledData(approxLoadParameters.getFunction(), approxLoadParameters.getSamplingMode(),
+                        approxLoadParameters.getTestSamples(), approxLoadParameters.getSamples(),
+                        getUnitFactors(approxLoadParameters.getFunction()), approxLoadParameters.getNoiseMode(),
+                        approxLoadParameters.isOffHeap());
             return getData(approxLoadParameters.getFunction(), approxLoadParameters.getTestSizes(),
-                    approxLoadParameters.getNoiseMode());
+                    approxLoadParameters.getNoiseMode(), approxLoadParameters.isOffHeap(),
+                    approxLoadParameters.isVirtual());
         }
         throw new IllegalArgumentException("Не известный класс с параметрами: " + parameters);
     }
@@ -59,8 +81,40 @@ public class ApproxDataLoader extends DataLoader {
     protected Data getValidData(LoadParameters parameters) {
         if (parameters instanceof ApproxLoadParameters) {
             ApproxLoadParameters approxLoadParameters = (ApproxLoadParameters) parameters;
+            if (approxLoadParameters.getSamplingMode() != SamplingMode.GRID)
+                return getSampledData(approxLoadParameters.getFunction(), approxLoadParameters.getSamplingMode(),
+                        approxLoadParameters.getValidSamples(),
+                        (long) approxLoadParameters.getSamples() + approxLoadParameters.getTestSamples(),
+                        getUnitFactors(approxLoadParameters.getFunction()), approxLoadParameters.getNoiseMode(),
+                        approxLoadParameters.isOffHeap());
             return getData(approxLoadParameters.getFunction(), approxLoadParameters.getValidSizes(),
-                    approxLoadParameters.getNoiseMode());
+                    approxLoadParameters.getNoiseMode(), approxLoadParameters.isOffHeap(),
+                    approxLoadParameters.isVirtual());
+        }
+        throw new IllegalArgumentException("Не известный класс с параметрами: " + parameters);
+    }
+
+    /**
+     * Получение пула кандидатов для адаптивной обучающей выборки. Точки пула берутся из последовательности Соболя
+     * (Холтона, если переменных больше, чем поддерживает последовательность Соболя) без расширения и зашумления; при
+     * выборе входных значений той же последовательностью пропускаются точки остальных выборок
+     * @param parameters параметры выборки
+     * @return           пул кандидатов или null, если количество точек пула не задано
+     */
+    @Override
+    protected Data getPoolData(LoadParameters parameters) {
+        if (parameters instanceof ApproxLoadParameters) {
+            ApproxLoadParameters approxLoadParameters = (ApproxLoadParameters) parameters;
+            if (approxLoadParameters.getPoolSamples() < 1)
+                return null;
+            final Function function = approxLoadParameters.getFunction();
+            final SamplingMode samplingMode = function.getInputsCount() <= SobolSampler.MAX_DIMENSIONS ?
+                    SamplingMode.SOBOL : SamplingMode.HALTON;
+            final long skip = approxLoadParameters.getSamplingMode() == samplingMode ?
+                    (long) approxLoadParameters.getSamples() + approxLoadParameters.getTestSamples() +
+                            approxLoadParameters.getValidSamples() : 0;
+            return getSampledData(function, samplingMode, approxLoadParameters.getPoolSamples(), skip,
+                    getUnitFactors(function), NoiseMode.NONE, approxLoadParameters.isOffHeap());
         }
         throw new IllegalArgumentException("Не известный класс с параметрами: " + parameters);
     }
@@ -70,11 +124,12 @@ public class ApproxDataLoader extends DataLoader {
      * @param function  функция
      * @param sizes     размеры выборки
      * @param noiseMode тип зашумления выборки
+     * @param offHeap   хранить ли выборку вне кучи
+     * @param virtual   вычислять ли входы по номеру строки
      * @return          выборка
      */
-    private Data getData(Function function, int[] sizes, NoiseMode noiseMode) {
-        Matrix inputs = getInputs(function, sizes, noiseMode);
-        return new Data(inputs, getOutputs(function, inputs));
+    private Data getData(Function function, int[] sizes, NoiseMode noiseMode, boolean offHeap, boolean virtual) {
+        return getData(function, getInputRanges(function, sizes, noiseMode), offHeap, virtual);
     }
 
     /**
@@ -83,13 +138,15 @@ public class ApproxDataLoader extends DataLoader {
      * @param sizes            размеры выборки
      * @param extendingFactors коэффициенты расширения
      * @param noiseMode        тип зашумления выборки
+     * @param offHeap          хранить ли выборку вне кучи
+     * @param virtual          вычислять ли входы по номеру строки
      * @return                 расширенная выборка
      */
-    private Data getExtendedData(Function function, int[] sizes, double[] extendingFactors, NoiseMode noiseMode) {
+    private Data getExtendedData(Function function, int[] sizes, double[] extendingFactors, NoiseMode noiseMode,
+                                 boolean offHeap, boolean virtual) {
         try {  // оборачивание в try-catch, так как в результате расширения может быть получен диапазон,
                // где функция не определена
-            final Matrix inputs = getInputs(function, sizes, extendingFactors, noiseMode);
-            return new Data(inputs, getOutputs(function, inputs));
+            return getData(function, getInputRanges(function, sizes, extendingFactors, noiseMode), offHeap, virtual);
         } catch (Exception e) {
             logger.warning(String.format("Ошибка при вычислении функции \"%s\" от аргументов в диапазонах [%s]: %s\n" +
                             " Расширение не будет выполнено",
@@ -99,52 +156,177 @@ public class ApproxDataLoader extends DataLoader {
                             .collect(Collectors.toList()),
                     e.getMessage()));
             // вычисление без расширения
-            final Matrix inputs = getInputs(function, sizes, NoiseMode.NONE);
-            return new Data(inputs, getOutputs(function, inputs));
+            return getData(function, getInputRanges(function, sizes, NoiseMode.NONE), offHeap, virtual);
         }
     }
 
     /**
-     * Получение входных значений для выборки без расширения
+     * Получение выборки по диапазонам входных переменных. Входы выборки - декартово произведение диапазонов. Для
+     * виртуальной выборки ({@link CartesianData}) хранятся только диапазоны, а выходы вычисляются сразу, поэтому
+     * ошибки вычисления функции возникают при создании выборки, как и для обычной
+     * @param function функция
+     * @param ranges   диапазоны входных переменных (векторы-столбцы)
+     * @param offHeap  хранить ли выборку вне кучи
+     * @param virtual  вычислять ли входы по номеру строки
+     * @return         выборка
+     */
+    private Data getData(Function function, Matrix[] ranges, boolean offHeap, boolean virtual) {
+        if (virtual)  // выходы вычисляются пакетами через Function.calculateBatch (с разбиением строк на части)
+            return new CartesianData(new CartesianProduct(ranges), 1, new CartesianData.OutputsFunction() {
+                @Override
+                public void calculate(double[] inputs, double[] outputs) {
+                    outputs[0] = function.calculate(inputs);
+                }
+
+                @Override
+                public void calculateBatch(Matrix inputs, double[] outputs) {
+                    function.calculateBatch(inputs, outputs);
+                }
+            }, true, offHeap);
+        final Matrix inputs = offHeap ? MatrixUtils.getOffHeapCartesianProduct(ranges) :
+                MatrixUtils.cartesianProduct(ranges);
+        return new Data(inputs, getOutputs(function, inputs, offHeap));
+    }
+
+    /**
+     * Получение диапазонов входных переменных для выборки без расширения
      * @param function  функция
      * @param sizes     размеры выборки
      * @param noiseMode тип зашумления выборки
-     * @return          входы для выборки
+     * @return          диапазоны входных переменных
+     */
+    private Matrix[] getInputRanges(Function function, int[] sizes, NoiseMode noiseMode) {
+        return getInputRanges(function, sizes, getUnitFactors(function), noiseMode);
+    }
+
+    /**
+     * Получение единичных коэффициентов расширения (без расширения)
+     * @param function функция
+     * @return         коэффициенты расширения
      */
-    private Matrix getInputs(Function function, int[] sizes, NoiseMode noiseMode) {
-        return getInputs(function, sizes, IntStream.range(0, function.getInputsCount()).mapToDouble(i -> 1.0).toArray(),
-                noiseMode);
+    private static double[] getUnitFactors(Function function) {
+        return IntStream.range(0, function.getInputsCount()).mapToDouble(i -> 1.0).toArray();
+    }
+
+    /**
+     * Получение расширенной выборки из заданного количества точек (см. {@link SamplingMode}). Если функция не
+     * определена в расширенных диапазонах, выборка строится без расширения
+     * @param function         функция
+     * @param samplingMode     способ выбора точек
+     * @param samples          количество точек
+     * @param skip             количество пропускаемых точек квазислучайной последовательности
+     * @param extendingFactors коэффициенты расширения
+     * @param noiseMode        тип зашумления выборки
+     * @param offHeap          хранить ли выборку вне кучи
+     * @return                 выборка
+     */
+    private Data getExtendedSampledData(Function function, SamplingMode samplingMode, int samples, long skip,
+                                        double[] extendingFactors, NoiseMode noiseMode, boolean offHeap) {
+        try {
+            return getSampledData(function, samplingMode, samples, skip, extendingFactors, noiseMode, offHeap);
+        } catch (Exception e) {
+            logger.warning(String.format("Ошибка при вычислении функции \"%s\" от аргументов в диапазонах, " +
+                            "расширенных в %s раз: %s\n Расширение не будет выполнено",
+                    function.getExpression(), Arrays.toString(extendingFactors), e.getMessage()));
+            return getSampledData(function, samplingMode, samples, skip, getUnitFactors(function), NoiseMode.NONE,
+                    offHeap);
+        }
     }
 
     /**
-     * Получение входных значений для выборки с расширением
+     * Получение выборки из заданного количества точек (см. {@link SamplingMode}). Точки единичного гиперкуба (см.
+     * {@link Sampler}) отображаются на диапазоны переменных, расширенные относительно середины (см.
+     * {@link models.data.approximation.functions.VariableRange#getExtendedRange}). Выборки одной квазислучайной
+     * последовательности с разным количеством пропускаемых точек не пересекаются
+     * @param function         функция
+     * @param samplingMode     способ выбора точек
+     * @param samples          количество точек
+     * @param skip             количество пропускаемых точек квазислучайной последовательности
+     * @param extendingFactors коэффициенты расширения
+     * @param noiseMode        тип зашумления выборки (при {@link NoiseMode#EXTENDING} к точкам добавляются их
+     *                         зашумлённые копии)
+     * @param offHeap          хранить ли выборку вне кучи
+     * @return                 выборка
+     */
+    private Data getSampledData(Function function, SamplingMode samplingMode, int samples, long skip,
+                                double[] extendingFactors, NoiseMode noiseMode, boolean offHeap) {
+        final int cols = function.getInputsCount();
+        final double[] lefts = new double[cols];
+        final double[] widths = new double[cols];
+        for (int i = 0; i < cols; i++) {
+            final VariableRange range = function.getVariableRanges()[i];
+            final double halfRange = (range.getRight() - range.getLeft()) / 2.0 * extendingFactors[i];
+            lefts[i] = (range.getRight() + range.getLeft()) / 2.0 - halfRange;
+            widths[i] = 2.0 * halfRange;
+        }
+        final Sampler sampler = Sampler.of(samplingMode, cols, samples, skip);
+        final MatrixUtils.RowGenerator generator = (row, values) -> {
+            sampler.next(values);
+            for (int i = 0; i < cols; i++)
+                values[i] = lefts[i] + values[i] * widths[i];
+        };
+        final boolean extending = noiseMode.equals(NoiseMode.EXTENDING);
+        Matrix inputs;
+        if (offHeap && !extending)
+            inputs = MatrixUtils.getOffHeapMatrix(samples, cols, Precision.DOUBLE, generator);
+        else {
+            final double[] values = new double[samples * cols];
+            final double[] row = new double[cols];
+            for (int i = 0; i < samples; i++) {
+                generator.generate(i, row);
+                System.arraycopy(row, 0, values, i * cols, cols);
+            }
+            inputs = new Matrix(samples, cols, values);
+        }
+        if (extending) {
+            inputs = inputs.stack(inputs.add(MatrixUtils.getNoise(inputs)), 1);
+            if (offHeap)
+                inputs = inputs.toOffHeap();
+        }
+        return new Data(inputs, getOutputs(function, inputs, offHeap));
+    }
+
+    /**
+     * Получение диапазонов входных переменных для выборки с расширением (см.
+     * {@link models.data.approximation.functions.VariableRange#getExtendedRange})
      * @param function         функция
      * @param sizes            размеры выборки
      * @param extendingFactors коэффициенты для выборки
      * @param noiseMode        тип зашумления выборки
-     * @return                 входы для выборки
+     * @return                 диапазоны входных переменных
      */
-    private Matrix getInputs(Function function, int[] sizes, double[] extendingFactors, NoiseMode noiseMode) {
+    private Matrix[] getInputRanges(Function function, int[] sizes, double[] extendingFactors, NoiseMode noiseMode) {
         Matrix[] inputs = IntStream.range(0, function.getInputsCount())
                 .mapToObj(i -> function.getVariableRanges()[i].getExtendedRange(sizes[i], extendingFactors[i]))
                 .toArray(Matrix[]::new);
         if (noiseMode.equals(NoiseMode.EXTENDING))
             inputs = Arrays.stream(inputs).map(input -> input.stack(input.add(MatrixUtils.getNoise(input)), 1))
                     .toArray(Matrix[]::new);
-        return MatrixUtils.cartesianProduct(inputs);
+        return inputs;
     }
 
     /**
-     * Вычисление выходных значений
+     * Вычисление выходных значений (см. {@link Function#calculateBatch}). Выходы, хранящиеся вне кучи, вычисляются
+     * частями по OFF_HEAP_OUTPUTS_CHUNK строк, чтобы не создавать полную копию в куче
      * @param function функция
      * @param inputs   входные значения
+     * @param offHeap  хранить ли выходы вне кучи
      * @return         выходные значения
      */
-    private Matrix getOutputs(Function function, Matrix inputs) {
-        double[][] result = new double[inputs.getRows()][1];
-        for (int row = 0; row < inputs.getRows(); row++)
-            result[row][0] = function.calculate(inputs.getValue(row));
-        return new Matrix(result);
+    private Matrix getOutputs(Function function, Matrix inputs, boolean offHeap) {
+        final int rows = inputs.getRows();
+        if (offHeap) {
+            final double[] chunk = new double[Math.min(rows, OFF_HEAP_OUTPUTS_CHUNK)];
+            return MatrixUtils.getOffHeapMatrix(rows, 1, Precision.DOUBLE, (row, values) -> {
+                // строки генерируются подряд, поэтому очередная часть вычисляется на её первой строке
+                if (row % chunk.length == 0)
+                    function.calculateBatch(inputs.getRowSlice(row, Math.min(row + chunk.length, rows), 1), chunk);
+                values[0] = chunk[row % chunk.length];
+            });
+        }
+        final double[] result = new double[rows];
+        function.calculateBatch(inputs, result);
+        return new Matrix(rows, 1, result);
     }
 
     @Override
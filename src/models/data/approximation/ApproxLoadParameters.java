@@ -16,9 +16,20 @@ import java.util.Arrays;
  *  <li>sizes            - размеры выборки;</li>
  *  <li>testSizes        - размеры тестовой выборки;</li>
  *  <li>validSizes       - размеры валидационной выборки;</li>
- *  <li>extendingFactors - коэффициенты расширения диапазонов входных переменных</li>
- *  <li>noiseMode        - тип зашумления выборки</li>
+ *  <li>extendingFactors - коэффициенты расширения диапазонов входных переменных;</li>
+ *  <li>noiseMode        - тип зашумления выборки;</li>
+ *  <li>offHeap          - хранить ли выборку вне кучи (см. {@link models.math.Matrix#toOffHeap()});</li>
+ *  <li>virtual          - вычислять ли входы выборки по номеру строки, не храня сетку (см.
+ *                         {@link models.data.CartesianData});</li>
+ *  <li>samplingMode     - способ выбора входных значений (null соответствует {@link SamplingMode#GRID});</li>
+ *  <li>samples          - количество точек обучающей выборки (кроме {@link SamplingMode#GRID});</li>
+ *  <li>testSamples      - количество точек тестовой выборки (кроме {@link SamplingMode#GRID});</li>
+ *  <li>validSamples     - количество точек валидационной выборки (кроме {@link SamplingMode#GRID});</li>
+ *  <li>poolSamples      - количество точек пула кандидатов для адаптивной обучающей выборки (см.
+ *                         {@link models.trainers.AdaptiveSampling}), 0 - без пула.</li>
  * </ul></pre>
+ * При выборе входных значений по сетке размер выборки равен произведению размеров по переменным, при остальных
+ * способах - заданному количеству точек, независимо от количества переменных.
  */
 @YamlSerializable
 public class ApproxLoadParameters extends LoadParameters implements DeepCopyable, Serializable {
@@ -27,18 +38,34 @@ public class ApproxLoadParameters extends LoadParameters implements DeepCopyable
     @YamlField private final int[] testSizes;
     @YamlField private final int[] validSizes;
     @YamlField private final double[] extendingFactors;
+    @YamlField private final boolean offHeap;
+    @YamlField private final boolean virtual;
+    @YamlField private final SamplingMode samplingMode;
+    @YamlField private final int samples;
+    @YamlField private final int testSamples;
+    @YamlField private final int validSamples;
+    @YamlField private final int poolSamples;
 
     /**
      * Конструктор, см. описание параметров в {@link ApproxLoadParameters}
      */
     public ApproxLoadParameters(Function function, int[] sizes, int[] testSizes,
-                                int[] validSizes, double[] extendingFactors, NoiseMode noiseMode) {
+                                int[] validSizes, double[] extendingFactors, NoiseMode noiseMode, boolean offHeap,
+                                boolean virtual, SamplingMode samplingMode, int samples, int testSamples,
+                                int validSamples, int poolSamples) {
         super(noiseMode);
         this.function = function;
         this.sizes = sizes;
         this.testSizes = testSizes;
         this.validSizes = validSizes;
         this.extendingFactors = extendingFactors;
+        this.offHeap = offHeap;
+        this.virtual = virtual;
+        this.samplingMode = samplingMode;
+        this.samples = samples;
+        this.testSamples = testSamples;
+        this.validSamples = validSamples;
+        this.poolSamples = poolSamples;
     }
 
     /**
@@ -50,7 +77,14 @@ public class ApproxLoadParameters extends LoadParameters implements DeepCopyable
                 null,
                 null,
                 null,
-                null);
+                null,
+                false,
+                false,
+                null,
+                0,
+                0,
+                0,
+                0);
     }
 
     public Function getFunction() {
@@ -73,6 +107,34 @@ public class ApproxLoadParameters extends LoadParameters implements DeepCopyable
         return extendingFactors;
     }
 
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public SamplingMode getSamplingMode() {
+        return samplingMode == null ? SamplingMode.GRID : samplingMode;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public int getTestSamples() {
+        return testSamples;
+    }
+
+    public int getValidSamples() {
+        return validSamples;
+    }
+
+    public int getPoolSamples() {
+        return poolSamples;
+    }
+
 
     /**
      * Получение пустого билдера
@@ -92,7 +154,14 @@ public class ApproxLoadParameters extends LoadParameters implements DeepCopyable
                 .sizes(Arrays.copyOf(sizes, sizes.length))
                 .testSizes(Arrays.copyOf(testSizes, testSizes.length))
                 .validSizes(Arrays.copyOf(validSizes, validSizes.length))
-                .extendingFactors(Arrays.copyOf(extendingFactors, extendingFactors.length));
+                .extendingFactors(Arrays.copyOf(extendingFactors, extendingFactors.length))
+                .offHeap(offHeap)
+                .virtual(virtual)
+                .samplingMode(getSamplingMode())
+                .samples(samples)
+                .testSamples(testSamples)
+                .validSamples(validSamples)
+                .poolSamples(poolSamples);
     }
 
     @Override
@@ -103,6 +172,13 @@ public class ApproxLoadParameters extends LoadParameters implements DeepCopyable
                 ", testSizes=" + Arrays.toString(testSizes) +
                 ", validSizes=" + Arrays.toString(validSizes) +
                 ", extendingFactors=" + Arrays.toString(extendingFactors) +
+                ", offHeap=" + offHeap +
+                ", virtual=" + virtual +
+                ", samplingMode=" + samplingMode +
+                ", samples=" + samples +
+                ", testSamples=" + testSamples +
+                ", validSamples=" + validSamples +
+                ", poolSamples=" + poolSamples +
                 '}';
     }
 
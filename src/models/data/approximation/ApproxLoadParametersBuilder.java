@@ -10,12 +10,15 @@ import java.util.stream.IntStream;
  * Билдер для {@link ApproxLoadParameters}, позволяющий не указывать некоторые параметры выборки и
  * использовать значения по умолчанию, также указывать размер тестовой (и валидационной) выборки как часть от
  * обучающей выборки или в абсолютных единицах, а также указывать одно значение в качестве коэффициента расширения.
+ * Для способов выбора входных значений, отличных от сетки (см. {@link SamplingMode}), задаётся общее количество точек
+ * ({@link #samples}), а количество точек тестовой и валидационной выборок по умолчанию вычисляется по тем же долям.
  */
 public class ApproxLoadParametersBuilder implements DeepCopyable {
     private static final double defaultTestPart = 0.5;
     private static final double defaultValidPart = 0.25;
     private static final double defaultExtendingFactor = 1.0;
     private static final NoiseMode defaultNoiseMode = NoiseMode.NONE;
+    private static final SamplingMode defaultSamplingMode = SamplingMode.GRID;
 
 
     private Function function;
@@ -38,6 +41,17 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
 
     private NoiseMode noiseMode;
 
+    private boolean offHeap;
+
+    private boolean virtual;
+
+    private SamplingMode samplingMode;
+    private int samples;
+    private int testSamples;
+    private int validSamples;
+
+    private int poolSamples;
+
     public ApproxLoadParametersBuilder() {}
 
     public ApproxLoadParametersBuilder function(Function function) {
@@ -110,6 +124,82 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
         return this;
     }
 
+    /**
+     * Хранение выборки вне кучи (см. {@link models.math.Matrix#toOffHeap()}): выборка строится сразу вне кучи и не
+     * копируется при копировании параметров обучения. Позволяет обучать сети на выборках, размер которых превышает
+     * размер кучи (ограничение задаётся параметром JVM -XX:MaxDirectMemorySize)
+     * @param offHeap хранить ли выборку вне кучи
+     * @return        билдер
+     */
+    public ApproxLoadParametersBuilder offHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    /**
+     * Вычисление входов выборки по номеру строки (см. {@link models.data.CartesianData}): хранятся только диапазоны
+     * переменных, а строки сетки вычисляются при формировании пакетов. Выходы вычисляются один раз и хранятся (вне
+     * кучи, если задан {@link #offHeap}). Позволяет обучать сети на сетках, входы которых не помещаются в память
+     * @param virtual вычислять ли входы по номеру строки
+     * @return        билдер
+     */
+    public ApproxLoadParametersBuilder virtual(boolean virtual) {
+        this.virtual = virtual;
+        return this;
+    }
+
+    /**
+     * Способ выбора входных значений выборки. Для способов, отличных от {@link SamplingMode#GRID}, размер выборки
+     * задаётся общим количеством точек ({@link #samples}), а не размерами по переменным
+     * @param samplingMode способ выбора входных значений
+     * @return             билдер
+     */
+    public ApproxLoadParametersBuilder samplingMode(SamplingMode samplingMode) {
+        this.samplingMode = samplingMode;
+        return this;
+    }
+
+    /**
+     * Количество точек обучающей выборки (кроме {@link SamplingMode#GRID})
+     * @param samples количество точек
+     * @return        билдер
+     */
+    public ApproxLoadParametersBuilder samples(int samples) {
+        this.samples = samples;
+        return this;
+    }
+
+    /**
+     * Количество точек тестовой выборки (по умолчанию - доля testPart от количества точек обучающей выборки)
+     * @param testSamples количество точек
+     * @return            билдер
+     */
+    public ApproxLoadParametersBuilder testSamples(int testSamples) {
+        this.testSamples = testSamples;
+        return this;
+    }
+
+    /**
+     * Количество точек валидационной выборки (по умолчанию - доля validPart от количества точек обучающей выборки)
+     * @param validSamples количество точек
+     * @return             билдер
+     */
+    public ApproxLoadParametersBuilder validSamples(int validSamples) {
+        this.validSamples = validSamples;
+        return this;
+    }
+
+    /**
+     * Количество точек пула кандидатов для адаптивной обучающей выборки (см.
+     * {@link models.trainers.AdaptiveSampling}), по умолчанию пул не строится
+     * @param poolSamples количество точек
+     * @return            билдер
+     */
+    public ApproxLoadParametersBuilder poolSamples(int poolSamples) {
+        this.poolSamples = poolSamples;
+        return this;
+    }
+
     public int getSize() {
         return size;
     }
@@ -130,6 +220,14 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
         return noiseMode;
     }
 
+    public SamplingMode getSamplingMode() {
+        return samplingMode;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
     /**
      * Получение {@link ApproxLoadParameters} по заданным параметрам. При построении происходит валидация.
      * В случае провала валидации выбрасывается IllegalStateException
@@ -138,14 +236,17 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
     public ApproxLoadParameters build() {
         validate();
         prepare();
-        return new ApproxLoadParameters(function, sizes, testSizes, validSizes, extendingFactors, noiseMode);
+        return new ApproxLoadParameters(function, sizes, testSizes, validSizes, extendingFactors, noiseMode,
+                offHeap, virtual, samplingMode, samples, testSamples, validSamples, poolSamples);
     }
 
     /**
-     * Проверка заполненности полей. Обязательными являются - функция и размер обучающей выборки
+     * Проверка заполненности полей. Обязательными являются - функция и размер обучающей выборки (для способов выбора
+     * входных значений, отличных от сетки, - количество точек)
      */
     private void validate() {
-        if (function == null || (size < 1 && sizes == null))
+        final boolean isGrid = samplingMode == null || samplingMode == SamplingMode.GRID;
+        if (function == null || (isGrid && size < 1 && sizes == null) || (!isGrid && samples < 1))
             throw new IllegalStateException("Некорректное состояние билдера: " + this);
     }
 
@@ -163,6 +264,10 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
 
         noiseMode = noiseMode == null ? defaultNoiseMode : noiseMode;
 
+        samplingMode = samplingMode == null ? defaultSamplingMode : samplingMode;
+        testSamples = testSamples < 1 ? (int) (testPart * samples) : testSamples;
+        validSamples = validSamples < 1 ? (int) (validPart * samples) : validSamples;
+
         int inputsCount = function.getInputsCount();
 
         if (sizes == null)
@@ -198,6 +303,13 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
                 ", validSizes=" + Arrays.toString(validSizes) +
                 ", extendingFactor=" + extendingFactor +
                 ", extendingFactors=" + Arrays.toString(extendingFactors) +
+                ", offHeap=" + offHeap +
+                ", virtual=" + virtual +
+                ", samplingMode=" + samplingMode +
+                ", samples=" + samples +
+                ", testSamples=" + testSamples +
+                ", validSamples=" + validSamples +
+                ", poolSamples=" + poolSamples +
                 '}';
     }
 
@@ -216,6 +328,13 @@ public class ApproxLoadParametersBuilder implements DeepCopyable {
                 .validSize(validSize)
                 .validSizes(validSizes)
                 .extendingFactor(extendingFactor)
-                .extendingFactors(extendingFactors);
+                .extendingFactors(extendingFactors)
+                .offHeap(offHeap)
+                .virtual(virtual)
+                .samplingMode(samplingMode)
+                .samples(samples)
+                .testSamples(testSamples)
+                .validSamples(validSamples)
+                .poolSamples(poolSamples);
     }
 }
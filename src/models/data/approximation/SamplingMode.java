@@ -0,0 +1,33 @@
+package models.data.approximation;
+
+/**
+ * Способ выбора входных значений выборки
+ */
+public enum SamplingMode {
+    /**
+     * Декартово произведение равномерных сеток по каждой переменной (размер выборки - произведение размеров по
+     * переменным)
+     */
+    GRID,
+
+    /**
+     * Независимые равномерно распределённые случайные точки
+     */
+    UNIFORM,
+
+    /**
+     * Латинский гиперкуб: диапазон каждой переменной делится на равные интервалы по количеству точек, и в каждый
+     * интервал попадает ровно одна точка
+     */
+    LATIN_HYPERCUBE,
+
+    /**
+     * Квазислучайная последовательность Холтона (обратные по основаниям-простым числам)
+     */
+    HALTON,
+
+    /**
+     * Квазислучайная последовательность Соболя
+     */
+    SOBOL
+}
@@ -36,11 +36,11 @@ public class BinaryMatrix implements DeepCopyable, Serializable {
 
     public Matrix toMatrix() {
         final BinaryCoder binaryCoder = new BinaryCoder();
-        double[][] result = new double[rows][cols];
+        double[] result = new double[rows * cols];
         for (int row = 0; row < rows; row++)
             for (int col = 0; col < cols; col++)
-                result[row][col] = binaryCoder.decodeDouble(values[row][col]);
-        return new Matrix(result);
+                result[row * cols + col] = binaryCoder.decodeDouble(values[row][col]);
+        return new Matrix(rows, cols, result);
     }
 
     private static BitArray[][] getValuesFromMatrix(Matrix matrix, int reducingFactor) {
@@ -0,0 +1,65 @@
+package models.data.approximation.functions;
+
+import models.data.approximation.functions.expressions.Expression;
+import models.data.approximation.functions.expressions.ExpressionParser;
+import models.math.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * Функция, заданная только строковым представлением (например, "f(x1, x2) = sin(x1) * x2"), без отдельного класса.
+ * Выражение разбирается в дерево вычисления со свёрткой констант (см. {@link ExpressionParser}), пакетное вычисление
+ * выполняется блоками строк по столбцам (см. {@link Expression}). В yaml-описании экспериментов такая функция
+ * задаётся классом models.data.approximation.functions.ExpressionFunction, выражением и диапазонами переменных.
+ * Дерево вычисления не сериализуется и строится при первом вычислении после десериализации.
+ */
+public class ExpressionFunction extends Function {
+    private transient Expression compiled;
+
+    /**
+     * Конструктор, cм. описание параметров в {@link Function}. Выражение разбирается сразу, поэтому ошибки в нём
+     * обнаруживаются при создании функции
+     */
+    public ExpressionFunction(String expression, VariableRange[] variableRanges) {
+        super(expression, variableRanges);
+        this.compiled = ExpressionParser.parse(expression, getInputsCount());
+    }
+
+    /**
+     * Конструктор для сериализации
+     */
+    private ExpressionFunction() {
+        super(null, null);
+    }
+
+    /**
+     * Получение дерева вычисления (при первом обращении после десериализации выражение разбирается)
+     * @return дерево вычисления
+     */
+    public Expression getCompiled() {
+        Expression result = compiled;
+        if (result == null) {  // дерево неизменяемо, поэтому повторный разбор в другом треде безопасен
+            result = ExpressionParser.parse(expression, getInputsCount());
+            compiled = result;
+        }
+        return result;
+    }
+
+    @Override
+    public double calculate(double ... arguments) {
+        return getCompiled().calculate(arguments);
+    }
+
+    @Override
+    public void calculateBatch(Matrix inputs, double[] outputs) {
+        assertBatch(inputs, outputs);
+        final Expression expression = getCompiled();
+        forEachRow(inputs.getRows(), (from, to) -> expression.calculate(inputs, from, to, outputs));
+    }
+
+    @Override
+    public ExpressionFunction deepCopy() {
+        return new ExpressionFunction(expression,
+                Arrays.stream(variableRanges).map(VariableRange::deepCopy).toArray(VariableRange[]::new));
+    }
+}
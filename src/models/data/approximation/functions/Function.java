@@ -1,6 +1,8 @@
 package models.data.approximation.functions;
 
 import models.data.approximation.functions.impl.*;
+import models.math.Matrix;
+import models.math.MatrixParallelism;
 import serialization.annotations.YamlField;
 import serialization.annotations.YamlSerializable;
 import utils.ExceptionUtils;
@@ -20,6 +22,12 @@ import java.util.Arrays;
  */
 @YamlSerializable
 public abstract class Function implements DeepCopyable, Serializable {
+    /**
+     * Примерный объём работы (количество операций) вычисления функции для одной строки входов, используется для
+     * решения о разбиении строк на части (см. {@link MatrixParallelism#forRange})
+     */
+    protected static final long ROW_WORK = 32;
+
     @YamlField protected final String expression;
     @YamlField protected final VariableRange[] variableRanges;
 
@@ -46,6 +54,48 @@ public abstract class Function implements DeepCopyable, Serializable {
     // логика вычислений определяется наследниками
     public abstract double calculate(double ... arguments);
 
+    /**
+     * Вычисление функции для каждой строки матрицы входов. Строки вычисляются независимо и при включённом
+     * параллельном режиме (см. {@link MatrixParallelism}) разбиваются на части. Реализация по умолчанию переиспользует
+     * один массив аргументов для всех строк части и вызывает {@link #calculate}; наследники могут переопределить
+     * метод, читая значения входов напрямую. Результат совпадает с построчным вызовом {@link #calculate}
+     * @param inputs  матрица входов размерности (rows; getInputsCount())
+     * @param outputs массив для значений функции (длина не меньше rows, значение для строки row записывается в
+     *                outputs[row])
+     */
+    public void calculateBatch(Matrix inputs, double[] outputs) {
+        assertBatch(inputs, outputs);
+        forEachRow(inputs.getRows(), (from, to) -> {
+            final double[] arguments = new double[inputs.getCols()];
+            for (int row = from; row < to; row++) {
+                for (int col = 0; col < arguments.length; col++)
+                    arguments[col] = inputs.getValue(row, col);
+                outputs[row] = calculate(arguments);
+            }
+        });
+    }
+
+    /**
+     * Проверка соответствия размерностей входов и массива для значений функции
+     * @param inputs  матрица входов
+     * @param outputs массив для значений функции
+     */
+    protected void assertBatch(Matrix inputs, double[] outputs) {
+        if (inputs.getCols() != getInputsCount() || outputs.length < inputs.getRows())
+            throw new IllegalArgumentException(String.format(
+                    "Размерности входов (%d; %d) и длина массива значений (%d) не соответствуют функции %d переменных",
+                    inputs.getRows(), inputs.getCols(), outputs.length, getInputsCount()));
+    }
+
+    /**
+     * Выполнение действия над строками [0; rows), при включённом параллельном режиме - по частям
+     * @param rows   количество строк
+     * @param action действие над диапазоном строк
+     */
+    protected static void forEachRow(int rows, MatrixParallelism.RangeAction action) {
+        MatrixParallelism.forRange(rows, rows * ROW_WORK, action);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
@@ -0,0 +1,135 @@
+package models.data.approximation.functions.expressions;
+
+import models.math.Matrix;
+
+/**
+ * Бинарная операция (арифметическая операция или функция двух аргументов). При пакетном вычислении
+ * аргумент-константа не записывается в буфер, а используется напрямую. Атрибуты модели:
+ * <pre><ul>
+ *  <li>operator - операция;</li>
+ *  <li>left     - левый (первый) аргумент;</li>
+ *  <li>right    - правый (второй) аргумент.</li>
+ * </ul></pre>
+ */
+public class BinaryOperation extends Expression {
+    private final Operator operator;
+    private final Expression left;
+    private final Expression right;
+
+    /**
+     * Бинарные операции. Имя операции совпадает с символом операции или именем функции в выражении
+     */
+    public enum Operator {
+        ADD("+"), SUBTRACT("-"), MULTIPLY("*"), DIVIDE("/"), POWER("^"), MIN("min"), MAX("max");
+
+        private final String name;
+
+        Operator(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Получение функции двух аргументов по имени
+         * @param name имя
+         * @return     операция или null, если функции с таким именем нет
+         */
+        public static Operator of(String name) {
+            if (name.equals("pow"))
+                return POWER;
+            if (name.equals(MIN.name))
+                return MIN;
+            if (name.equals(MAX.name))
+                return MAX;
+            return null;
+        }
+
+        /**
+         * Применение операции
+         * @param left  левый аргумент
+         * @param right правый аргумент
+         * @return      результат
+         */
+        public double apply(double left, double right) {
+            switch (this) {
+                case ADD: return left + right;
+                case SUBTRACT: return left - right;
+                case MULTIPLY: return left * right;
+                case DIVIDE: return left / right;
+                case POWER: return Math.pow(left, right);
+                case MIN: return Math.min(left, right);
+                case MAX: return Math.max(left, right);
+                default: throw new IllegalStateException("Неизвестная бинарная операция: " + this);
+            }
+        }
+    }
+
+    /**
+     * Конструктор, см. описание параметров в {@link BinaryOperation}. Для построения узла со свёрткой констант
+     * используется {@link #of}
+     */
+    public BinaryOperation(Operator operator, Expression left, Expression right) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Построение узла: если оба аргумента - константы, операция вычисляется сразу
+     * @param operator операция
+     * @param left     левый аргумент
+     * @param right    правый аргумент
+     * @return         узел
+     */
+    public static Expression of(Operator operator, Expression left, Expression right) {
+        if (left instanceof Constant && right instanceof Constant)
+            return new Constant(operator.apply(((Constant) left).getValue(), ((Constant) right).getValue()));
+        return new BinaryOperation(operator, left, right);
+    }
+
+    @Override
+    public double calculate(double[] arguments) {
+        return operator.apply(left.calculate(arguments), right.calculate(arguments));
+    }
+
+    @Override
+    protected void calculate(Matrix inputs, int from, int count, double[][] buffers, int depth) {
+        final double[] values = buffers[depth];
+        if (right instanceof Constant) {
+            final double value = ((Constant) right).getValue();
+            left.calculate(inputs, from, count, buffers, depth);
+            for (int i = 0; i < count; i++)
+                values[i] = operator.apply(values[i], value);
+        } else if (left instanceof Constant) {
+            final double value = ((Constant) left).getValue();
+            right.calculate(inputs, from, count, buffers, depth);
+            for (int i = 0; i < count; i++)
+                values[i] = operator.apply(value, values[i]);
+        } else {
+            final double[] rightValues = buffers[depth + 1];
+            left.calculate(inputs, from, count, buffers, depth);
+            right.calculate(inputs, from, count, buffers, depth + 1);
+            for (int i = 0; i < count; i++)
+                values[i] = operator.apply(values[i], rightValues[i]);
+        }
+    }
+
+    @Override
+    protected int getHeight() {
+        if (right instanceof Constant)
+            return left.getHeight();
+        if (left instanceof Constant)
+            return right.getHeight();
+        return Math.max(left.getHeight(), right.getHeight() + 1);
+    }
+
+    @Override
+    public String toString() {
+        if (operator == Operator.MIN || operator == Operator.MAX)
+            return operator.getName() + "(" + left + ", " + right + ")";
+        return "(" + left + " " + operator.getName() + " " + right + ")";
+    }
+}
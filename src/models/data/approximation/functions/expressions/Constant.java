@@ -0,0 +1,43 @@
+package models.data.approximation.functions.expressions;
+
+import models.math.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * Константа (в том числе результат свёртки константных подвыражений при разборе). Атрибуты модели:
+ * <pre><ul>
+ *  <li>value - значение.</li>
+ * </ul></pre>
+ */
+public class Constant extends Expression {
+    private final double value;
+
+    public Constant(double value) {
+        this.value = value;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public double calculate(double[] arguments) {
+        return value;
+    }
+
+    @Override
+    protected void calculate(Matrix inputs, int from, int count, double[][] buffers, int depth) {
+        Arrays.fill(buffers[depth], 0, count, value);
+    }
+
+    @Override
+    protected int getHeight() {
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,65 @@
+package models.data.approximation.functions.expressions;
+
+import models.math.Matrix;
+
+import java.io.Serializable;
+
+/**
+ * Узел дерева вычисления выражения (см. {@link ExpressionParser}). Дерево неизменяемо, поэтому может использоваться
+ * из нескольких тредов одновременно. Вычисление возможно двумя способами:
+ * <pre><ul>
+ *  <li>для одной строки аргументов ({@link #calculate(double[])}) - рекурсивный обход дерева без выделения памяти;</li>
+ *  <li>для диапазона строк матрицы входов ({@link #calculate(Matrix, int, int, double[])}) - строки обрабатываются
+ *      блоками по BLOCK_SIZE, каждый узел вычисляется сразу для всего блока в массиве-буфере (по столбцам), поэтому
+ *      обход дерева выполняется один раз на блок, а не на строку. Буферы выделяются один раз на диапазон.</li>
+ * </ul></pre>
+ * Оба способа выполняют одни и те же операции в одном порядке, поэтому результаты совпадают.
+ */
+public abstract class Expression implements Serializable {
+    /**
+     * Количество строк, вычисляемых за один обход дерева при пакетном вычислении
+     */
+    public static final int BLOCK_SIZE = 256;
+
+    /**
+     * Вычисление значения выражения
+     * @param arguments значения переменных
+     * @return          значение
+     */
+    public abstract double calculate(double[] arguments);
+
+    /**
+     * Вычисление значений выражения для строк [from; to) матрицы входов
+     * @param inputs  матрица входов (столбцы соответствуют переменным)
+     * @param from    номер первой строки
+     * @param to      номер строки, следующей за последней
+     * @param outputs массив для значений (значение для строки row записывается в outputs[row])
+     */
+    public void calculate(Matrix inputs, int from, int to, double[] outputs) {
+        if (from >= to)
+            return;
+        final double[][] buffers = new double[getHeight()][Math.min(BLOCK_SIZE, to - from)];
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int count = Math.min(BLOCK_SIZE, to - start);
+            calculate(inputs, start, count, buffers, 0);
+            System.arraycopy(buffers[0], 0, outputs, start, count);
+        }
+    }
+
+    /**
+     * Вычисление значений выражения для блока строк. Результат записывается в buffers[depth], узлы-потомки могут
+     * использовать буферы с номерами от depth до depth + getHeight() (не включительно)
+     * @param inputs  матрица входов
+     * @param from    номер первой строки блока
+     * @param count   количество строк в блоке
+     * @param buffers буферы
+     * @param depth   номер буфера для результата
+     */
+    protected abstract void calculate(Matrix inputs, int from, int count, double[][] buffers, int depth);
+
+    /**
+     * Количество буферов, необходимых для пакетного вычисления узла
+     * @return количество буферов
+     */
+    protected abstract int getHeight();
+}
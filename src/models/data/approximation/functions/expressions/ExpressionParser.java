@@ -0,0 +1,264 @@
+package models.data.approximation.functions.expressions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Разбор строкового представления функции в дерево вычисления ({@link Expression}). Строка может содержать заголовок
+ * с именами переменных ("f(x, y) = y * sin(x)"), иначе переменные называются x1, x2, ... (для функции одной переменной
+ * также x). Поддерживаются:
+ * <pre><ul>
+ *  <li>числа (в том числе в экспоненциальной записи) и константы pi, e;</li>
+ *  <li>операции +, -, *, /, ^ (возведение в степень, правоассоциативно), унарные + и -, скобки;</li>
+ *  <li>функции одного аргумента (см. {@link UnaryOperation.Operator}) и функции pow, min, max двух аргументов.</li>
+ * </ul></pre>
+ * Приоритет операций обычный: "-x^2" означает "-(x^2)", "2 * x / 3" означает "(2 * x) / 3". Константные подвыражения
+ * вычисляются при разборе ("sin(pi / 2) * x" становится "1.0 * x"). Порядок операций сохраняется, поэтому результат
+ * совпадает с вычислением той же формулы на Java. Атрибуты модели:
+ * <pre><ul>
+ *  <li>source    - разбираемая строка (полностью);</li>
+ *  <li>body      - разбираемая часть строки (без заголовка);</li>
+ *  <li>offset    - смещение body относительно начала source (для сообщений об ошибках);</li>
+ *  <li>variables - имена переменных;</li>
+ *  <li>alias     - дополнительное имя первой переменной (x для функции одной переменной без заголовка, иначе null);</li>
+ *  <li>position  - текущая позиция в body.</li>
+ * </ul></pre>
+ */
+public class ExpressionParser {
+    private final String source;
+    private final String body;
+    private final int offset;
+    private final List<String> variables;
+    private final String alias;
+    private int position;
+
+    /**
+     * Разбор выражения
+     * @param source         строковое представление функции
+     * @param variablesCount количество переменных функции
+     * @return               дерево вычисления
+     */
+    public static Expression parse(String source, int variablesCount) {
+        return new ExpressionParser(source, variablesCount).parse();
+    }
+
+    private ExpressionParser(String source, int variablesCount) {
+        if (source == null || source.isBlank())
+            throw new IllegalArgumentException("Отсутствует выражение функции");
+        this.source = source;
+        final int equalsIndex = source.indexOf('=');
+        if (equalsIndex < 0) {
+            body = source;
+            offset = 0;
+            variables = IntStream.rangeClosed(1, variablesCount).mapToObj(i -> "x" + i)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            alias = variablesCount == 1 ? "x" : null;
+        } else {
+            body = source.substring(equalsIndex + 1);
+            offset = equalsIndex + 1;
+            variables = parseHeader(source.substring(0, equalsIndex).trim());
+            alias = null;
+            if (variables.size() != variablesCount)
+                throw error(String.format("в заголовке %d переменных, а у функции %d",
+                        variables.size(), variablesCount));
+        }
+    }
+
+    /**
+     * Разбор заголовка вида "f(x1, x2)"
+     * @param header заголовок
+     * @return       имена переменных
+     */
+    private List<String> parseHeader(String header) {
+        final int open = header.indexOf('(');
+        if (open < 0 || !header.endsWith(")") || !isIdentifier(header.substring(0, open).trim()))
+            throw error("заголовок должен иметь вид f(x1, x2, ...)");
+        final List<String> result = Arrays.stream(header.substring(open + 1, header.length() - 1).split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
+        for (String name: result)
+            if (!isIdentifier(name) || result.indexOf(name) != result.lastIndexOf(name))
+                throw error("недопустимое или повторяющееся имя переменной '" + name + "'");
+        return result;
+    }
+
+    private static boolean isIdentifier(String name) {
+        return name.matches("[A-Za-z_][A-Za-z0-9_]*");
+    }
+
+    private Expression parse() {
+        final Expression result = parseSum();
+        skipSpaces();
+        if (position < body.length())
+            throw error("неожиданный символ '" + body.charAt(position) + "'");
+        return result;
+    }
+
+    /**
+     * sum := product (('+' | '-') product)*
+     */
+    private Expression parseSum() {
+        Expression result = parseProduct();
+        while (true) {
+            if (accept('+'))
+                result = BinaryOperation.of(BinaryOperation.Operator.ADD, result, parseProduct());
+            else if (accept('-'))
+                result = BinaryOperation.of(BinaryOperation.Operator.SUBTRACT, result, parseProduct());
+            else
+                return result;
+        }
+    }
+
+    /**
+     * product := unary (('*' | '/') unary)*
+     */
+    private Expression parseProduct() {
+        Expression result = parseUnary();
+        while (true) {
+            if (accept('*'))
+                result = BinaryOperation.of(BinaryOperation.Operator.MULTIPLY, result, parseUnary());
+            else if (accept('/'))
+                result = BinaryOperation.of(BinaryOperation.Operator.DIVIDE, result, parseUnary());
+            else
+                return result;
+        }
+    }
+
+    /**
+     * unary := ('+' | '-') unary | power
+     */
+    private Expression parseUnary() {
+        if (accept('+'))
+            return parseUnary();
+        if (accept('-'))
+            return UnaryOperation.of(UnaryOperation.Operator.NEGATE, parseUnary());
+        return parsePower();
+    }
+
+    /**
+     * power := primary ('^' unary)?
+     */
+    private Expression parsePower() {
+        final Expression base = parsePrimary();
+        if (accept('^'))
+            return BinaryOperation.of(BinaryOperation.Operator.POWER, base, parseUnary());
+        return base;
+    }
+
+    /**
+     * primary := number | constant | variable | function '(' arguments ')' | '(' sum ')'
+     */
+    private Expression parsePrimary() {
+        skipSpaces();
+        if (position >= body.length())
+            throw error("неожиданный конец выражения");
+        if (accept('(')) {
+            final Expression result = parseSum();
+            expect(')');
+            return result;
+        }
+        final char c = body.charAt(position);
+        if (Character.isDigit(c) || c == '.')
+            return parseNumber();
+        if (!Character.isLetter(c) && c != '_')
+            throw error("неожиданный символ '" + c + "'");
+        final int start = position;
+        while (position < body.length() &&
+                (Character.isLetterOrDigit(body.charAt(position)) || body.charAt(position) == '_'))
+            position++;
+        final String name = body.substring(start, position);
+        if (accept('('))
+            return parseFunction(name, start);
+        final int index = variables.indexOf(name);
+        if (index >= 0)
+            return new Variable(index, name);
+        if (name.equals(alias))
+            return new Variable(0, name);
+        if (name.equals("pi"))
+            return new Constant(Math.PI);
+        if (name.equals("e"))
+            return new Constant(Math.E);
+        position = start;
+        throw error("неизвестная переменная или константа '" + name + "'");
+    }
+
+    /**
+     * Разбор аргументов функции (открывающая скобка уже прочитана)
+     * @param name  имя функции
+     * @param start позиция имени функции
+     * @return      узел
+     */
+    private Expression parseFunction(String name, int start) {
+        final List<Expression> arguments = new ArrayList<>();
+        arguments.add(parseSum());
+        while (accept(','))
+            arguments.add(parseSum());
+        expect(')');
+        final UnaryOperation.Operator unary = UnaryOperation.Operator.of(name);
+        final BinaryOperation.Operator binary = BinaryOperation.Operator.of(name);
+        if (unary != null && arguments.size() == 1)
+            return UnaryOperation.of(unary, arguments.get(0));
+        if (binary != null && arguments.size() == 2)
+            return BinaryOperation.of(binary, arguments.get(0), arguments.get(1));
+        position = start;
+        if (unary == null && binary == null)
+            throw error("неизвестная функция '" + name + "'");
+        throw error(String.format("функция '%s' не принимает %d аргументов", name, arguments.size()));
+    }
+
+    private Expression parseNumber() {
+        final int start = position;
+        while (position < body.length() && (Character.isDigit(body.charAt(position)) || body.charAt(position) == '.'))
+            position++;
+        // экспонента читается, только если за 'e' следует число (иначе 'e' - константа или начало имени)
+        if (position < body.length() && (body.charAt(position) == 'e' || body.charAt(position) == 'E')) {
+            int next = position + 1;
+            if (next < body.length() && (body.charAt(next) == '+' || body.charAt(next) == '-'))
+                next++;
+            if (next < body.length() && Character.isDigit(body.charAt(next))) {
+                position = next;
+                while (position < body.length() && Character.isDigit(body.charAt(position)))
+                    position++;
+            }
+        }
+        try {
+            return new Constant(Double.parseDouble(body.substring(start, position)));
+        } catch (NumberFormatException e) {
+            final String number = body.substring(start, position);
+            position = start;
+            throw error("недопустимое число '" + number + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (position < body.length() && Character.isWhitespace(body.charAt(position)))
+            position++;
+    }
+
+    /**
+     * Чтение заданного символа (с пропуском пробелов перед ним)
+     * @param c символ
+     * @return  true, если символ прочитан
+     */
+    private boolean accept(char c) {
+        skipSpaces();
+        if (position < body.length() && body.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c))
+            throw error("ожидается '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format(
+                "Ошибка разбора выражения '%s' (позиция %d): %s", source, offset + position, message));
+    }
+}
@@ -0,0 +1,148 @@
+package models.data.approximation.functions.expressions;
+
+import models.math.Matrix;
+
+/**
+ * Унарная операция (смена знака или функция одного аргумента). Атрибуты модели:
+ * <pre><ul>
+ *  <li>operator - операция;</li>
+ *  <li>operand  - аргумент.</li>
+ * </ul></pre>
+ */
+public class UnaryOperation extends Expression {
+    private final Operator operator;
+    private final Expression operand;
+
+    /**
+     * Унарные операции. Имя операции совпадает с именем функции в выражении (кроме смены знака)
+     */
+    public enum Operator {
+        NEGATE("-"), SIN("sin"), COS("cos"), TAN("tan"), ASIN("asin"), ACOS("acos"), ATAN("atan"), SINH("sinh"),
+        COSH("cosh"), TANH("tanh"), EXP("exp"), LOG("ln"), LOG10("lg"), SQRT("sqrt"), ABS("abs");
+
+        private final String name;
+
+        Operator(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Получение функции по имени (log - синоним ln)
+         * @param name имя
+         * @return     операция или null, если функции с таким именем нет
+         */
+        public static Operator of(String name) {
+            if (name.equals("log"))
+                return LOG;
+            for (Operator operator: values())
+                if (operator != NEGATE && operator.name.equals(name))
+                    return operator;
+            return null;
+        }
+
+        /**
+         * Применение операции
+         * @param value аргумент
+         * @return      результат
+         */
+        public double apply(double value) {
+            switch (this) {
+                case NEGATE: return -value;
+                case SIN: return Math.sin(value);
+                case COS: return Math.cos(value);
+                case TAN: return Math.tan(value);
+                case ASIN: return Math.asin(value);
+                case ACOS: return Math.acos(value);
+                case ATAN: return Math.atan(value);
+                case SINH: return Math.sinh(value);
+                case COSH: return Math.cosh(value);
+                case TANH: return Math.tanh(value);
+                case EXP: return Math.exp(value);
+                case LOG: return Math.log(value);
+                case LOG10: return Math.log10(value);
+                case SQRT: return Math.sqrt(value);
+                case ABS: return Math.abs(value);
+                default: throw new IllegalStateException("Неизвестная унарная операция: " + this);
+            }
+        }
+    }
+
+    /**
+     * Конструктор, см. описание параметров в {@link UnaryOperation}. Для построения узла со свёрткой констант
+     * используется {@link #of}
+     */
+    public UnaryOperation(Operator operator, Expression operand) {
+        this.operator = operator;
+        this.operand = operand;
+    }
+
+    /**
+     * Построение узла: если аргумент - константа, операция вычисляется сразу
+     * @param operator операция
+     * @param operand  аргумент
+     * @return         узел
+     */
+    public static Expression of(Operator operator, Expression operand) {
+        if (operand instanceof Constant)
+            return new Constant(operator.apply(((Constant) operand).getValue()));
+        return new UnaryOperation(operator, operand);
+    }
+
+    @Override
+    public double calculate(double[] arguments) {
+        return operator.apply(operand.calculate(arguments));
+    }
+
+    @Override
+    protected void calculate(Matrix inputs, int from, int count, double[][] buffers, int depth) {
+        operand.calculate(inputs, from, count, buffers, depth);
+        final double[] values = buffers[depth];
+        switch (operator) {  // частые операции вычисляются без ветвления внутри цикла
+            case NEGATE:
+                for (int i = 0; i < count; i++)
+                    values[i] = -values[i];
+                break;
+            case SIN:
+                for (int i = 0; i < count; i++)
+                    values[i] = Math.sin(values[i]);
+                break;
+            case COS:
+                for (int i = 0; i < count; i++)
+                    values[i] = Math.cos(values[i]);
+                break;
+            case EXP:
+                for (int i = 0; i < count; i++)
+                    values[i] = Math.exp(values[i]);
+                break;
+            case LOG:
+                for (int i = 0; i < count; i++)
+                    values[i] = Math.log(values[i]);
+                break;
+            case SQRT:
+                for (int i = 0; i < count; i++)
+                    values[i] = Math.sqrt(values[i]);
+                break;
+            case ABS:
+                for (int i = 0; i < count; i++)
+                    values[i] = Math.abs(values[i]);
+                break;
+            default:
+                for (int i = 0; i < count; i++)
+                    values[i] = operator.apply(values[i]);
+        }
+    }
+
+    @Override
+    protected int getHeight() {
+        return operand.getHeight();
+    }
+
+    @Override
+    public String toString() {
+        return operator == Operator.NEGATE ? "(-" + operand + ")" : operator.getName() + "(" + operand + ")";
+    }
+}
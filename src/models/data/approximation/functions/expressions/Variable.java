@@ -0,0 +1,50 @@
+package models.data.approximation.functions.expressions;
+
+import models.math.Matrix;
+
+/**
+ * Переменная выражения. Атрибуты модели:
+ * <pre><ul>
+ *  <li>index - номер переменной (номер аргумента и столбца матрицы входов);</li>
+ *  <li>name  - имя переменной в выражении.</li>
+ * </ul></pre>
+ */
+public class Variable extends Expression {
+    private final int index;
+    private final String name;
+
+    public Variable(int index, String name) {
+        this.index = index;
+        this.name = name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public double calculate(double[] arguments) {
+        return arguments[index];
+    }
+
+    @Override
+    protected void calculate(Matrix inputs, int from, int count, double[][] buffers, int depth) {
+        final double[] result = buffers[depth];
+        for (int i = 0; i < count; i++)
+            result[i] = inputs.getValue(from + i, index);
+    }
+
+    @Override
+    protected int getHeight() {
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,74 @@
+package models.data.approximation.sampling;
+
+/**
+ * Квазислучайная последовательность Холтона: i-я координата точки с номером n - обратное к n число по основанию,
+ * равному i-му простому числу (цифры n записываются после запятой в обратном порядке). Точка с номером 0 (начало
+ * координат) не выдаётся. Последовательность детерминирована. Атрибуты модели:
+ * <pre><ul>
+ *  <li>bases - основания (простые числа) по каждому измерению;</li>
+ *  <li>index - номер следующей точки.</li>
+ * </ul></pre>
+ */
+public class HaltonSampler extends Sampler {
+    private final int[] bases;
+    private long index;
+
+    /**
+     * Конструктор
+     * @param dimensions количество измерений
+     * @param skip       количество пропускаемых точек
+     */
+    public HaltonSampler(int dimensions, long skip) {
+        super(dimensions);
+        if (skip < 0)
+            throw new IllegalArgumentException(String.format(
+                    "Количество пропускаемых точек не может быть отрицательным (получено %d)", skip));
+        bases = getPrimes(dimensions);
+        index = skip + 1;
+    }
+
+    /**
+     * Получение первых простых чисел
+     * @param count количество чисел
+     * @return      простые числа
+     */
+    private static int[] getPrimes(int count) {
+        final int[] result = new int[count];
+        int found = 0;
+        for (int candidate = 2; found < count; candidate++) {
+            boolean isPrime = true;
+            for (int i = 0; i < found && result[i] * result[i] <= candidate; i++)
+                if (candidate % result[i] == 0) {
+                    isPrime = false;
+                    break;
+                }
+            if (isPrime)
+                result[found++] = candidate;
+        }
+        return result;
+    }
+
+    /**
+     * Вычисление обратного числа
+     * @param index номер
+     * @param base  основание
+     * @return      число из [0; 1)
+     */
+    private static double radicalInverse(long index, int base) {
+        double result = 0.0;
+        double factor = 1.0 / base;
+        while (index > 0) {
+            result += (index % base) * factor;
+            index /= base;
+            factor /= base;
+        }
+        return result;
+    }
+
+    @Override
+    public void next(double[] point) {
+        for (int i = 0; i < dimensions; i++)
+            point[i] = radicalInverse(index, bases[i]);
+        index++;
+    }
+}
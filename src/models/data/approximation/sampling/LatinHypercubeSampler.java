@@ -0,0 +1,66 @@
+package models.data.approximation.sampling;
+
+import java.util.Random;
+
+/**
+ * Латинский гиперкуб из count точек: по каждому измерению отрезок [0; 1) делится на count равных интервалов, и
+ * проекция ровно одной точки попадает в каждый интервал (точка случайна внутри интервала). Интервалы сочетаются между
+ * измерениями независимыми случайными перестановками. Атрибуты модели:
+ * <pre><ul>
+ *  <li>count        - количество точек;</li>
+ *  <li>permutations - перестановки номеров интервалов по каждому измерению;</li>
+ *  <li>random       - генератор случайных чисел;</li>
+ *  <li>index        - номер следующей точки.</li>
+ * </ul></pre>
+ */
+public class LatinHypercubeSampler extends Sampler {
+    private final int count;
+    private final int[][] permutations;
+    private final Random random;
+    private int index;
+
+    public LatinHypercubeSampler(int dimensions, int count, Random random) {
+        super(dimensions);
+        if (count < 1)
+            throw new IllegalArgumentException(String.format(
+                    "Количество точек латинского гиперкуба должно быть положительным (получено %d)", count));
+        this.count = count;
+        this.random = random;
+        permutations = new int[dimensions][];
+        for (int i = 0; i < dimensions; i++)
+            permutations[i] = getPermutation(count, random);
+    }
+
+    public LatinHypercubeSampler(int dimensions, int count) {
+        this(dimensions, count, new Random());
+    }
+
+    /**
+     * Случайная перестановка чисел от 0 до count (не включительно), алгоритм Фишера-Йетса
+     * @param count  количество чисел
+     * @param random генератор случайных чисел
+     * @return       перестановка
+     */
+    private static int[] getPermutation(int count, Random random) {
+        final int[] result = new int[count];
+        for (int i = 0; i < count; i++)
+            result[i] = i;
+        for (int i = count - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int tmp = result[i];
+            result[i] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+
+    @Override
+    public void next(double[] point) {
+        if (index >= count)
+            throw new IllegalStateException(String.format(
+                    "Все %d точек латинского гиперкуба уже получены", count));
+        for (int i = 0; i < dimensions; i++)
+            point[i] = (permutations[i][index] + random.nextDouble()) / count;
+        index++;
+    }
+}
@@ -0,0 +1,51 @@
+package models.data.approximation.sampling;
+
+import models.data.approximation.SamplingMode;
+
+/**
+ * Генератор точек в единичном гиперкубе [0; 1)^dimensions для выборок с фиксированным общим количеством точек (см.
+ * {@link SamplingMode}). В отличие от сетки, количество точек не зависит от количества переменных, а точки равномерно
+ * покрывают весь гиперкуб. Атрибуты модели:
+ * <pre><ul>
+ *  <li>dimensions - количество измерений (переменных).</li>
+ * </ul></pre>
+ */
+public abstract class Sampler {
+    protected final int dimensions;
+
+    protected Sampler(int dimensions) {
+        if (dimensions < 1)
+            throw new IllegalArgumentException(String.format(
+                    "Количество измерений должно быть положительным (получено %d)", dimensions));
+        this.dimensions = dimensions;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Получение следующей точки
+     * @param point массив для координат точки (длина не меньше dimensions)
+     */
+    public abstract void next(double[] point);
+
+    /**
+     * Создание генератора точек
+     * @param mode       способ выбора точек (кроме {@link SamplingMode#GRID})
+     * @param dimensions количество измерений
+     * @param count      количество точек, которое будет получено (для латинского гиперкуба)
+     * @param skip       количество пропускаемых в начале точек (для квазислучайных последовательностей, позволяет
+     *                   получать непересекающиеся наборы точек одной последовательности)
+     * @return           генератор
+     */
+    public static Sampler of(SamplingMode mode, int dimensions, int count, long skip) {
+        switch (mode) {
+            case UNIFORM: return new UniformSampler(dimensions);
+            case LATIN_HYPERCUBE: return new LatinHypercubeSampler(dimensions, count);
+            case HALTON: return new HaltonSampler(dimensions, skip);
+            case SOBOL: return new SobolSampler(dimensions, skip);
+            default: throw new IllegalArgumentException("Способ выбора точек не поддерживается генератором: " + mode);
+        }
+    }
+}
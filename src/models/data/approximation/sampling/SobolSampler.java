@@ -0,0 +1,121 @@
+package models.data.approximation.sampling;
+
+/**
+ * Квазислучайная последовательность Соболя (32-битная, направляющие числа Джо и Куо, new-joe-kuo-6.21201). Точка с
+ * номером n получается как сумма по модулю 2 направляющих чисел, соответствующих единичным битам кода Грея числа n,
+ * поэтому следующая точка отличается от предыдущей одним направляющим числом на измерение. Первые 2^k точек (номера от 0
+ * до 2^k - 1) по каждому измерению попадают ровно по одной в каждый из 2^k равных интервалов. Точка с номером 0 (начало
+ * координат) не выдаётся, поэтому первые 2^k - 1 выданных точек занимают все интервалы, кроме первого. Последовательность
+ * детерминирована. Атрибуты модели:
+ * <pre><ul>
+ *  <li>directions - направляющие числа по каждому измерению (32 числа на измерение);</li>
+ *  <li>state      - координаты текущей точки в виде 32-битных целых;</li>
+ *  <li>index      - номер следующей точки.</li>
+ * </ul></pre>
+ */
+public class SobolSampler extends Sampler {
+    private static final int BITS = 32;
+
+    /**
+     * Параметры измерений, начиная со второго: степень s примитивного многочлена, его коэффициенты a и начальные
+     * значения m_1..m_s
+     */
+    private static final int[][] PARAMETERS = {
+            {1, 0, 1},
+            {2, 1, 1, 3},
+            {3, 1, 1, 3, 1},
+            {3, 2, 1, 1, 1},
+            {4, 1, 1, 1, 3, 3},
+            {4, 4, 1, 3, 5, 13},
+            {5, 2, 1, 1, 5, 5, 17},
+            {5, 4, 1, 1, 5, 5, 5},
+            {5, 7, 1, 1, 7, 11, 19},
+            {5, 11, 1, 1, 5, 1, 1},
+            {5, 13, 1, 1, 1, 3, 11},
+            {5, 14, 1, 3, 5, 5, 31},
+            {6, 1, 1, 3, 3, 9, 7, 49},
+            {6, 13, 1, 1, 1, 15, 21, 21},
+            {6, 16, 1, 3, 1, 13, 27, 49},
+            {6, 19, 1, 1, 1, 15, 7, 5},
+            {6, 22, 1, 3, 1, 15, 13, 25},
+            {6, 25, 1, 1, 5, 5, 19, 61},
+            {7, 1, 1, 3, 7, 11, 23, 15, 103},
+            {7, 4, 1, 3, 7, 13, 13, 15, 69}
+    };
+
+    /**
+     * Максимальное количество измерений
+     */
+    public static final int MAX_DIMENSIONS = PARAMETERS.length + 1;
+
+    private final int[][] directions;
+    private final int[] state;
+    private long index;
+
+    /**
+     * Конструктор
+     * @param dimensions количество измерений (не больше MAX_DIMENSIONS)
+     * @param skip       количество пропускаемых точек
+     */
+    public SobolSampler(int dimensions, long skip) {
+        super(dimensions);
+        if (dimensions > MAX_DIMENSIONS)
+            throw new IllegalArgumentException(String.format(
+                    "Последовательность Соболя поддерживает не более %d измерений (получено %d)",
+                    MAX_DIMENSIONS, dimensions));
+        if (skip < 0 || skip + 1 >= 1L << BITS)
+            throw new IllegalArgumentException(String.format(
+                    "Недопустимое количество пропускаемых точек: %d", skip));
+        directions = new int[dimensions][];
+        for (int i = 0; i < dimensions; i++)
+            directions[i] = getDirections(i);
+        index = skip + 1;
+        // координаты точки index по коду Грея
+        state = new int[dimensions];
+        final long gray = index ^ (index >>> 1);
+        for (int bit = 0; bit < BITS; bit++)
+            if ((gray >>> bit & 1) != 0)
+                for (int i = 0; i < dimensions; i++)
+                    state[i] ^= directions[i][bit];
+    }
+
+    /**
+     * Вычисление направляющих чисел измерения
+     * @param dimension номер измерения (с нуля)
+     * @return          направляющие числа v_1..v_32 (старший бит соответствует 1/2)
+     */
+    private static int[] getDirections(int dimension) {
+        final int[] result = new int[BITS];
+        if (dimension == 0) {  // первое измерение - последовательность ван дер Корпута
+            for (int k = 0; k < BITS; k++)
+                result[k] = 1 << (BITS - 1 - k);
+            return result;
+        }
+        final int[] parameters = PARAMETERS[dimension - 1];
+        final int s = parameters[0];
+        final int a = parameters[1];
+        for (int k = 0; k < Math.min(s, BITS); k++)
+            result[k] = parameters[2 + k] << (BITS - 1 - k);
+        for (int k = s; k < BITS; k++) {
+            result[k] = result[k - s] ^ (result[k - s] >>> s);
+            for (int i = 1; i < s; i++)
+                if ((a >>> (s - 1 - i) & 1) != 0)
+                    result[k] ^= result[k - i];
+        }
+        return result;
+    }
+
+    @Override
+    public void next(double[] point) {
+        if (index >= 1L << BITS)
+            throw new IllegalStateException("Исчерпаны точки 32-битной последовательности Соболя");
+        for (int i = 0; i < dimensions; i++)
+            point[i] = Integer.toUnsignedLong(state[i]) / (double) (1L << BITS);
+        // переход к следующей точке: код Грея номера index + 1 отличается битом, равным младшему единичному биту
+        final int bit = Long.numberOfTrailingZeros(index + 1);
+        if (bit < BITS)
+            for (int i = 0; i < dimensions; i++)
+                state[i] ^= directions[i][bit];
+        index++;
+    }
+}
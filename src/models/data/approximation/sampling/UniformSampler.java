@@ -0,0 +1,28 @@
+package models.data.approximation.sampling;
+
+import java.util.Random;
+
+/**
+ * Независимые равномерно распределённые случайные точки. Атрибуты модели:
+ * <pre><ul>
+ *  <li>random - генератор случайных чисел.</li>
+ * </ul></pre>
+ */
+public class UniformSampler extends Sampler {
+    private final Random random;
+
+    public UniformSampler(int dimensions, Random random) {
+        super(dimensions);
+        this.random = random;
+    }
+
+    public UniformSampler(int dimensions) {
+        this(dimensions, new Random());
+    }
+
+    @Override
+    public void next(double[] point) {
+        for (int i = 0; i < dimensions; i++)
+            point[i] = random.nextDouble();
+    }
+}
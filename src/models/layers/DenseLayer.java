@@ -1,15 +1,33 @@
 package models.layers;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 import models.math.MatrixUtils;
 import models.operations.BiasAdd;
 import models.operations.Operation;
+import models.operations.ParametrizedOperation;
 import models.operations.WeightMultiply;
+import utils.copy.CopyUtils;
 
 /**
- * Полносвязный слой
+ * Полносвязный слой. Если включены слитые проходы (настройка "layers.dense.fused" в "app.properties") и операции слоя
+ * - умножение на веса, сложение со смещениями и поэлементная функция активации (см. {@link Operation#isElementwise()}),
+ * то проходы выполняются без вызова операций:
+ * <pre>
+ * прямой:   z = x * W (в новую матрицу), затем z = f(z + b) одним проходом по z (см. {@link MatrixExpression});
+ * обратный: d = dL/dy * f'(z) одним проходом, dW = x^T * d, db = sum(d), dL/dx = d * W^T.
+ * </pre>
+ * Вместо четырёх-пяти полноразмерных промежуточных матриц на проход создаются одна (прямой) и две (обратный). Градиенты
+ * по параметрам записываются в операции, поэтому оптимизаторы и сериализация (структура YAML та же) не отличают
+ * слитый режим от обычного; при двойной точности результаты совпадают, при одинарной - отличаются на ошибку округления
+ * (z + b округляется один раз). Вывод (метод predict) выполняется так же, как слитый прямой проход, независимо от
+ * настройки: на каждый слой создаётся одна матрица - его выход.
  */
 public class DenseLayer extends Layer{
+    /**
+     * Включены ли слитые проходы
+     */
+    private static volatile boolean fused = false;
 
 
     /**
@@ -46,6 +64,87 @@ public class DenseLayer extends Layer{
         this(1, null);
     }
 
+    /**
+     * Проверка, включены ли слитые проходы
+     * @return результат проверки
+     */
+    public static boolean isFused() {
+        return fused;
+    }
+
+    /**
+     * Включение или выключение слитых проходов
+     * @param enabled включить ли слитые проходы
+     */
+    public static void configureFused(boolean enabled) {
+        fused = enabled;
+    }
+
+    /**
+     * Проверка, может ли слой выполнить проходы слитно
+     * @return результат проверки
+     */
+    private boolean canFuse() {
+        return fused && isFusable();
+    }
+
+    /**
+     * Проверка, состоит ли слой из умножения на веса, сложения со смещениями и поэлементной функции активации (такие
+     * слои выполняются слитно и поддерживаются планом выполнения, см. {@link models.networks.ExecutionPlan})
+     * @return результат проверки
+     */
+    public boolean isFusable() {
+        return operations.length == 3 && operations[0] instanceof WeightMultiply &&
+                operations[1] instanceof BiasAdd && operations[2].isElementwise();
+    }
+
+    /**
+     * Слитое вычисление выхода: z = x * W, затем f(z + b) одним проходом с записью в z
+     * @param input вход
+     * @return      выход
+     */
+    private Matrix computeFusedOutput(Matrix input) {
+        final Matrix weight = ((ParametrizedOperation) operations[0]).getParameter();
+        final Matrix bias = ((ParametrizedOperation) operations[1]).getParameter();
+        final Matrix z = input.mulMatrix(weight);
+        return operations[2].getOutputExpression(z.lazy().addRow(bias.transpose())).into(z);
+    }
+
+    @Override
+    public Matrix forward(Matrix input) {
+        if (!canFuse())
+            return super.forward(input);
+        this.input = CopyUtils.defensiveCopy(input);
+        output = computeFusedOutput(this.input);
+        return output;
+    }
+
+    @Override
+    public Matrix predict(Matrix input) {
+        return isFusable() ? computeFusedOutput(input) : super.predict(input);
+    }
+
+    @Override
+    public Matrix backward(Matrix outputGradient) {
+        if (!canFuse())
+            return super.backward(outputGradient);
+        output.assertSameShape(outputGradient);
+        final ParametrizedOperation weightMultiply = (ParametrizedOperation) operations[0];
+        final ParametrizedOperation biasAdd = (ParametrizedOperation) operations[1];
+        // градиент по выходу умножения на веса (и по выходу сложения со смещениями)
+        final Matrix gradient = operations[2]
+                .getInputGradientExpression(output, CopyUtils.defensiveCopy(outputGradient).lazy())
+                .materialize();
+        final Matrix weightBuffer = weightMultiply.getParameterGradientBuffer();
+        final Matrix biasBuffer = biasAdd.getParameterGradientBuffer();
+        // при общих массивах параметров градиенты записываются сразу в общий массив градиентов
+        weightMultiply.setParameterGradient(weightBuffer == null ? input.mulMatrixTransA(gradient) :
+                input.mulMatrixTransAInto(gradient, weightBuffer));
+        biasAdd.setParameterGradient(biasBuffer == null ? gradient.sum(1).transpose() :
+                gradient.sumInto(1, biasBuffer));
+        return gradient.mulMatrixTransB(weightMultiply.getParameter());
+    }
+
     /**
      * Создание операций
      * @param inputs     количество входов
@@ -6,6 +6,7 @@ import models.operations.ParametrizedOperation;
 import serialization.annotations.YamlField;
 import serialization.annotations.YamlSerializable;
 import utils.ExceptionUtils;
+import utils.copy.CopyUtils;
 import utils.copy.DeepCopyable;
 
 import java.io.Serializable;
@@ -51,26 +52,37 @@ public abstract class Layer implements DeepCopyable, Serializable {
      * @return      выходные значения
      */
     public Matrix forward(Matrix input) {
-        // вычисления производятся с копиями
-        this.input = input.deepCopy();
-        Matrix result = input.deepCopy();
+        // сохраняется ссылка на вход (копия - только в режиме защитных копий)
+        this.input = CopyUtils.defensiveCopy(input);
+        Matrix result = this.input;
 
         // вход последовательно идет через все операции слоя
         for (Operation operation: operations)
             result = operation.forward(result);
 
-        output = result.deepCopy();
+        output = result;
         return output;
     }
 
+    /**
+     * Прямой проход без сохранения состояния (см. {@link Operation#predict(Matrix)})
+     * @param input входные значения
+     * @return      выходные значения
+     */
+    public Matrix predict(Matrix input) {
+        Matrix result = input;
+        for (Operation operation: operations)
+            result = operation.predict(result);
+        return result;
+    }
+
     /**
      * Обратный проход (вычисление градиентов)
      * @param outputGradient градиент на выходе слоя
      * @return               градиент на входе слоя
      */
     public Matrix backward(Matrix outputGradient) {
-        // вычисления производятся с копиями
-        Matrix result = outputGradient.deepCopy();
+        Matrix result = CopyUtils.defensiveCopy(outputGradient);
         output.assertSameShape(outputGradient);
 
         // градиент потери идет обратно через операции слоя
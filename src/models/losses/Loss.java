@@ -1,8 +1,10 @@
 package models.losses;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 import serialization.annotations.YamlSerializable;
 import utils.ExceptionUtils;
+import utils.copy.CopyUtils;
 import utils.copy.DeepCopyable;
 
 import java.io.Serializable;
@@ -48,9 +50,9 @@ public abstract class Loss implements DeepCopyable, Serializable {
     public double forward(Matrix prediction, Matrix target) {
         prediction.assertSameShape(target);
 
-        // вычисления производятся с копиями
-        this.prediction = prediction.deepCopy();
-        this.target = target.deepCopy();
+        // сохраняются ссылки (копии - только в режиме защитных копий)
+        this.prediction = CopyUtils.defensiveCopy(prediction);
+        this.target = CopyUtils.defensiveCopy(target);
 
         output = computeOutput(this.prediction, this.target);
 
@@ -78,6 +80,28 @@ public abstract class Loss implements DeepCopyable, Serializable {
      */
     protected abstract Matrix computeInputGradient(Matrix prediction, Matrix target);
 
+    /**
+     * Выражение, сумма значений которого равна потере (используется планом выполнения сети, см.
+     * {@link models.networks.ExecutionPlan}). Наследник, поддерживающий план, переопределяет этот метод и метод
+     * getInputGradientExpression
+     * @param prediction результаты сети
+     * @param target     требуемые выходы
+     * @return           выражение слагаемых потери
+     */
+    public MatrixExpression getOutputExpression(Matrix prediction, Matrix target) {
+        throw new IllegalStateException("Потеря не поддерживает вычисление выражениями: " + getClass().getSimpleName());
+    }
+
+    /**
+     * Выражение градиента на входе потери
+     * @param prediction результаты сети
+     * @param target     требуемые выходы
+     * @return           выражение градиента
+     */
+    public MatrixExpression getInputGradientExpression(Matrix prediction, Matrix target) {
+        throw new IllegalStateException("Потеря не поддерживает вычисление выражениями: " + getClass().getSimpleName());
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
@@ -1,6 +1,7 @@
 package models.losses;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 
 /**
  * Среднеквадратическая ошибка.
@@ -30,12 +31,13 @@ public class MeanSquaredError extends Loss{
         [1]: prediction = Y
         [2]: target = T
         [3]: prediction.getRows() = N
-        [4]: [1].sub([2]) = Y - T
+        [4]: [1].lazy().sub([2]) = Y - T (ленивое выражение, вычисляется одним проходом в [6])
         [5]: [4].mul([4]) = (Y - T) ^ 2
         [6]: [5].sum() = сумма[(Y - T) ^ 2]
         [7]: [6] / [3] = 1 / N * сумма[(Y - T) ^ 2]
          */
-        return prediction.sub(target).mul(prediction.sub(target)).sum() / prediction.getRows();
+        final MatrixExpression error = prediction.lazy().sub(target);
+        return error.mul(error).sum() / prediction.getRows();
     }
 
     @Override
@@ -44,11 +46,23 @@ public class MeanSquaredError extends Loss{
         [1]: prediction = Y
         [2]: target = T
         [3]: prediction.getRows() = N
-        [4]: [1].sub([2]) = Y - T
+        [4]: [1].lazy().sub([2]) = Y - T (ленивое выражение, вычисляется одним проходом в [7])
         [5]: [4].mul(2) = 2 * (Y - T)
         [6]: [5].div([3]) = 2 * (Y - T) / N
+        [7]: [6].materialize() - вычисление выражения
          */
-        return prediction.sub(target).mul(2).div(prediction.getRows());
+        return getInputGradientExpression(prediction, target).materialize();
+    }
+
+    @Override
+    public MatrixExpression getOutputExpression(Matrix prediction, Matrix target) {
+        final MatrixExpression error = prediction.lazy().sub(target);
+        return error.mul(error).div(prediction.getRows());  // см. computeOutput
+    }
+
+    @Override
+    public MatrixExpression getInputGradientExpression(Matrix prediction, Matrix target) {
+        return prediction.lazy().sub(target).mul(2).div(prediction.getRows());  // см. computeInputGradient
     }
 
     @Override
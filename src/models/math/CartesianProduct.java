@@ -0,0 +1,187 @@
+package models.math;
+
+import java.util.Arrays;
+
+/**
+ * Декартово произведение векторов-столбцов, строки которого вычисляются по номеру. Хранятся только исходные векторы,
+ * поэтому объём памяти равен сумме их размеров, а не произведению. Первый вектор соответствует самому медленно
+ * меняющемуся столбцу, последний - самому быстро меняющемуся:
+ * <pre>
+ * |1|     |4|   |1 4|
+ * |2| (x) |5| = |1 5|
+ * |3|           |2 4|
+ *               |2 5|
+ *               |3 4|
+ *               |3 5|
+ * </pre>
+ * Строка с номером row содержит значения factors[i][index_i], где index_i - i-я цифра числа row в смешанной системе
+ * счисления с основаниями sizes. Атрибуты модели:
+ * <pre><ul>
+ *  <li>factors   - значения векторов-столбцов;</li>
+ *  <li>sizes     - размеры векторов-столбцов;</li>
+ *  <li>rows      - количество строк произведения;</li>
+ *  <li>precision - точность результата (общая точность векторов, см. {@link Precision#common}).</li>
+ * </ul></pre>
+ */
+public class CartesianProduct {
+    private final double[][] factors;
+    private final int[] sizes;
+    private final int rows;
+    private final Precision precision;
+
+    /**
+     * Конструктор
+     * @param matrices векторы-столбцы
+     */
+    public CartesianProduct(Matrix ... matrices) {
+        if (matrices.length == 0)
+            throw new IllegalArgumentException("Отсутствуют матрицы для декартового произведения");
+        Arrays.stream(matrices).forEach(Matrix::assertColMatrix);
+        sizes = Arrays.stream(matrices).mapToInt(Matrix::getRows).toArray();
+        final long totalRows = Arrays.stream(sizes).asLongStream().reduce(1, (a, b) -> a * b);
+        if (totalRows > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format(
+                    "Декартово произведение с %d строками слишком велико", totalRows));
+        rows = (int) totalRows;
+        factors = new double[matrices.length][];
+        Precision common = matrices[0].getPrecision();
+        for (int i = 0; i < matrices.length; i++) {
+            factors[i] = new double[sizes[i]];
+            for (int row = 0; row < sizes[i]; row++)
+                factors[i][row] = matrices[i].getValue(row, 0);
+            common = common.common(matrices[i].getPrecision());
+        }
+        precision = common;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return factors.length;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Получение значений вектора-столбца, образующего столбец произведения
+     * @param col номер столбца
+     * @return    копия значений
+     */
+    public double[] getFactor(int col) {
+        return factors[col].clone();
+    }
+
+    /**
+     * Вычисление строки по номеру
+     * @param row    номер строки
+     * @param values массив для значений строки (длина равна количеству столбцов)
+     */
+    public void getRow(int row, double[] values) {
+        if (row < 0 || row >= rows)
+            throw new IllegalArgumentException(String.format(
+                    "Номер строки %d выходит за пределы декартового произведения с %d строками", row, rows));
+        // последний вектор соответствует самому быстро меняющемуся столбцу
+        for (int i = factors.length - 1; i >= 0; i--) {
+            values[i] = factors[i][row % sizes[i]];
+            row /= sizes[i];
+        }
+    }
+
+    /**
+     * Получение матрицы из заданных строк произведения (в указанном порядке), остальные строки не вычисляются
+     * @param indices номера строк
+     * @return        матрица размерности (indices.length; cols)
+     */
+    public Matrix gatherRows(int[] indices) {
+        final int cols = getCols();
+        final double[] result = new double[indices.length * cols];
+        final double[] values = new double[cols];
+        for (int i = 0; i < indices.length; i++) {
+            getRow(indices[i], values);
+            System.arraycopy(values, 0, result, i * cols, cols);
+        }
+        return new Matrix(indices.length, cols, result).toPrecision(precision);
+    }
+
+    /**
+     * Вычисление всего произведения в матрицу в куче. Каждое значение записывается ровно один раз: номера элементов
+     * векторов для очередной строки получаются увеличением номеров предыдущей строки на единицу (как в счётчике)
+     * @return матрица размерности (rows; cols)
+     */
+    public Matrix toMatrix() {
+        final int cols = getCols();
+        if ((long) rows * cols > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format(
+                    "Декартово произведение размерности (%d; %d) слишком велико", rows, cols));
+        final int[] position = new int[cols];
+        if (precision == Precision.SINGLE) {
+            final float[] result = new float[rows * cols];
+            for (int row = 0, index = 0; row < rows; row++, next(position))
+                for (int col = 0; col < cols; col++)
+                    result[index++] = (float) factors[col][position[col]];
+            return new Matrix(rows, cols, result);
+        }
+        final double[] result = new double[rows * cols];
+        for (int row = 0, index = 0; row < rows; row++, next(position))
+            for (int col = 0; col < cols; col++)
+                result[index++] = factors[col][position[col]];
+        return new Matrix(rows, cols, result);
+    }
+
+    /**
+     * Вычисление всего произведения в матрицу, хранящуюся вне кучи (см. {@link Matrix#toOffHeap()}). Промежуточная
+     * матрица в куче не создаётся
+     * @return матрица размерности (rows; cols)
+     */
+    public Matrix toOffHeapMatrix() {
+        final int cols = getCols();
+        if ((long) rows * cols > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format(
+                    "Декартово произведение размерности (%d; %d) слишком велико", rows, cols));
+        final int[] position = new int[cols];
+        return MatrixUtils.getOffHeapMatrix(rows, cols, precision, (row, values) -> {
+            // строки генерируются подряд, поэтому номера элементов ведутся счётчиком
+            for (int col = 0; col < cols; col++)
+                values[col] = factors[col][position[col]];
+            next(position);
+        });
+    }
+
+    /**
+     * Переход к номерам элементов векторов для следующей строки (увеличение счётчика на единицу)
+     * @param position номера элементов векторов (изменяются на месте)
+     */
+    private void next(int[] position) {
+        for (int i = position.length - 1; i >= 0; i--) {
+            if (++position[i] < sizes[i])
+                return;
+            position[i] = 0;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CartesianProduct that = (CartesianProduct) o;
+        return precision == that.precision && Arrays.deepEquals(factors, that.factors);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.deepHashCode(factors) + precision.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "sizes=" + Arrays.toString(sizes) +
+                ", rows=" + rows +
+                ", precision=" + precision +
+                '}';
+    }
+}
@@ -0,0 +1,259 @@
+package models.math;
+
+/**
+ * Ядра поэлементных операций и свёрток над одномерными массивами, используемые {@link OptimizedMatrixBackend}. Каждая
+ * операция реализована отдельным простым циклом без ветвлений и виртуальных вызовов внутри, поэтому JIT-компилятор
+ * HotSpot (C2) векторизует такие циклы в SIMD-инструкции процессора (SSE/AVX) без подключения инкубаторного модуля
+ * jdk.incubator.vector.
+ * <pre>
+ * Поэлементные операции дают тот же результат, что и {@link ReferenceMatrixBackend}. Суммы (sum) накапливаются в LANES
+ * независимых сумматорах, поэтому могут отличаться от последовательного суммирования в последних разрядах.
+ * </pre>
+ */
+abstract class ElementwiseKernels {
+    /**
+     * Количество независимых сумматоров в свёртках
+     */
+    private static final int LANES = 4;
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] + b[bOffset + i], i = 0..length-1
+     */
+    static void add(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] - b[bOffset + i], i = 0..length-1
+     */
+    static void sub(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] * b[bOffset + i], i = 0..length-1
+     */
+    static void mul(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] / b[bOffset + i], i = 0..length-1
+     */
+    static void div(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] / b[bOffset + i];
+    }
+
+    /**
+     * c[cOffset + i] = min(a[aOffset + i], b[bOffset + i]), i = 0..length-1
+     */
+    static void min(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = Math.min(a[aOffset + i], b[bOffset + i]);
+    }
+
+    /**
+     * c[cOffset + i] = max(a[aOffset + i], b[bOffset + i]), i = 0..length-1
+     */
+    static void max(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = Math.max(a[aOffset + i], b[bOffset + i]);
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] + value, i = 0..length-1
+     */
+    static void add(double[] a, int aOffset, double value, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] + value;
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] - value, i = 0..length-1
+     */
+    static void sub(double[] a, int aOffset, double value, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] - value;
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] * value, i = 0..length-1
+     */
+    static void mul(double[] a, int aOffset, double value, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] * value;
+    }
+
+    /**
+     * c[cOffset + i] = a[aOffset + i] / value, i = 0..length-1
+     */
+    static void div(double[] a, int aOffset, double value, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] / value;
+    }
+
+    /**
+     * y[yOffset + i] = y[yOffset + i] + alpha * x[xOffset + i], i = 0..length-1
+     */
+    static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int i = 0; i < length; i++)
+            y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    /**
+     * Сумма initial и элементов a[offset..offset+length-1] в LANES независимых сумматорах
+     */
+    static double sum(double[] a, int offset, int length, double initial) {
+        double s0 = initial, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            s0 += a[offset + i];
+            s1 += a[offset + i + 1];
+            s2 += a[offset + i + 2];
+            s3 += a[offset + i + 3];
+        }
+        for (; i < length; i++)
+            s0 += a[offset + i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Минимум из initial и элементов a[offset..offset+length-1]
+     */
+    static double min(double[] a, int offset, int length, double initial) {
+        double m0 = initial, m1 = initial, m2 = initial, m3 = initial;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            m0 = Math.min(m0, a[offset + i]);
+            m1 = Math.min(m1, a[offset + i + 1]);
+            m2 = Math.min(m2, a[offset + i + 2]);
+            m3 = Math.min(m3, a[offset + i + 3]);
+        }
+        for (; i < length; i++)
+            m0 = Math.min(m0, a[offset + i]);
+        return Math.min(Math.min(m0, m1), Math.min(m2, m3));
+    }
+
+    /**
+     * Максимум из initial и элементов a[offset..offset+length-1]
+     */
+    static double max(double[] a, int offset, int length, double initial) {
+        double m0 = initial, m1 = initial, m2 = initial, m3 = initial;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            m0 = Math.max(m0, a[offset + i]);
+            m1 = Math.max(m1, a[offset + i + 1]);
+            m2 = Math.max(m2, a[offset + i + 2]);
+            m3 = Math.max(m3, a[offset + i + 3]);
+        }
+        for (; i < length; i++)
+            m0 = Math.max(m0, a[offset + i]);
+        return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+    }
+
+    /*
+     * Ядра для массивов одинарной точности (float), см. описание аналогичных методов для double. Суммы накапливаются
+     * в double: свёртки читают вдвое меньше памяти, а точность результата не снижается
+     */
+
+    static void add(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    static void sub(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    static void mul(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    static void div(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] / b[bOffset + i];
+    }
+
+    static void min(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = Math.min(a[aOffset + i], b[bOffset + i]);
+    }
+
+    static void max(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = Math.max(a[aOffset + i], b[bOffset + i]);
+    }
+
+    static void add(float[] a, int aOffset, float value, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] + value;
+    }
+
+    static void sub(float[] a, int aOffset, float value, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] - value;
+    }
+
+    static void mul(float[] a, int aOffset, float value, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] * value;
+    }
+
+    static void div(float[] a, int aOffset, float value, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = a[aOffset + i] / value;
+    }
+
+    static void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        for (int i = 0; i < length; i++)
+            y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    static double sum(float[] a, int offset, int length, double initial) {
+        double s0 = initial, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            s0 += a[offset + i];
+            s1 += a[offset + i + 1];
+            s2 += a[offset + i + 2];
+            s3 += a[offset + i + 3];
+        }
+        for (; i < length; i++)
+            s0 += a[offset + i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static double min(float[] a, int offset, int length, double initial) {
+        float m0 = Float.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            m0 = Math.min(m0, a[offset + i]);
+            m1 = Math.min(m1, a[offset + i + 1]);
+            m2 = Math.min(m2, a[offset + i + 2]);
+            m3 = Math.min(m3, a[offset + i + 3]);
+        }
+        for (; i < length; i++)
+            m0 = Math.min(m0, a[offset + i]);
+        return Math.min(initial, Math.min(Math.min(m0, m1), Math.min(m2, m3)));
+    }
+
+    static double max(float[] a, int offset, int length, double initial) {
+        float m0 = -Float.MAX_VALUE, m1 = m0, m2 = m0, m3 = m0;
+        int i = 0;
+        for (; i + LANES <= length; i += LANES) {
+            m0 = Math.max(m0, a[offset + i]);
+            m1 = Math.max(m1, a[offset + i + 1]);
+            m2 = Math.max(m2, a[offset + i + 2]);
+            m3 = Math.max(m3, a[offset + i + 3]);
+        }
+        for (; i < length; i++)
+            m0 = Math.max(m0, a[offset + i]);
+        return Math.max(initial, Math.max(Math.max(m0, m1), Math.max(m2, m3)));
+    }
+}
@@ -0,0 +1,445 @@
+package models.math;
+
+import java.util.Arrays;
+
+/**
+ * Ядро матричного умножения (GEMM) над построчно хранящимися массивами. Вычисляет C = A * B, где A имеет размерность
+ * (m; k), B - (k; n), C - (m; n). Промежуточные объекты не создаются. Варианты multiplyTransA и multiplyTransB
+ * вычисляют C = A^T * B и C = A * B^T, читая транспонируемый операнд "как есть", без построения его копии.
+ * Каждая матрица задаётся массивом и смещением её первого элемента в этом массиве. Вычисляемые строки C
+ * перезаписываются.
+ * <pre>
+ * Особенности реализации:
+ * <ul>
+ *  <li>порядок циклов i-k-j: внутренний цикл последовательно проходит строку B и строку C;</li>
+ *  <li>блочное разбиение по k и j, чтобы используемые части B и C оставались в кэше;</li>
+ *  <li>регистровый блок из ROWS_TILE строк: один элемент B используется сразу для нескольких строк C;</li>
+ *  <li>для узких B (меньше NARROW_N столбцов, например, выходные слои сети) короткий цикл по j неэффективен,
+ *      поэтому элементы C накапливаются в регистрах как скалярные произведения.</li>
+ * </ul>
+ * </pre>
+ * Для каждого элемента C слагаемые накапливаются в порядке возрастания k, поэтому результат совпадает с наивным
+ * вычислением через скалярные произведения.
+ */
+abstract class Gemm {
+    /**
+     * Размер блока по k
+     */
+    private static final int BLOCK_K = 128;
+
+    /**
+     * Размер блока по j
+     */
+    private static final int BLOCK_N = 512;
+
+    /**
+     * Количество строк C, вычисляемых одновременно
+     */
+    private static final int ROWS_TILE = 4;
+
+    /**
+     * Количество столбцов B, начиная с которого используется порядок циклов i-k-j
+     */
+    private static final int NARROW_N = 8;
+
+    /**
+     * Размер блока по i для multiplyTransA
+     */
+    private static final int BLOCK_M = 64;
+
+    /**
+     * Матричное умножение C = A * B для строк C из диапазона [from; to). Строки C независимы, поэтому разные диапазоны
+     * можно вычислять параллельно
+     * @param a       массив A (m * k элементов)
+     * @param aOffset смещение A в массиве
+     * @param b       массив B (k * n элементов)
+     * @param bOffset смещение B в массиве
+     * @param c       массив C (m * n элементов)
+     * @param cOffset смещение C в массиве
+     * @param from    первая строка C
+     * @param to      строка C, следующая за последней (не больше m)
+     * @param k       количество столбцов A (строк B)
+     * @param n       количество столбцов B
+     */
+    static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                         int from, int to, int k, int n) {
+        if (n < NARROW_N) {
+            multiplyNarrow(a, aOffset, b, bOffset, c, cOffset, from, to, k, n);
+            return;
+        }
+        Arrays.fill(c, cOffset + from * n, cOffset + to * n, 0.0);
+        for (int kk = 0; kk < k; kk += BLOCK_K) {
+            final int kEnd = Math.min(kk + BLOCK_K, k);
+            for (int jj = 0; jj < n; jj += BLOCK_N) {
+                final int jEnd = Math.min(jj + BLOCK_N, n);
+                int i = from;
+                for (; i + ROWS_TILE <= to; i += ROWS_TILE)
+                    multiplyTile(a, aOffset + i * k, b, bOffset, c, cOffset + i * n, k, n, kk, kEnd, jj, jEnd);
+                for (; i < to; i++)
+                    multiplyRow(a, aOffset + i * k, b, bOffset, c, cOffset + i * n, n, kk, kEnd, jj, jEnd);
+            }
+        }
+    }
+
+    /**
+     * Вычисление вклада блока [kk; kEnd) x [jj; jEnd) в ROWS_TILE строк C, начиная со строки, на которую указывает c0
+     */
+    private static void multiplyTile(double[] a, int a0, double[] b, int bOffset, double[] c, int c0, int k, int n,
+                                     int kk, int kEnd, int jj, int jEnd) {
+        final int c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+        final int a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+        for (int p = kk; p < kEnd; p++) {
+            final double v0 = a[a0 + p], v1 = a[a1 + p], v2 = a[a2 + p], v3 = a[a3 + p];
+            final int bRow = bOffset + p * n;
+            for (int j = jj; j < jEnd; j++) {
+                final double bValue = b[bRow + j];
+                c[c0 + j] += v0 * bValue;
+                c[c1 + j] += v1 * bValue;
+                c[c2 + j] += v2 * bValue;
+                c[c3 + j] += v3 * bValue;
+            }
+        }
+    }
+
+    /**
+     * Вычисление вклада блока [kk; kEnd) x [jj; jEnd) в строку C, на которую указывает cRow
+     */
+    private static void multiplyRow(double[] a, int aRow, double[] b, int bOffset, double[] c, int cRow, int n,
+                                    int kk, int kEnd, int jj, int jEnd) {
+        for (int p = kk; p < kEnd; p++) {
+            final double aValue = a[aRow + p];
+            final int bRow = bOffset + p * n;
+            for (int j = jj; j < jEnd; j++)
+                c[cRow + j] += aValue * b[bRow + j];
+        }
+    }
+
+    /**
+     * Умножение на узкую матрицу B: каждый элемент C вычисляется как скалярное произведение, накапливаемое в регистре
+     */
+    private static void multiplyNarrow(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                                       int from, int to, int k, int n) {
+        int i = from;
+        for (; i + ROWS_TILE <= to; i += ROWS_TILE) {
+            final int a0 = aOffset + i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+            final int c0 = cOffset + i * n;
+            for (int j = 0; j < n; j++) {
+                double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+                for (int p = 0; p < k; p++) {
+                    final double bValue = b[bOffset + p * n + j];
+                    s0 += a[a0 + p] * bValue;
+                    s1 += a[a1 + p] * bValue;
+                    s2 += a[a2 + p] * bValue;
+                    s3 += a[a3 + p] * bValue;
+                }
+                c[c0 + j] = s0;
+                c[c0 + n + j] = s1;
+                c[c0 + 2 * n + j] = s2;
+                c[c0 + 3 * n + j] = s3;
+            }
+        }
+        for (; i < to; i++) {
+            final int aRow = aOffset + i * k;
+            for (int j = 0; j < n; j++) {
+                double s = 0.0;
+                for (int p = 0; p < k; p++)
+                    s += a[aRow + p] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+        }
+    }
+
+    /**
+     * Матричное умножение C = A^T * B. Массив A хранит матрицу размерности (k; m), то есть A^T имеет размерность (m; k).
+     * Внешний цикл идёт по k, поэтому обе матрицы читаются построчно. Вычисляются строки C из диапазона [from; to)
+     * @param a       массив A (k * m элементов)
+     * @param aOffset смещение A в массиве
+     * @param b       массив B (k * n элементов)
+     * @param bOffset смещение B в массиве
+     * @param c       массив C (m * n элементов)
+     * @param cOffset смещение C в массиве
+     * @param from    первая строка C
+     * @param to      строка C, следующая за последней (не больше m)
+     * @param m       количество строк A^T (столбцов A)
+     * @param k       количество столбцов A^T (строк A и B)
+     * @param n       количество столбцов B
+     */
+    static void multiplyTransA(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                               int from, int to, int m, int k, int n) {
+        if (n < NARROW_N) {
+            multiplyTransANarrow(a, aOffset, b, bOffset, c, cOffset, from, to, m, k, n);
+            return;
+        }
+        Arrays.fill(c, cOffset + from * n, cOffset + to * n, 0.0);
+        for (int ii = from; ii < to; ii += BLOCK_M) {
+            final int iEnd = Math.min(ii + BLOCK_M, to);
+            for (int jj = 0; jj < n; jj += BLOCK_N) {
+                final int jEnd = Math.min(jj + BLOCK_N, n);
+                for (int p = 0; p < k; p++) {
+                    final int aRow = aOffset + p * m;
+                    final int bRow = bOffset + p * n;
+                    for (int i = ii; i < iEnd; i++) {
+                        final double aValue = a[aRow + i];
+                        final int cRow = cOffset + i * n;
+                        for (int j = jj; j < jEnd; j++)
+                            c[cRow + j] += aValue * b[bRow + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Умножение A^T на узкую матрицу B: элементы ROWS_TILE соседних строк C накапливаются в регистрах, соответствующие
+     * им элементы A лежат в одной строке A подряд
+     */
+    private static void multiplyTransANarrow(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                                             int from, int to, int m, int k, int n) {
+        int i = from;
+        for (; i + ROWS_TILE <= to; i += ROWS_TILE)
+            for (int j = 0; j < n; j++) {
+                double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+                for (int p = 0; p < k; p++) {
+                    final int aRow = aOffset + p * m + i;
+                    final double bValue = b[bOffset + p * n + j];
+                    s0 += a[aRow] * bValue;
+                    s1 += a[aRow + 1] * bValue;
+                    s2 += a[aRow + 2] * bValue;
+                    s3 += a[aRow + 3] * bValue;
+                }
+                final int c0 = cOffset + i * n + j;
+                c[c0] = s0;
+                c[c0 + n] = s1;
+                c[c0 + 2 * n] = s2;
+                c[c0 + 3 * n] = s3;
+            }
+        for (; i < to; i++)
+            for (int j = 0; j < n; j++) {
+                double s = 0.0;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + p * m + i] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    /**
+     * Матричное умножение C = A * B^T. Массив B хранит матрицу размерности (n; k), то есть B^T имеет размерность (k; n).
+     * Каждый элемент C - скалярное произведение строки A и строки B, обе читаются последовательно. Вычисляются строки C
+     * из диапазона [from; to)
+     * @param a       массив A (m * k элементов)
+     * @param aOffset смещение A в массиве
+     * @param b       массив B (n * k элементов)
+     * @param bOffset смещение B в массиве
+     * @param c       массив C (m * n элементов)
+     * @param cOffset смещение C в массиве
+     * @param from    первая строка C
+     * @param to      строка C, следующая за последней (не больше m)
+     * @param k       количество столбцов A (и B)
+     * @param n       количество строк B (столбцов B^T)
+     */
+    static void multiplyTransB(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                               int from, int to, int k, int n) {
+        int i = from;
+        for (; i + ROWS_TILE <= to; i += ROWS_TILE) {
+            final int a0 = aOffset + i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+            final int c0 = cOffset + i * n;
+            for (int j = 0; j < n; j++) {
+                final int bRow = bOffset + j * k;
+                double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+                for (int p = 0; p < k; p++) {
+                    final double bValue = b[bRow + p];
+                    s0 += a[a0 + p] * bValue;
+                    s1 += a[a1 + p] * bValue;
+                    s2 += a[a2 + p] * bValue;
+                    s3 += a[a3 + p] * bValue;
+                }
+                c[c0 + j] = s0;
+                c[c0 + n + j] = s1;
+                c[c0 + 2 * n + j] = s2;
+                c[c0 + 3 * n + j] = s3;
+            }
+        }
+        for (; i < to; i++) {
+            final int aRow = aOffset + i * k;
+            for (int j = 0; j < n; j++) {
+                final int bRow = bOffset + j * k;
+                double s = 0.0;
+                for (int p = 0; p < k; p++)
+                    s += a[aRow + p] * b[bRow + p];
+                c[cOffset + i * n + j] = s;
+            }
+        }
+    }
+
+    /*
+     * Ядра для матриц одинарной точности (float). Порядок циклов и блочное разбиение совпадают с ядрами для double,
+     * накопление ведётся во float, поэтому в один SIMD-регистр помещается вдвое больше элементов
+     */
+
+    static void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                         int from, int to, int k, int n) {
+        if (n < NARROW_N) {
+            multiplyNarrow(a, aOffset, b, bOffset, c, cOffset, from, to, k, n);
+            return;
+        }
+        Arrays.fill(c, cOffset + from * n, cOffset + to * n, 0.0f);
+        for (int kk = 0; kk < k; kk += BLOCK_K) {
+            final int kEnd = Math.min(kk + BLOCK_K, k);
+            for (int jj = 0; jj < n; jj += BLOCK_N) {
+                final int jEnd = Math.min(jj + BLOCK_N, n);
+                int i = from;
+                for (; i + ROWS_TILE <= to; i += ROWS_TILE)
+                    multiplyTile(a, aOffset + i * k, b, bOffset, c, cOffset + i * n, k, n, kk, kEnd, jj, jEnd);
+                for (; i < to; i++)
+                    multiplyRow(a, aOffset + i * k, b, bOffset, c, cOffset + i * n, n, kk, kEnd, jj, jEnd);
+            }
+        }
+    }
+
+    private static void multiplyTile(float[] a, int a0, float[] b, int bOffset, float[] c, int c0, int k, int n,
+                                     int kk, int kEnd, int jj, int jEnd) {
+        final int c1 = c0 + n, c2 = c1 + n, c3 = c2 + n;
+        final int a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+        for (int p = kk; p < kEnd; p++) {
+            final float v0 = a[a0 + p], v1 = a[a1 + p], v2 = a[a2 + p], v3 = a[a3 + p];
+            final int bRow = bOffset + p * n;
+            for (int j = jj; j < jEnd; j++) {
+                final float bValue = b[bRow + j];
+                c[c0 + j] += v0 * bValue;
+                c[c1 + j] += v1 * bValue;
+                c[c2 + j] += v2 * bValue;
+                c[c3 + j] += v3 * bValue;
+            }
+        }
+    }
+
+    private static void multiplyRow(float[] a, int aRow, float[] b, int bOffset, float[] c, int cRow, int n,
+                                    int kk, int kEnd, int jj, int jEnd) {
+        for (int p = kk; p < kEnd; p++) {
+            final float aValue = a[aRow + p];
+            final int bRow = bOffset + p * n;
+            for (int j = jj; j < jEnd; j++)
+                c[cRow + j] += aValue * b[bRow + j];
+        }
+    }
+
+    private static void multiplyNarrow(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                                       int from, int to, int k, int n) {
+        int i = from;
+        for (; i + ROWS_TILE <= to; i += ROWS_TILE) {
+            final int a0 = aOffset + i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+            final int c0 = cOffset + i * n;
+            for (int j = 0; j < n; j++) {
+                float s0 = 0.0f, s1 = 0.0f, s2 = 0.0f, s3 = 0.0f;
+                for (int p = 0; p < k; p++) {
+                    final float bValue = b[bOffset + p * n + j];
+                    s0 += a[a0 + p] * bValue;
+                    s1 += a[a1 + p] * bValue;
+                    s2 += a[a2 + p] * bValue;
+                    s3 += a[a3 + p] * bValue;
+                }
+                c[c0 + j] = s0;
+                c[c0 + n + j] = s1;
+                c[c0 + 2 * n + j] = s2;
+                c[c0 + 3 * n + j] = s3;
+            }
+        }
+        for (; i < to; i++) {
+            final int aRow = aOffset + i * k;
+            for (int j = 0; j < n; j++) {
+                float s = 0.0f;
+                for (int p = 0; p < k; p++)
+                    s += a[aRow + p] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+        }
+    }
+
+    static void multiplyTransA(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                               int from, int to, int m, int k, int n) {
+        if (n < NARROW_N) {
+            multiplyTransANarrow(a, aOffset, b, bOffset, c, cOffset, from, to, m, k, n);
+            return;
+        }
+        Arrays.fill(c, cOffset + from * n, cOffset + to * n, 0.0f);
+        for (int ii = from; ii < to; ii += BLOCK_M) {
+            final int iEnd = Math.min(ii + BLOCK_M, to);
+            for (int jj = 0; jj < n; jj += BLOCK_N) {
+                final int jEnd = Math.min(jj + BLOCK_N, n);
+                for (int p = 0; p < k; p++) {
+                    final int aRow = aOffset + p * m;
+                    final int bRow = bOffset + p * n;
+                    for (int i = ii; i < iEnd; i++) {
+                        final float aValue = a[aRow + i];
+                        final int cRow = cOffset + i * n;
+                        for (int j = jj; j < jEnd; j++)
+                            c[cRow + j] += aValue * b[bRow + j];
+                    }
+                }
+            }
+        }
+    }
+
+    private static void multiplyTransANarrow(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                                             int from, int to, int m, int k, int n) {
+        int i = from;
+        for (; i + ROWS_TILE <= to; i += ROWS_TILE)
+            for (int j = 0; j < n; j++) {
+                float s0 = 0.0f, s1 = 0.0f, s2 = 0.0f, s3 = 0.0f;
+                for (int p = 0; p < k; p++) {
+                    final int aRow = aOffset + p * m + i;
+                    final float bValue = b[bOffset + p * n + j];
+                    s0 += a[aRow] * bValue;
+                    s1 += a[aRow + 1] * bValue;
+                    s2 += a[aRow + 2] * bValue;
+                    s3 += a[aRow + 3] * bValue;
+                }
+                final int c0 = cOffset + i * n + j;
+                c[c0] = s0;
+                c[c0 + n] = s1;
+                c[c0 + 2 * n] = s2;
+                c[c0 + 3 * n] = s3;
+            }
+        for (; i < to; i++)
+            for (int j = 0; j < n; j++) {
+                float s = 0.0f;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + p * m + i] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    static void multiplyTransB(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                               int from, int to, int k, int n) {
+        int i = from;
+        for (; i + ROWS_TILE <= to; i += ROWS_TILE) {
+            final int a0 = aOffset + i * k, a1 = a0 + k, a2 = a1 + k, a3 = a2 + k;
+            final int c0 = cOffset + i * n;
+            for (int j = 0; j < n; j++) {
+                final int bRow = bOffset + j * k;
+                float s0 = 0.0f, s1 = 0.0f, s2 = 0.0f, s3 = 0.0f;
+                for (int p = 0; p < k; p++) {
+                    final float bValue = b[bRow + p];
+                    s0 += a[a0 + p] * bValue;
+                    s1 += a[a1 + p] * bValue;
+                    s2 += a[a2 + p] * bValue;
+                    s3 += a[a3 + p] * bValue;
+                }
+                c[c0 + j] = s0;
+                c[c0 + n + j] = s1;
+                c[c0 + 2 * n + j] = s2;
+                c[c0 + 3 * n + j] = s3;
+            }
+        }
+        for (; i < to; i++) {
+            final int aRow = aOffset + i * k;
+            for (int j = 0; j < n; j++) {
+                final int bRow = bOffset + j * k;
+                float s = 0.0f;
+                for (int p = 0; p < k; p++)
+                    s += a[aRow + p] * b[bRow + p];
+                c[cOffset + i * n + j] = s;
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package models.math;
 
+import models.math.MatrixBackend.Operator;
+import models.math.MatrixBackend.Reduction;
+import models.math.functions.DoubleOperation;
 import models.math.functions.MatrixFunctions;
 import serialization.annotations.YamlField;
 import serialization.annotations.YamlSerializable;
@@ -9,21 +12,51 @@ import utils.copy.DeepCopyable;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.stream.IntStream;
+import java.util.Random;
 
 /**
- * Двумерная матрица вещественных чисел. Внутри используется double[][]. Реализует различные полезные методы для работы
- * с матрицами. Каждая операция создаёт новую матрицу, то есть класс не-изменяемый (immutable). Атрибуты модели:
+ * Двумерная матрица вещественных чисел. Внутри используется одномерный массив double[] (или float[] для матриц
+ * одинарной точности, см. {@link Precision}), в котором элементы хранятся построчно (row-major). Реализует различные
+ * полезные методы для работы с матрицами. Каждая операция создаёт новую матрицу, то есть класс не-изменяемый
+ * (immutable). Исключение составляют методы с суффиксами InPlace/Into, а также axpy, copyFrom и fill: они записывают
+ * результат в исходную матрицу (или в переданную матрицу-приёмник) без выделения памяти. Такие методы предназначены для
+ * "горячих" участков (например, обновления параметров оптимизатором) и должны применяться только к матрицам, которыми
+ * вызывающий код владеет единолично. Если в треде открыта арена временных матриц ({@link MatrixArena}), новые
+ * матрицы-результаты операций берутся из неё вместо выделения памяти.
+ *
+ * Срезы (getRowSlice, getColSlice, getRow, getCol) и транспонирование (transpose) не копируют данные, а возвращают
+ * представление (view) - матрицу, разделяющую массив values с исходной и адресующую его через смещение и шаги. Такие
+ * матрицы доступны только для чтения: изменяющие методы (InPlace/Into, axpy, copyFrom, fill) выбрасывают исключение.
+ * Представление отражает последующие изменения исходной матрицы. Плотную копию можно получить методом materialize
+ * (или deepCopy).
+ *
+ * Значения больших матриц (например, обучающих выборок) могут храниться вне кучи (метод {@link #toOffHeap}): такие
+ * матрицы не нагружают сборщик мусора и ограничены не размером кучи, а параметром -XX:MaxDirectMemorySize. Они, как
+ * и представления, доступны только для чтения; операции над ними копируют операнды в кучу, поэтому предназначены для
+ * небольших срезов (пакетов). Срезы такой матрицы также хранятся вне кучи, а materialize и deepCopy возвращают копию
+ * в куче.
+ *
+ * Точность матрицы задаётся при создании: конструкторы с массивом float[] и {@link #toPrecision} создают матрицы
+ * одинарной точности. Результат операции имеет точность операндов, если она у них совпадает, иначе вычисляется с
+ * двойной точностью. Изменяющие методы сохраняют точность исходной матрицы (приёмника). Атрибуты модели:
  * <pre><ul>
- *  <li>values - двумерный массив, хранящий числа;</li>
- *  <li>rows   - количество строк;</li>
- *  <li>cols   - количество столбцов.</li>
+ *  <li>values      - одномерный массив, хранящий числа двойной точности (null для одинарной точности);</li>
+ *  <li>floatValues - одномерный массив, хранящий числа одинарной точности (null для двойной точности);</li>
+ *  <li>rows        - количество строк;</li>
+ *  <li>cols        - количество столбцов;</li>
+ *  <li>stride      - шаг между началами соседних строк в массиве values;</li>
+ *  <li>colStride   - шаг между соседними элементами строки в массиве values;</li>
+ *  <li>offset      - индекс первого элемента в массиве values.</li>
  * </ul></pre>
+ * В YAML матрица записывается так же, как до перехода на одномерный массив: rows, cols и значения построчно в
+ * двумерном массиве values (для одинарной точности - в floatValues), поля stride, colStride и offset не записываются
+ * (см. {@link #writeReplace()} и {@link #readResolve()}).
  * Если матрица имеет 1 строку, то она является вектором-строкой. Если матрица имеет 1 столбец, то она является
  * вектором-строкой.
  *
  * Матрицы поддерживают базовые арифметические операции (сложение, вычитание, умножение, деление) с матрицами,
- * скалярами, векторами-столбцами, векторами-строками.
+ * скалярами, векторами-столбцами, векторами-строками. Численные циклы (умножение, поэлементные операции, свёртки,
+ * перемешивание) выполняет текущий бэкенд {@link MatrixBackend}, выбранный через {@link MatrixBackends}.
  * <pre>
  * Пример операции с матрицей:
  * |1 2 3|   |7 4 1|   | 8  6  4|
@@ -45,79 +78,565 @@ import java.util.stream.IntStream;
  */
 @YamlSerializable
 public class Matrix implements DeepCopyable, Serializable {
-    @YamlField private final double[][] values;
+    private final double[] values;
+    private final float[] floatValues;
     @YamlField private final int rows;
     @YamlField private final int cols;
+    private final int stride;
+    private final int colStride;
+    private final int offset;
+    private final transient OffHeapStorage offHeap;
+    private final transient boolean view;
+    // построчные значения - только для YAML-сериализации (заполняются в writeReplace, читаются в readResolve)
+    @YamlField(fieldName = "values") private transient double[][] rowValues;
+    @YamlField(fieldName = "floatValues") private transient float[][] floatRowValues;
 
     /**
-     * Конструктор
+     * Конструктор. Значения копируются в одномерный массив
      * @param values значения
      */
     public Matrix(double[][] values) {
+        this(values.length, values[0].length, flatten(values));
+    }
+
+    /**
+     * Конструктор. Массив используется без копирования, поэтому после передачи в матрицу он не должен изменяться
+     * @param rows   количество строк
+     * @param cols   количество столбцов
+     * @param values значения, записанные построчно (длина массива должна быть равна rows * cols)
+     */
+    public Matrix(int rows, int cols, double[] values) {
+        this(values, null, null, 0, rows, cols, cols, 1, false);
+        assertLength(values.length);
+    }
+
+    /**
+     * Конструктор матрицы над отрезком массива. Массив используется без копирования: матрица занимает элементы
+     * values[offset; offset + rows * cols) построчно и, в отличие от представлений, может изменяться (InPlace/Into,
+     * axpy, copyFrom, fill). Позволяет хранить несколько матриц в одном массиве (например, все параметры сети)
+     * @param rows   количество строк
+     * @param cols   количество столбцов
+     * @param values массив значений
+     * @param offset индекс первого элемента
+     */
+    public Matrix(int rows, int cols, double[] values, int offset) {
+        this(values, null, null, offset, rows, cols, cols, 1, false);
+        if (offset < 0 || offset + (long) rows * cols > values.length)
+            throw new IllegalArgumentException(String.format(
+                    "Отрезок массива длины %d со смещением %d не может быть представлен матрицей размерности (%d; %d)",
+                    values.length, offset, rows, cols));
+    }
+
+    /**
+     * Конструктор матрицы одинарной точности. Массив используется без копирования, поэтому после передачи в матрицу он
+     * не должен изменяться
+     * @param rows   количество строк
+     * @param cols   количество столбцов
+     * @param values значения, записанные построчно (длина массива должна быть равна rows * cols)
+     */
+    public Matrix(int rows, int cols, float[] values) {
+        this(null, values, null, 0, rows, cols, cols, 1, false);
+        assertLength(values.length);
+    }
+
+    /**
+     * Основной конструктор: элемент (row; col) хранится в values[offset + row * stride + col * colStride] (или в
+     * floatValues/offHeap по тому же индексу). Задаётся ровно одно из хранилищ
+     * @param values      массив двойной точности
+     * @param floatValues массив одинарной точности
+     * @param offHeap     хранилище вне кучи
+     * @param offset      индекс первого элемента
+     * @param rows        количество строк
+     * @param cols        количество столбцов
+     * @param stride      шаг между строками
+     * @param colStride   шаг между столбцами
+     * @param view        является ли матрица представлением
+     */
+    private Matrix(double[] values, float[] floatValues, OffHeapStorage offHeap, int offset, int rows, int cols,
+                   int stride, int colStride, boolean view) {
+        if (rows < 1 || cols < 1)
+            throw new IllegalArgumentException(String.format(
+                    "Недопустимая размерность матрицы (%d; %d)", rows, cols));
         this.values = values;
-        this.rows = values.length;
-        this.cols = values[0].length;
+        this.floatValues = floatValues;
+        this.offHeap = offHeap;
+        this.rows = rows;
+        this.cols = cols;
+        this.stride = stride;
+        this.colStride = colStride;
+        this.offset = offset;
+        this.view = view;
+    }
+
+    /**
+     * Конструктор матрицы, заполненной нулями
+     * @param rows количество строк
+     * @param cols количество столбцов
+     */
+    public Matrix(int rows, int cols) {
+        this(rows, cols, new double[rows * cols]);
+    }
+
+    /**
+     * Конструктор матрицы заданной точности, заполненной нулями
+     * @param rows      количество строк
+     * @param cols      количество столбцов
+     * @param precision точность
+     */
+    public Matrix(int rows, int cols, Precision precision) {
+        this(precision == Precision.DOUBLE ? new double[rows * cols] : null,
+                precision == Precision.SINGLE ? new float[rows * cols] : null,
+                null, 0, rows, cols, cols, 1, false);
     }
 
     /**
      * Конструктор для сериализации
      */
     private Matrix() {
-        this(new double[1][1]);
+        this(1, 1);
+    }
+
+    /**
+     * Проверка длины массива значений, переданного в конструктор
+     * @param length длина массива
+     */
+    private void assertLength(int length) {
+        if (length != rows * cols)
+            throw new IllegalArgumentException(String.format(
+                    "Массив длины %d не может быть представлен матрицей размерности (%d; %d)",
+                    length, rows, cols));
     }
 
     @Override
     public Matrix deepCopy() {
-        double[][] newValues = new double[rows][];
+        return copy(rows, cols);
+    }
+
+    /**
+     * Получение точности матрицы
+     * @return точность
+     */
+    public Precision getPrecision() {
+        if (offHeap != null)
+            return offHeap.getPrecision();
+        return floatValues == null ? Precision.DOUBLE : Precision.SINGLE;
+    }
+
+    /**
+     * Получение матрицы заданной точности с теми же значениями. Если точность совпадает, возвращается исходная
+     * матрица, иначе создаётся плотная копия (при переходе к одинарной точности значения округляются). Копия матрицы,
+     * хранящейся вне кучи, также размещается вне кучи
+     * @param precision точность
+     * @return          матрица заданной точности
+     */
+    public Matrix toPrecision(Precision precision) {
+        if (precision == getPrecision())
+            return this;
+        if (offHeap != null)
+            return copyOffHeap(precision);
+        switch (precision) {
+            case DOUBLE: {
+                double[] result = new double[size()];
+                for (int row = 0; row < rows; row++)
+                    for (int col = 0; col < cols; col++)
+                        result[row * cols + col] = floatValues[index(row, col)];
+                return new Matrix(rows, cols, result);
+            }
+            case SINGLE: {
+                float[] result = new float[size()];
+                for (int row = 0; row < rows; row++)
+                    for (int col = 0; col < cols; col++)
+                        result[row * cols + col] = (float) values[index(row, col)];
+                return new Matrix(rows, cols, result);
+            }
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Precision.class, precision);
+        }
+    }
+
+    /**
+     * Получение копии матрицы, значения которой хранятся вне кучи (см. описание класса). Если матрица уже хранится вне
+     * кучи, возвращается исходная матрица
+     * @return матрица, хранящаяся вне кучи
+     */
+    public Matrix toOffHeap() {
+        return offHeap != null ? this : copyOffHeap(getPrecision());
+    }
+
+    /**
+     * Хранятся ли значения матрицы вне кучи
+     * @return результат проверки
+     */
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    /**
+     * Создание матрицы, хранящейся вне кучи
+     * @param storage хранилище (размер rows * cols)
+     * @param rows    количество строк
+     * @param cols    количество столбцов
+     * @return        матрица
+     */
+    static Matrix ofOffHeap(OffHeapStorage storage, int rows, int cols) {
+        return new Matrix(null, null, storage, 0, rows, cols, cols, 1, false);
+    }
+
+    /**
+     * Копирование значений в новое хранилище вне кучи
+     * @param precision точность копии
+     * @return          копия, хранящаяся вне кучи
+     */
+    private Matrix copyOffHeap(Precision precision) {
+        final OffHeapStorage storage = new OffHeapStorage(size(), precision);
+        final double[] buffer = new double[cols];
+        for (int row = 0; row < rows; row++) {
+            readValues(row * cols, buffer, cols);
+            storage.write(row * cols, buffer, 0, cols);
+        }
+        return ofOffHeap(storage, rows, cols);
+    }
+
+    /**
+     * Получение плотной матрицы с теми же значениями. Для представления, матрицы над отрезком массива (в том числе
+     * отрезком в начале массива) и матрицы, хранящейся вне кучи, создаётся копия в куче, иначе возвращается исходная
+     * матрица
+     * @return матрица, владеющая своим массивом значений
+     */
+    public Matrix materialize() {
+        return isDense() && offset == 0 && storageLength() == size() ? this : deepCopy();
+    }
+
+    /**
+     * Получение матрицы над отрезком значений исходной плотной матрицы (см. конструктор матрицы над отрезком массива).
+     * Матрица-отрезок разделяет значения с исходной и может изменяться, её точность совпадает с исходной
+     * @param rows  количество строк
+     * @param cols  количество столбцов
+     * @param start номер первого элемента отрезка (нумерация построчная)
+     * @return      матрица над отрезком
+     */
+    public Matrix segment(int rows, int cols, int start) {
+        assertWritable();
+        if (start < 0 || start + (long) rows * cols > size())
+            throw new IllegalArgumentException(String.format(
+                    "Отрезок со смещением %d не может быть представлен матрицей размерности (%d; %d): в матрице %d " +
+                            "элементов", start, rows, cols, size()));
+        return new Matrix(values, floatValues, null, offset + start, rows, cols, cols, 1, false);
+    }
+
+    /**
+     * Получение ленивого выражения над матрицей. Операции над выражением не выполняются сразу, а записываются и
+     * вычисляются одним проходом по данным при вызове завершающей операции (см. {@link MatrixExpression})
+     * <pre>
+     * Пример:
+     * a.sub(b).mul(a.sub(b)).sum()                     - три временные матрицы
+     * d = a.lazy().sub(b); d.mul(d).sum()              - один проход без временных матриц
+     * </pre>
+     * @return выражение, значения которого совпадают со значениями матрицы
+     */
+    public MatrixExpression lazy() {
+        return MatrixExpression.of(this);
+    }
+
+    /**
+     * Является ли матрица представлением другой матрицы (см. описание класса)
+     * @return true, если матрица разделяет массив значений с другой матрицей
+     */
+    public boolean isView() {
+        return view;
+    }
+
+    /**
+     * При сериализации (Java и YAML, см. {@link serialization.wrappers.complex.ObjectWrapper}) представление и матрица
+     * над отрезком массива заменяются плотной копией, чтобы не сохранять весь массив исходной матрицы. Для YAML у копии
+     * заполняются построчные значения
+     * @return сериализуемый объект
+     */
+    private Object writeReplace() {
+        final Matrix dense = materialize();
+        final Matrix result = new Matrix(dense.values, dense.floatValues, null, 0, rows, cols, cols, 1, false);
+        if (dense.floatValues != null) {
+            result.floatRowValues = new float[rows][];
+            for (int row = 0; row < rows; row++)
+                result.floatRowValues[row] = Arrays.copyOfRange(dense.floatValues, row * cols, (row + 1) * cols);
+        } else {
+            result.rowValues = new double[rows][];
+            for (int row = 0; row < rows; row++)
+                result.rowValues[row] = Arrays.copyOfRange(dense.values, row * cols, (row + 1) * cols);
+        }
+        return result;
+    }
+
+    /**
+     * После чтения из YAML матрица создаётся по построчным значениям. После Java-десериализации (построчных значений
+     * нет) возвращается исходная матрица
+     * @return прочитанная матрица
+     */
+    private Object readResolve() {
+        if (rowValues != null)
+            return new Matrix(rowValues);
+        if (floatRowValues != null)
+            return new Matrix(floatRowValues.length, floatRowValues[0].length, flatten(floatRowValues));
+        return this;
+    }
+
+    /**
+     * Запись двумерного массива в одномерный построчно
+     * @param values двумерный массив (все строки должны иметь одинаковую длину)
+     * @return       одномерный массив
+     */
+    private static double[] flatten(double[][] values) {
+        final int cols = values[0].length;
+        double[] result = new double[values.length * cols];
+        for (int row = 0; row < values.length; row++) {
+            if (values[row].length != cols)
+                throw new IllegalArgumentException(String.format(
+                        "В строке %d неверное количество элементов (ожидалось %d, получено %d)",
+                        row, cols, values[row].length));
+            System.arraycopy(values[row], 0, result, row * cols, cols);
+        }
+        return result;
+    }
+
+    /**
+     * Запись двумерного массива одинарной точности в одномерный построчно
+     * @param values двумерный массив (все строки должны иметь одинаковую длину)
+     * @return       одномерный массив
+     */
+    private static float[] flatten(float[][] values) {
+        final int cols = values[0].length;
+        float[] result = new float[values.length * cols];
+        for (int row = 0; row < values.length; row++) {
+            if (values[row].length != cols)
+                throw new IllegalArgumentException(String.format(
+                        "В строке %d неверное количество элементов (ожидалось %d, получено %d)",
+                        row, cols, values[row].length));
+            System.arraycopy(values[row], 0, result, row * cols, cols);
+        }
+        return result;
+    }
+
+    /**
+     * Получение индекса элемента в массиве values
+     * @param row номер строки
+     * @param col номер столбца
+     * @return    индекс
+     */
+    private int index(int row, int col) {
+        return offset + row * stride + col * colStride;
+    }
+
+    /**
+     * Является ли матрица плотной: не представление, элементы лежат в массиве values подряд построчно, начиная с offset
+     * (offset отличен от 0 только у матриц над отрезком массива)
+     * @return результат проверки
+     */
+    private boolean isDense() {
+        return offHeap == null && !view && stride == cols && colStride == 1;
+    }
+
+    /**
+     * Лежат ли элементы в массиве values подряд построчно, начиная с offset (как у плотной матрицы). Для матриц,
+     * хранящихся вне кучи, всегда false: перед передачей в бэкенд они копируются в кучу
+     * @return результат проверки
+     */
+    private boolean isContiguous() {
+        return offHeap == null && (cols == 1 || colStride == 1) && (rows == 1 || stride == cols);
+    }
+
+    /**
+     * Лежат ли элементы в массиве values подряд по столбцам, начиная с offset (как у транспонированной плотной
+     * матрицы)
+     * @return результат проверки
+     */
+    private boolean isTransposedContiguous() {
+        return offHeap == null && (rows == 1 || stride == 1) && (cols == 1 || colStride == rows);
+    }
+
+    /**
+     * Получение матрицы с теми же значениями, элементы которой лежат в массиве подряд (для передачи в бэкенд)
+     * @return исходная матрица или её плотная копия
+     */
+    private Matrix contiguous() {
+        return isContiguous() ? this : deepCopy();
+    }
+
+    /**
+     * Плотная копия матрицы той же точности с заданной формой
+     * @param newRows количество строк (newRows * newCols = size())
+     * @param newCols количество столбцов
+     * @return        копия
+     */
+    private Matrix copy(int newRows, int newCols) {
+        final Matrix result = allocate(newRows, newCols, getPrecision());
+        if (result.floatValues != null)
+            copyValues(result.floatValues);
+        else
+            copyValues(result.values);
+        return result;
+    }
+
+    /**
+     * Создание матрицы для результата операции. Если в треде открыта арена временных матриц ({@link MatrixArena}),
+     * матрица берётся из неё и её значения не определены, иначе создаётся новая матрица. В обоих случаях вызывающий
+     * код должен полностью перезаписать значения
+     * @param rows      количество строк
+     * @param cols      количество столбцов
+     * @param precision точность
+     * @return          плотная матрица
+     */
+    static Matrix allocate(int rows, int cols, Precision precision) {
+        final MatrixArena arena = MatrixArena.current();
+        return arena != null ? arena.take(rows, cols, precision) : new Matrix(rows, cols, precision);
+    }
+
+    /**
+     * Получение матрицы с теми же значениями, хранящейся в куче (для доступа к массиву значений)
+     * @return исходная матрица или её плотная копия в куче
+     */
+    private Matrix onHeap() {
+        return offHeap == null ? this : deepCopy();
+    }
+
+    /**
+     * Получение длины массива значений
+     * @return длина массива (для матриц вне кучи - размер матрицы)
+     */
+    private int storageLength() {
+        if (offHeap != null)
+            return size();
+        return floatValues != null ? floatValues.length : values.length;
+    }
+
+    /**
+     * Хранилище значений матрицы (double[] или float[] в зависимости от точности, либо хранилище вне кучи)
+     * @return хранилище значений
+     */
+    private Object storage() {
+        if (offHeap != null)
+            return offHeap;
+        return floatValues != null ? floatValues : values;
+    }
+
+    /**
+     * Копирование значений матрицы двойной точности в массив построчно
+     * @param result массив-приёмник длины size()
+     */
+    private void copyValues(double[] result) {
+        if (isContiguous()) {
+            System.arraycopy(values, offset, result, 0, size());
+            return;
+        }
+        for (int row = 0; row < rows; row++)
+            copyRow(row, result, row * cols);
+    }
+
+    /**
+     * Копирование значений матрицы одинарной точности в массив построчно
+     * @param result массив-приёмник длины size()
+     */
+    private void copyValues(float[] result) {
+        if (isContiguous()) {
+            System.arraycopy(floatValues, offset, result, 0, size());
+            return;
+        }
         for (int row = 0; row < rows; row++)
-            newValues[row] = Arrays.copyOf(values[row], cols);
-        return new Matrix(newValues);
+            copyRow(row, result, row * cols);
     }
 
     /**
-     * Перечисление операторов
+     * Копирование строки матрицы двойной точности в массив
+     * @param row               номер строки
+     * @param destination       массив-приёмник
+     * @param destinationOffset индекс в приёмнике, с которого записывается строка
      */
-    private enum Operator {
-        /**
-         * умножение
-         */
-        MUL,
-        /**
-         * сложение
-         */
-        ADD,
-        /**
-         * вычитание
-         */
-        SUB,
-        /**
-         * деление
-         */
-        DIV
+    private void copyRow(int row, double[] destination, int destinationOffset) {
+        if (offHeap != null) {
+            offHeap.read(index(row, 0), colStride, destination, destinationOffset, cols);
+            return;
+        }
+        if (colStride == 1) {
+            System.arraycopy(values, index(row, 0), destination, destinationOffset, cols);
+            return;
+        }
+        for (int col = 0; col < cols; col++)
+            destination[destinationOffset + col] = values[index(row, col)];
     }
 
     /**
-     * Применение оператора к операндам
-     * @param operator оператор
-     * @param value1   операнд1
-     * @param value2   операнд2
-     * @return         результат применения оператора
-     */
-    private double applyOperator(Operator operator, double value1, double value2) {
-        switch (operator) {  // перебор операторов
-            case ADD:
-                return value1 + value2;
-            case SUB:
-                return value1 - value2;
-            case MUL:
-                return value1 * value2;
-            case DIV:
-                return value1 / value2;
-            default:  // не известный оператор
-                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+     * Копирование строки матрицы одинарной точности в массив
+     * @param row               номер строки
+     * @param destination       массив-приёмник
+     * @param destinationOffset индекс в приёмнике, с которого записывается строка
+     */
+    private void copyRow(int row, float[] destination, int destinationOffset) {
+        if (offHeap != null) {
+            offHeap.read(index(row, 0), colStride, destination, destinationOffset, cols);
+            return;
+        }
+        if (colStride == 1) {
+            System.arraycopy(floatValues, index(row, 0), destination, destinationOffset, cols);
+            return;
+        }
+        for (int col = 0; col < cols; col++)
+            destination[destinationOffset + col] = floatValues[index(row, col)];
+    }
+
+    /**
+     * Чтение отрезка значений матрицы в массив двойной точности. Элементы нумеруются построчно, как у плотной матрицы
+     * (элемент (row; col) имеет номер row * cols + col), поэтому отрезок может захватывать несколько строк
+     * @param from        номер первого элемента
+     * @param destination массив-приёмник
+     * @param length      длина отрезка
+     */
+    void readValues(int from, double[] destination, int length) {
+        if (isContiguous() && floatValues == null) {
+            System.arraycopy(values, offset + from, destination, 0, length);
+            return;
+        }
+        for (int i = 0; i < length; ) {
+            final int row = (from + i) / cols;
+            final int col = (from + i) % cols;
+            final int count = Math.min(length - i, cols - col);
+            final int start = index(row, col);
+            if (offHeap != null)
+                offHeap.read(start, colStride, destination, i, count);
+            else if (floatValues != null)
+                for (int j = 0; j < count; j++)
+                    destination[i + j] = floatValues[start + j * colStride];
+            else
+                for (int j = 0; j < count; j++)
+                    destination[i + j] = values[start + j * colStride];
+            i += count;
         }
     }
 
+    /**
+     * Запись отрезка значений в плотную матрицу (нумерация элементов - см. {@link #readValues}). Для матрицы
+     * одинарной точности значения округляются
+     * @param from   номер первого элемента
+     * @param source массив значений
+     * @param length длина отрезка
+     */
+    void writeValues(int from, double[] source, int length) {
+        if (floatValues != null)
+            for (int i = 0; i < length; i++)
+                floatValues[offset + from + i] = (float) source[i];
+        else
+            System.arraycopy(source, 0, values, offset + from, length);
+    }
+
+    /**
+     * Проверка возможности изменения матрицы. Изменять можно только плотные матрицы, для представлений выбрасывается
+     * исключение
+     */
+    void assertWritable() {
+        if (!isDense())
+            throw new IllegalStateException(String.format(
+                    "Матрица размерности (%d; %d) является представлением и доступна только для чтения, " +
+                            "используйте materialize() или deepCopy()", rows, cols));
+    }
+
     /**
      * Выполнение операции с матрицей
      * @param operator оператор
@@ -127,11 +646,18 @@ public class Matrix implements DeepCopyable, Serializable {
     private Matrix doOperation(Operator operator, Matrix matrix) {
         assertEqualRowsAndCols(matrix,
                 "Матрицы размерности (%d; %d) и (%d; %d) имеют разное количество столбцов и/или строк");
-        double[][] result = new double[rows][cols];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[row][col] = applyOperator(operator, values[row][col], matrix.values[row][col]);
-        return new Matrix(result);
+        final Precision precision = getPrecision().common(matrix.getPrecision());
+        final Matrix a = toPrecision(precision).contiguous();
+        final Matrix b = matrix.toPrecision(precision).contiguous();
+        if (precision == Precision.SINGLE) {
+            final Matrix result = allocate(rows, cols, Precision.SINGLE);
+            MatrixBackends.get().apply(operator, a.floatValues, a.offset, b.floatValues, b.offset,
+                    result.floatValues, 0, size());
+            return result;
+        }
+        final Matrix result = allocate(rows, cols, Precision.DOUBLE);
+        MatrixBackends.get().apply(operator, a.values, a.offset, b.values, b.offset, result.values, 0, size());
+        return result;
     }
 
     /**
@@ -141,11 +667,51 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return         результат выполнения операции
      */
     private Matrix doOperation(Operator operator, Number number) {
-        double[][] result = new double[rows][cols];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[row][col] = applyOperator(operator, values[row][col], number.doubleValue());
-        return new Matrix(result);
+        final Matrix a = contiguous();
+        if (a.floatValues != null) {
+            final Matrix result = allocate(rows, cols, Precision.SINGLE);
+            MatrixBackends.get().apply(operator, a.floatValues, a.offset, number.floatValue(),
+                    result.floatValues, 0, size());
+            return result;
+        }
+        final Matrix result = allocate(rows, cols, Precision.DOUBLE);
+        MatrixBackends.get().apply(operator, a.values, a.offset, number.doubleValue(), result.values, 0, size());
+        return result;
+    }
+
+    /**
+     * Выполнение операции с матрицей с записью результата в исходную матрицу
+     * @param operator оператор
+     * @param matrix   вторая матрица
+     * @return         исходная матрица
+     */
+    private Matrix doOperationInPlace(Operator operator, Matrix matrix) {
+        assertEqualRowsAndCols(matrix,
+                "Матрицы размерности (%d; %d) и (%d; %d) имеют разное количество столбцов и/или строк");
+        assertWritable();
+        final Matrix b = matrix.toPrecision(getPrecision()).contiguous();
+        if (floatValues != null)
+            MatrixBackends.get().apply(operator, floatValues, offset, b.floatValues, b.offset, floatValues, offset,
+                    size());
+        else
+            MatrixBackends.get().apply(operator, values, offset, b.values, b.offset, values, offset, size());
+        return this;
+    }
+
+    /**
+     * Выполнение операции с числом с записью результата в исходную матрицу
+     * @param operator оператор
+     * @param number   число
+     * @return         исходная матрица
+     */
+    private Matrix doOperationInPlace(Operator operator, Number number) {
+        assertWritable();
+        if (floatValues != null)
+            MatrixBackends.get().apply(operator, floatValues, offset, number.floatValue(), floatValues, offset,
+                    size());
+        else
+            MatrixBackends.get().apply(operator, values, offset, number.doubleValue(), values, offset, size());
+        return this;
     }
 
     /**
@@ -156,11 +722,19 @@ public class Matrix implements DeepCopyable, Serializable {
      */
     private Matrix doColOperation(Operator operator, Matrix colMatrix) {
         assertEqualRows(colMatrix, "Матрицы размерности (%d; %d) и (%d; %d) имеют разное количество строк");
-        double[][] result = new double[rows][cols];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[row][col] = applyOperator(operator, values[row][col], colMatrix.values[row][0]);
-        return new Matrix(result);
+        final Precision precision = getPrecision().common(colMatrix.getPrecision());
+        final Matrix a = toPrecision(precision).contiguous();
+        final Matrix col = colMatrix.toPrecision(precision).onHeap();
+        if (precision == Precision.SINGLE) {
+            final Matrix result = allocate(rows, cols, Precision.SINGLE);
+            MatrixBackends.get().applyCol(operator, a.floatValues, a.offset, col.floatValues, col.offset,
+                    col.stride, result.floatValues, 0, rows, cols);
+            return result;
+        }
+        final Matrix result = allocate(rows, cols, Precision.DOUBLE);
+        MatrixBackends.get().applyCol(operator, a.values, a.offset, col.values, col.offset,
+                col.stride, result.values, 0, rows, cols);
+        return result;
     }
 
     /**
@@ -171,11 +745,19 @@ public class Matrix implements DeepCopyable, Serializable {
      */
     private Matrix doRowOperation(Operator operator, Matrix rowMatrix) {
         assertEqualCols(rowMatrix, "Матрицы размерности (%d; %d) и (%d; %d) имеют разное количество столбцов");
-        double[][] result = new double[rows][cols];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[row][col] = applyOperator(operator, values[row][col], rowMatrix.values[0][col]);
-        return new Matrix(result);
+        final Precision precision = getPrecision().common(rowMatrix.getPrecision());
+        final Matrix a = toPrecision(precision).contiguous();
+        final Matrix row = rowMatrix.getRow(0).toPrecision(precision).contiguous();
+        if (precision == Precision.SINGLE) {
+            final Matrix result = allocate(rows, cols, Precision.SINGLE);
+            MatrixBackends.get().applyRow(operator, a.floatValues, a.offset, row.floatValues, row.offset,
+                    result.floatValues, 0, rows, cols);
+            return result;
+        }
+        final Matrix result = allocate(rows, cols, Precision.DOUBLE);
+        MatrixBackends.get().applyRow(operator, a.values, a.offset, row.values, row.offset, result.values, 0,
+                rows, cols);
+        return result;
     }
 
     /**
@@ -216,7 +798,7 @@ public class Matrix implements DeepCopyable, Serializable {
                 result.append(' ');
             result.append('[');
             for (int col = 0; col < cols; col++)
-                result.append(String.format(format, values[row][col]));
+                result.append(String.format(format, getValue(row, col)));
             result.append(']');
             if (row < rows - 1)
                 result.append('\n');
@@ -236,7 +818,7 @@ public class Matrix implements DeepCopyable, Serializable {
         for (int row = 0; row < rows; row++) {
             result.append('[');
             for (int col = 0; col < cols; col++)
-                result.append(String.format(format, values[row][col])).append(", ");
+                result.append(String.format(format, getValue(row, col))).append(", ");
             result.delete(result.length() - 2, result.length());
             result.append("], ");
         }
@@ -257,7 +839,7 @@ public class Matrix implements DeepCopyable, Serializable {
         return valuesToStringOneLine("%10.5f");
     }
 
-    private double[][] getValues() {
+    private double[] getValues() {
         return this.values;
     }
 
@@ -268,7 +850,9 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return    значение
      */
     public double getValue(int row, int col) {
-        return values[row][col];
+        if (offHeap != null)
+            return offHeap.get(index(row, col));
+        return floatValues != null ? floatValues[index(row, col)] : values[index(row, col)];
     }
 
     /**
@@ -278,7 +862,13 @@ public class Matrix implements DeepCopyable, Serializable {
      */
     public double[] getValue(int row) {
         // возвращается копия
-        return Arrays.copyOf(values[row], cols);
+        double[] result = new double[cols];
+        if (floatValues != null)
+            for (int col = 0; col < cols; col++)
+                result[col] = floatValues[index(row, col)];
+        else
+            copyRow(row, result, 0);
+        return result;
     }
 
     /**
@@ -306,13 +896,10 @@ public class Matrix implements DeepCopyable, Serializable {
      * |7 8 9|
      * </pre>
      * @param row номер строки
-     * @return    вектор-строка
+     * @return    вектор-строка (представление)
      */
     public Matrix getRow(int row) {
-        double[][] result = new double[1][cols];
-        for (int col = 0; col < cols; col++)
-            result[0][col] = values[row][col];
-        return new Matrix(result);
+        return getRowSlice(row, row + 1, 1);
     }
 
     /**
@@ -324,13 +911,10 @@ public class Matrix implements DeepCopyable, Serializable {
      * |7 8 9|     |8|
      * </pre>
      * @param col номер столбца
-     * @return    вектор-столбец
+     * @return    вектор-столбец (представление)
      */
     public Matrix getCol(int col) {
-        double[][] result = new double[rows][1];
-        for (int row = 0; row < rows; row++)
-            result[row][0] = values[row][col];
-        return new Matrix(result);
+        return getColSlice(col, col + 1, 1);
     }
 
     /**
@@ -349,13 +933,98 @@ public class Matrix implements DeepCopyable, Serializable {
     public Matrix mulMatrix(Matrix matrix) {
         assertEqualColsRows(matrix,
                 "Матрица размерности (%d; %d) не может быть умножена на предоставленную матрицу размера (%d; %d)");
-        double[][] result = new double[rows][matrix.cols];
-        Matrix[] rows1 = IntStream.range(0, this.rows).mapToObj(row -> this.getRow(row).transpose()).toArray(Matrix[]::new);
-        Matrix[] cols2 = IntStream.range(0, matrix.cols).mapToObj(col -> matrix.getCol(col)).toArray(Matrix[]::new);
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < matrix.cols; col++)
-                result[row][col] = MatrixUtils.mulScalar(rows1[row], cols2[col]);
-        return new Matrix(result);
+        final Matrix result = allocate(rows, matrix.cols, getPrecision().common(matrix.getPrecision()));
+        multiply(this, false, matrix, false, result);
+        return result;
+    }
+
+    /**
+     * Матричное умножение транспонированной исходной матрицы на вторую матрицу. Эквивалентно
+     * transpose().mulMatrix(matrix), но транспонированная копия не создаётся
+     * <pre>
+     * Пример:
+     * |1 2|                   |1 3 5|   |1 2|   |35 44|
+     * |3 4|.mulMatrixTransA = |2 4 6| x |3 4| = |44 56|
+     * |5 6|                             |5 6|
+     * </pre>
+     * @param matrix вторая матрица (её количество строк должно совпадать с количеством строк исходной матрицы)
+     * @return       результат умножения (матрица размера cols1 x cols2)
+     */
+    public Matrix mulMatrixTransA(Matrix matrix) {
+        assertEqualRows(matrix,
+                "Транспонированная матрица размерности (%d; %d) не может быть умножена на предоставленную " +
+                        "матрицу размера (%d; %d)");
+        final Matrix result = allocate(cols, matrix.cols, getPrecision().common(matrix.getPrecision()));
+        multiply(this, true, matrix, false, result);
+        return result;
+    }
+
+    /**
+     * Матричное умножение исходной матрицы на транспонированную вторую матрицу. Эквивалентно
+     * mulMatrix(matrix.transpose()), но транспонированная копия не создаётся
+     * <pre>
+     * Пример:
+     * |1 2|                   |1 2|   |1 3 5|   | 5 11 17|
+     * |3 4|.mulMatrixTransB = |3 4| x |2 4 6| = |11 25 39|
+     * |5 6|                   |5 6|             |17 39 61|
+     * </pre>
+     * @param matrix вторая матрица (её количество столбцов должно совпадать с количеством столбцов исходной матрицы)
+     * @return       результат умножения (матрица размера rows1 x rows2)
+     */
+    public Matrix mulMatrixTransB(Matrix matrix) {
+        assertEqualCols(matrix,
+                "Матрица размерности (%d; %d) не может быть умножена на предоставленную транспонированную " +
+                        "матрицу размера (%d; %d)");
+        final Matrix result = allocate(rows, matrix.rows, getPrecision().common(matrix.getPrecision()));
+        multiply(this, false, matrix, true, result);
+        return result;
+    }
+
+    /**
+     * Матричное умножение C = op(A) * op(B), где op(X) = X или X^T. Операнды, элементы которых лежат в массиве подряд
+     * построчно или по столбцам (например, транспонированные представления), передаются бэкенду без копирования:
+     * хранение по столбцам учитывается выбором ядра (multiplyTransA/multiplyTransB). Прочие представления копируются.
+     * Операнды приводятся к точности C
+     * @param a      матрица A
+     * @param transA транспонировать ли A
+     * @param b      матрица B
+     * @param transB транспонировать ли B
+     * @param c      плотная матрица результата (перезаписывается)
+     */
+    private static void multiply(Matrix a, boolean transA, Matrix b, boolean transB, Matrix c) {
+        a = a.toPrecision(c.getPrecision());
+        b = b.toPrecision(c.getPrecision());
+        if (!a.isContiguous() && a.isTransposedContiguous()) {  // A хранится по столбцам
+            a = a.transpose();
+            transA = !transA;
+        } else
+            a = a.contiguous();
+        if (!b.isContiguous() && b.isTransposedContiguous()) {
+            b = b.transpose();
+            transB = !transB;
+        } else
+            b = b.contiguous();
+        if (transA && transB) {  // ядра для A^T * B^T нет, поэтому B^T копируется
+            b = b.transpose().deepCopy();
+            transB = false;
+        }
+        final int m = transA ? a.cols : a.rows;
+        final int k = transA ? a.rows : a.cols;
+        final int n = transB ? b.rows : b.cols;
+        final MatrixBackend backend = MatrixBackends.get();
+        if (c.floatValues != null) {
+            if (transA)
+                backend.multiplyTransA(a.floatValues, a.offset, b.floatValues, b.offset, c.floatValues, c.offset, m, k, n);
+            else if (transB)
+                backend.multiplyTransB(a.floatValues, a.offset, b.floatValues, b.offset, c.floatValues, c.offset, m, k, n);
+            else
+                backend.multiply(a.floatValues, a.offset, b.floatValues, b.offset, c.floatValues, c.offset, m, k, n);
+        } else if (transA)
+            backend.multiplyTransA(a.values, a.offset, b.values, b.offset, c.values, c.offset, m, k, n);
+        else if (transB)
+            backend.multiplyTransB(a.values, a.offset, b.values, b.offset, c.values, c.offset, m, k, n);
+        else
+            backend.multiply(a.values, a.offset, b.values, b.offset, c.values, c.offset, m, k, n);
     }
 
     /**
@@ -515,11 +1184,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return сумма
      */
     public double sum() {
-        double result = 0.0;
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result += values[row][col];
-        return result;
+        return reduceAll(Reduction.SUM, 0.0);
     }
 
     /**
@@ -541,30 +1206,18 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return     вектор сумм
      */
     public Matrix sum(int axis) {
-        double[][] result;
-        double s;
-        switch (axis) {
-            case 0:
-                result = new double[rows][1];
-                for (int row = 0; row < rows; row++) {
-                    s = 0;
-                    for (int col = 0; col < cols; col++)
-                        s += values[row][col];
-                    result[row][0] = s;
-                }
-                return new Matrix(result);
-            case 1:
-                result = new double[1][cols];
-                for (int col = 0; col < cols; col++) {
-                    s = 0;
-                    for (int row = 0; row < rows; row++)
-                        s += values[row][col];
-                    result[0][col] = s;
-                }
-                return new Matrix(result);
-            default:
-                throw ExceptionUtils.newUnknownAxisException(axis, 2);
-        }
+        return reduce(Reduction.SUM, axis);
+    }
+
+    /**
+     * Суммирование по оси с записью результата в матрицу-приёмник, см. {@link #sum(int)}
+     * @param axis        ось (0 или 1)
+     * @param destination приёмник с количеством элементов, равным длине вектора сумм (форма не проверяется, например
+     *                    суммы столбцов можно записать в вектор-столбец), той же точности
+     * @return            приёмник
+     */
+    public Matrix sumInto(int axis, Matrix destination) {
+        return reduceInto(Reduction.SUM, axis, destination);
     }
 
     /**
@@ -578,11 +1231,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return минимальное значение
      */
     public double min() {
-        double result = Double.MAX_VALUE;
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result = Math.min(result, values[row][col]);
-        return result;
+        return reduceAll(Reduction.MIN, Double.MAX_VALUE);
     }
 
     /**
@@ -602,25 +1251,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return     вектор минимальных значений
      */
     public Matrix min(int axis) {
-        double[][] result;
-        switch (axis) {
-            case 0:
-                result = new double[rows][1];
-                for (int row = 0; row < rows; row++) {
-                    for (int col = 0; col < cols; col++)
-                        result[row][0] = Math.min(result[row][0], values[row][col]);
-                }
-                return new Matrix(result);
-            case 1:
-                result = new double[1][cols];
-                for (int col = 0; col < cols; col++) {
-                    for (int row = 0; row < rows; row++)
-                        result[0][col] = Math.min(result[0][col], values[row][col]);
-                }
-                return new Matrix(result);
-            default:
-                throw ExceptionUtils.newUnknownAxisException(axis, 2);
-        }
+        return reduce(Reduction.MIN, axis);
     }
 
     /**
@@ -634,11 +1265,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return максимальное значение
      */
     public double max() {
-        double result = Double.MIN_VALUE;
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result = Math.max(result, values[row][col]);
-        return result;
+        return reduceAll(Reduction.MAX, Double.MIN_VALUE);
     }
 
     /**
@@ -658,22 +1285,82 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return     вектор максимальных значений
      */
     public Matrix max(int axis) {
-        double[][] result;
+        return reduce(Reduction.MAX, axis);
+    }
+
+    /**
+     * Свёртка всех элементов матрицы
+     * @param reduction свёртка
+     * @param initial   начальное значение
+     * @return          результат свёртки
+     */
+    private double reduceAll(Reduction reduction, double initial) {
+        if (offHeap != null) {  // значения копируются в кучу частями, а не целиком
+            final double[] buffer = new double[Math.min(size(), 1 << 14)];
+            double result = initial;
+            for (int from = 0; from < size(); from += buffer.length) {
+                final int length = Math.min(buffer.length, size() - from);
+                readValues(from, buffer, length);
+                result = MatrixBackends.get().reduce(reduction, buffer, 0, length, result);
+            }
+            return result;
+        }
+        final Matrix a = contiguous();
+        if (a.floatValues != null)
+            return MatrixBackends.get().reduce(reduction, a.floatValues, a.offset, size(), initial);
+        return MatrixBackends.get().reduce(reduction, a.values, a.offset, size(), initial);
+    }
+
+    /**
+     * Свёртка матрицы по осям (см. метод sum(int axis)). Начальное значение каждой свёртки - 0
+     * @param reduction свёртка
+     * @param axis      ось (0 или 1)
+     * @return          вектор результатов свёртки
+     */
+    private Matrix reduce(Reduction reduction, int axis) {
         switch (axis) {
             case 0:
-                result = new double[rows][1];
-                for (int row = 0; row < rows; row++) {
-                    for (int col = 0; col < cols; col++)
-                        result[row][0] = Math.max(result[row][0], values[row][col]);
-                }
-                return new Matrix(result);
+                return reduceInto(reduction, axis, allocate(rows, 1, getPrecision()));
             case 1:
-                result = new double[1][cols];
-                for (int col = 0; col < cols; col++) {
-                    for (int row = 0; row < rows; row++)
-                        result[0][col] = Math.max(result[0][col], values[row][col]);
-                }
-                return new Matrix(result);
+                return reduceInto(reduction, axis, allocate(1, cols, getPrecision()));
+            default:
+                throw ExceptionUtils.newUnknownAxisException(axis, 2);
+        }
+    }
+
+    /**
+     * Свёртка по оси с записью результата в матрицу-приёмник
+     * @param reduction   свёртка
+     * @param axis        ось
+     * @param destination приёмник (вектор-столбец для оси 0, вектор-строка для оси 1) той же точности
+     * @return            приёмник
+     */
+    private Matrix reduceInto(Reduction reduction, int axis, Matrix destination) {
+        final int length = axis == 0 ? rows : cols;
+        if (destination.size() != length || destination.getPrecision() != getPrecision())
+            throw new IllegalArgumentException(String.format(
+                    "Приёмник размерности (%d; %d) точности %s не подходит для свёртки по оси %d матрицы " +
+                            "размерности (%d; %d) точности %s", destination.rows, destination.cols,
+                    destination.getPrecision(), axis, rows, cols, getPrecision()));
+        destination.assertWritable();
+        final Matrix a = contiguous();
+        switch (axis) {
+            case 0:
+                if (a.floatValues != null)
+                    MatrixBackends.get().reduceRows(reduction, a.floatValues, a.offset, rows, cols, 0.0,
+                            destination.floatValues, destination.offset);
+                else
+                    MatrixBackends.get().reduceRows(reduction, a.values, a.offset, rows, cols, 0.0,
+                            destination.values, destination.offset);
+                return destination;
+            case 1:
+                if (a.floatValues != null)
+                    MatrixBackends.get().reduceCols(reduction, a.floatValues, a.offset, rows, cols, 0.0,
+                            destination.floatValues, destination.offset);
+                else
+                    MatrixBackends.get().reduceCols(reduction, a.values, a.offset, rows, cols, 0.0,
+                            destination.values, destination.offset);
+                return destination;
             default:
                 throw ExceptionUtils.newUnknownAxisException(axis, 2);
         }
@@ -687,14 +1374,10 @@ public class Matrix implements DeepCopyable, Serializable {
      * |3 4| --> |2 4 6|
      * |5 6|
      * </pre>
-     * @return транспонированная матрица
+     * @return транспонированная матрица (представление)
      */
     public Matrix transpose() {
-        double[][] result = new double[cols][rows];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[col][row] = values[row][col];
-        return new Matrix(result);
+        return new Matrix(values, floatValues, offHeap, offset, cols, rows, colStride, stride, true);
     }
 
     /**
@@ -710,18 +1393,14 @@ public class Matrix implements DeepCopyable, Serializable {
      * @param start начало
      * @param stop  конец (не включается)
      * @param step  шаг
-     * @return      срез
+     * @return      срез (представление)
      */
     public Matrix getRowSlice(int start, int stop, int step) {
         if (start > stop || start > rows || stop > rows || step < 1)
             throw new IllegalArgumentException(String.format(
                     "Недопустимые аргументы для среза (start=%d, stop=%d, step=%d)", start, stop, step));
         int rows = (int)Math.ceil((stop - start) * 1.0 / step);
-        double[][] result = new double[rows][cols];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[row][col] = values[start + row * step][col];
-        return new Matrix(result);
+        return new Matrix(values, floatValues, offHeap, index(start, 0), rows, cols, stride * step, colStride, true);
     }
 
     /**
@@ -737,18 +1416,14 @@ public class Matrix implements DeepCopyable, Serializable {
      * @param start начало
      * @param stop  конец (не включается)
      * @param step  шаг
-     * @return      срез
+     * @return      срез (представление)
      */
     public Matrix getColSlice(int start, int stop, int step) {
         if (start > stop || start > cols || stop > cols || step < 1)
             throw new IllegalArgumentException(String.format(
                     "Недопустимые аргументы для среза (start=%d, stop=%d, step=%d)", start, stop, step));
         int cols = (int)Math.ceil((stop - start) * 1.0 / step);
-        double[][] result = new double[rows][cols];
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[row][col] = values[row][start + col * step];
-        return new Matrix(result);
+        return new Matrix(values, floatValues, offHeap, index(0, start), rows, cols, stride, colStride * step, true);
     }
 
     /**
@@ -762,7 +1437,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return матрица единиц
      */
     public Matrix onesLike() {
-        return zerosLike().add(1);
+        return allocate(rows, cols, getPrecision()).fill(1.0);
     }
 
     /**
@@ -776,7 +1451,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return матрица нулей
      */
     public Matrix zerosLike() {
-        return new Matrix(new double[rows][cols]);
+        return new Matrix(rows, cols, getPrecision());
     }
 
     /**
@@ -797,22 +1472,23 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return       расширенная матрица
      */
     public Matrix extend(int factor, int axis) {
-        double[][] result;
+        if (getPrecision() == Precision.SINGLE)  // операция не вычислительная, поэтому выполняется с двойной точностью
+            return toPrecision(Precision.DOUBLE).extend(factor, axis).toPrecision(Precision.SINGLE);
+        double[] result;
         switch (axis) {
             case 0:
-                result = new double[rows * factor][cols];
+                result = new double[size() * factor];
                 for (int row = 0; row < rows; row++)
-                    for (int col = 0; col < cols; col++)
-                        for (int i = 0; i < factor; i++)
-                            result[row * factor + i][col] = values[row][col];
-                return new Matrix(result);
+                    for (int i = 0; i < factor; i++)
+                        copyRow(row, result, (row * factor + i) * cols);
+                return new Matrix(rows * factor, cols, result);
             case 1:
-                result = new double[rows][cols * factor];
+                result = new double[size() * factor];
                 for (int row = 0; row < rows; row++)
                     for (int col = 0; col < cols; col++)
-                        for (int i = 0; i < factor; i++)
-                            result[row][col * factor + i] = values[row][col];
-                return new Matrix(result);
+                        Arrays.fill(result, row * cols * factor + col * factor,
+                                row * cols * factor + (col + 1) * factor, getValue(row, col));
+                return new Matrix(rows, cols * factor, result);
             default:
                 throw ExceptionUtils.newUnknownAxisException(axis, 2);
         }
@@ -838,33 +1514,31 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return       конкатенированная матрица
      */
     public Matrix stack(Matrix matrix, int axis) {
-        double[][] result;
+        if (getPrecision() == Precision.SINGLE || matrix.getPrecision() == Precision.SINGLE)  // см. extend
+            return toPrecision(Precision.DOUBLE).stack(matrix.toPrecision(Precision.DOUBLE), axis)
+                    .toPrecision(getPrecision().common(matrix.getPrecision()));
+        double[] result;
         switch (axis) {
             case 0:
                 assertEqualRows(matrix,
                         "Матрица размерностью (%d; %d) не может быть горизонтально конкатенирована" +
                                 " с матрицей размерности (%d; %d)");
-                result = new double[rows][cols + matrix.cols];
+                result = new double[rows * (cols + matrix.cols)];
                 for (int row = 0; row < rows; row++) {
-                    for (int col1 = 0; col1 < cols; col1++)
-                        result[row][col1] = values[row][col1];
-
-                    for (int col2 = 0; col2 < matrix.cols; col2++)
-                        result[row][cols + col2] = matrix.values[row][col2];
+                    copyRow(row, result, row * (cols + matrix.cols));
+                    matrix.copyRow(row, result, row * (cols + matrix.cols) + cols);
                 }
-                return new Matrix(result);
+                return new Matrix(rows, cols + matrix.cols, result);
             case 1:
                 assertEqualCols(matrix,
                         "Матрица размерностью (%d; %d) не может быть вертикально конкатенирована" +
                                 " с матрицей размерности (%d; %d)");
-                result = new double[rows + matrix.rows][cols];
-                for (int col = 0; col < cols; col++) {
-                    for (int row1 = 0; row1 < rows; row1++)
-                        result[row1][col] = values[row1][col];
-                    for (int row2 = 0; row2 < matrix.rows; row2++)
-                        result[rows + row2][col] = matrix.values[row2][col];
-                }
-                return new Matrix(result);
+                result = new double[(rows + matrix.rows) * cols];
+                for (int row1 = 0; row1 < rows; row1++)
+                    copyRow(row1, result, row1 * cols);
+                for (int row2 = 0; row2 < matrix.rows; row2++)
+                    matrix.copyRow(row2, result, (rows + row2) * cols);
+                return new Matrix(rows + matrix.rows, cols, result);
             default:
                 throw ExceptionUtils.newUnknownAxisException(axis, 2);
         }
@@ -898,12 +1572,7 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return вектор-столбец со всеми элементами матрицы
      */
     public Matrix flatten() {
-        double[][] result = new double[size()][1];
-        int cnt = 0;  // количество скопированных элементов
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++)
-                result[cnt++][0] = values[row][col];
-        return new Matrix(result);
+        return copy(size(), 1);
     }
 
     /**
@@ -924,13 +1593,8 @@ public class Matrix implements DeepCopyable, Serializable {
             throw new IllegalArgumentException(String.format(
                     "Матрица формы (%d; %d) не может быть преобразована к (%d; %d)",
                     rows, cols, newRows, newCols));
-        double[][] result = new double[newRows][newCols];
-        Matrix flat = flatten();
-        int cnt = 0;  // количество скопированных элементов
-        for (int row = 0; row < newRows; row++)
-            for (int col = 0; col < newCols; col++)
-                result[row][col] = flat.values[cnt++][0];
-        return new Matrix(result);
+        // при построчном хранении изменение формы сводится к копированию массива
+        return copy(newRows, newCols);
     }
 
     /**
@@ -980,29 +1644,95 @@ public class Matrix implements DeepCopyable, Serializable {
      * @return        перемешанная матрица
      */
     public Matrix shuffle(int[] indices, int axis) {
-        double[][] result = new double[rows][cols];
+        final Matrix a = contiguous();
+        final Matrix result = new Matrix(rows, cols, getPrecision());
         switch (axis) {
             case 0:
                 if (indices.length != rows)
                     throw new IllegalArgumentException(String.format(
                             "Количество индексов должно совпадать с количеством строк (получено: %d, %d)",
                             indices.length, rows));
-                for (int row = 0; row < rows; row++)
-                    result[row] = getValue(indices[row]);
+                if (a.floatValues != null)
+                    MatrixBackends.get().gatherRows(a.floatValues, a.offset, cols, indices, result.floatValues, 0);
+                else
+                    MatrixBackends.get().gatherRows(a.values, a.offset, cols, indices, result.values, 0);
                 break;
             case 1:
                 if (indices.length != cols)
                     throw new IllegalArgumentException(String.format(
                             "Количество индексов должно совпадать с количеством столбцов (получено: %d, %d)",
                             indices.length, cols));
-                for (int row = 0; row < rows; row++)
-                    for (int col = 0; col < cols; col++)
-                        result[row][col] = getValue(row, indices[col]);
+                if (a.floatValues != null)
+                    MatrixBackends.get().gatherCols(a.floatValues, a.offset, rows, cols, indices,
+                            result.floatValues, 0);
+                else
+                    MatrixBackends.get().gatherCols(a.values, a.offset, rows, cols, indices, result.values, 0);
                 break;
             default:
                 throw ExceptionUtils.newUnknownAxisException(axis, 2);
         }
-        return new Matrix(result);
+        return result;
+    }
+
+    /**
+     * Получение плотной матрицы из заданных строк (в указанном порядке, строки могут повторяться)
+     * <pre>
+     * Пример для indices=[2,0]:
+     * |1 2 3|
+     * |4 5 6| --> |7 8 9|
+     * |7 8 9|     |1 2 3|
+     * </pre>
+     * @param indices номера строк
+     * @return        матрица размерности (indices.length; cols), хранящаяся в куче
+     */
+    public Matrix gatherRows(int[] indices) {
+        return gatherRowsInto(indices, new Matrix(indices.length, cols, getPrecision()));
+    }
+
+    /**
+     * Получение строк с заданными номерами с записью в матрицу-приёмник, см. {@link #gatherRows(int[])}. Позволяет
+     * собирать пакеты в одни и те же буферы без выделения памяти
+     * @param indices     номера строк
+     * @param destination приёмник размерности (indices.length; cols) той же точности
+     * @return            приёмник
+     */
+    public Matrix gatherRowsInto(int[] indices, Matrix destination) {
+        if (destination.rows != indices.length || destination.cols != cols ||
+                destination.getPrecision() != getPrecision())
+            throw new IllegalArgumentException(String.format(
+                    "Матрица размерности (%d; %d) точности %s не может принять %d строк матрицы размерности " +
+                            "(%d; %d) точности %s", destination.rows, destination.cols,
+                    destination.getPrecision(), indices.length, rows, cols, getPrecision()));
+        destination.assertWritable();
+        if (isContiguous() && floatValues != null)
+            MatrixBackends.get().gatherRows(floatValues, offset, cols, indices, destination.floatValues,
+                    destination.offset);
+        else if (isContiguous())
+            MatrixBackends.get().gatherRows(values, offset, cols, indices, destination.values, destination.offset);
+        else if (destination.floatValues != null)
+            for (int row = 0; row < indices.length; row++)
+                copyRow(indices[row], destination.floatValues, destination.offset + row * cols);
+        else
+            for (int row = 0; row < indices.length; row++)
+                copyRow(indices[row], destination.values, destination.offset + row * cols);
+        return destination;
+    }
+
+    /**
+     * Применение операции к каждому элементу матрицы (см. {@link MatrixBackend#map})
+     * @param operation операция
+     * @return          матрица после применения операции
+     */
+    public Matrix apply(DoubleOperation operation) {
+        final Matrix a = contiguous();
+        if (a.floatValues != null) {
+            final Matrix result = allocate(rows, cols, Precision.SINGLE);
+            MatrixBackends.get().map(operation, a.floatValues, a.offset, result.floatValues, 0, size());
+            return result;
+        }
+        final Matrix result = allocate(rows, cols, Precision.DOUBLE);
+        MatrixBackends.get().map(operation, a.values, a.offset, result.values, 0, size());
+        return result;
     }
 
     /**
@@ -1032,6 +1762,210 @@ public class Matrix implements DeepCopyable, Serializable {
         return MatrixFunctions.pow(this, scale);
     }
 
+    /**
+     * Поэлементное сложение с записью результата в исходную матрицу, см. {@link #add(Matrix)}
+     * @param matrix вторая матрица
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix addInPlace(Matrix matrix) {
+        return doOperationInPlace(Operator.ADD, matrix);
+    }
+
+    /**
+     * Поэлементное вычитание с записью результата в исходную матрицу, см. {@link #sub(Matrix)}
+     * @param matrix вторая матрица
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix subInPlace(Matrix matrix) {
+        return doOperationInPlace(Operator.SUB, matrix);
+    }
+
+    /**
+     * Поэлементное умножение с записью результата в исходную матрицу, см. {@link #mul(Matrix)}
+     * @param matrix вторая матрица (может совпадать с исходной)
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix mulInPlace(Matrix matrix) {
+        return doOperationInPlace(Operator.MUL, matrix);
+    }
+
+    /**
+     * Умножение на число с записью результата в исходную матрицу, см. {@link #mul(Number)}
+     * @param number число
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix mulInPlace(Number number) {
+        return doOperationInPlace(Operator.MUL, number);
+    }
+
+    /**
+     * Деление на число с записью результата в исходную матрицу, см. {@link #div(Number)}
+     * @param number число
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix divInPlace(Number number) {
+        return doOperationInPlace(Operator.DIV, number);
+    }
+
+    /**
+     * Прибавление к исходной матрице другой матрицы, домноженной на число: this = this + alpha * matrix. Временная
+     * матрица alpha * matrix не создаётся
+     * <pre>
+     * Пример для alpha=-0.5:
+     * |1 2|         |2 2|    |0 1|
+     * |3 4|.axpy(   |2 2|) = |2 3|
+     * </pre>
+     * @param alpha  множитель
+     * @param matrix вторая матрица
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix axpy(double alpha, Matrix matrix) {
+        assertEqualRowsAndCols(matrix,
+                "Матрицы размерности (%d; %d) и (%d; %d) имеют разное количество столбцов и/или строк");
+        assertWritable();
+        final Matrix x = matrix.toPrecision(getPrecision()).contiguous();
+        if (floatValues != null)
+            MatrixBackends.get().axpy((float) alpha, x.floatValues, x.offset, floatValues, offset, size());
+        else
+            MatrixBackends.get().axpy(alpha, x.values, x.offset, values, offset, size());
+        return this;
+    }
+
+    /**
+     * Копирование значений другой матрицы в исходную
+     * @param matrix матрица-источник (той же размерности)
+     * @return       исходная (изменённая) матрица
+     */
+    public Matrix copyFrom(Matrix matrix) {
+        assertEqualRowsAndCols(matrix,
+                "Матрица размерности (%d; %d) не может принять значения матрицы размерности (%d; %d)");
+        assertWritable();
+        matrix = matrix.toPrecision(getPrecision());
+        if (matrix.isContiguous())
+            System.arraycopy(matrix.storage(), matrix.offset, storage(), offset, size());
+        else if (floatValues != null)
+            for (int row = 0; row < rows; row++)
+                matrix.copyRow(row, floatValues, offset + row * cols);
+        else
+            for (int row = 0; row < rows; row++)
+                matrix.copyRow(row, values, offset + row * cols);
+        return this;
+    }
+
+    /**
+     * Заполнение исходной матрицы числом
+     * @param value число
+     * @return      исходная (изменённая) матрица
+     */
+    public Matrix fill(double value) {
+        assertWritable();
+        if (floatValues != null)
+            Arrays.fill(floatValues, offset, offset + size(), (float) value);
+        else
+            Arrays.fill(values, offset, offset + size(), value);
+        return this;
+    }
+
+    /**
+     * Заполнение исходной матрицы построчно генератором строк (см. {@link MatrixUtils#getOffHeapMatrix})
+     * @param generator генератор строк
+     * @return          исходная (изменённая) матрица
+     */
+    public Matrix fillRows(MatrixUtils.RowGenerator generator) {
+        assertWritable();
+        final double[] row = new double[cols];
+        for (int i = 0; i < rows; i++) {
+            generator.generate(i, row);
+            if (floatValues != null)
+                for (int col = 0; col < cols; col++)
+                    floatValues[offset + i * cols + col] = (float) row[col];
+            else
+                System.arraycopy(row, 0, values, offset + i * cols, cols);
+        }
+        return this;
+    }
+
+    /**
+     * Заполнение исходной матрицы случайными значениями с нормальным распределением, см.
+     * {@link MatrixUtils#getRandomMatrixNormal}
+     * @param location математическое ожидание
+     * @param scale    среднеквадратическое отклонение
+     * @param random   генератор случайных чисел
+     * @return         исходная (изменённая) матрица
+     */
+    public Matrix fillRandomNormal(double location, double scale, Random random) {
+        assertWritable();
+        if (floatValues != null)
+            MatrixBackends.get().fillRandom(RandomType.NORMAL, random, location, scale, floatValues, offset, size());
+        else
+            MatrixBackends.get().fillRandom(RandomType.NORMAL, random, location, scale, values, offset, size());
+        return this;
+    }
+
+    /**
+     * Матричное умножение с записью результата в матрицу-приёмник, см. {@link #mulMatrix(Matrix)}
+     * @param matrix      вторая матрица
+     * @param destination приёмник размерности (rows1; cols2), не должен совпадать с операндами
+     * @return            приёмник
+     */
+    public Matrix mulMatrixInto(Matrix matrix, Matrix destination) {
+        assertEqualColsRows(matrix,
+                "Матрица размерности (%d; %d) не может быть умножена на предоставленную матрицу размера (%d; %d)");
+        assertDestination(destination, rows, matrix.cols, matrix);
+        multiply(this, false, matrix, false, destination);
+        return destination;
+    }
+
+    /**
+     * Матричное умножение транспонированной исходной матрицы на вторую матрицу с записью результата в
+     * матрицу-приёмник, см. {@link #mulMatrixTransA(Matrix)}
+     * @param matrix      вторая матрица
+     * @param destination приёмник размерности (cols1; cols2), не должен совпадать с операндами
+     * @return            приёмник
+     */
+    public Matrix mulMatrixTransAInto(Matrix matrix, Matrix destination) {
+        assertEqualRows(matrix,
+                "Транспонированная матрица размерности (%d; %d) не может быть умножена на предоставленную " +
+                        "матрицу размера (%d; %d)");
+        assertDestination(destination, cols, matrix.cols, matrix);
+        multiply(this, true, matrix, false, destination);
+        return destination;
+    }
+
+    /**
+     * Матричное умножение исходной матрицы на транспонированную вторую матрицу с записью результата в
+     * матрицу-приёмник, см. {@link #mulMatrixTransB(Matrix)}
+     * @param matrix      вторая матрица
+     * @param destination приёмник размерности (rows1; rows2), не должен совпадать с операндами
+     * @return            приёмник
+     */
+    public Matrix mulMatrixTransBInto(Matrix matrix, Matrix destination) {
+        assertEqualCols(matrix,
+                "Матрица размерности (%d; %d) не может быть умножена на предоставленную транспонированную " +
+                        "матрицу размера (%d; %d)");
+        assertDestination(destination, rows, matrix.rows, matrix);
+        multiply(this, false, matrix, true, destination);
+        return destination;
+    }
+
+    /**
+     * Проверка матрицы-приёмника: размерность должна совпадать с ожидаемой, а значения не должны разделяться с
+     * операндами. При нарушении выбрасывается исключение
+     * @param destination приёмник
+     * @param rows        ожидаемое количество строк
+     * @param cols        ожидаемое количество столбцов
+     * @param matrix      второй операнд
+     */
+    private void assertDestination(Matrix destination, int rows, int cols, Matrix matrix) {
+        if (destination.rows != rows || destination.cols != cols)
+            throw new IllegalArgumentException(String.format(
+                    "Приёмник размерности (%d; %d) не подходит для результата размерности (%d; %d)",
+                    destination.rows, destination.cols, rows, cols));
+        destination.assertWritable();
+        if (destination.storage() == storage() || destination.storage() == matrix.storage())
+            throw new IllegalArgumentException("Приёмник не может совпадать с операндами матричного умножения");
+    }
+
     /**
      * Проверка совпадения размерностей, при несовпадении выбрасывается исключение
      * @param matrix вторая матрица
@@ -1190,7 +2124,11 @@ public class Matrix implements DeepCopyable, Serializable {
     @Override
     public int hashCode() {
         int result = Objects.hash(rows, cols);
-        result = 31 * result + Arrays.deepHashCode(values);
+        for (int row = 0; row < rows; row++)
+            for (int col = 0; col < cols; col++) {
+                long bits = Double.doubleToLongBits(getValue(row, col));
+                result = 31 * result + (int)(bits ^ (bits >>> 32));
+            }
         return result;
     }
 }
\ No newline at end of file
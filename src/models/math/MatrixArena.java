@@ -0,0 +1,192 @@
+package models.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Арена временных матриц. Пока арена открыта в треде (см. {@link #open()}), операции {@link Matrix}, создающие новую
+ * матрицу-результат (поэлементные операции, операции с векторами, матричное умножение, свёртки по осям, deepCopy,
+ * вычисление {@link MatrixExpression}), берут её из арены, а не выделяют память. При следующем открытии все выданные
+ * матрицы возвращаются в пулы и переиспользуются матрицами той же размерности и точности. Так как размерности
+ * временных матриц повторяются от пакета к пакету, после первой эпохи обучение не выделяет память под матрицы
+ * (буферы блоков {@link MatrixExpression} переиспользуются отдельно, через пул треда). Память по-прежнему выделяется
+ * под небольшие объекты - узлы выражений, представления, объекты пакетов: несколько килобайт на пакет независимо от его
+ * размера. Статистика арены (hits, misses) учитывает только матрицы.
+ * <pre>
+ * Пример:
+ * try (MatrixArena scope = arena.open()) {
+ *     ... вычисления ...
+ * }
+ * </pre>
+ * Матрица, выданная ареной, остаётся действительной до следующего открытия арены (а не до закрытия области), поэтому
+ * результаты вычислений можно прочитать после закрытия: например, оптимизатор читает градиенты после
+ * {@code Network.trainBatch}. Ссылки на такие матрицы нельзя хранить дольше: при следующем открытии их значения будут
+ * перезаписаны. Арена не потокобезопасна и используется одним тредом. Атрибуты модели:
+ * <pre><ul>
+ *  <li>pools    - пулы матриц, по одному на сочетание размерности и точности;</li>
+ *  <li>hits     - количество выдач переиспользованной матрицы;</li>
+ *  <li>misses   - количество выдач новой матрицы (промахов пула);</li>
+ *  <li>previous - арена, открытая в треде до открытия этой (восстанавливается при закрытии).</li>
+ * </ul></pre>
+ */
+public class MatrixArena implements AutoCloseable {
+    /**
+     * Арена, открытая в текущем треде
+     */
+    private static final ThreadLocal<MatrixArena> current = new ThreadLocal<>();
+
+    private final List<Pool> pools = new ArrayList<>();
+    private long hits;
+    private long misses;
+    private MatrixArena previous;
+    private boolean open;
+
+    /**
+     * Открытие арены в текущем треде. Все матрицы, выданные ранее, возвращаются в пулы
+     * @return арена (для использования в try-with-resources)
+     */
+    public MatrixArena open() {
+        if (open)
+            throw new IllegalStateException("Арена временных матриц уже открыта");
+        for (Pool pool: pools)
+            pool.used = 0;
+        previous = current.get();
+        current.set(this);
+        open = true;
+        return this;
+    }
+
+    /**
+     * Закрытие арены в текущем треде (выданные матрицы остаются действительными до следующего открытия)
+     */
+    @Override
+    public void close() {
+        if (current.get() != this)
+            throw new IllegalStateException("Арена временных матриц не открыта в текущем треде");
+        if (previous == null)
+            current.remove();
+        else
+            current.set(previous);
+        previous = null;
+        open = false;
+    }
+
+    /**
+     * Получение арены, открытой в текущем треде
+     * @return арена или null, если арена не открыта
+     */
+    static MatrixArena current() {
+        return current.get();
+    }
+
+    /**
+     * Выдача матрицы из пула. Значения матрицы не определены (остаются от предыдущего использования), поэтому
+     * вызывающий код должен перезаписать их полностью
+     * @param rows      количество строк
+     * @param cols      количество столбцов
+     * @param precision точность
+     * @return          плотная матрица
+     */
+    Matrix take(int rows, int cols, Precision precision) {
+        for (Pool pool: pools)
+            if (pool.rows == rows && pool.cols == cols && pool.precision == precision)
+                return take(pool);
+        final Pool pool = new Pool(rows, cols, precision);
+        pools.add(pool);
+        return take(pool);
+    }
+
+    /**
+     * Выдача матрицы из заданного пула (при отсутствии свободной матрицы создаётся новая)
+     * @param pool пул
+     * @return     матрица
+     */
+    private Matrix take(Pool pool) {
+        if (pool.used < pool.matrices.size())
+            hits++;
+        else {
+            misses++;
+            pool.matrices.add(new Matrix(pool.rows, pool.cols, pool.precision));
+        }
+        return pool.matrices.get(pool.used++);
+    }
+
+    /**
+     * Освобождение всех матриц арены (например, после обучения). Статистика сохраняется
+     */
+    public void clear() {
+        if (open)
+            throw new IllegalStateException("Нельзя освободить открытую арену временных матриц");
+        pools.clear();
+    }
+
+    /**
+     * Сброс статистики выдачи матриц
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Количество выдач переиспользованной матрицы
+     * @return количество попаданий
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Количество выдач новой матрицы. В установившемся режиме обучения не растёт
+     * @return количество промахов
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Количество матриц во всех пулах
+     * @return количество матриц
+     */
+    public int getMatricesCount() {
+        return pools.stream().mapToInt(pool -> pool.matrices.size()).sum();
+    }
+
+    /**
+     * Объём памяти, занятой значениями матриц во всех пулах
+     * @return количество байт
+     */
+    public long getBytes() {
+        return pools.stream()
+                .mapToLong(pool -> (long) pool.matrices.size() * pool.rows * pool.cols *
+                        (pool.precision == Precision.SINGLE ? Float.BYTES : Double.BYTES))
+                .sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", matrices=" + getMatricesCount() +
+                ", bytes=" + getBytes() +
+                '}';
+    }
+
+    /**
+     * Пул матриц одной размерности и точности. Матрицы с индексами меньше used выданы с момента открытия арены
+     */
+    private static class Pool {
+        private final int rows;
+        private final int cols;
+        private final Precision precision;
+        private final List<Matrix> matrices = new ArrayList<>();
+        private int used;
+
+        private Pool(int rows, int cols, Precision precision) {
+            this.rows = rows;
+            this.cols = cols;
+            this.precision = precision;
+        }
+    }
+}
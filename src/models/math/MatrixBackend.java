@@ -0,0 +1,277 @@
+package models.math;
+
+import models.math.functions.DoubleOperation;
+
+import java.util.Random;
+
+/**
+ * Вычислительное ядро (бэкенд) матричных операций. {@link Matrix} хранит значения в одномерных массивах построчно и
+ * делегирует бэкенду все численные циклы: матричное умножение, поэлементные операции, свёртки, заполнение случайными
+ * числами, выборку строк и столбцов. Текущий бэкенд выбирается через {@link MatrixBackends}.
+ * <pre>
+ * Соглашения:
+ * <ul>
+ *  <li>каждая матрица-операнд задаётся массивом и смещением её первого элемента, строки лежат в массиве подряд;</li>
+ *  <li>массив результата перезаписывается (предварительное обнуление не требуется);</li>
+ *  <li>массив результата может совпадать с массивом первого операнда только для поэлементных операций.</li>
+ * </ul>
+ * </pre>
+ * Каждая операция имеет вариант для матриц одинарной точности ({@link Precision#SINGLE}, массивы float[]): такие
+ * варианты вычисляют во float всё, кроме свёрток в число ({@link #reduce(Reduction, float[], int, int, double)}),
+ * которые накапливаются в double.
+ * Реализации:
+ * <pre><ul>
+ *  <li>{@link ReferenceMatrixBackend} - эталонная последовательная реализация;</li>
+ *  <li>{@link OptimizedMatrixBackend} - блочное умножение, векторизуемые ядра, опциональный параллелизм.</li>
+ * </ul></pre>
+ */
+public interface MatrixBackend {
+    /**
+     * Поэлементные операторы
+     */
+    enum Operator {
+        ADD,
+        SUB,
+        MUL,
+        DIV,
+    }
+
+    /**
+     * Свёртки
+     */
+    enum Reduction {
+        SUM,
+        MIN,
+        MAX,
+    }
+
+    /**
+     * Матричное умножение C = A * B
+     * @param a       массив A (m; k)
+     * @param aOffset смещение A
+     * @param b       массив B (k; n)
+     * @param bOffset смещение B
+     * @param c       массив C (m; n)
+     * @param cOffset смещение C
+     * @param m       количество строк A
+     * @param k       количество столбцов A (строк B)
+     * @param n       количество столбцов B
+     */
+    void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n);
+
+    /**
+     * Матричное умножение C = A^T * B
+     * @param a       массив A (k; m)
+     * @param aOffset смещение A
+     * @param b       массив B (k; n)
+     * @param bOffset смещение B
+     * @param c       массив C (m; n)
+     * @param cOffset смещение C
+     * @param m       количество столбцов A
+     * @param k       количество строк A (и B)
+     * @param n       количество столбцов B
+     */
+    void multiplyTransA(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n);
+
+    /**
+     * Матричное умножение C = A * B^T
+     * @param a       массив A (m; k)
+     * @param aOffset смещение A
+     * @param b       массив B (n; k)
+     * @param bOffset смещение B
+     * @param c       массив C (m; n)
+     * @param cOffset смещение C
+     * @param m       количество строк A
+     * @param k       количество столбцов A (и B)
+     * @param n       количество строк B
+     */
+    void multiplyTransB(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n);
+
+    /**
+     * Поэлементная операция: c[i] = a[i] (оператор) b[i], i = 0..length-1 (индексы относительно смещений)
+     */
+    void apply(Operator operator, double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int length);
+
+    /**
+     * Операция с числом: c[i] = a[i] (оператор) value, i = 0..length-1 (индексы относительно смещений)
+     */
+    void apply(Operator operator, double[] a, int aOffset, double value, double[] c, int cOffset, int length);
+
+    /**
+     * Операция с вектором-строкой: C[row][col] = A[row][col] (оператор) R[col]
+     * @param operator  оператор
+     * @param a         массив A (rows; cols)
+     * @param aOffset   смещение A
+     * @param row       массив R (1; cols)
+     * @param rowOffset смещение R
+     * @param c         массив C (rows; cols)
+     * @param cOffset   смещение C
+     * @param rows      количество строк
+     * @param cols      количество столбцов
+     */
+    void applyRow(Operator operator, double[] a, int aOffset, double[] row, int rowOffset, double[] c, int cOffset,
+                  int rows, int cols);
+
+    /**
+     * Операция с вектором-столбцом: C[row][col] = A[row][col] (оператор) V[row]
+     * @param operator  оператор
+     * @param a         массив A (rows; cols)
+     * @param aOffset   смещение A
+     * @param col       массив V (rows элементов)
+     * @param colOffset смещение V
+     * @param colStride шаг между соседними элементами V в массиве (1 для вектора-столбца, количество столбцов - для
+     *                  первого столбца матрицы)
+     * @param c         массив C (rows; cols)
+     * @param cOffset   смещение C
+     * @param rows      количество строк
+     * @param cols      количество столбцов
+     */
+    void applyCol(Operator operator, double[] a, int aOffset, double[] col, int colOffset, int colStride,
+                  double[] c, int cOffset, int rows, int cols);
+
+    /**
+     * y[i] = y[i] + alpha * x[i], i = 0..length-1 (индексы относительно смещений)
+     */
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    /**
+     * Применение унарной операции: c[i] = operation(a[i]), i = 0..length-1 (индексы относительно смещений)
+     */
+    void map(DoubleOperation operation, double[] a, int aOffset, double[] c, int cOffset, int length);
+
+    /**
+     * Свёртка отрезка массива
+     * @param reduction свёртка
+     * @param a         массив
+     * @param offset    смещение
+     * @param length    длина
+     * @param initial   начальное значение
+     * @return          результат свёртки initial и всех элементов
+     */
+    double reduce(Reduction reduction, double[] a, int offset, int length, double initial);
+
+    /**
+     * Свёртка каждой строки матрицы: result[resultOffset + row] = свёртка initial и A[row][0..cols-1]
+     */
+    void reduceRows(Reduction reduction, double[] a, int offset, int rows, int cols, double initial, double[] result,
+                    int resultOffset);
+
+    /**
+     * Свёртка каждого столбца матрицы: result[resultOffset + col] = свёртка initial и A[0..rows-1][col]
+     */
+    void reduceCols(Reduction reduction, double[] a, int offset, int rows, int cols, double initial, double[] result,
+                    int resultOffset);
+
+    /**
+     * Заполнение отрезка массива случайными числами: c[i] = value * scale + location, где value - очередное число
+     * генератора random с заданным распределением
+     */
+    void fillRandom(RandomType type, Random random, double location, double scale, double[] c, int cOffset, int length);
+
+    /**
+     * Выборка строк: C[i] = A[indices[i]]
+     * @param a       массив A (строки по cols элементов)
+     * @param aOffset смещение A
+     * @param cols    количество столбцов
+     * @param indices индексы выбираемых строк
+     * @param c       массив C (indices.length; cols)
+     * @param cOffset смещение C
+     */
+    void gatherRows(double[] a, int aOffset, int cols, int[] indices, double[] c, int cOffset);
+
+    /**
+     * Выборка столбцов: C[row][j] = A[row][indices[j]]
+     * @param a       массив A (rows; cols)
+     * @param aOffset смещение A
+     * @param rows    количество строк
+     * @param cols    количество столбцов A
+     * @param indices индексы выбираемых столбцов
+     * @param c       массив C (rows; indices.length)
+     * @param cOffset смещение C
+     */
+    void gatherCols(double[] a, int aOffset, int rows, int cols, int[] indices, double[] c, int cOffset);
+
+    /**
+     * Вариант {@link #multiply(double[], int, double[], int, double[], int, int, int, int)} для одинарной точности
+     */
+    void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int m, int k, int n);
+
+    /**
+     * Вариант {@link #multiplyTransA(double[], int, double[], int, double[], int, int, int, int)} для одинарной
+     * точности
+     */
+    void multiplyTransA(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int m, int k, int n);
+
+    /**
+     * Вариант {@link #multiplyTransB(double[], int, double[], int, double[], int, int, int, int)} для одинарной
+     * точности
+     */
+    void multiplyTransB(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int m, int k, int n);
+
+    /**
+     * Поэлементная операция для одинарной точности, см. {@link #apply(Operator, double[], int, double[], int, double[],
+     * int, int)}
+     */
+    void apply(Operator operator, float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int length);
+
+    /**
+     * Операция с числом для одинарной точности, см. {@link #apply(Operator, double[], int, double, double[], int, int)}
+     */
+    void apply(Operator operator, float[] a, int aOffset, float value, float[] c, int cOffset, int length);
+
+    /**
+     * Операция с вектором-строкой для одинарной точности, см. {@link #applyRow(Operator, double[], int, double[], int,
+     * double[], int, int, int)}
+     */
+    void applyRow(Operator operator, float[] a, int aOffset, float[] row, int rowOffset, float[] c, int cOffset,
+                  int rows, int cols);
+
+    /**
+     * Операция с вектором-столбцом для одинарной точности, см. {@link #applyCol(Operator, double[], int, double[], int,
+     * int, double[], int, int, int)}
+     */
+    void applyCol(Operator operator, float[] a, int aOffset, float[] col, int colOffset, int colStride,
+                  float[] c, int cOffset, int rows, int cols);
+
+    /**
+     * y[i] = y[i] + alpha * x[i] для одинарной точности
+     */
+    void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length);
+
+    /**
+     * Применение унарной операции для одинарной точности: c[i] = (float) operation(a[i])
+     */
+    void map(DoubleOperation operation, float[] a, int aOffset, float[] c, int cOffset, int length);
+
+    /**
+     * Свёртка отрезка массива одинарной точности, результат накапливается в double
+     */
+    double reduce(Reduction reduction, float[] a, int offset, int length, double initial);
+
+    /**
+     * Свёртка каждой строки матрицы одинарной точности
+     */
+    void reduceRows(Reduction reduction, float[] a, int offset, int rows, int cols, double initial, float[] result,
+                    int resultOffset);
+
+    /**
+     * Свёртка каждого столбца матрицы одинарной точности
+     */
+    void reduceCols(Reduction reduction, float[] a, int offset, int rows, int cols, double initial, float[] result,
+                    int resultOffset);
+
+    /**
+     * Заполнение отрезка массива одинарной точности случайными числами (значения генерируются в double и округляются)
+     */
+    void fillRandom(RandomType type, Random random, double location, double scale, float[] c, int cOffset, int length);
+
+    /**
+     * Выборка строк для одинарной точности
+     */
+    void gatherRows(float[] a, int aOffset, int cols, int[] indices, float[] c, int cOffset);
+
+    /**
+     * Выборка столбцов для одинарной точности
+     */
+    void gatherCols(float[] a, int aOffset, int rows, int cols, int[] indices, float[] c, int cOffset);
+}
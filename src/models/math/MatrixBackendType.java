@@ -0,0 +1,16 @@
+package models.math;
+
+/**
+ * Тип бэкенда матричных операций
+ */
+public enum MatrixBackendType {
+    /**
+     * Эталонный - {@link ReferenceMatrixBackend}
+     */
+    REFERENCE,
+
+    /**
+     * Оптимизированный - {@link OptimizedMatrixBackend}
+     */
+    OPTIMIZED
+}
@@ -0,0 +1,57 @@
+package models.math;
+
+import utils.ExceptionUtils;
+
+/**
+ * Выбор бэкенда матричных операций, которому делегирует {@link Matrix}. Бэкенд общий для всех матриц и всех тредов,
+ * по умолчанию используется {@link OptimizedMatrixBackend}. Выбор задаётся настройкой "matrix.backend" в
+ * "app.properties" и применяется при запуске приложения.
+ */
+public abstract class MatrixBackends {
+    /**
+     * Текущий бэкенд
+     */
+    private static volatile MatrixBackend backend = create(MatrixBackendType.OPTIMIZED);
+
+    /**
+     * Получение текущего бэкенда
+     * @return бэкенд
+     */
+    public static MatrixBackend get() {
+        return backend;
+    }
+
+    /**
+     * Установка текущего бэкенда
+     * @param backend бэкенд
+     */
+    public static void set(MatrixBackend backend) {
+        if (backend == null)
+            throw new IllegalArgumentException("Бэкенд матричных операций не задан");
+        MatrixBackends.backend = backend;
+    }
+
+    /**
+     * Установка текущего бэкенда по типу
+     * @param type тип бэкенда
+     */
+    public static void configure(MatrixBackendType type) {
+        set(create(type));
+    }
+
+    /**
+     * Создание бэкенда по типу
+     * @param type тип бэкенда
+     * @return     бэкенд
+     */
+    public static MatrixBackend create(MatrixBackendType type) {
+        switch (type) {
+            case REFERENCE:
+                return new ReferenceMatrixBackend();
+            case OPTIMIZED:
+                return new OptimizedMatrixBackend();
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(MatrixBackendType.class, type);
+        }
+    }
+}
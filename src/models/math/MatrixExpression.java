@@ -0,0 +1,660 @@
+package models.math;
+
+import models.math.MatrixBackend.Operator;
+import models.math.MatrixBackend.Reduction;
+import models.math.functions.DoubleOperation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Ленивое поэлементное выражение над матрицами. Операции (add, sub, mul, div, apply) не выполняются сразу, а
+ * записываются в дерево выражения. Вычисление происходит при вызове завершающей операции (materialize, into, sum) за
+ * один проход по данным: элементы обрабатываются блоками по {@link #BLOCK}, для каждого блока узлы выражения
+ * вычисляются по очереди во временные буферы размера блока, после чего результат блока записывается в матрицу-приёмник
+ * или добавляется к сумме. Полноразмерные промежуточные матрицы при этом не создаются.
+ * <pre>
+ * Пример (среднеквадратическая ошибка):
+ * MatrixExpression error = prediction.lazy().sub(target);
+ * double loss = error.mul(error).sum() / prediction.getRows();
+ * </pre>
+ * Узел, использованный в выражении несколько раз (error в примере), вычисляется для каждого блока один раз. Операции
+ * над блоками выполняет текущий бэкенд {@link MatrixBackend}, поэтому каждый элемент результата совпадает с
+ * результатом той же цепочки неленивых операций над матрицами двойной точности. Промежуточные значения вычисляются с
+ * двойной точностью, результат имеет точность операндов (см. {@link Precision#common}) и для одинарной точности
+ * округляется один раз при записи. Суммирование ведётся последовательно по блокам. Выражение не изменяемо и может
+ * вычисляться многократно; оно отражает значения матриц-операндов на момент вычисления.
+ *
+ * Буферы блоков имеют длину не больше количества элементов выражения и после вычисления возвращаются в пул треда
+ * (см. {@link Frame}), поэтому многократное вычисление выражений (например, функций активации при обучении по
+ * пакетам) в установившемся режиме не выделяет память под буферы.
+ */
+public abstract class MatrixExpression {
+    /**
+     * Количество элементов, обрабатываемых за один шаг вычисления
+     */
+    private static final int BLOCK = 1024;
+
+    /**
+     * Операнды узлов без операндов
+     */
+    private static final MatrixExpression[] NO_OPERANDS = new MatrixExpression[0];
+
+    /**
+     * Свободные буферы блоков треда (см. {@link Frame})
+     */
+    private static final ThreadLocal<ArrayDeque<double[]>> FREE_BUFFERS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final int rows;
+    private final int cols;
+
+    /**
+     * Конструктор
+     * @param rows количество строк
+     * @param cols количество столбцов
+     */
+    private MatrixExpression(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Выражение, значения которого совпадают со значениями матрицы
+     * @param matrix матрица
+     * @return       выражение
+     */
+    public static MatrixExpression of(Matrix matrix) {
+        return new Leaf(matrix);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Точность результата выражения
+     * @return точность (null, если выражение не зависит от матриц)
+     */
+    abstract Precision precision();
+
+    /**
+     * Операнды узла (массив не копируется и не должен изменяться)
+     * @return массив операндов
+     */
+    abstract MatrixExpression[] operands();
+
+    /**
+     * Вычисление блока значений узла
+     * @param from     номер первого элемента блока (элементы нумеруются построчно)
+     * @param length   длина блока
+     * @param operands блоки значений операндов (в порядке {@link #operands()})
+     * @param result   буфер результата
+     */
+    abstract void evaluate(int from, int length, double[][] operands, double[] result);
+
+    /**
+     * Подготовка узла к вычислению, выполняется один раз перед вычислением блоков
+     */
+    void beforeEvaluation() {}
+
+    /**
+     * Поэлементное сложение, см. {@link Matrix#add(Matrix)}
+     * @param expression второе выражение
+     * @return           выражение
+     */
+    public MatrixExpression add(MatrixExpression expression) {
+        return new Binary(Operator.ADD, this, expression);
+    }
+
+    public MatrixExpression add(Matrix matrix) {
+        return add(of(matrix));
+    }
+
+    public MatrixExpression add(Number number) {
+        return new Scalar(Operator.ADD, this, number.doubleValue());
+    }
+
+    /**
+     * Поэлементное вычитание, см. {@link Matrix#sub(Matrix)}
+     * @param expression второе выражение
+     * @return           выражение
+     */
+    public MatrixExpression sub(MatrixExpression expression) {
+        return new Binary(Operator.SUB, this, expression);
+    }
+
+    public MatrixExpression sub(Matrix matrix) {
+        return sub(of(matrix));
+    }
+
+    public MatrixExpression sub(Number number) {
+        return new Scalar(Operator.SUB, this, number.doubleValue());
+    }
+
+    /**
+     * Поэлементное умножение, см. {@link Matrix#mul(Matrix)}
+     * @param expression второе выражение
+     * @return           выражение
+     */
+    public MatrixExpression mul(MatrixExpression expression) {
+        return new Binary(Operator.MUL, this, expression);
+    }
+
+    public MatrixExpression mul(Matrix matrix) {
+        return mul(of(matrix));
+    }
+
+    public MatrixExpression mul(Number number) {
+        return new Scalar(Operator.MUL, this, number.doubleValue());
+    }
+
+    /**
+     * Поэлементное деление, см. {@link Matrix#div(Matrix)}
+     * @param expression второе выражение
+     * @return           выражение
+     */
+    public MatrixExpression div(MatrixExpression expression) {
+        return new Binary(Operator.DIV, this, expression);
+    }
+
+    public MatrixExpression div(Matrix matrix) {
+        return div(of(matrix));
+    }
+
+    public MatrixExpression div(Number number) {
+        return new Scalar(Operator.DIV, this, number.doubleValue());
+    }
+
+    /**
+     * Сложение с вектором-строкой, см. {@link Matrix#addRow(Matrix)}. Значения вектора читаются в начале вычисления
+     * @param rowMatrix вектор-строка (его количество столбцов должно совпадать с количеством столбцов выражения)
+     * @return          выражение
+     */
+    public MatrixExpression addRow(Matrix rowMatrix) {
+        return add(new Row(rows, rowMatrix));
+    }
+
+    /**
+     * Применение операции к каждому элементу, см. {@link Matrix#apply(DoubleOperation)}
+     * @param operation операция
+     * @return          выражение
+     */
+    public MatrixExpression apply(DoubleOperation operation) {
+        return new Unary(operation, this);
+    }
+
+    /**
+     * Выражение такой же размерности, все значения которого равны 1, см. {@link Matrix#onesLike()}
+     * @return выражение
+     */
+    public MatrixExpression onesLike() {
+        return new Constant(rows, cols, 1.0);
+    }
+
+    /**
+     * Вычисление выражения в новую матрицу
+     * @return матрица значений выражения
+     */
+    public Matrix materialize() {
+        final Precision precision = precision();
+        return into(Matrix.allocate(rows, cols, precision == null ? Precision.DOUBLE : precision));
+    }
+
+    /**
+     * Вычисление выражения с записью результата в матрицу-приёмник (точность приёмника сохраняется). Приёмник может
+     * быть операндом выражения (но не представлением над ним): каждый блок сначала полностью вычисляется, затем
+     * записывается
+     * @param destination приёмник той же размерности
+     * @return            приёмник
+     */
+    public Matrix into(Matrix destination) {
+        if (destination.getRows() != rows || destination.getCols() != cols)
+            throw new IllegalArgumentException(String.format(
+                    "Приёмник размерности (%d; %d) не подходит для результата размерности (%d; %d)",
+                    destination.getRows(), destination.getCols(), rows, cols));
+        destination.assertWritable();
+        final Program program = new Program(this);
+        program.beforeEvaluation();
+        final int size = rows * cols;
+        final int blocks = (size + BLOCK - 1) / BLOCK;
+        MatrixParallelism.forRange(blocks, (long) size * program.nodes.length, (fromBlock, toBlock) -> {
+            final Frame frame = program.newFrame(size, true);
+            for (int block = fromBlock; block < toBlock; block++) {
+                final int from = block * BLOCK;
+                final int length = Math.min(BLOCK, size - from);
+                destination.writeValues(from, frame.run(from, length), length);
+            }
+            frame.release();
+        });
+        return destination;
+    }
+
+    /**
+     * Сумма всех значений выражения, см. {@link Matrix#sum()}
+     * @return сумма
+     */
+    public double sum() {
+        final Program program = new Program(this);
+        program.beforeEvaluation();
+        final Frame frame = program.newFrame(rows * cols, true);
+        final double result = sum(frame);
+        frame.release();
+        return result;
+    }
+
+    /**
+     * Последовательное суммирование значений выражения по блокам
+     * @param frame буферы программы выражения
+     * @return      сумма
+     */
+    private double sum(Frame frame) {
+        final int size = rows * cols;
+        double result = 0.0;
+        for (int from = 0; from < size; from += BLOCK) {
+            final int length = Math.min(BLOCK, size - from);
+            result = MatrixBackends.get().reduce(Reduction.SUM, frame.run(from, length), 0, length, result);
+        }
+        return result;
+    }
+
+    /**
+     * Подготовка выражения к многократному вычислению: программа и буферы создаются один раз, поэтому вычисления
+     * подготовленного выражения не выделяют память. Подходит для выражений над матрицами-буферами, значения которых
+     * меняются между вычислениями (см. {@link models.networks.ExecutionPlan})
+     * @return подготовленное выражение
+     */
+    public Prepared prepare() {
+        return new Prepared(this);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "rows=" + rows +
+                ", cols=" + cols +
+                '}';
+    }
+
+    /**
+     * Выражение, подготовленное к многократному вычислению (см. {@link #prepare()}). Вычисляется последовательно в
+     * вызывающем треде (без параллельного режима {@link MatrixParallelism}) и не должно вычисляться одновременно из
+     * нескольких тредов, так как использует одни и те же буферы
+     */
+    public static class Prepared {
+        private final MatrixExpression expression;
+        private final Program program;
+        private final Frame frame;
+
+        private Prepared(MatrixExpression expression) {
+            this.expression = expression;
+            program = new Program(expression);
+            frame = program.newFrame(expression.rows * expression.cols, false);
+        }
+
+        /**
+         * Вычисление выражения с записью результата в матрицу-приёмник, см. {@link MatrixExpression#into(Matrix)}
+         * @param destination приёмник той же размерности
+         * @return            приёмник
+         */
+        public Matrix into(Matrix destination) {
+            if (destination.getRows() != expression.rows || destination.getCols() != expression.cols)
+                throw new IllegalArgumentException(String.format(
+                        "Приёмник размерности (%d; %d) не подходит для результата размерности (%d; %d)",
+                        destination.getRows(), destination.getCols(), expression.rows, expression.cols));
+            destination.assertWritable();
+            program.beforeEvaluation();
+            final int size = expression.rows * expression.cols;
+            for (int from = 0; from < size; from += BLOCK) {
+                final int length = Math.min(BLOCK, size - from);
+                destination.writeValues(from, frame.run(from, length), length);
+            }
+            return destination;
+        }
+
+        /**
+         * Сумма всех значений выражения, см. {@link MatrixExpression#sum()}
+         * @return сумма
+         */
+        public double sum() {
+            program.beforeEvaluation();
+            return expression.sum(frame);
+        }
+    }
+
+    /**
+     * Проверка совпадения размерностей операндов
+     * @param left  первый операнд
+     * @param right второй операнд
+     */
+    private static void assertSameShape(MatrixExpression left, MatrixExpression right) {
+        if (left.rows != right.rows || left.cols != right.cols)
+            throw new IllegalArgumentException(String.format(
+                    "Матрицы размерности (%d; %d) и (%d; %d) имеют разное количество столбцов и/или строк",
+                    left.rows, left.cols, right.rows, right.cols));
+    }
+
+    /**
+     * Общая точность операндов, null означает отсутствие ограничений
+     */
+    private static Precision common(Precision left, Precision right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        return left.common(right);
+    }
+
+    /**
+     * Программа вычисления выражения: узлы дерева, упорядоченные так, что операнды предшествуют использующим их
+     * узлам. Каждый узел встречается один раз, даже если используется несколько раз
+     */
+    private static class Program {
+        private final MatrixExpression[] nodes;
+        private final int[][] operands;
+
+        Program(MatrixExpression root) {
+            final MatrixExpression[] order = new MatrixExpression[countNodes(root)];
+            nodes = Arrays.copyOf(order, addNode(root, order, 0));
+            operands = new int[nodes.length][];
+            for (int i = 0; i < nodes.length; i++) {
+                final MatrixExpression[] nodeOperands = nodes[i].operands();
+                operands[i] = new int[nodeOperands.length];
+                for (int j = 0; j < nodeOperands.length; j++)
+                    operands[i][j] = indexOf(nodes, nodes.length, nodeOperands[j]);
+            }
+        }
+
+        /**
+         * Количество узлов дерева с учётом повторов (верхняя граница количества узлов программы)
+         */
+        private static int countNodes(MatrixExpression node) {
+            int result = 1;
+            for (MatrixExpression operand: node.operands())
+                result += countNodes(operand);
+            return result;
+        }
+
+        /**
+         * Добавление узла и его операндов (если они ещё не добавлены) в порядок вычисления. Выражения содержат
+         * единицы-десятки узлов, поэтому повторы ищутся линейным поиском по ссылке
+         * @return количество узлов в порядке вычисления после добавления
+         */
+        private static int addNode(MatrixExpression node, MatrixExpression[] order, int count) {
+            if (indexOf(order, count, node) >= 0)
+                return count;
+            for (MatrixExpression operand: node.operands())
+                count = addNode(operand, order, count);
+            order[count] = node;
+            return count + 1;
+        }
+
+        private static int indexOf(MatrixExpression[] nodes, int count, MatrixExpression node) {
+            for (int i = 0; i < count; i++)
+                if (nodes[i] == node)
+                    return i;
+            return -1;
+        }
+
+        /**
+         * Подготовка узлов к вычислению
+         */
+        void beforeEvaluation() {
+            for (MatrixExpression node: nodes)
+                node.beforeEvaluation();
+        }
+
+        /**
+         * Создание буферов для вычисления блоков
+         * @param size   количество элементов выражения
+         * @param pooled брать ли буферы из пула треда (тогда после вычисления их нужно вернуть, см.
+         *               {@link Frame#release()})
+         * @return       набор буферов
+         */
+        Frame newFrame(int size, boolean pooled) {
+            return new Frame(this, Math.min(BLOCK, size), pooled);
+        }
+    }
+
+    /**
+     * Буферы для вычисления блоков программы (по одному на узел). Каждый поток вычисления использует свой набор.
+     * Буферы вычислений по одному разу берутся из пула свободных буферов треда и возвращаются в него после
+     * вычисления: буфер из пула короче требуемого заменяется новым, поэтому пул треда содержит не больше буферов,
+     * чем узлов в самом большом выражении, и каждый не длиннее {@link #BLOCK}
+     */
+    private static class Frame {
+        private final MatrixExpression[] nodes;
+        private final double[][] buffers;
+        private final double[][][] arguments;
+        private final ArrayDeque<double[]> pool;
+
+        Frame(Program program, int length, boolean pooled) {
+            nodes = program.nodes;
+            pool = pooled ? FREE_BUFFERS.get() : null;
+            buffers = new double[nodes.length][];
+            for (int i = 0; i < nodes.length; i++) {
+                final double[] buffer = pool != null ? pool.pollLast() : null;
+                buffers[i] = buffer != null && buffer.length >= length ? buffer : new double[length];
+            }
+            arguments = new double[nodes.length][][];
+            for (int i = 0; i < nodes.length; i++) {
+                arguments[i] = new double[program.operands[i].length][];
+                for (int j = 0; j < arguments[i].length; j++)
+                    arguments[i][j] = buffers[program.operands[i][j]];
+            }
+        }
+
+        /**
+         * Вычисление блока выражения
+         * @param from   номер первого элемента блока
+         * @param length длина блока
+         * @return       буфер корня выражения
+         */
+        double[] run(int from, int length) {
+            for (int i = 0; i < nodes.length; i++)
+                nodes[i].evaluate(from, length, arguments[i], buffers[i]);
+            return buffers[nodes.length - 1];
+        }
+
+        /**
+         * Возвращение буферов в пул треда (для буферов, взятых из пула)
+         */
+        void release() {
+            if (pool != null)
+                for (double[] buffer: buffers)
+                    pool.addLast(buffer);
+        }
+    }
+
+    /**
+     * Значения матрицы
+     */
+    private static class Leaf extends MatrixExpression {
+        private final Matrix matrix;
+
+        Leaf(Matrix matrix) {
+            super(matrix.getRows(), matrix.getCols());
+            this.matrix = matrix;
+        }
+
+        @Override
+        Precision precision() {
+            return matrix.getPrecision();
+        }
+
+        @Override
+        MatrixExpression[] operands() {
+            return NO_OPERANDS;
+        }
+
+        @Override
+        void evaluate(int from, int length, double[][] operands, double[] result) {
+            matrix.readValues(from, result, length);
+        }
+    }
+
+    /**
+     * Постоянное значение
+     */
+    private static class Constant extends MatrixExpression {
+        private final double value;
+
+        Constant(int rows, int cols, double value) {
+            super(rows, cols);
+            this.value = value;
+        }
+
+        @Override
+        Precision precision() {
+            return null;
+        }
+
+        @Override
+        MatrixExpression[] operands() {
+            return NO_OPERANDS;
+        }
+
+        @Override
+        void evaluate(int from, int length, double[][] operands, double[] result) {
+            Arrays.fill(result, 0, length, value);
+        }
+    }
+
+    /**
+     * Вектор-строка, повторённый в каждой строке. Значения вектора копируются в буфер перед вычислением
+     */
+    private static class Row extends MatrixExpression {
+        private final Matrix rowMatrix;
+        private final double[] values;
+
+        Row(int rows, Matrix rowMatrix) {
+            super(rows, rowMatrix.getCols());
+            if (!rowMatrix.isRow())
+                throw new IllegalArgumentException(String.format(
+                        "Матрица размерности (%d; %d) не является вектором-строкой",
+                        rowMatrix.getRows(), rowMatrix.getCols()));
+            this.rowMatrix = rowMatrix;
+            values = new double[rowMatrix.getCols()];
+        }
+
+        @Override
+        void beforeEvaluation() {
+            rowMatrix.readValues(0, values, values.length);
+        }
+
+        @Override
+        Precision precision() {
+            return rowMatrix.getPrecision();
+        }
+
+        @Override
+        MatrixExpression[] operands() {
+            return NO_OPERANDS;
+        }
+
+        @Override
+        void evaluate(int from, int length, double[][] operands, double[] result) {
+            int col = from % values.length;
+            for (int i = 0; i < length; i++) {
+                result[i] = values[col];
+                if (++col == values.length)
+                    col = 0;
+            }
+        }
+    }
+
+    /**
+     * Операция двух выражений одной размерности
+     */
+    private static class Binary extends MatrixExpression {
+        private final Operator operator;
+        private final MatrixExpression[] operands;
+        private final Precision precision;
+
+        Binary(Operator operator, MatrixExpression left, MatrixExpression right) {
+            super(left.rows, left.cols);
+            assertSameShape(left, right);
+            this.operator = operator;
+            this.operands = new MatrixExpression[]{left, right};
+            this.precision = common(left.precision(), right.precision());
+        }
+
+        @Override
+        Precision precision() {
+            return precision;
+        }
+
+        @Override
+        MatrixExpression[] operands() {
+            return operands;
+        }
+
+        @Override
+        void evaluate(int from, int length, double[][] operands, double[] result) {
+            MatrixBackends.get().apply(operator, operands[0], 0, operands[1], 0, result, 0, length);
+        }
+    }
+
+    /**
+     * Операция выражения с числом
+     */
+    private static class Scalar extends MatrixExpression {
+        private final Operator operator;
+        private final MatrixExpression[] operands;
+        private final double value;
+
+        Scalar(Operator operator, MatrixExpression operand, double value) {
+            super(operand.rows, operand.cols);
+            this.operator = operator;
+            this.operands = new MatrixExpression[]{operand};
+            this.value = value;
+        }
+
+        @Override
+        Precision precision() {
+            return operands[0].precision();
+        }
+
+        @Override
+        MatrixExpression[] operands() {
+            return operands;
+        }
+
+        @Override
+        void evaluate(int from, int length, double[][] operands, double[] result) {
+            MatrixBackends.get().apply(operator, operands[0], 0, value, result, 0, length);
+        }
+    }
+
+    /**
+     * Применение функции к каждому элементу выражения
+     */
+    private static class Unary extends MatrixExpression {
+        private final DoubleOperation operation;
+        private final MatrixExpression[] operands;
+
+        Unary(DoubleOperation operation, MatrixExpression operand) {
+            super(operand.rows, operand.cols);
+            this.operation = operation;
+            this.operands = new MatrixExpression[]{operand};
+        }
+
+        @Override
+        Precision precision() {
+            return operands[0].precision();
+        }
+
+        @Override
+        MatrixExpression[] operands() {
+            return operands;
+        }
+
+        @Override
+        void evaluate(int from, int length, double[][] operands, double[] result) {
+            MatrixBackends.get().map(operation, operands[0], 0, result, 0, length);
+        }
+    }
+}
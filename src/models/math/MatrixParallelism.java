@@ -0,0 +1,119 @@
+package models.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельное выполнение матричных операций. Операция разбивается на независимые диапазоны (строк, столбцов или
+ * элементов), которые вычисляются в общем {@link ForkJoinPool}. Настройки:
+ * <pre><ul>
+ *  <li>enabled     - включён ли параллельный режим (по умолчанию выключен, так как Main уже запускает обучения в
+ *                    фиксированном пуле тредов, и при большом количестве одновременных обучений все ядра и так
+ *                    заняты);</li>
+ *  <li>parallelism - количество тредов в пуле;</li>
+ *  <li>threshold   - минимальный объём работы (примерное количество операций с элементами), начиная с которого
+ *                    операция разбивается на части; более мелкие операции выполняются в вызывающем треде.</li>
+ * </ul></pre>
+ * Каждый элемент результата вычисляется целиком в одной части и в том же порядке, что и при последовательном
+ * выполнении, поэтому результаты не зависят от режима.
+ */
+public abstract class MatrixParallelism {
+    private static volatile boolean enabled = false;
+    private static volatile int parallelism = Runtime.getRuntime().availableProcessors();
+    private static volatile long threshold = 1 << 16;
+    private static volatile ForkJoinPool pool = null;
+
+    /**
+     * Количество частей на один тред, чтобы неравномерная загрузка тредов сглаживалась
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Действие над диапазоном индексов [from; to)
+     */
+    @FunctionalInterface
+    public interface RangeAction {
+        void apply(int from, int to);
+    }
+
+    /**
+     * Настройка параллельного режима. При изменении количества тредов прежний пул завершается
+     * @param enabled     включён ли параллельный режим
+     * @param parallelism количество тредов (больше 0)
+     * @param threshold   минимальный объём работы для разбиения (больше 0)
+     */
+    public static synchronized void configure(boolean enabled, int parallelism, long threshold) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException(String.format(
+                    "Количество тредов должно быть больше 0 (получено %d)", parallelism));
+        if (threshold < 1)
+            throw new IllegalArgumentException(String.format(
+                    "Порог разбиения должен быть больше 0 (получено %d)", threshold));
+        if (pool != null && (!enabled || pool.getParallelism() != parallelism)) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (enabled && pool == null)
+            pool = new ForkJoinPool(parallelism);
+        MatrixParallelism.parallelism = parallelism;
+        MatrixParallelism.threshold = threshold;
+        MatrixParallelism.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static int getParallelism() {
+        return parallelism;
+    }
+
+    public static long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Выполнение действия над диапазоном [0; count). Если параллельный режим выключен или объём работы меньше порога,
+     * действие выполняется в вызывающем треде над всем диапазоном, иначе диапазон разбивается на части
+     * @param count  количество независимых индексов (строк, столбцов или элементов)
+     * @param work   примерный объём работы всей операции
+     * @param action действие
+     */
+    public static void forRange(int count, long work, RangeAction action) {
+        final ForkJoinPool currentPool = pool;
+        if (!enabled || currentPool == null || count < 2 || work < threshold) {
+            action.apply(0, count);
+            return;
+        }
+        final long chunks = Math.min(count, Math.min((long) parallelism * CHUNKS_PER_THREAD, work / threshold + 1));
+        final int grain = (int) ((count + chunks - 1) / chunks);
+        currentPool.invoke(new RangeTask(action, 0, count, grain));
+    }
+
+    /**
+     * Задача, рекурсивно делящая диапазон пополам до размера grain
+     */
+    private static class RangeTask extends RecursiveAction {
+        private final RangeAction action;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeTask(RangeAction action, int from, int to, int grain) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                action.apply(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(action, from, middle, grain), new RangeTask(action, middle, to, grain));
+        }
+    }
+}
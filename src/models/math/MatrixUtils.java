@@ -1,6 +1,5 @@
 package models.math;
 
-import java.util.Arrays;
 import java.util.Random;
 import java.util.stream.IntStream;
 
@@ -74,11 +73,11 @@ public abstract class MatrixUtils {
      * @return      вектор-столбец
      */
     public static Matrix getLinSpace(double start, double stop, int size) {
-        double[][] result = new double[size][1];
+        double[] result = new double[size];
         double step = (stop - start) / (size - 1);
         for (int i = 0; i < size; i++)
-            result[i][0] = start + step * i;
-        return new Matrix(result);
+            result[i] = start + step * i;
+        return new Matrix(size, 1, result);
     }
 
     /**
@@ -97,7 +96,8 @@ public abstract class MatrixUtils {
     }
 
     /**
-     * Вычисление декартового произведения заданных векторов-столбцов
+     * Вычисление декартового произведения заданных векторов-столбцов (см. {@link CartesianProduct}). Каждое значение
+     * результата записывается ровно один раз, промежуточные матрицы не создаются
      * <pre>
      * Пример:
      * |1|     |4|   |1 4|
@@ -111,19 +111,50 @@ public abstract class MatrixUtils {
      * @return         результат
      */
     public static Matrix cartesianProduct(Matrix ... matrices) {
-        if (matrices.length == 0)
-            throw new IllegalArgumentException("Отсутствуют матрицы для декартового произведения");
         if (matrices.length == 1)
             return matrices[0];
-        Arrays.stream(matrices).forEach(Matrix::assertColMatrix);
-        int[] sizes = Arrays.stream(matrices).map(Matrix::getRows).mapToInt(Integer::intValue).toArray();
-        int totalRows = reduceIntArrayByMultiplyUpToIndex(sizes, matrices.length);
-        return IntStream.range(0, matrices.length)
-                .mapToObj(i -> extendAndStack(matrices[i],
-                        totalRows / reduceIntArrayByMultiplyUpToIndex(sizes, i + 1),
-                        reduceIntArrayByMultiplyUpToIndex(sizes, i)))
-                .reduce((m1, m2) -> m1.stack(m2, 0))
-                .orElseThrow(() -> new RuntimeException("Ошибка во время вычисления декартового произведения"));
+        return new CartesianProduct(matrices).toMatrix();
+    }
+
+    /**
+     * Вычисление декартового произведения заданных векторов-столбцов (см. {@link #cartesianProduct}) с хранением
+     * результата вне кучи. Строки результата записываются сразу вне кучи, поэтому промежуточные матрицы не создаются
+     * @param matrices векторы-столбцы
+     * @return         результат, хранящийся вне кучи
+     */
+    public static Matrix getOffHeapCartesianProduct(Matrix ... matrices) {
+        return new CartesianProduct(matrices).toOffHeapMatrix();
+    }
+
+    /**
+     * Генератор строк матрицы
+     */
+    public interface RowGenerator {
+        /**
+         * Вычисление строки
+         * @param row    номер строки
+         * @param values массив для значений строки (длина равна количеству столбцов)
+         */
+        void generate(int row, double[] values);
+    }
+
+    /**
+     * Получение матрицы, хранящейся вне кучи (см. {@link Matrix#toOffHeap()}), значения которой вычисляются
+     * построчно. Полная копия матрицы в куче при этом не создаётся
+     * @param rows      количество строк
+     * @param cols      количество столбцов
+     * @param precision точность хранения
+     * @param generator генератор строк
+     * @return          матрица
+     */
+    public static Matrix getOffHeapMatrix(int rows, int cols, Precision precision, RowGenerator generator) {
+        final OffHeapStorage storage = new OffHeapStorage(rows * cols, precision);
+        final double[] values = new double[cols];
+        for (int row = 0; row < rows; row++) {
+            generator.generate(row, values);
+            storage.write(row * cols, values, 0, cols);
+        }
+        return Matrix.ofOffHeap(storage, rows, cols);
     }
 
     /**
@@ -174,53 +205,6 @@ public abstract class MatrixUtils {
         return getRandomMatrixNormal(source.getRows(), source.getCols(), 0.0, 1.0 / source.size());
     }
 
-    /**
-     * Расширение и вертикальная конкатенация матрицы (конкатенируется расширенная матрица)
-     * <pre>
-     * Пример для extendingFactor=2, stacksCount=3:
-     * |1 2|     |1 2|
-     * |3 4| --> |1 2|
-     *           |3 4|
-     *           |3 4|
-     *           |1 2|
-     *           |1 2|
-     *           |3 4|
-     *           |3 4|
-     *           |1 2|
-     *           |1 2|
-     *           |3 4|
-     *           |3 4|
-     * </pre>
-     * @param matrix          матрица
-     * @param extendingFactor множитель расширения
-     * @param stacksCount     количество операций конкатенации
-     * @return                обработанная матрица
-     */
-    private static Matrix extendAndStack(Matrix matrix, int extendingFactor, int stacksCount) {
-        Matrix extended = matrix.extend(extendingFactor, 0);
-        Matrix result = extended;
-        for (int j = 1; j < stacksCount; j++)
-            result = result.stack(extended, 1);
-        return result;
-    }
-
-    /**
-     * Перемножение элементов массива до заданного индекса
-     * <pre>
-     * Пример для index=4
-     * |4 2 3 7 8 5| = 4*2*3*7 = 168
-     * </pre>
-     * @param values массив
-     * @param index  индекс
-     * @return       произведение
-     */
-    private static int reduceIntArrayByMultiplyUpToIndex(int[] values, int index) {
-        int result = 1;
-        for (int i = 0; i < index && i < values.length; i++)
-            result *= values[i];
-        return result;
-    }
-
     /**
      * Получение случайной матрицы с заданными параметрами
      * @param type     тип случайного распределения
@@ -231,24 +215,9 @@ public abstract class MatrixUtils {
      * @return         случайная матрица
      */
     private static Matrix getRandomMatrix(RandomType type, int rows, int cols, double location, double scale) {
-        Random random = new Random();
-        double[][] result = new double[rows][cols];
-        double randomValue = 0.0;
-        for (int row = 0; row < rows; row++)
-            for (int col = 0; col < cols; col++) {
-                switch (type) {
-                    case UNIFORM:
-                        randomValue = random.nextDouble();
-                        break;
-                    case NORMAL:
-                        randomValue = random.nextGaussian();
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Недопустимое значение type: " + type);
-                }
-                result[row][col] = randomValue * scale + location;
-            }
-        return new Matrix(result);
+        double[] result = new double[rows * cols];
+        MatrixBackends.get().fillRandom(type, new Random(), location, scale, result, 0, result.length);
+        return new Matrix(rows, cols, result);
     }
 
 }
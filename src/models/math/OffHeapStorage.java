@@ -0,0 +1,123 @@
+package models.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Хранилище значений матрицы вне кучи (off-heap) на основе прямых буферов {@link ByteBuffer#allocateDirect}. Память
+ * не сканируется и не перемещается сборщиком мусора и освобождается при сборке объекта хранилища. Так как размер
+ * прямого буфера ограничен 2 ГБ, значения разбиваются на куски по {@link #CHUNK_ELEMENTS} элементов. Объём доступной
+ * памяти ограничивается параметром JVM -XX:MaxDirectMemorySize (по умолчанию равен -Xmx). Атрибуты модели:
+ * <pre><ul>
+ *  <li>precision - точность хранения значений;</li>
+ *  <li>size      - количество элементов;</li>
+ *  <li>doubles   - куски хранилища двойной точности (null для одинарной точности);</li>
+ *  <li>floats    - куски хранилища одинарной точности (null для двойной точности).</li>
+ * </ul></pre>
+ */
+final class OffHeapStorage {
+    /**
+     * Количество элементов в одном куске (степень двойки)
+     */
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_ELEMENTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ELEMENTS - 1;
+
+    private final Precision precision;
+    private final int size;
+    private final DoubleBuffer[] doubles;
+    private final FloatBuffer[] floats;
+
+    /**
+     * Конструктор хранилища, заполненного нулями
+     * @param size      количество элементов
+     * @param precision точность
+     */
+    OffHeapStorage(int size, Precision precision) {
+        this.precision = precision;
+        this.size = size;
+        final int chunks = (int) (((long) size + CHUNK_ELEMENTS - 1) >> CHUNK_SHIFT);
+        final int bytes = precision == Precision.SINGLE ? Float.BYTES : Double.BYTES;
+        doubles = precision == Precision.DOUBLE ? new DoubleBuffer[chunks] : null;
+        floats = precision == Precision.SINGLE ? new FloatBuffer[chunks] : null;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            final int length = Math.min(CHUNK_ELEMENTS, size - (chunk << CHUNK_SHIFT));
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(length * bytes).order(ByteOrder.nativeOrder());
+            if (doubles != null)
+                doubles[chunk] = buffer.asDoubleBuffer();
+            else
+                floats[chunk] = buffer.asFloatBuffer();
+        }
+    }
+
+    Precision getPrecision() {
+        return precision;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Получение значения
+     * @param index индекс элемента
+     * @return      значение
+     */
+    double get(int index) {
+        if (doubles != null)
+            return doubles[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+        return floats[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+
+    /**
+     * Чтение значений с шагом: destination[destinationOffset + i] = get(index + i * step), i = 0..length-1
+     * @param index             индекс первого элемента
+     * @param step              шаг между элементами
+     * @param destination       массив-приёмник
+     * @param destinationOffset смещение в приёмнике
+     * @param length            количество элементов
+     */
+    void read(int index, int step, double[] destination, int destinationOffset, int length) {
+        if (step == 1 && doubles != null && (index >>> CHUNK_SHIFT) == ((index + length - 1) >>> CHUNK_SHIFT)) {
+            doubles[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK, destination, destinationOffset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = get(index + i * step);
+    }
+
+    /**
+     * Чтение значений с шагом в массив одинарной точности (см. {@link #read(int, int, double[], int, int)})
+     */
+    void read(int index, int step, float[] destination, int destinationOffset, int length) {
+        if (step == 1 && floats != null && (index >>> CHUNK_SHIFT) == ((index + length - 1) >>> CHUNK_SHIFT)) {
+            floats[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK, destination, destinationOffset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = (float) get(index + i * step);
+    }
+
+    /**
+     * Запись подряд идущих значений (для одинарной точности значения округляются)
+     * @param index        индекс первого элемента
+     * @param source       массив значений
+     * @param sourceOffset смещение в массиве значений
+     * @param length       количество элементов
+     */
+    void write(int index, double[] source, int sourceOffset, int length) {
+        for (int i = 0; i < length; ) {
+            final int chunk = (index + i) >>> CHUNK_SHIFT;
+            final int position = (index + i) & CHUNK_MASK;
+            final int count = Math.min(length - i, CHUNK_ELEMENTS - position);
+            if (doubles != null)
+                doubles[chunk].put(position, source, sourceOffset + i, count);
+            else
+                for (int j = 0; j < count; j++)
+                    floats[chunk].put(position + j, (float) source[sourceOffset + i + j]);
+            i += count;
+        }
+    }
+}
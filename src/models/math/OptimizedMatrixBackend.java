@@ -0,0 +1,425 @@
+package models.math;
+
+import models.math.functions.DoubleOperation;
+import utils.ExceptionUtils;
+
+import java.util.Random;
+
+/**
+ * Оптимизированный бэкенд матричных операций на чистой Java:
+ * <pre><ul>
+ *  <li>умножение матриц - блочное ядро {@link Gemm};</li>
+ *  <li>поэлементные операции и свёртки - векторизуемые циклы {@link ElementwiseKernels}, оператор выбирается один раз
+ *      на весь отрезок, а не для каждого элемента;</li>
+ *  <li>крупные операции разбиваются на независимые части и выполняются параллельно через
+ *      {@link MatrixParallelism} (если он включен).</li>
+ * </ul></pre>
+ * Результаты совпадают с {@link ReferenceMatrixBackend}, кроме сумм ({@link Reduction#SUM} в {@link #reduce} и
+ * {@link #reduceRows}), которые могут отличаться в последних разрядах из-за иного порядка сложения.
+ */
+public class OptimizedMatrixBackend implements MatrixBackend {
+    @Override
+    public void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                         int m, int k, int n) {
+        MatrixParallelism.forRange(m, (long) m * k * n,
+                (from, to) -> Gemm.multiply(a, aOffset, b, bOffset, c, cOffset, from, to, k, n));
+    }
+
+    @Override
+    public void multiplyTransA(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                               int m, int k, int n) {
+        MatrixParallelism.forRange(m, (long) m * k * n,
+                (from, to) -> Gemm.multiplyTransA(a, aOffset, b, bOffset, c, cOffset, from, to, m, k, n));
+    }
+
+    @Override
+    public void multiplyTransB(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                               int m, int k, int n) {
+        MatrixParallelism.forRange(m, (long) m * k * n,
+                (from, to) -> Gemm.multiplyTransB(a, aOffset, b, bOffset, c, cOffset, from, to, k, n));
+    }
+
+    @Override
+    public void apply(Operator operator, double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                      int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                applySegment(operator, a, aOffset + from, b, bOffset + from, c, cOffset + from, to - from));
+    }
+
+    @Override
+    public void apply(Operator operator, double[] a, int aOffset, double value, double[] c, int cOffset, int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                applySegment(operator, a, aOffset + from, value, c, cOffset + from, to - from));
+    }
+
+    @Override
+    public void applyRow(Operator operator, double[] a, int aOffset, double[] row, int rowOffset,
+                         double[] c, int cOffset, int rows, int cols) {
+        MatrixParallelism.forRange(rows, (long) rows * cols, (from, to) -> {
+            for (int r = from; r < to; r++)
+                applySegment(operator, a, aOffset + r * cols, row, rowOffset, c, cOffset + r * cols, cols);
+        });
+    }
+
+    @Override
+    public void applyCol(Operator operator, double[] a, int aOffset, double[] col, int colOffset, int colStride,
+                         double[] c, int cOffset, int rows, int cols) {
+        MatrixParallelism.forRange(rows, (long) rows * cols, (from, to) -> {
+            for (int r = from; r < to; r++)
+                applySegment(operator, a, aOffset + r * cols, col[colOffset + r * colStride],
+                        c, cOffset + r * cols, cols);
+        });
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                ElementwiseKernels.axpy(alpha, x, xOffset + from, y, yOffset + from, to - from));
+    }
+
+    @Override
+    public void map(DoubleOperation operation, double[] a, int aOffset, double[] c, int cOffset, int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                operation.apply(a, aOffset + from, c, cOffset + from, to - from));
+    }
+
+    @Override
+    public double reduce(Reduction reduction, double[] a, int offset, int length, double initial) {
+        switch (reduction) {
+            case SUM:
+                return ElementwiseKernels.sum(a, offset, length, initial);
+            case MIN:
+                return ElementwiseKernels.min(a, offset, length, initial);
+            case MAX:
+                return ElementwiseKernels.max(a, offset, length, initial);
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Reduction.class, reduction);
+        }
+    }
+
+    @Override
+    public void reduceRows(Reduction reduction, double[] a, int offset, int rows, int cols, double initial,
+                           double[] result, int resultOffset) {
+        MatrixParallelism.forRange(rows, (long) rows * cols, (from, to) -> {
+            for (int row = from; row < to; row++)
+                result[resultOffset + row] = reduce(reduction, a, offset + row * cols, cols, initial);
+        });
+    }
+
+    /**
+     * Свёртка столбцов выполняется построчно: каждая строка целиком применяется к накопителям всех столбцов, поэтому
+     * матрица читается последовательно. Порядок элементов внутри каждого столбца не меняется
+     */
+    @Override
+    public void reduceCols(Reduction reduction, double[] a, int offset, int rows, int cols, double initial,
+                           double[] result, int resultOffset) {
+        MatrixParallelism.forRange(cols, (long) rows * cols, (from, to) -> {
+            final int length = to - from;
+            for (int col = from; col < to; col++)
+                result[resultOffset + col] = initial;
+            for (int row = 0; row < rows; row++) {
+                final int rowOffset = offset + row * cols + from;
+                switch (reduction) {
+                    case SUM:
+                        ElementwiseKernels.add(result, resultOffset + from, a, rowOffset, result,
+                                resultOffset + from, length);
+                        break;
+                    case MIN:
+                        ElementwiseKernels.min(result, resultOffset + from, a, rowOffset, result,
+                                resultOffset + from, length);
+                        break;
+                    case MAX:
+                        ElementwiseKernels.max(result, resultOffset + from, a, rowOffset, result,
+                                resultOffset + from, length);
+                        break;
+                    default:
+                        throw ExceptionUtils.newUnknownEnumItemException(Reduction.class, reduction);
+                }
+            }
+        });
+    }
+
+    /**
+     * Генератор случайных чисел не потокобезопасен в смысле порядка значений, поэтому заполнение выполняется
+     * последовательно; выбор распределения вынесен из цикла. Значения совпадают с {@link ReferenceMatrixBackend}
+     * при том же состоянии генератора
+     */
+    @Override
+    public void fillRandom(RandomType type, Random random, double location, double scale,
+                           double[] c, int cOffset, int length) {
+        switch (type) {
+            case UNIFORM:
+                for (int i = 0; i < length; i++)
+                    c[cOffset + i] = random.nextDouble() * scale + location;
+                break;
+            case NORMAL:
+                for (int i = 0; i < length; i++)
+                    c[cOffset + i] = random.nextGaussian() * scale + location;
+                break;
+            default:
+                throw new IllegalArgumentException("Недопустимое значение type: " + type);
+        }
+    }
+
+    @Override
+    public void gatherRows(double[] a, int aOffset, int cols, int[] indices, double[] c, int cOffset) {
+        MatrixParallelism.forRange(indices.length, (long) indices.length * cols, (from, to) -> {
+            for (int row = from; row < to; row++)
+                System.arraycopy(a, aOffset + indices[row] * cols, c, cOffset + row * cols, cols);
+        });
+    }
+
+    @Override
+    public void gatherCols(double[] a, int aOffset, int rows, int cols, int[] indices, double[] c, int cOffset) {
+        final int width = indices.length;
+        MatrixParallelism.forRange(rows, (long) rows * width, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                final int aRow = aOffset + row * cols;
+                final int cRow = cOffset + row * width;
+                for (int col = 0; col < width; col++)
+                    c[cRow + col] = a[aRow + indices[col]];
+            }
+        });
+    }
+
+    @Override
+    public void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                         int m, int k, int n) {
+        MatrixParallelism.forRange(m, (long) m * k * n,
+                (from, to) -> Gemm.multiply(a, aOffset, b, bOffset, c, cOffset, from, to, k, n));
+    }
+
+    @Override
+    public void multiplyTransA(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                               int m, int k, int n) {
+        MatrixParallelism.forRange(m, (long) m * k * n,
+                (from, to) -> Gemm.multiplyTransA(a, aOffset, b, bOffset, c, cOffset, from, to, m, k, n));
+    }
+
+    @Override
+    public void multiplyTransB(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                               int m, int k, int n) {
+        MatrixParallelism.forRange(m, (long) m * k * n,
+                (from, to) -> Gemm.multiplyTransB(a, aOffset, b, bOffset, c, cOffset, from, to, k, n));
+    }
+
+    @Override
+    public void apply(Operator operator, float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                      int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                applySegment(operator, a, aOffset + from, b, bOffset + from, c, cOffset + from, to - from));
+    }
+
+    @Override
+    public void apply(Operator operator, float[] a, int aOffset, float value, float[] c, int cOffset, int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                applySegment(operator, a, aOffset + from, value, c, cOffset + from, to - from));
+    }
+
+    @Override
+    public void applyRow(Operator operator, float[] a, int aOffset, float[] row, int rowOffset,
+                         float[] c, int cOffset, int rows, int cols) {
+        MatrixParallelism.forRange(rows, (long) rows * cols, (from, to) -> {
+            for (int r = from; r < to; r++)
+                applySegment(operator, a, aOffset + r * cols, row, rowOffset, c, cOffset + r * cols, cols);
+        });
+    }
+
+    @Override
+    public void applyCol(Operator operator, float[] a, int aOffset, float[] col, int colOffset, int colStride,
+                         float[] c, int cOffset, int rows, int cols) {
+        MatrixParallelism.forRange(rows, (long) rows * cols, (from, to) -> {
+            for (int r = from; r < to; r++)
+                applySegment(operator, a, aOffset + r * cols, col[colOffset + r * colStride],
+                        c, cOffset + r * cols, cols);
+        });
+    }
+
+    @Override
+    public void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                ElementwiseKernels.axpy(alpha, x, xOffset + from, y, yOffset + from, to - from));
+    }
+
+    @Override
+    public void map(DoubleOperation operation, float[] a, int aOffset, float[] c, int cOffset, int length) {
+        MatrixParallelism.forRange(length, length, (from, to) ->
+                operation.apply(a, aOffset + from, c, cOffset + from, to - from));
+    }
+
+    @Override
+    public double reduce(Reduction reduction, float[] a, int offset, int length, double initial) {
+        switch (reduction) {
+            case SUM:
+                return ElementwiseKernels.sum(a, offset, length, initial);
+            case MIN:
+                return ElementwiseKernels.min(a, offset, length, initial);
+            case MAX:
+                return ElementwiseKernels.max(a, offset, length, initial);
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Reduction.class, reduction);
+        }
+    }
+
+    @Override
+    public void reduceRows(Reduction reduction, float[] a, int offset, int rows, int cols, double initial,
+                           float[] result, int resultOffset) {
+        MatrixParallelism.forRange(rows, (long) rows * cols, (from, to) -> {
+            for (int row = from; row < to; row++)
+                result[resultOffset + row] = (float) reduce(reduction, a, offset + row * cols, cols, initial);
+        });
+    }
+
+    @Override
+    public void reduceCols(Reduction reduction, float[] a, int offset, int rows, int cols, double initial,
+                           float[] result, int resultOffset) {
+        MatrixParallelism.forRange(cols, (long) rows * cols, (from, to) -> {
+            final int length = to - from;
+            for (int col = from; col < to; col++)
+                result[resultOffset + col] = (float) initial;
+            for (int row = 0; row < rows; row++) {
+                final int rowOffset = offset + row * cols + from;
+                switch (reduction) {
+                    case SUM:
+                        ElementwiseKernels.add(result, resultOffset + from, a, rowOffset, result,
+                                resultOffset + from, length);
+                        break;
+                    case MIN:
+                        ElementwiseKernels.min(result, resultOffset + from, a, rowOffset, result,
+                                resultOffset + from, length);
+                        break;
+                    case MAX:
+                        ElementwiseKernels.max(result, resultOffset + from, a, rowOffset, result,
+                                resultOffset + from, length);
+                        break;
+                    default:
+                        throw ExceptionUtils.newUnknownEnumItemException(Reduction.class, reduction);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void fillRandom(RandomType type, Random random, double location, double scale,
+                           float[] c, int cOffset, int length) {
+        switch (type) {
+            case UNIFORM:
+                for (int i = 0; i < length; i++)
+                    c[cOffset + i] = (float) (random.nextDouble() * scale + location);
+                break;
+            case NORMAL:
+                for (int i = 0; i < length; i++)
+                    c[cOffset + i] = (float) (random.nextGaussian() * scale + location);
+                break;
+            default:
+                throw new IllegalArgumentException("Недопустимое значение type: " + type);
+        }
+    }
+
+    @Override
+    public void gatherRows(float[] a, int aOffset, int cols, int[] indices, float[] c, int cOffset) {
+        MatrixParallelism.forRange(indices.length, (long) indices.length * cols, (from, to) -> {
+            for (int row = from; row < to; row++)
+                System.arraycopy(a, aOffset + indices[row] * cols, c, cOffset + row * cols, cols);
+        });
+    }
+
+    @Override
+    public void gatherCols(float[] a, int aOffset, int rows, int cols, int[] indices, float[] c, int cOffset) {
+        final int width = indices.length;
+        MatrixParallelism.forRange(rows, (long) rows * width, (from, to) -> {
+            for (int row = from; row < to; row++) {
+                final int aRow = aOffset + row * cols;
+                final int cRow = cOffset + row * width;
+                for (int col = 0; col < width; col++)
+                    c[cRow + col] = a[aRow + indices[col]];
+            }
+        });
+    }
+
+    /**
+     * Поэлементная операция над отрезками массивов: оператор выбирается один раз, далее работает векторизуемый цикл
+     */
+    private static void applySegment(Operator operator, double[] a, int aOffset, double[] b, int bOffset,
+                                     double[] c, int cOffset, int length) {
+        switch (operator) {
+            case ADD:
+                ElementwiseKernels.add(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            case SUB:
+                ElementwiseKernels.sub(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            case MUL:
+                ElementwiseKernels.mul(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            case DIV:
+                ElementwiseKernels.div(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+        }
+    }
+
+    /**
+     * Операция отрезка массива с числом: оператор выбирается один раз, далее работает векторизуемый цикл
+     */
+    private static void applySegment(Operator operator, double[] a, int aOffset, double value,
+                                     double[] c, int cOffset, int length) {
+        switch (operator) {
+            case ADD:
+                ElementwiseKernels.add(a, aOffset, value, c, cOffset, length);
+                break;
+            case SUB:
+                ElementwiseKernels.sub(a, aOffset, value, c, cOffset, length);
+                break;
+            case MUL:
+                ElementwiseKernels.mul(a, aOffset, value, c, cOffset, length);
+                break;
+            case DIV:
+                ElementwiseKernels.div(a, aOffset, value, c, cOffset, length);
+                break;
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+        }
+    }
+
+    private static void applySegment(Operator operator, float[] a, int aOffset, float[] b, int bOffset,
+                                     float[] c, int cOffset, int length) {
+        switch (operator) {
+            case ADD:
+                ElementwiseKernels.add(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            case SUB:
+                ElementwiseKernels.sub(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            case MUL:
+                ElementwiseKernels.mul(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            case DIV:
+                ElementwiseKernels.div(a, aOffset, b, bOffset, c, cOffset, length);
+                break;
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+        }
+    }
+
+    private static void applySegment(Operator operator, float[] a, int aOffset, float value,
+                                     float[] c, int cOffset, int length) {
+        switch (operator) {
+            case ADD:
+                ElementwiseKernels.add(a, aOffset, value, c, cOffset, length);
+                break;
+            case SUB:
+                ElementwiseKernels.sub(a, aOffset, value, c, cOffset, length);
+                break;
+            case MUL:
+                ElementwiseKernels.mul(a, aOffset, value, c, cOffset, length);
+                break;
+            case DIV:
+                ElementwiseKernels.div(a, aOffset, value, c, cOffset, length);
+                break;
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+        }
+    }
+}
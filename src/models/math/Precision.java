@@ -0,0 +1,26 @@
+package models.math;
+
+/**
+ * Точность хранения значений {@link Matrix}
+ */
+public enum Precision {
+    /**
+     * Двойная - значения хранятся в массиве double[]
+     */
+    DOUBLE,
+
+    /**
+     * Одинарная - значения хранятся в массиве float[]: вдвое меньше памяти и вдвое больше элементов в SIMD-регистре,
+     * точность около 7 десятичных знаков
+     */
+    SINGLE;
+
+    /**
+     * Общая точность операндов: результат операции над матрицами разной точности вычисляется с двойной точностью
+     * @param other точность второго операнда
+     * @return      общая точность
+     */
+    public Precision common(Precision other) {
+        return this == other ? this : DOUBLE;
+    }
+}
@@ -0,0 +1,109 @@
+package models.math;
+
+import java.util.Random;
+
+/**
+ * Случайная перестановка чисел от 0 до size (не включительно), элементы которой вычисляются по номеру без хранения
+ * массива перестановки (в отличие от {@link MatrixUtils#getRandomRangePermutation}). Используется для перемешивания
+ * выборок, количество строк которых сопоставимо с доступной памятью.
+ *
+ * Перестановка строится сетью Фейстеля на 2k битах (2^2k - ближайшая сверху к size степень четвёрки): каждый раунд
+ * заменяет левую половину числа правой, а правую - суммой по модулю 2 левой половины и хэша правой половины с
+ * ключом раунда. Такое преобразование обратимо при любой функции хэша, то есть является перестановкой 2^2k чисел.
+ * Значения, выходящие за пределы [0; size), повторно пропускаются через сеть (cycle walking), пока не попадут в
+ * диапазон: так получается перестановка исходного диапазона. Так как 2^2k < 4 * size, в среднем требуется не более
+ * четырёх проходов. Для size > 2^30 2^2k = 2^32 не помещается в int, поэтому сеть вычисляется в long. Атрибуты
+ * модели:
+ * <pre><ul>
+ *  <li>size     - количество элементов;</li>
+ *  <li>halfBits - количество бит в половине числа;</li>
+ *  <li>keys     - ключи раундов.</li>
+ * </ul></pre>
+ */
+public class RandomPermutation {
+    private static final int ROUNDS = 4;
+
+    private final int size;
+    private final int halfBits;
+    private final int[] keys;
+
+    /**
+     * Конструктор
+     * @param size   количество элементов
+     * @param random генератор случайных чисел для выбора ключей
+     */
+    public RandomPermutation(int size, Random random) {
+        if (size < 1)
+            throw new IllegalArgumentException(String.format(
+                    "Количество элементов перестановки должно быть положительным (получено size=%d)", size));
+        this.size = size;
+        final int bits = 32 - Integer.numberOfLeadingZeros(size - 1);
+        this.halfBits = Math.max(1, (bits + 1) / 2);
+        this.keys = random.ints(ROUNDS).toArray();
+    }
+
+    /**
+     * Конструктор со случайными ключами
+     * @param size количество элементов
+     */
+    public RandomPermutation(int size) {
+        this(size, new Random());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Получение элемента перестановки
+     * @param index номер элемента (от 0 до size, не включительно)
+     * @return      элемент
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size)
+            throw new IllegalArgumentException(String.format(
+                    "Номер %d выходит за пределы перестановки из %d элементов", index, size));
+        long result = encrypt(index);
+        while (result >= size)
+            result = encrypt(result);
+        return (int) result;
+    }
+
+    /**
+     * Проход значения через сеть Фейстеля (перестановка чисел от 0 до 2^(2 * halfBits))
+     * @param value значение
+     * @return      переставленное значение
+     */
+    private long encrypt(long value) {
+        final long mask = (1L << halfBits) - 1;
+        long left = value >>> halfBits;
+        long right = value & mask;
+        for (int key: keys) {
+            final long next = left ^ (hash((int) right ^ key) & mask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    /**
+     * Перемешивание бит числа (финальный шаг хэш-функции MurmurHash3)
+     * @param value число
+     * @return      хэш
+     */
+    private static int hash(int value) {
+        value ^= value >>> 16;
+        value *= 0x85ebca6b;
+        value ^= value >>> 13;
+        value *= 0xc2b2ae35;
+        value ^= value >>> 16;
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "size=" + size +
+                '}';
+    }
+}
@@ -3,7 +3,7 @@ package models.math;
 /**
  * Перечисление типов случайных распределений
  */
-enum RandomType {
+public enum RandomType {
     /**
      * равномерное
      */
@@ -0,0 +1,354 @@
+package models.math;
+
+import models.math.functions.DoubleOperation;
+import utils.ExceptionUtils;
+
+import java.util.Random;
+
+/**
+ * Эталонный бэкенд матричных операций. Все операции выполняются простыми последовательными циклами, оператор
+ * выбирается для каждого элемента отдельно, умножение матриц вычисляет каждый элемент как скалярное произведение.
+ * Используется как образец при проверке других бэкендов и как запасной вариант, если оптимизированный бэкенд
+ * работает на конкретной JVM хуже.
+ */
+public class ReferenceMatrixBackend implements MatrixBackend {
+    @Override
+    public void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                         int m, int k, int n) {
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                double s = 0.0;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + i * k + p] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    @Override
+    public void multiplyTransA(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                               int m, int k, int n) {
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                double s = 0.0;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + p * m + i] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    @Override
+    public void multiplyTransB(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                               int m, int k, int n) {
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                double s = 0.0;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + i * k + p] * b[bOffset + j * k + p];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    @Override
+    public void apply(Operator operator, double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset,
+                      int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = applyOperator(operator, a[aOffset + i], b[bOffset + i]);
+    }
+
+    @Override
+    public void apply(Operator operator, double[] a, int aOffset, double value, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = applyOperator(operator, a[aOffset + i], value);
+    }
+
+    @Override
+    public void applyRow(Operator operator, double[] a, int aOffset, double[] row, int rowOffset,
+                         double[] c, int cOffset, int rows, int cols) {
+        for (int r = 0; r < rows; r++)
+            for (int col = 0; col < cols; col++)
+                c[cOffset + r * cols + col] = applyOperator(operator, a[aOffset + r * cols + col],
+                        row[rowOffset + col]);
+    }
+
+    @Override
+    public void applyCol(Operator operator, double[] a, int aOffset, double[] col, int colOffset, int colStride,
+                         double[] c, int cOffset, int rows, int cols) {
+        for (int r = 0; r < rows; r++)
+            for (int j = 0; j < cols; j++)
+                c[cOffset + r * cols + j] = applyOperator(operator, a[aOffset + r * cols + j],
+                        col[colOffset + r * colStride]);
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int i = 0; i < length; i++)
+            y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    @Override
+    public void map(DoubleOperation operation, double[] a, int aOffset, double[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = operation.apply(a[aOffset + i]);
+    }
+
+    @Override
+    public double reduce(Reduction reduction, double[] a, int offset, int length, double initial) {
+        double result = initial;
+        for (int i = 0; i < length; i++)
+            result = applyReduction(reduction, result, a[offset + i]);
+        return result;
+    }
+
+    @Override
+    public void reduceRows(Reduction reduction, double[] a, int offset, int rows, int cols, double initial,
+                           double[] result, int resultOffset) {
+        for (int row = 0; row < rows; row++)
+            result[resultOffset + row] = reduce(reduction, a, offset + row * cols, cols, initial);
+    }
+
+    @Override
+    public void reduceCols(Reduction reduction, double[] a, int offset, int rows, int cols, double initial,
+                           double[] result, int resultOffset) {
+        for (int col = 0; col < cols; col++) {
+            double value = initial;
+            for (int row = 0; row < rows; row++)
+                value = applyReduction(reduction, value, a[offset + row * cols + col]);
+            result[resultOffset + col] = value;
+        }
+    }
+
+    @Override
+    public void fillRandom(RandomType type, Random random, double location, double scale,
+                           double[] c, int cOffset, int length) {
+        double randomValue;
+        for (int i = 0; i < length; i++) {
+            switch (type) {
+                case UNIFORM:
+                    randomValue = random.nextDouble();
+                    break;
+                case NORMAL:
+                    randomValue = random.nextGaussian();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Недопустимое значение type: " + type);
+            }
+            c[cOffset + i] = randomValue * scale + location;
+        }
+    }
+
+    @Override
+    public void gatherRows(double[] a, int aOffset, int cols, int[] indices, double[] c, int cOffset) {
+        for (int row = 0; row < indices.length; row++)
+            for (int col = 0; col < cols; col++)
+                c[cOffset + row * cols + col] = a[aOffset + indices[row] * cols + col];
+    }
+
+    @Override
+    public void gatherCols(double[] a, int aOffset, int rows, int cols, int[] indices, double[] c, int cOffset) {
+        for (int row = 0; row < rows; row++)
+            for (int col = 0; col < indices.length; col++)
+                c[cOffset + row * indices.length + col] = a[aOffset + row * cols + indices[col]];
+    }
+
+    @Override
+    public void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                         int m, int k, int n) {
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                float s = 0.0f;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + i * k + p] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    @Override
+    public void multiplyTransA(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                               int m, int k, int n) {
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                float s = 0.0f;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + p * m + i] * b[bOffset + p * n + j];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    @Override
+    public void multiplyTransB(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                               int m, int k, int n) {
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++) {
+                float s = 0.0f;
+                for (int p = 0; p < k; p++)
+                    s += a[aOffset + i * k + p] * b[bOffset + j * k + p];
+                c[cOffset + i * n + j] = s;
+            }
+    }
+
+    @Override
+    public void apply(Operator operator, float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                      int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = applyOperator(operator, a[aOffset + i], b[bOffset + i]);
+    }
+
+    @Override
+    public void apply(Operator operator, float[] a, int aOffset, float value, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = applyOperator(operator, a[aOffset + i], value);
+    }
+
+    @Override
+    public void applyRow(Operator operator, float[] a, int aOffset, float[] row, int rowOffset,
+                         float[] c, int cOffset, int rows, int cols) {
+        for (int r = 0; r < rows; r++)
+            for (int col = 0; col < cols; col++)
+                c[cOffset + r * cols + col] = applyOperator(operator, a[aOffset + r * cols + col],
+                        row[rowOffset + col]);
+    }
+
+    @Override
+    public void applyCol(Operator operator, float[] a, int aOffset, float[] col, int colOffset, int colStride,
+                         float[] c, int cOffset, int rows, int cols) {
+        for (int r = 0; r < rows; r++)
+            for (int j = 0; j < cols; j++)
+                c[cOffset + r * cols + j] = applyOperator(operator, a[aOffset + r * cols + j],
+                        col[colOffset + r * colStride]);
+    }
+
+    @Override
+    public void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        for (int i = 0; i < length; i++)
+            y[yOffset + i] += alpha * x[xOffset + i];
+    }
+
+    @Override
+    public void map(DoubleOperation operation, float[] a, int aOffset, float[] c, int cOffset, int length) {
+        for (int i = 0; i < length; i++)
+            c[cOffset + i] = (float) operation.apply(a[aOffset + i]);
+    }
+
+    @Override
+    public double reduce(Reduction reduction, float[] a, int offset, int length, double initial) {
+        double result = initial;
+        for (int i = 0; i < length; i++)
+            result = applyReduction(reduction, result, a[offset + i]);
+        return result;
+    }
+
+    @Override
+    public void reduceRows(Reduction reduction, float[] a, int offset, int rows, int cols, double initial,
+                           float[] result, int resultOffset) {
+        for (int row = 0; row < rows; row++)
+            result[resultOffset + row] = (float) reduce(reduction, a, offset + row * cols, cols, initial);
+    }
+
+    @Override
+    public void reduceCols(Reduction reduction, float[] a, int offset, int rows, int cols, double initial,
+                           float[] result, int resultOffset) {
+        for (int col = 0; col < cols; col++) {
+            double value = initial;
+            for (int row = 0; row < rows; row++)
+                value = applyReduction(reduction, value, a[offset + row * cols + col]);
+            result[resultOffset + col] = (float) value;
+        }
+    }
+
+    @Override
+    public void fillRandom(RandomType type, Random random, double location, double scale,
+                           float[] c, int cOffset, int length) {
+        double randomValue;
+        for (int i = 0; i < length; i++) {
+            switch (type) {
+                case UNIFORM:
+                    randomValue = random.nextDouble();
+                    break;
+                case NORMAL:
+                    randomValue = random.nextGaussian();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Недопустимое значение type: " + type);
+            }
+            c[cOffset + i] = (float) (randomValue * scale + location);
+        }
+    }
+
+    @Override
+    public void gatherRows(float[] a, int aOffset, int cols, int[] indices, float[] c, int cOffset) {
+        for (int row = 0; row < indices.length; row++)
+            for (int col = 0; col < cols; col++)
+                c[cOffset + row * cols + col] = a[aOffset + indices[row] * cols + col];
+    }
+
+    @Override
+    public void gatherCols(float[] a, int aOffset, int rows, int cols, int[] indices, float[] c, int cOffset) {
+        for (int row = 0; row < rows; row++)
+            for (int col = 0; col < indices.length; col++)
+                c[cOffset + row * indices.length + col] = a[aOffset + row * cols + indices[col]];
+    }
+
+    /**
+     * Применение оператора к операндам
+     * @param operator оператор
+     * @param value1   операнд1
+     * @param value2   операнд2
+     * @return         результат применения оператора
+     */
+    private static double applyOperator(Operator operator, double value1, double value2) {
+        switch (operator) {  // перебор операторов
+            case ADD:
+                return value1 + value2;
+            case SUB:
+                return value1 - value2;
+            case MUL:
+                return value1 * value2;
+            case DIV:
+                return value1 / value2;
+            default:  // не известный оператор
+                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+        }
+    }
+
+    /**
+     * Шаг свёртки
+     * @param reduction свёртка
+     * @param result    накопленное значение
+     * @param value     очередной элемент
+     * @return          новое накопленное значение
+     */
+    private static double applyReduction(Reduction reduction, double result, double value) {
+        switch (reduction) {
+            case SUM:
+                return result + value;
+            case MIN:
+                return Math.min(result, value);
+            case MAX:
+                return Math.max(result, value);
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Reduction.class, reduction);
+        }
+    }
+
+    /**
+     * Применение оператора к операндам одинарной точности
+     * @param operator оператор
+     * @param value1   операнд1
+     * @param value2   операнд2
+     * @return         результат применения оператора
+     */
+    private static float applyOperator(Operator operator, float value1, float value2) {
+        switch (operator) {
+            case ADD:
+                return value1 + value2;
+            case SUB:
+                return value1 - value2;
+            case MUL:
+                return value1 * value2;
+            case DIV:
+                return value1 / value2;
+            default:
+                throw ExceptionUtils.newUnknownEnumItemException(Operator.class, operator);
+        }
+    }
+}
@@ -8,4 +8,16 @@ public class Abs implements DoubleOperation {
     public double apply(double value) {
         return Math.abs(value);
     }
+
+    @Override
+    public void apply(double[] source, int sourceOffset, double[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = Math.abs(source[sourceOffset + i]);
+    }
+
+    @Override
+    public void apply(float[] source, int sourceOffset, float[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = Math.abs(source[sourceOffset + i]);
+    }
 }
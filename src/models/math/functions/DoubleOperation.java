@@ -10,4 +10,33 @@ public interface DoubleOperation {
      * @return      результат выполнения операции
      */
     double apply(double value);
+
+    /**
+     * Выполнение операции над отрезком массива: destination[destinationOffset + i] = apply(source[sourceOffset + i]),
+     * i = 0..length-1. Реализации переопределяют метод простым циклом без виртуального вызова на каждый элемент, чтобы
+     * JIT мог его оптимизировать
+     * @param source            исходный массив
+     * @param sourceOffset      смещение в исходном массиве
+     * @param destination       массив результатов
+     * @param destinationOffset смещение в массиве результатов
+     * @param length            длина отрезка
+     */
+    default void apply(double[] source, int sourceOffset, double[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = apply(source[sourceOffset + i]);
+    }
+
+    /**
+     * Выполнение операции над отрезком массива одинарной точности: вычисление ведётся в double, результат округляется
+     * до float
+     * @param source            исходный массив
+     * @param sourceOffset      смещение в исходном массиве
+     * @param destination       массив результатов
+     * @param destinationOffset смещение в массиве результатов
+     * @param length            длина отрезка
+     */
+    default void apply(float[] source, int sourceOffset, float[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = (float) apply(source[sourceOffset + i]);
+    }
 }
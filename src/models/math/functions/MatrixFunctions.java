@@ -1,6 +1,7 @@
 package models.math.functions;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 
 /**
  * Набор функций, применяемых к каждому элементу матрицы. Доступные операции:
@@ -10,12 +11,12 @@ import models.math.Matrix;
  * <li>pow - f(x, scale) = x ^ scale (возведение в степень);</li>
  * <li>tanh - f(x) = tanh(x) (гиперболический тангенс).</li>
  * </ul></pre>
+ * Функции exp и tanh также применимы к ленивым выражениям {@link MatrixExpression}.
  */
 public abstract class MatrixFunctions {
     private static Abs absOperation = new Abs();
     private static Exp expOperation = new Exp();
     private static Tanh tanhOperation = new Tanh();
-    private static Pow powOperation;
 
     /**
      * Применение экспоненты
@@ -35,6 +36,24 @@ public abstract class MatrixFunctions {
         return applyToEachCell(matrix, tanhOperation);
     }
 
+    /**
+     * Применение экспоненты к ленивому выражению
+     * @param expression исходное выражение
+     * @return           выражение после применения операции
+     */
+    public static MatrixExpression exp(MatrixExpression expression) {
+        return expression.apply(expOperation);
+    }
+
+    /**
+     * Применение гиперболического тангенса к ленивому выражению
+     * @param expression исходное выражение
+     * @return           выражение после применения операции
+     */
+    public static MatrixExpression tanh(MatrixExpression expression) {
+        return expression.apply(tanhOperation);
+    }
+
     /**
      * Получение абсолютных значений
      * @param matrix исходная матрица
@@ -51,8 +70,7 @@ public abstract class MatrixFunctions {
      * @return       матрица после применения операции
      */
     public static Matrix pow(Matrix matrix, double scale) {
-        powOperation = new Pow(scale);
-        return applyToEachCell(matrix, powOperation);
+        return applyToEachCell(matrix, new Pow(scale));  // локальный экземпляр: метод вызывается из разных тредов
     }
 
     /**
@@ -62,10 +80,6 @@ public abstract class MatrixFunctions {
      * @return          матрица после применения операции
      */
     private static Matrix applyToEachCell(Matrix matrix, DoubleOperation operation) {
-        double[][] result = new double[matrix.getRows()][matrix.getCols()];
-        for (int row = 0; row < matrix.getRows(); row++)
-            for (int col = 0; col < matrix.getCols(); col++)
-                result[row][col] = operation.apply(matrix.getValue(row, col));
-        return new Matrix(result);
+        return matrix.apply(operation);
     }
 }
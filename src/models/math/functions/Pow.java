@@ -14,4 +14,16 @@ public class Pow implements DoubleOperation {
     public double apply(double value) {
         return Math.pow(value, scale);
     }
+
+    @Override
+    public void apply(double[] source, int sourceOffset, double[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = Math.pow(source[sourceOffset + i], scale);
+    }
+
+    @Override
+    public void apply(float[] source, int sourceOffset, float[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = (float) Math.pow(source[sourceOffset + i], scale);
+    }
 }
@@ -8,4 +8,16 @@ public class Tanh implements DoubleOperation {
     public double apply(double value) {
         return Math.tanh(value);
     }
+
+    @Override
+    public void apply(double[] source, int sourceOffset, double[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = Math.tanh(source[sourceOffset + i]);
+    }
+
+    @Override
+    public void apply(float[] source, int sourceOffset, float[] destination, int destinationOffset, int length) {
+        for (int i = 0; i < length; i++)
+            destination[destinationOffset + i] = (float) Math.tanh(source[sourceOffset + i]);
+    }
 }
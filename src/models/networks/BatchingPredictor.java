@@ -0,0 +1,195 @@
+package models.networks;
+
+import models.math.Matrix;
+import models.operations.WeightMultiply;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Сервис вывода обученной сети с объединением запросов в пакеты. Запросы (по одной строке входов) ставятся в очередь,
+ * отдельный поток собирает их в пакет и выполняет один вывод сети ({@link Network#predict(Matrix)}) на весь пакет, после
+ * чего завершает результат каждого запроса. Пакет отправляется, когда в нём набралось maxBatchSize строк или когда с
+ * постановки в очередь первого запроса пакета прошло maxDelayMicros микросекунд (при пустой очереди пакет не ждёт
+ * полного заполнения дольше этого времени). Один вывод пакета дешевле, чем такое же количество выводов по одной строке,
+ * так как матричное умножение на пакете использует кэш и векторизацию. Атрибуты модели:
+ * <pre><ul>
+ *  <li>network        - сеть (её параметры не должны изменяться, пока сервис работает);</li>
+ *  <li>inputs         - количество входов сети;</li>
+ *  <li>maxBatchSize   - наибольшее количество строк в пакете;</li>
+ *  <li>maxDelayNanos  - наибольшее время ожидания заполнения пакета;</li>
+ *  <li>queue          - очередь запросов;</li>
+ *  <li>worker         - поток, выполняющий вывод пакетов;</li>
+ *  <li>closed         - остановлен ли сервис;</li>
+ *  <li>batches        - количество выполненных пакетов;</li>
+ *  <li>requests       - количество выполненных запросов.</li>
+ * </ul></pre>
+ * Пример:
+ * <pre>
+ * try (BatchingPredictor predictor = new BatchingPredictor(network, 64, 500)) {
+ *     double[] y = predictor.submit(new double[]{0.1, 0.2}).get();
+ * }
+ * </pre>
+ */
+public class BatchingPredictor implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    /**
+     * Время ожидания запроса при пустой очереди, после которого поток проверяет, не остановлен ли сервис
+     */
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final Network network;
+    private final int inputs;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean closed = false;
+    private long batches = 0;
+    private long requests = 0;
+
+    /**
+     * Конструктор. Запускает поток вывода
+     * @param network        сеть (первый слой должен умножать вход на веса, см. {@link WeightMultiply})
+     * @param maxBatchSize   наибольшее количество строк в пакете
+     * @param maxDelayMicros наибольшее время ожидания заполнения пакета в микросекундах
+     */
+    public BatchingPredictor(Network network, int maxBatchSize, long maxDelayMicros) {
+        if (maxBatchSize < 1 || maxDelayMicros < 0)
+            throw new IllegalArgumentException(String.format(
+                    "Недопустимые параметры объединения запросов (maxBatchSize=%d, maxDelayMicros=%d)",
+                    maxBatchSize, maxDelayMicros));
+        this.network = network;
+        this.inputs = network.getLayer(0).getParameter(WeightMultiply.class).getRows();
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        worker = new Thread(this::run, "batching-predictor");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Постановка запроса в очередь
+     * @param input входы (одна строка)
+     * @return      будущий результат - выходы сети
+     */
+    public CompletableFuture<double[]> submit(double[] input) {
+        if (input.length != inputs)
+            throw new IllegalArgumentException(String.format(
+                    "Количество входов запроса (%d) не совпадает с количеством входов сети (%d)",
+                    input.length, inputs));
+        if (closed)
+            throw new IllegalStateException("Сервис вывода остановлен");
+        final Request request = new Request(input.clone());
+        queue.add(request);
+        // остановка могла начаться между проверкой и постановкой: если запрос ещё в очереди, его никто не выполнит
+        if (closed && queue.remove(request))
+            throw new IllegalStateException("Сервис вывода остановлен");
+        return request.result;
+    }
+
+    /**
+     * Остановка сервиса: запросы, поставленные в очередь до остановки, выполняются, после чего поток завершается
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // запросы, поставленные одновременно с остановкой, не выполняются
+        for (Request request = queue.poll(); request != null; request = queue.poll())
+            request.result.completeExceptionally(new IllegalStateException("Сервис вывода остановлен"));
+        logger.fine(String.format("Сервис вывода остановлен: выполнено запросов %d, пакетов %d", requests, batches));
+    }
+
+    /**
+     * Цикл потока вывода: сбор пакета и его вывод
+     */
+    private void run() {
+        final List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                final Request first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                final long deadline = first.submitted + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());  // уже поставленные запросы
+                    final long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0)
+                        break;
+                    final Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                process(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            for (Request request: batch)
+                request.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Вывод пакета и завершение результатов запросов
+     * @param batch запросы пакета
+     */
+    private void process(List<Request> batch) {
+        final double[] values = new double[batch.size() * inputs];
+        for (int i = 0; i < batch.size(); i++)
+            System.arraycopy(batch.get(i).input, 0, values, i * inputs, inputs);
+        try {
+            final Matrix outputs = network.predict(new Matrix(batch.size(), inputs, values));
+            for (int i = 0; i < batch.size(); i++)
+                batch.get(i).result.complete(outputs.getValue(i));
+        } catch (RuntimeException e) {
+            for (Request request: batch)
+                request.result.completeExceptionally(e);
+        }
+        batches++;
+        requests += batch.size();
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxDelayMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxDelayNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchingPredictor{" +
+                "inputs=" + inputs +
+                ", maxBatchSize=" + maxBatchSize +
+                ", maxDelayMicros=" + getMaxDelayMicros() +
+                ", closed=" + closed +
+                '}';
+    }
+
+    /**
+     * Запрос: входы, время постановки в очередь и будущий результат
+     */
+    private static class Request {
+        private final double[] input;
+        private final long submitted = System.nanoTime();
+        private final CompletableFuture<double[]> result = new CompletableFuture<>();
+
+        Request(double[] input) {
+            this.input = input;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package models.networks;
+
+import models.layers.DenseLayer;
+import models.layers.Layer;
+import models.losses.Loss;
+import models.math.Matrix;
+import models.math.MatrixExpression;
+import models.math.Precision;
+import models.operations.BiasAdd;
+import models.operations.Operation;
+import models.operations.WeightMultiply;
+
+import java.util.Arrays;
+
+/**
+ * План выполнения сети - результат компиляции сети под заданный размер пакета (см. {@link Network#compile(int)}).
+ * При компиляции один раз вычисляются размерности, создаются все буферы и подготавливаются поэлементные выражения
+ * (см. {@link MatrixExpression#prepare()}), поэтому обучение по пакету и вывод не создают матриц и не выделяют память
+ * (в последовательном режиме {@link models.math.MatrixParallelism}). Параметры всех слоёв хранятся в одном массиве,
+ * градиенты параметров - в другом, в одинаковом порядке (веса и смещения первого слоя, затем второго и т.д.), поэтому
+ * оптимизатор обновляет все параметры одним проходом (см. {@link models.optimizers.Optimizer#step(ExecutionPlan)}).
+ * Поддерживаются сети из полносвязных слоёв, выполняемых слитно (см. {@link DenseLayer#isFusable()}), с параметрами
+ * двойной точности и потерей, поддерживающей вычисление выражениями (см. {@link Loss#getInputGradientExpression}).
+ * Параметры копируются из сети при компиляции; после обучения их нужно записать в сеть методом writeTo (например,
+ * перед сериализацией). План не является потокобезопасным. Атрибуты модели:
+ * <pre><ul>
+ *  <li>loss            - потеря;</li>
+ *  <li>batchSize       - наибольшее количество строк в пакете;</li>
+ *  <li>sizes           - количество входов сети и размеры слоёв;</li>
+ *  <li>activations     - функции активации слоёв;</li>
+ *  <li>parameters      - параметры всех слоёв (одна матрица-строка над общим массивом);</li>
+ *  <li>gradients       - градиенты параметров всех слоёв (в том же порядке);</li>
+ *  <li>weights         - веса слоёв (отрезки parameters);</li>
+ *  <li>biases          - смещения слоёв (отрезки parameters);</li>
+ *  <li>weightGradients - градиенты весов слоёв (отрезки gradients);</li>
+ *  <li>biasGradients   - градиенты смещений слоёв (отрезки gradients);</li>
+ *  <li>buffers         - буферы по количеству строк пакета (создаются при первом пакете с таким количеством строк).</li>
+ * </ul></pre>
+ * Пример:
+ * <pre>
+ * ExecutionPlan plan = network.compile(64);
+ * double loss = plan.trainBatch(inputs, targets);
+ * optimizer.step(plan);
+ * ...
+ * plan.writeTo(network);
+ * </pre>
+ */
+public class ExecutionPlan {
+    private final Loss loss;
+    private final int batchSize;
+    private final int[] sizes;
+    private final Operation[] activations;
+    private final Matrix parameters;
+    private final Matrix gradients;
+    private final Matrix[] weights;
+    private final Matrix[] biases;
+    private final Matrix[] weightGradients;
+    private final Matrix[] biasGradients;
+    private final Buffers[] buffers;
+
+    /**
+     * Конструктор (компиляция сети)
+     * @param network   сеть
+     * @param batchSize наибольшее количество строк в пакете
+     */
+    public ExecutionPlan(Network network, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException(String.format("Недопустимый размер пакета: %d", batchSize));
+        final int layersCount = network.layersCount();
+        loss = network.getLoss();
+        this.batchSize = batchSize;
+        sizes = new int[layersCount + 1];
+        activations = new Operation[layersCount];
+        int total = 0;
+        for (int l = 0; l < layersCount; l++) {
+            final Layer layer = network.getLayer(l);
+            if (!(layer instanceof DenseLayer) || !((DenseLayer) layer).isFusable())
+                throw new IllegalArgumentException(String.format(
+                        "Слой %d (%s) не поддерживается планом выполнения: требуется полносвязный слой из умножения " +
+                                "на веса, сложения со смещениями и поэлементной функции активации",
+                        l, layer.getClass().getSimpleName()));
+            final Matrix weight = layer.getParameter(WeightMultiply.class);
+            if (weight.getPrecision() != Precision.DOUBLE ||
+                    layer.getParameter(BiasAdd.class).getPrecision() != Precision.DOUBLE)
+                throw new IllegalArgumentException(String.format(
+                        "Слой %d: план выполнения поддерживает только параметры двойной точности", l));
+            if (l > 0 && weight.getRows() != sizes[l])
+                throw new IllegalArgumentException(String.format(
+                        "Слой %d: количество входов (%d) не совпадает с размером предыдущего слоя (%d)",
+                        l, weight.getRows(), sizes[l]));
+            sizes[l] = weight.getRows();
+            sizes[l + 1] = weight.getCols();
+            activations[l] = layer.getOperation(2);
+            total += (weight.getRows() + 1) * weight.getCols();
+        }
+
+        final double[] parameterValues = new double[total];
+        final double[] gradientValues = new double[total];
+        parameters = new Matrix(1, total, parameterValues);
+        gradients = new Matrix(1, total, gradientValues);
+        weights = new Matrix[layersCount];
+        biases = new Matrix[layersCount];
+        weightGradients = new Matrix[layersCount];
+        biasGradients = new Matrix[layersCount];
+        for (int l = 0, offset = 0; l < layersCount; l++) {
+            weights[l] = new Matrix(sizes[l], sizes[l + 1], parameterValues, offset);
+            weightGradients[l] = new Matrix(sizes[l], sizes[l + 1], gradientValues, offset);
+            offset += sizes[l] * sizes[l + 1];
+            biases[l] = new Matrix(sizes[l + 1], 1, parameterValues, offset);
+            biasGradients[l] = new Matrix(sizes[l + 1], 1, gradientValues, offset);
+            offset += sizes[l + 1];
+        }
+        readFrom(network);
+        buffers = new Buffers[batchSize + 1];
+    }
+
+    /**
+     * Обучение по пакету: прямой проход, вычисление потери и обратный проход. Градиенты параметров записываются в
+     * gradients и остаются действительными до следующего вызова
+     * @param inputs  входы (не более batchSize строк)
+     * @param targets требуемые выходы
+     * @return        потеря
+     */
+    public double trainBatch(Matrix inputs, Matrix targets) {
+        final Buffers batch = getBuffers(inputs);
+        batch.targets.copyFrom(targets);
+        forward(batch);
+        final int last = activations.length - 1;
+        final double batchLoss = batch.lossOutput.sum();
+        batch.lossGradient.into(batch.gradients[last]);
+        for (int l = last; l >= 0; l--) {
+            final Matrix gradient = batch.gradients[l];
+            batch.activationGradients[l].into(gradient);  // градиент по выходу умножения на веса
+            (l == 0 ? batch.inputs : batch.activations[l - 1]).mulMatrixTransAInto(gradient, weightGradients[l]);
+            gradient.sumInto(1, biasGradients[l]);
+            if (l > 0)
+                gradient.mulMatrixTransBInto(weights[l], batch.gradients[l - 1]);
+        }
+        return batchLoss;
+    }
+
+    /**
+     * Вывод. Результат - буфер плана, действительный до следующего вызова trainBatch или predict с тем же количеством
+     * строк (при необходимости его нужно скопировать)
+     * @param inputs входы (не более batchSize строк)
+     * @return       выходы
+     */
+    public Matrix predict(Matrix inputs) {
+        final Buffers batch = getBuffers(inputs);
+        forward(batch);
+        return batch.activations[activations.length - 1];
+    }
+
+    /**
+     * Прямой проход: z = x * W, затем f(z + b) одним проходом по z
+     * @param batch буферы пакета (входы уже скопированы)
+     */
+    private void forward(Buffers batch) {
+        for (int l = 0; l < activations.length; l++) {
+            (l == 0 ? batch.inputs : batch.activations[l - 1]).mulMatrixInto(weights[l], batch.activations[l]);
+            batch.outputs[l].into(batch.activations[l]);
+        }
+    }
+
+    /**
+     * Получение буферов по количеству строк пакета с копированием входов
+     * @param inputs входы
+     * @return       буферы
+     */
+    private Buffers getBuffers(Matrix inputs) {
+        if (inputs.getRows() < 1 || inputs.getRows() > batchSize || inputs.getCols() != sizes[0])
+            throw new IllegalArgumentException(String.format(
+                    "Входы размерности (%d; %d) не подходят для плана выполнения (не более %d строк, %d столбцов)",
+                    inputs.getRows(), inputs.getCols(), batchSize, sizes[0]));
+        if (buffers[inputs.getRows()] == null)
+            buffers[inputs.getRows()] = new Buffers(inputs.getRows());
+        final Buffers batch = buffers[inputs.getRows()];
+        batch.inputs.copyFrom(inputs);
+        return batch;
+    }
+
+    /**
+     * Копирование параметров сети в план
+     * @param network сеть той же структуры
+     */
+    public void readFrom(Network network) {
+        assertCompatible(network);
+        for (int l = 0; l < activations.length; l++) {
+            weights[l].copyFrom(network.getLayer(l).getParameter(WeightMultiply.class));
+            biases[l].copyFrom(network.getLayer(l).getParameter(BiasAdd.class));
+        }
+    }
+
+    /**
+     * Запись параметров плана в сеть (например, для сериализации или вывода сетью)
+     * @param network сеть той же структуры
+     */
+    public void writeTo(Network network) {
+        assertCompatible(network);
+        for (int l = 0; l < activations.length; l++) {
+            network.getLayer(l).getParameter(WeightMultiply.class).copyFrom(weights[l]);
+            network.getLayer(l).getParameter(BiasAdd.class).copyFrom(biases[l]);
+        }
+    }
+
+    /**
+     * Проверка совпадения структуры сети со структурой плана, при несовпадении выбрасывается исключение
+     * @param network сеть
+     */
+    private void assertCompatible(Network network) {
+        boolean compatible = network.layersCount() == activations.length;
+        for (int l = 0; compatible && l < activations.length; l++) {
+            final Matrix weight = network.getLayer(l).getParameter(WeightMultiply.class);
+            compatible = weight.getRows() == sizes[l] && weight.getCols() == sizes[l + 1];
+        }
+        if (!compatible)
+            throw new IllegalArgumentException("Структура сети не совпадает со структурой плана выполнения");
+    }
+
+    /**
+     * Получение параметров всех слоёв. Матрица-строка изменяется на месте (оптимизатором), отрезки матрицы являются
+     * параметрами слоёв плана
+     * @return параметры
+     */
+    public Matrix getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Получение градиентов параметров всех слоёв (в том же порядке, что и параметры)
+     * @return градиенты параметров
+     */
+    public Matrix getGradients() {
+        return gradients;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public Loss getLoss() {
+        return loss;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionPlan{" +
+                "batchSize=" + batchSize +
+                ", sizes=" + Arrays.toString(sizes) +
+                ", parameters=" + parameters.size() +
+                '}';
+    }
+
+    /**
+     * Буферы пакета с заданным количеством строк и подготовленные выражения над ними. Атрибуты модели:
+     * <pre><ul>
+     *  <li>inputs              - входы;</li>
+     *  <li>targets             - требуемые выходы;</li>
+     *  <li>activations         - выходы слоёв;</li>
+     *  <li>gradients           - градиенты по выходам слоёв (на месте заменяются градиентами по выходам умножения
+     *                            на веса);</li>
+     *  <li>outputs             - выражения f(z + b), вычисляемые в activations;</li>
+     *  <li>activationGradients - выражения градиента по выходу умножения на веса, вычисляемые в gradients;</li>
+     *  <li>lossOutput          - выражение слагаемых потери;</li>
+     *  <li>lossGradient        - выражение градиента потери.</li>
+     * </ul></pre>
+     */
+    private class Buffers {
+        private final Matrix inputs;
+        private final Matrix targets;
+        private final Matrix[] activations;
+        private final Matrix[] gradients;
+        private final MatrixExpression.Prepared[] outputs;
+        private final MatrixExpression.Prepared[] activationGradients;
+        private final MatrixExpression.Prepared lossOutput;
+        private final MatrixExpression.Prepared lossGradient;
+
+        Buffers(int rows) {
+            final int layersCount = ExecutionPlan.this.activations.length;
+            inputs = new Matrix(rows, sizes[0]);
+            targets = new Matrix(rows, sizes[layersCount]);
+            // каждый буфер - в своём массиве: приёмник матричного умножения не может разделять массив с операндами
+            activations = new Matrix[layersCount];
+            gradients = new Matrix[layersCount];
+            outputs = new MatrixExpression.Prepared[layersCount];
+            activationGradients = new MatrixExpression.Prepared[layersCount];
+            for (int l = 0; l < layersCount; l++) {
+                final Operation activation = ExecutionPlan.this.activations[l];
+                activations[l] = new Matrix(rows, sizes[l + 1]);
+                gradients[l] = new Matrix(rows, sizes[l + 1]);
+                outputs[l] = activation.getOutputExpression(
+                        activations[l].lazy().addRow(biases[l].transpose())).prepare();
+                activationGradients[l] = activation.getInputGradientExpression(
+                        activations[l], gradients[l].lazy()).prepare();
+            }
+            lossOutput = loss.getOutputExpression(activations[layersCount - 1], targets).prepare();
+            lossGradient = loss.getInputGradientExpression(activations[layersCount - 1], targets).prepare();
+        }
+    }
+}
@@ -3,8 +3,12 @@ package models.networks;
 import models.layers.Layer;
 import models.losses.Loss;
 import models.math.Matrix;
+import models.math.MatrixArena;
+import models.math.Precision;
+import models.operations.ParametrizedOperation;
 import serialization.annotations.YamlField;
 import serialization.annotations.YamlSerializable;
+import utils.copy.CopyUtils;
 import utils.copy.DeepCopyable;
 
 import java.io.Serializable;
@@ -15,13 +19,24 @@ import java.util.Objects;
  * Нейросеть, представленная как набор слоёв и потеря. Атрибуты модели:
  * <pre><ul>
  *  <li>набор<{@link Layer}> - набор слоёв;</li>
- *  <li>{@link Loss}         - потеря для оценки работы сети</li>
+ *  <li>{@link Loss}         - потеря для оценки работы сети;</li>
+ *  <li>parameters           - общий массив параметров всех слоёв (только для сети с общими массивами параметров, см.
+ *                             {@link #flattenParameters()});</li>
+ *  <li>gradients            - общий массив градиентов параметров всех слоёв (в том же порядке).</li>
  * </ul></pre>
  */
 @YamlSerializable
 public class Network implements DeepCopyable, Serializable {
     @YamlField private final Layer[] layers;
     @YamlField private final Loss loss;
+    private transient MatrixArena arena;
+    private transient Matrix parameters;
+    private transient Matrix gradients;
+
+    /**
+     * Переносить ли параметры обучаемых сетей в общие массивы (см. {@link #flattenParameters()})
+     */
+    private static volatile boolean flat = false;
 
     /**
      * Конструктор
@@ -41,24 +56,41 @@ public class Network implements DeepCopyable, Serializable {
     }
 
     /**
-     * Прямой проход сети по всем слоям
+     * Прямой проход сети по всем слоям. Вход не изменяется и не копируется (кроме режима защитных копий, см.
+     * {@link CopyUtils}), поэтому вызывающий код не должен изменять его до окончания обратного прохода
      * @param inputs вход
      * @return       выход
      */
     public Matrix forward(Matrix inputs) {
-        Matrix result = inputs.deepCopy();
+        Matrix result = CopyUtils.defensiveCopy(inputs);
         for (Layer layer: layers)
             result = layer.forward(result);
         return result;
     }
 
+    /**
+     * Вывод: прямой проход сети без сохранения состояния в слоях и операциях (см. {@link Layer#predict(Matrix)}).
+     * Создаются только выходы слоёв (за пределами арены временных матриц, если на текущем потоке не открыта её
+     * область), вход не изменяется. Метод может вызываться одновременно из нескольких потоков на одном экземпляре,
+     * пока параметры сети не изменяются (обучение выполняется над другим экземпляром, например копией, см.
+     * {@link #deepCopy()})
+     * @param inputs вход
+     * @return       выход
+     */
+    public Matrix predict(Matrix inputs) {
+        Matrix result = inputs;
+        for (Layer layer: layers)
+            result = layer.predict(result);
+        return result;
+    }
+
     /**
      * Обратный проход сети по всем слоям (в обратном направлении)
      * @param lossGradient градиент на выходе сети (градиент потери)
      * @return             градиент на входе сети
      */
     public Matrix backward(Matrix lossGradient) {
-        Matrix result = lossGradient.deepCopy();
+        Matrix result = CopyUtils.defensiveCopy(lossGradient);
         for (int i = 0; i < layers.length; i++)
             result = layers[layers.length - 1 - i].backward(result);
         return result;
@@ -71,22 +103,138 @@ public class Network implements DeepCopyable, Serializable {
      * @return        потеря
      */
     public double calculateLoss(Matrix inputs, Matrix targets) {
-        Matrix prediction = forward(inputs);
+        Matrix prediction = predict(inputs);
         return loss.forward(prediction, targets);
     }
 
     /**
-     *
+     * Обучение по пакету: прямой проход, вычисление потери и обратный проход. Временные матрицы слоёв, операций и
+     * потери берутся из арены сети (см. {@link #getArena()}) и остаются действительными до следующего вызова, поэтому
+     * оптимизатор может прочитать градиенты параметров после обучения по пакету
      * @param inputs  входы
      * @param targets требуемые выходы
      * @return        потеря
      */
     public double trainBatch(Matrix inputs, Matrix targets) {
-        Matrix predictions = forward(inputs);
-        double batchLoss = loss.forward(predictions, targets);
-        Matrix lossGradient = loss.backward();
-        backward(lossGradient);
-        return batchLoss;
+        final MatrixArena scope = getArena().open();
+        try {
+            Matrix predictions = forward(inputs);
+            double batchLoss = loss.forward(predictions, targets);
+            Matrix lossGradient = loss.backward();
+            backward(lossGradient);
+            return batchLoss;
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Компиляция сети в план выполнения с заранее созданными буферами, см. {@link ExecutionPlan}
+     * @param batchSize наибольшее количество строк в пакете
+     * @return          план выполнения
+     */
+    public ExecutionPlan compile(int batchSize) {
+        return new ExecutionPlan(this, batchSize);
+    }
+
+    /**
+     * Получение арены временных матриц, используемой при обучении по пакету. Статистика арены позволяет убедиться,
+     * что в установившемся режиме обучение не выделяет память под матрицы (количество промахов не растёт); прочие
+     * небольшие объекты (например, узлы выражений) статистикой не учитываются, см. {@link MatrixArena}
+     * @return арена
+     */
+    public MatrixArena getArena() {
+        if (arena == null)
+            arena = new MatrixArena();
+        return arena;
+    }
+
+    /**
+     * Проверка, переносятся ли параметры обучаемых сетей в общие массивы
+     * @return результат проверки
+     */
+    public static boolean isFlatEnabled() {
+        return flat;
+    }
+
+    /**
+     * Включение или выключение переноса параметров обучаемых сетей в общие массивы (см. {@link #flattenParameters()})
+     * @param enabled включить ли перенос
+     */
+    public static void configureFlat(boolean enabled) {
+        flat = enabled;
+    }
+
+    /**
+     * Перенос параметров всех слоёв в один массив, а градиентов параметров - в другой (в одинаковом порядке: параметры
+     * первого слоя по порядку операций, затем второго и т.д.). Параметры операций становятся отрезками общего массива
+     * (см. {@link Matrix#segment}), градиенты при обратном проходе записываются в отрезки общего массива градиентов.
+     * После переноса оптимизатор обновляет все параметры одним проходом (см.
+     * {@link models.optimizers.Optimizer#step()}), а снимок параметров - копирование одного массива (см.
+     * {@link #getParameters()}). Копия сети (см. {@link #deepCopy()}) также хранит параметры в общих массивах,
+     * сериализованная сеть - нет (отрезки записываются как обычные матрицы). Все параметры должны иметь одну
+     * точность; повторный вызов ничего не меняет
+     * @return исходная сеть
+     */
+    public Network flattenParameters() {
+        if (isFlat())
+            return this;
+        final ParametrizedOperation[] operations = Arrays.stream(layers)
+                .flatMap(layer -> Arrays.stream(layer.getParametrizedOperations()))
+                .toArray(ParametrizedOperation[]::new);
+        if (operations.length == 0)
+            throw new IllegalStateException("В сети нет параметров для переноса в общий массив");
+        final Precision precision = operations[0].getParameter().getPrecision();
+        if (Arrays.stream(operations).anyMatch(operation -> operation.getParameter().getPrecision() != precision))
+            throw new IllegalStateException("Параметры сети имеют разную точность, перенос в общий массив невозможен");
+        final int total = Arrays.stream(operations).mapToInt(operation -> operation.getParameter().size()).sum();
+        final Matrix allParameters = new Matrix(1, total, precision);
+        final Matrix allGradients = new Matrix(1, total, precision);
+        int start = 0;
+        for (ParametrizedOperation operation: operations) {
+            final Matrix parameter = operation.getParameter();
+            operation.bindBuffers(allParameters.segment(parameter.getRows(), parameter.getCols(), start),
+                    allGradients.segment(parameter.getRows(), parameter.getCols(), start));
+            start += parameter.size();
+        }
+        parameters = allParameters;
+        gradients = allGradients;
+        return this;
+    }
+
+    /**
+     * Проверка, хранятся ли параметры сети в общем массиве
+     * @return результат проверки
+     */
+    public boolean isFlat() {
+        return parameters != null;
+    }
+
+    /**
+     * Получение общего массива параметров (матрица-строка, отрезки которой являются параметрами операций). Изменение
+     * значений матрицы изменяет параметры сети
+     * @return параметры
+     */
+    public Matrix getParameters() {
+        assertFlat();
+        return parameters;
+    }
+
+    /**
+     * Получение общего массива градиентов параметров (в том же порядке, что и параметры)
+     * @return градиенты параметров
+     */
+    public Matrix getGradients() {
+        assertFlat();
+        return gradients;
+    }
+
+    /**
+     * Проверка, хранятся ли параметры сети в общем массиве, иначе выбрасывается исключение
+     */
+    private void assertFlat() {
+        if (!isFlat())
+            throw new IllegalStateException("Параметры сети не перенесены в общий массив, см. flattenParameters()");
     }
 
     private Layer[] getLayers() {
@@ -105,8 +253,36 @@ public class Network implements DeepCopyable, Serializable {
         return loss;
     }
 
+    /**
+     * Получение сети, параметры которой имеют заданную точность. Если все параметры уже имеют эту точность, то
+     * возвращается исходная сеть, иначе - копия с приведёнными параметрами. Промежуточные значения при прямом и
+     * обратном проходах получают точность входов и параметров (см. {@link Matrix})
+     * @param precision точность
+     * @return          сеть заданной точности
+     */
+    public Network toPrecision(Precision precision) {
+        if (Arrays.stream(layers)
+                .flatMap(layer -> Arrays.stream(layer.getParametrizedOperations()))
+                .allMatch(operation -> operation.getParameter().getPrecision() == precision))
+            return this;
+        Network result = copyLayers();
+        for (Layer layer: result.layers)
+            for (ParametrizedOperation operation: layer.getParametrizedOperations())
+                operation.setParameter(operation.getParameter().toPrecision(precision));
+        return isFlat() ? result.flattenParameters() : result;
+    }
+
     @Override
     public Network deepCopy() {
+        final Network result = copyLayers();
+        return isFlat() ? result.flattenParameters() : result;
+    }
+
+    /**
+     * Глубокое копирование слоёв и потери (параметры копии хранятся в отдельных матрицах)
+     * @return копия сети
+     */
+    private Network copyLayers() {
         return new Network(Arrays.stream(layers).map(Layer::deepCopy).toArray(Layer[]::new),
                 loss.deepCopy());
     }
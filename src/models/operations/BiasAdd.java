@@ -38,11 +38,15 @@ public class BiasAdd extends ParametrizedOperation {
 
     @Override
     protected Matrix computeInputGradient(Matrix outputGradient) {
-        return input.onesLike().mulCol(outputGradient);  // суммирование градиента определенным образом
+        // d(x + b)/dx = 1, градиент с выхода передаётся на вход без изменений (прежнее input.onesLike().mulCol(...)
+        // брало только первый столбец градиента)
+        return outputGradient;
     }
 
     @Override
     protected Matrix computeParameterGradient(Matrix outputGradient) {
+        if (parameterGradientBuffer != null)  // сумма записывается сразу в общий массив градиентов
+            return outputGradient.sumInto(1, parameterGradientBuffer);
         return outputGradient.sum(1).transpose();  // суммирование градиента по строкам
     }
 }
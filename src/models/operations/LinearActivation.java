@@ -1,6 +1,7 @@
 package models.operations;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 
 /**
  * Линейная функция активации (без активации).
@@ -33,4 +34,19 @@ public class LinearActivation extends Operation {
     protected Matrix computeInputGradient(Matrix outputGradient) {
         return outputGradient;  // градиент с выхода передаётся на вход без изменений
     }
+
+    @Override
+    public boolean isElementwise() {
+        return true;
+    }
+
+    @Override
+    public MatrixExpression getOutputExpression(MatrixExpression input) {
+        return input;
+    }
+
+    @Override
+    public MatrixExpression getInputGradientExpression(Matrix output, MatrixExpression outputGradient) {
+        return outputGradient;
+    }
 }
@@ -1,8 +1,10 @@
 package models.operations;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 import serialization.annotations.YamlSerializable;
 import utils.ExceptionUtils;
+import utils.copy.CopyUtils;
 import utils.copy.DeepCopyable;
 
 import java.io.Serializable;
@@ -16,6 +18,8 @@ import java.util.Objects;
  *  <li>outputGradient - градиент на выходе (входное значение при обратном проходе);</li>
  *  <li>inputGradient  - градиент на выходе (выходное значение при обратном проходе).</li>
  * </ul></pre>
+ * Вход и градиент на выходе сохраняются ссылками, без копирования (см. {@link CopyUtils}), поэтому наследники не
+ * должны изменять их, а вычисления должны записывать результат в новые матрицы.
  */
 @YamlSerializable
 public abstract class Operation implements DeepCopyable, Serializable {
@@ -45,18 +49,29 @@ public abstract class Operation implements DeepCopyable, Serializable {
      * @return      выход
      */
     public Matrix forward(Matrix input) {
-        this.input = input.deepCopy();  // сохраняется копия
-        output = computeOutput(this.input);  // вычисление выполнятся с копией
+        this.input = CopyUtils.defensiveCopy(input);  // сохраняется ссылка (копия в режиме защитных копий)
+        output = computeOutput(this.input);
         return output;
     }
 
+    /**
+     * Прямой проход без сохранения состояния (для вывода обученной сети): вход и выход не запоминаются, поэтому метод
+     * может вызываться одновременно из нескольких потоков, пока параметры операции не изменяются. Выход может быть
+     * самим входом (см. {@link LinearActivation})
+     * @param input вход
+     * @return      выход
+     */
+    public Matrix predict(Matrix input) {
+        return computeOutput(input);
+    }
+
     /**
      * Обратный проход (вычисление градиента)
      * @param outputGradient градиент на выходе
      * @return               градиент на входе
      */
     public Matrix backward(Matrix outputGradient) {
-        this.outputGradient = outputGradient.deepCopy();  // сохраняется копия
+        this.outputGradient = CopyUtils.defensiveCopy(outputGradient);  // сохраняется ссылка
         output.assertSameShape(this.outputGradient);  // проверка совпадения размерностей
 
         inputGradient = computeInputGradient(this.outputGradient); // вычисление
@@ -66,7 +81,8 @@ public abstract class Operation implements DeepCopyable, Serializable {
     }
 
     /**
-     * Вычисление выхода (определяется наследником)
+     * Вычисление выхода (определяется наследником). Не должно зависеть от сохранённых при предыдущих проходах
+     * значений, так как используется и при выводе (см. predict)
      * @param input вход
      * @return      выход
      */
@@ -79,6 +95,35 @@ public abstract class Operation implements DeepCopyable, Serializable {
      */
     protected abstract Matrix computeInputGradient(Matrix outputGradient);
 
+    /**
+     * Является ли операция поэлементной: выход зависит только от соответствующего элемента входа (функции активации).
+     * Поэлементная операция может быть вычислена вместе с соседними операциями слоя за один проход по данным (см.
+     * {@link models.layers.DenseLayer}) и должна определять методы getOutputExpression и getInputGradientExpression
+     * @return результат проверки
+     */
+    public boolean isElementwise() {
+        return false;
+    }
+
+    /**
+     * Выражение выхода поэлементной операции
+     * @param input выражение входа
+     * @return      выражение выхода
+     */
+    public MatrixExpression getOutputExpression(MatrixExpression input) {
+        throw new IllegalStateException("Операция не является поэлементной: " + getClass().getSimpleName());
+    }
+
+    /**
+     * Выражение градиента на входе поэлементной операции
+     * @param output         выход операции
+     * @param outputGradient выражение градиента на выходе
+     * @return               выражение градиента на входе
+     */
+    public MatrixExpression getInputGradientExpression(Matrix output, MatrixExpression outputGradient) {
+        throw new IllegalStateException("Операция не является поэлементной: " + getClass().getSimpleName());
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
@@ -4,20 +4,25 @@ import models.math.Matrix;
 import serialization.annotations.YamlField;
 import serialization.annotations.YamlSerializable;
 import utils.ExceptionUtils;
+import utils.copy.CopyUtils;
 
 import java.util.Objects;
 
 /**
  * Операция с параметром, наследник {@link Operation}. Параметры модели:
  * <pre><ul>
- *  <li>parameter         - параметр;</li>
- *  <li>parameterGradient - градиент по параметру.</li>
+ *  <li>parameter               - параметр;</li>
+ *  <li>parameterGradient       - градиент по параметру;</li>
+ *  <li>parameterGradientBuffer - отрезок общего массива градиентов сети, в который записывается градиент по параметру
+ *                                (только для сети с общими массивами параметров, см.
+ *                                {@link models.networks.Network#flattenParameters()}).</li>
  * </ul></pre>
  */
 @YamlSerializable
 public abstract class ParametrizedOperation extends Operation {
     @YamlField protected Matrix parameter;
     protected transient Matrix parameterGradient;
+    protected transient Matrix parameterGradientBuffer;
 
     /**
      * Конструктор
@@ -25,7 +30,8 @@ public abstract class ParametrizedOperation extends Operation {
      */
     protected ParametrizedOperation(Matrix parameter) {
         super();
-        this.parameter = parameter;
+        // параметр изменяется оптимизатором на месте, поэтому представление заменяется плотной копией
+        this.parameter = parameter == null ? null : parameter.materialize();
     }
 
     /**
@@ -44,14 +50,14 @@ public abstract class ParametrizedOperation extends Operation {
 
     @Override
     public Matrix backward(Matrix outputGradient) {
-        this.outputGradient = outputGradient.deepCopy();  // сохраняется копия
+        this.outputGradient = CopyUtils.defensiveCopy(outputGradient);  // сохраняется ссылка
         output.assertSameShape(this.outputGradient);  // проверка совпадения размерностей
 
         inputGradient = computeInputGradient(this.outputGradient);  // вычисление градиента на входе
         input.assertSameShape(inputGradient);  // проверка совпадения размерностей
 
-        parameterGradient = computeParameterGradient(this.outputGradient);  // вычисление градиента по параметру
-        parameter.assertSameShape(parameterGradient);  // проверка совпадения размерностей
+        // вычисление градиента по параметру (с проверкой размерности и записью в общий массив градиентов)
+        setParameterGradient(computeParameterGradient(this.outputGradient));
 
         return inputGradient;
     }
@@ -71,8 +77,47 @@ public abstract class ParametrizedOperation extends Operation {
         return parameterGradient;
     }
 
+    public Matrix getParameterGradientBuffer() {
+        return parameterGradientBuffer;
+    }
+
+    /**
+     * Установка параметра. Если параметр является отрезком общего массива параметров сети, то значения копируются в
+     * этот отрезок (с приведением к его точности), чтобы общий массив оставался актуальным
+     * @param parameter параметр
+     */
     public void setParameter(Matrix parameter) {
-        this.parameter = parameter;
+        if (parameterGradientBuffer != null && parameter != this.parameter)
+            this.parameter.copyFrom(parameter);
+        else
+            this.parameter = parameter;
+    }
+
+    /**
+     * Установка градиента по параметру, вычисленного вне операции (слитым проходом слоя, см.
+     * {@link models.layers.DenseLayer}). Если задан буфер градиента, то значения копируются в него (кроме случая,
+     * когда градиент уже вычислен в буфер)
+     * @param parameterGradient градиент по параметру
+     */
+    public void setParameterGradient(Matrix parameterGradient) {
+        parameter.assertSameShape(parameterGradient);  // проверка совпадения размерностей
+        this.parameterGradient = parameterGradientBuffer == null || parameterGradient == parameterGradientBuffer ?
+                parameterGradient : parameterGradientBuffer.copyFrom(parameterGradient);
+    }
+
+    /**
+     * Перенос параметра в отрезок общего массива параметров сети и привязка отрезка общего массива градиентов
+     * (см. {@link models.networks.Network#flattenParameters()})
+     * @param parameterSegment        отрезок массива параметров той же размерности, что и параметр
+     * @param parameterGradientBuffer отрезок массива градиентов той же размерности
+     */
+    public void bindBuffers(Matrix parameterSegment, Matrix parameterGradientBuffer) {
+        parameter.assertSameShape(parameterSegment);
+        parameter.assertSameShape(parameterGradientBuffer);
+        parameter = parameterSegment.copyFrom(parameter);
+        this.parameterGradientBuffer = parameterGradientBuffer;
+        if (parameterGradient != null)
+            parameterGradient = parameterGradientBuffer.copyFrom(parameterGradient);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package models.operations;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 import models.math.functions.MatrixFunctions;
 
 /**
@@ -28,24 +29,42 @@ public class SigmoidActivation extends Operation {
     @Override
     protected Matrix computeOutput(Matrix input) {
         /*
-        [1]: input.mul(-1) = -x
-        [2]: MatrixOperations.Functions.exp([1]) = exp(-x)
-        [3]: [2].add(1) = 1 + exp(-x)
-        [4]: input.onesLike() = 1 (матрица)
-        [5]: [4].div([3]) = 1 / (1 + exp(-x))
+        [1]: input.lazy() = x (ленивое выражение, вычисляется одним проходом в [6])
+        [2]: [1].mul(-1) = -x
+        [3]: MatrixFunctions.exp([2]) = exp(-x)
+        [4]: [3].add(1) = 1 + exp(-x)
+        [5]: [1].onesLike().div([4]) = 1 / (1 + exp(-x))
+        [6]: [5].materialize() - вычисление выражения
          */
-        return input.onesLike().div(MatrixFunctions.exp(input.mul(-1)).add(1));
+        return getOutputExpression(input.lazy()).materialize();
     }
 
     @Override
     protected Matrix computeInputGradient(Matrix outputGradient) {
         /*
-        [1]: output = f(x)
+        [1]: output.lazy() = f(x) (ленивое выражение, вычисляется одним проходом в [6])
         [2]: [1].mul(-1) = -f(x)
         [3]: [2].add(1) = 1 - f(x)
         [4]: [1].mul([3]) = f(x) * (1 - f(x))
         [5]: [4].mul(outputGradient) - домножение на градиент по правилу цепочки
+        [6]: [5].materialize() - вычисление выражения
          */
-        return output.mul(output.mul(-1).add(1)).mul(outputGradient);
+        return getInputGradientExpression(output, outputGradient.lazy()).materialize();
+    }
+
+    @Override
+    public boolean isElementwise() {
+        return true;
+    }
+
+    @Override
+    public MatrixExpression getOutputExpression(MatrixExpression input) {
+        return input.onesLike().div(MatrixFunctions.exp(input.mul(-1)).add(1));  // см. computeOutput
+    }
+
+    @Override
+    public MatrixExpression getInputGradientExpression(Matrix output, MatrixExpression outputGradient) {
+        final MatrixExpression f = output.lazy();
+        return f.mul(f.mul(-1).add(1)).mul(outputGradient);  // см. computeInputGradient
     }
 }
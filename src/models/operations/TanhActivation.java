@@ -1,6 +1,7 @@
 package models.operations;
 
 import models.math.Matrix;
+import models.math.MatrixExpression;
 import models.math.functions.MatrixFunctions;
 
 /**
@@ -30,15 +31,32 @@ public class TanhActivation extends Operation {
         return MatrixFunctions.tanh(input);  // применение функции к каждому элементу
     }
 
+    @Override
+    public boolean isElementwise() {
+        return true;
+    }
+
+    @Override
+    public MatrixExpression getOutputExpression(MatrixExpression input) {
+        return MatrixFunctions.tanh(input);
+    }
+
+    @Override
+    public MatrixExpression getInputGradientExpression(Matrix output, MatrixExpression outputGradient) {
+        final MatrixExpression f = output.lazy();
+        return outputGradient.mul(f.mul(f).mul(-1).add(1));  // см. computeInputGradient
+    }
+
     @Override
     protected Matrix computeInputGradient(Matrix outputGradient) {
         /*
-        [1]: output = f(x)
+        [1]: output.lazy() = f(x) (ленивое выражение, вычисляется одним проходом в [6])
         [2]: [1].mul[1] = f^2(x) = f(x) * f(x)
         [3]: [2].mul(-1) = -f^2(x) = -(f(x) * f(x))
         [4]: [3].add(1) = 1 - f^2(x) = 1 - f(x) * f(x)
-        [5]: outputGradient.mul([4]) - домножение на градиент по правилу цепочки
+        [5]: outputGradient.lazy().mul([4]) - домножение на градиент по правилу цепочки
+        [6]: [5].materialize() - вычисление выражения
          */
-        return outputGradient.mul(output.mul(output).mul(-1).add(1));
+        return getInputGradientExpression(output, outputGradient.lazy()).materialize();
     }
 }
\ No newline at end of file
@@ -40,13 +40,15 @@ public class WeightMultiply extends ParametrizedOperation {
 
     @Override
     protected Matrix computeInputGradient(Matrix outputGradient) {
-        // матричное умножение градиента на транспонированные веса
-        return outputGradient.mulMatrix(parameter.transpose());
+        // матричное умножение градиента на транспонированные веса (без построения транспонированной копии)
+        return outputGradient.mulMatrixTransB(parameter);
     }
 
     @Override
     protected Matrix computeParameterGradient(Matrix outputGradient) {
-        // матричное умножение транспонированного входа на градиент
-        return input.transpose().mulMatrix(outputGradient);
+        // матричное умножение транспонированного входа на градиент (без построения транспонированной копии)
+        if (parameterGradientBuffer != null)  // произведение записывается сразу в общий массив градиентов
+            return input.mulMatrixTransAInto(outputGradient, parameterGradientBuffer);
+        return input.mulMatrixTransA(outputGradient);
     }
 }
@@ -2,6 +2,7 @@ package models.optimizers;
 
 import models.layers.Layer;
 import models.math.Matrix;
+import models.networks.ExecutionPlan;
 import models.networks.Network;
 import models.operations.ParametrizedOperation;
 import utils.ExceptionUtils;
@@ -30,9 +31,15 @@ public abstract class Optimizer implements DeepCopyable {
     }
 
     /**
-     * Шаг корректировки параметров, выполняемый после обратного прохода, когда все градиенты вычислены
+     * Шаг корректировки параметров, выполняемый после обратного прохода, когда все градиенты вычислены. Если параметры
+     * сети хранятся в общем массиве (см. {@link Network#flattenParameters()}), то все параметры обновляются одним
+     * вызовом правила обновления
      */
     public void step() {
+        if (network.isFlat()) {
+            step(network.getParameters(), network.getGradients());
+            return;
+        }
         for (int l = 0; l < network.layersCount(); l++) {  // перебираем слои
             Layer layer = network.getLayer(l);
             // перебираем операции с параметром
@@ -43,6 +50,27 @@ public abstract class Optimizer implements DeepCopyable {
         }
     }
 
+    /**
+     * Шаг корректировки параметров плана выполнения (см. {@link ExecutionPlan}): параметры всех слоёв хранятся в одном
+     * массиве, поэтому обновляются одним вызовом правила обновления
+     * @param plan план выполнения, для которого выполнено обучение по пакету
+     */
+    public void step(ExecutionPlan plan) {
+        step(plan.getParameters(), plan.getGradients());
+    }
+
+    /**
+     * Обновление общего массива параметров: результат правила обновления, если он не совпадает с переданным массивом,
+     * копируется в массив, так как отрезки массива используются как параметры слоёв
+     * @param parameters параметры
+     * @param gradients  градиенты параметров
+     */
+    private void step(Matrix parameters, Matrix gradients) {
+        final Matrix result = update(parameters, gradients);
+        if (result != parameters)
+            parameters.copyFrom(result);
+    }
+
     /**
      * Снижение скорости обучения
      */
@@ -51,7 +79,8 @@ public abstract class Optimizer implements DeepCopyable {
     }
 
     /**
-     * Обновление параметров сети (правило задаётся в наследнике)
+     * Обновление параметров сети (правило задаётся в наследнике). Наследник может изменить переданный параметр на месте
+     * и вернуть его же: параметр принадлежит операции обучаемой сети и больше нигде не используется
      * @param parameters         параметр
      * @param parameterGradients градиент параметра
      * @return                   обновлённый параметр
@@ -26,8 +26,8 @@ public class SGD extends Optimizer {
 
     @Override
     protected Matrix update(Matrix parameters, Matrix parameterGradients) {
-        // из параметра вычитается градиент, домноженный на скорость обучения
-        return parameters.sub(parameterGradients.mul(learningRate));
+        // из параметра вычитается градиент, домноженный на скорость обучения (на месте, без временных матриц)
+        return parameters.axpy(-learningRate, parameterGradients);
     }
 
     /**
@@ -0,0 +1,94 @@
+package models.trainers;
+
+import serialization.annotations.YamlField;
+import serialization.annotations.YamlSerializable;
+import utils.copy.DeepCopyable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Параметры адаптивной обучающей выборки (см. {@link AdaptiveTrainData}). Каждые period эпох сеть прогоняется по
+ * кандидатам (строкам исходной обучающей выборки и пула кандидатов, см. {@link models.data.Dataset#getPoolData()}), из
+ * обучающей выборки удаляются строки с наименьшей ошибкой, а добавляются кандидаты, выбранные с вероятностью,
+ * пропорциональной ошибке. Атрибуты модели:
+ * <pre><ul>
+ *  <li>period   - количество эпох между пересборками обучающей выборки;</li>
+ *  <li>addPart  - доля от текущего размера обучающей выборки, которую составляют добавляемые кандидаты;</li>
+ *  <li>dropPart - доля строк обучающей выборки, удаляемых как наиболее простые;</li>
+ *  <li>maxRows  - наибольший размер обучающей выборки (если не больше 0, то размер исходной обучающей выборки).</li>
+ * </ul></pre>
+ */
+@YamlSerializable
+public class AdaptiveSampling implements DeepCopyable, Serializable {
+    @YamlField private final int period;
+    @YamlField private final double addPart;
+    @YamlField private final double dropPart;
+    @YamlField private final int maxRows;
+
+    /**
+     * Конструктор, см. описание параметров в {@link AdaptiveSampling}
+     */
+    public AdaptiveSampling(int period, double addPart, double dropPart, int maxRows) {
+        if (period < 1 || addPart < 0.0 || dropPart < 0.0 || dropPart >= 1.0)
+            throw new IllegalArgumentException(String.format(
+                    "Недопустимые параметры адаптивной выборки (period=%d, addPart=%f, dropPart=%f)",
+                    period, addPart, dropPart));
+        this.period = period;
+        this.addPart = addPart;
+        this.dropPart = dropPart;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Конструктор для сериализации
+     */
+    private AdaptiveSampling() {
+        this(1, 0.0, 0.0, 0);
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public double getAddPart() {
+        return addPart;
+    }
+
+    public double getDropPart() {
+        return dropPart;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    @Override
+    public AdaptiveSampling deepCopy() {
+        return new AdaptiveSampling(period, addPart, dropPart, maxRows);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AdaptiveSampling that = (AdaptiveSampling) o;
+        return period == that.period && Double.compare(that.addPart, addPart) == 0 &&
+                Double.compare(that.dropPart, dropPart) == 0 && maxRows == that.maxRows;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(period, addPart, dropPart, maxRows);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSampling{" +
+                "period=" + period +
+                ", addPart=" + addPart +
+                ", dropPart=" + dropPart +
+                ", maxRows=" + maxRows +
+                '}';
+    }
+}
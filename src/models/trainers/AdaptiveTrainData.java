@@ -0,0 +1,155 @@
+package models.trainers;
+
+import models.data.Data;
+import models.math.Matrix;
+import models.networks.Network;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Адаптивная обучающая выборка (см. {@link AdaptiveSampling}). Кандидаты - строки исходной обучающей выборки и пула
+ * кандидатов, объединённые в одну выборку; обучающая выборка - подмножество кандидатов. При пересборке для каждого
+ * кандидата вычисляется ошибка сети (наибольшее абсолютное отклонение по выходам, как в
+ * {@link utils.Errors#getMaxAbsoluteError()}), после чего:
+ * <pre><ul>
+ *  <li>из обучающей выборки удаляется доля dropPart строк с наименьшей ошибкой (они остаются кандидатами и могут быть
+ *      добавлены снова, если ошибка на них вырастет);</li>
+ *  <li>добавляются кандидаты, не входящие в обучающую выборку, - доля addPart от её размера, но так, чтобы размер не
+ *      превысил maxRows. Кандидаты выбираются случайно с вероятностью, пропорциональной ошибке (выборка без возвращения
+ *      по ключам u^(1/error)): выбор только наибольших ошибок собирает выборку в нескольких областях, и сеть
+ *      перестаёт приближать функцию в остальных.</li>
+ * </ul></pre>
+ * Кандидаты хранятся в куче целиком (входы виртуальной выборки и выборки вне кучи копируются). Атрибуты модели:
+ * <pre><ul>
+ *  <li>parameters - параметры адаптивной выборки;</li>
+ *  <li>candidates - кандидаты;</li>
+ *  <li>active     - входит ли кандидат в обучающую выборку;</li>
+ *  <li>maxRows    - наибольший размер обучающей выборки;</li>
+ *  <li>batchSize  - количество строк, одновременно прогоняемых через сеть при вычислении ошибок;</li>
+ *  <li>random     - генератор случайных чисел для выбора добавляемых кандидатов.</li>
+ * </ul></pre>
+ */
+public class AdaptiveTrainData {
+    private static final Logger logger = Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+
+    private final AdaptiveSampling parameters;
+    private final Data candidates;
+    private final boolean[] active;
+    private final int maxRows;
+    private final int batchSize;
+    private final Random random;
+
+    /**
+     * Конструктор
+     * @param parameters параметры адаптивной выборки
+     * @param trainData  исходная обучающая выборка (изначально все её строки входят в обучающую выборку)
+     * @param poolData   пул кандидатов (может отсутствовать)
+     * @param batchSize  количество строк, одновременно прогоняемых через сеть
+     */
+    public AdaptiveTrainData(AdaptiveSampling parameters, Data trainData, Data poolData, int batchSize) {
+        this(parameters, trainData, poolData, batchSize, new Random());
+    }
+
+    /**
+     * Конструктор с заданным генератором случайных чисел (для воспроизводимого выбора добавляемых кандидатов), см.
+     * описание остальных параметров в {@link #AdaptiveTrainData(AdaptiveSampling, Data, Data, int)}
+     * @param random генератор случайных чисел
+     */
+    public AdaptiveTrainData(AdaptiveSampling parameters, Data trainData, Data poolData, int batchSize,
+                             Random random) {
+        this.parameters = parameters;
+        this.random = random;
+        this.batchSize = batchSize;
+        Matrix inputs = trainData.getInputs();
+        Matrix outputs = trainData.getOutputs();
+        if (poolData != null && poolData.getRows() > 0) {
+            inputs = inputs.stack(poolData.getInputs(), 1);
+            outputs = outputs.stack(poolData.getOutputs(), 1);
+        }
+        candidates = new Data(inputs, outputs);
+        active = new boolean[candidates.getRows()];
+        Arrays.fill(active, 0, trainData.getRows(), true);
+        maxRows = parameters.getMaxRows() > 0 ? parameters.getMaxRows() : trainData.getRows();
+    }
+
+    /**
+     * Пересборка обучающей выборки по ошибкам сети на кандидатах
+     * @param network сеть
+     * @return        новая обучающая выборка
+     */
+    public Data resample(Network network) {
+        final double[] errors = getErrors(network);
+
+        // удаление наиболее простых строк (по возрастанию ошибки)
+        final int[] easiest = sortActiveByError(errors);
+        final int dropCount = Math.min((int) (parameters.getDropPart() * easiest.length), easiest.length - 1);
+        final boolean[] dropped = new boolean[active.length];
+        for (int i = 0; i < dropCount; i++) {
+            active[easiest[i]] = false;
+            dropped[easiest[i]] = true;
+        }
+
+        // добавление кандидатов с вероятностью, пропорциональной ошибке (по убыванию ключа log(u) / error),
+        // удалённые на этом шаге строки не добавляются
+        final int keptCount = easiest.length - dropCount;
+        final double[] keys = new double[active.length];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = Math.log(random.nextDouble()) / Math.max(errors[i], Double.MIN_NORMAL);
+        final int[] chosen = IntStream.range(0, active.length)
+                .filter(i -> !active[i] && !dropped[i])
+                .boxed()
+                .sorted((i, j) -> Double.compare(keys[j], keys[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        final int addCount = Math.max(0, Math.min(Math.min((int) Math.ceil(parameters.getAddPart() * easiest.length),
+                maxRows - keptCount), chosen.length));
+        for (int i = 0; i < addCount; i++)
+            active[chosen[i]] = true;
+
+        final int[] indices = IntStream.range(0, active.length).filter(i -> active[i]).toArray();
+        logger.fine(String.format("Адаптивная выборка: удалено строк %d, добавлено %d, размер %d из %d кандидатов, " +
+                        "наибольшая ошибка на кандидатах %f", dropCount, addCount, indices.length, active.length,
+                Arrays.stream(errors).max().orElse(0.0)));
+        return new Data(candidates.getInputs().gatherRows(indices), candidates.getOutputs().gatherRows(indices));
+    }
+
+    /**
+     * Сортировка по возрастанию ошибки номеров кандидатов, входящих в обучающую выборку
+     * @param errors ошибки
+     * @return       номера кандидатов
+     */
+    private int[] sortActiveByError(double[] errors) {
+        return IntStream.range(0, active.length)
+                .filter(i -> active[i])
+                .boxed()
+                .sorted((i, j) -> Double.compare(errors[i], errors[j]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Вычисление ошибок сети на кандидатах (наибольшее абсолютное отклонение по выходам)
+     * @param network сеть
+     * @return        ошибки
+     */
+    private double[] getErrors(Network network) {
+        final Matrix inputs = candidates.getInputs();
+        final Matrix outputs = candidates.getOutputs();
+        final double[] result = new double[candidates.getRows()];
+        for (int from = 0; from < result.length; from += batchSize) {
+            final int to = Math.min(from + batchSize, result.length);
+            final Matrix predictions = network.predict(inputs.getRowSlice(from, to, 1));
+            for (int row = from; row < to; row++) {
+                double error = 0.0;
+                for (int col = 0; col < outputs.getCols(); col++)
+                    error = Math.max(error,
+                            Math.abs(predictions.getValue(row - from, col) - outputs.getValue(row, col)));
+                result[row] = error;
+            }
+        }
+        return result;
+    }
+}
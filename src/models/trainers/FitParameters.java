@@ -1,6 +1,7 @@
 package models.trainers;
 
 import models.data.Dataset;
+import models.math.Precision;
 import models.networks.NetworkBuilder;
 import models.optimizers.Optimizer;
 import models.optimizers.OptimizerBuilder;
@@ -24,7 +25,9 @@ import utils.copy.DeepCopyable;
  *  <li>preTrainReduceFactor     - во сколько раз снижается количество эпох при предобучении в сравнении с epochs;</li>
  *  <li>{@link NetworkBuilder}   - билдер сетей с заданными настройками;</li>
  *  <li>{@link Optimizer}        - оптимизатор сети;</li>
- *  <li>{@link QueriesRangeType} - тип стратегии опросов</li>
+ *  <li>{@link QueriesRangeType} - тип стратегии опросов;</li>
+ *  <li>{@link Precision}        - точность, с которой выполняется обучение (сеть и выборка приводятся к ней);</li>
+ *  <li>{@link AdaptiveSampling} - параметры адаптивной обучающей выборки (null - обучающая выборка не меняется)</li>
  * </ul></pre>
  */
 @YamlSerializable
@@ -43,6 +46,8 @@ public class FitParameters implements DeepCopyable {
     @YamlField private final OptimizerBuilder optimizerBuilder;
     @YamlField private final QueriesRangeType queriesRangeType;
     @YamlField private final boolean renoiseData;
+    @YamlField private final Precision precision;
+    @YamlField private final AdaptiveSampling adaptiveSampling;
 
     /**
      * Конструктор, см. описание в {@link FitParameters}
@@ -60,7 +65,9 @@ public class FitParameters implements DeepCopyable {
                          NetworkBuilder networkBuilder,
                          OptimizerBuilder optimizerBuilder,
                          QueriesRangeType queriesRangeType,
-                         boolean renoiseData) {
+                         boolean renoiseData,
+                         Precision precision,
+                         AdaptiveSampling adaptiveSampling) {
         this.dataset = dataset;
         this.epochs = epochs;
         this.batchSize = batchSize;
@@ -75,6 +82,8 @@ public class FitParameters implements DeepCopyable {
         this.optimizerBuilder = optimizerBuilder;
         this.queriesRangeType = queriesRangeType;
         this.renoiseData = renoiseData;
+        this.precision = precision;
+        this.adaptiveSampling = adaptiveSampling;
     }
 
     /**
@@ -94,7 +103,9 @@ public class FitParameters implements DeepCopyable {
                 null,
                 null,
                 null,
-                false);
+                false,
+                null,
+                null);
     }
 
     public Dataset getDataset() {
@@ -153,6 +164,14 @@ public class FitParameters implements DeepCopyable {
         return renoiseData;
     }
 
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public AdaptiveSampling getAdaptiveSampling() {
+        return adaptiveSampling;
+    }
+
     /**
      * Получение копии {@link FitParameters} с уменьшенным количеством эпох для выполнения предобучения
      * @return  нужные параметры
@@ -187,6 +206,8 @@ public class FitParameters implements DeepCopyable {
                 ", optimizerBuilder=" + optimizerBuilder +
                 ", queriesRangeType=" + queriesRangeType +
                 ", renoiseData=" + renoiseData +
+                ", precision=" + precision +
+                ", adaptiveSampling=" + adaptiveSampling +
                 '}';
     }
 
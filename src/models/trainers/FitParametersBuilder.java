@@ -4,6 +4,7 @@ import models.data.DataLoader;
 import models.data.Dataset;
 import models.data.LoadParameters;
 import models.data.approximation.NoiseMode;
+import models.math.Precision;
 import models.networks.NetworkBuilder;
 import models.optimizers.OptimizerBuilder;
 import serialization.annotations.YamlField;
@@ -27,6 +28,7 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
     private final static int defaultPreTrainsCount = 3;
     private final static double defaultPreTrainReduceFactor = 10.0;
     private final static QueriesRangeType defaultQueriesRangeType = QueriesRangeType.NON_LINEAR;
+    private final static Precision defaultPrecision = Precision.DOUBLE;
 
     private Dataset dataset;
     @YamlField private DataLoader dataLoader;
@@ -45,6 +47,8 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
     @YamlField private OptimizerBuilder optimizerBuilder;
     @YamlField private QueriesRangeType queriesRangeType;
     @YamlField private boolean renoiseData;
+    @YamlField private Precision precision;
+    @YamlField private AdaptiveSampling adaptiveSampling;
 
     public FitParametersBuilder() {
     }
@@ -64,6 +68,9 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
         this.optimizerBuilder = fitParameters.getOptimizerBuilder().deepCopy();
         this.queriesRangeType = fitParameters.getQueriesRangeType();
         this.renoiseData = fitParameters.isRenoiseData();
+        this.precision = fitParameters.getPrecision();
+        this.adaptiveSampling = fitParameters.getAdaptiveSampling() == null ? null :
+                fitParameters.getAdaptiveSampling().deepCopy();
     }
     
     public FitParametersBuilder dataset(Dataset dataset) {
@@ -147,6 +154,28 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
         return this;
     }
 
+    /**
+     * Задание точности обучения. При {@link Precision#SINGLE} параметры сети и выборка приводятся к одинарной
+     * точности, и все вычисления при обучении выполняются над массивами float[]
+     * @param precision точность
+     * @return          билдер
+     */
+    public FitParametersBuilder precision(Precision precision) {
+        this.precision = precision;
+        return this;
+    }
+
+    /**
+     * Задание адаптивной обучающей выборки: каждые period эпох обучающая выборка пересобирается по ошибкам сети на
+     * кандидатах (см. {@link AdaptiveSampling}). По умолчанию обучающая выборка не меняется
+     * @param adaptiveSampling параметры адаптивной выборки
+     * @return                 билдер
+     */
+    public FitParametersBuilder adaptiveSampling(AdaptiveSampling adaptiveSampling) {
+        this.adaptiveSampling = adaptiveSampling;
+        return this;
+    }
+
     public int getEpochs() {
         return epochs;
     }
@@ -164,7 +193,8 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
         prepare();
         return new FitParameters(dataset.deepCopy(), epochs, batchSize, queries, earlyStopping, earlyStoppingThreshold,
                 doubleFormat, preTrainRequired, preTrainsCount, preTrainReduceFactor, networkBuilder.deepCopy(),
-                optimizerBuilder.deepCopy(), queriesRangeType, renoiseData);
+                optimizerBuilder.deepCopy(), queriesRangeType, renoiseData, precision,
+                adaptiveSampling == null ? null : adaptiveSampling.deepCopy());
     }
 
     /**
@@ -189,6 +219,7 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
         preTrainsCount = preTrainsCount < 1 ? defaultPreTrainsCount : preTrainsCount;
         preTrainReduceFactor = preTrainReduceFactor < 1.0 ? defaultPreTrainReduceFactor : preTrainReduceFactor;
         queriesRangeType = queriesRangeType == null ? defaultQueriesRangeType : queriesRangeType;
+        precision = precision == null ? defaultPrecision : precision;
         if (dataset == null)
             dataset = dataLoader.load(loadParameters);
         renoiseData = loadParameters != null && loadParameters.getNoiseMode() == NoiseMode.REPLACING;
@@ -213,6 +244,8 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
                 ", optimizerBuilder=" + optimizerBuilder +
                 ", queriesRangeType=" + queriesRangeType +
                 ", renoiseData=" + renoiseData +
+                ", precision=" + precision +
+                ", adaptiveSampling=" + adaptiveSampling +
                 '}';
     }
 
@@ -235,6 +268,8 @@ public class FitParametersBuilder implements Serializable, DeepCopyable {
                 .preTrainReduceFactor(preTrainReduceFactor)
                 .networkBuilder(networkBuilder == null ? null : networkBuilder.deepCopy())
                 .optimizerBuilder(optimizerBuilder == null ? null : optimizerBuilder.deepCopy())
-                .queriesRangeType(queriesRangeType);
+                .queriesRangeType(queriesRangeType)
+                .precision(precision)
+                .adaptiveSampling(adaptiveSampling == null ? null : adaptiveSampling.deepCopy());
     }
 }
@@ -2,6 +2,7 @@ package models.trainers;
 
 import models.data.Data;
 import models.data.Dataset;
+import models.math.Matrix;
 import models.networks.Network;
 import models.optimizers.Optimizer;
 import utils.Errors;
@@ -27,7 +28,8 @@ public class Trainer {
     }
 
     /**
-     * Запуск обучения заданной сети. Основной метод, реализующий обучение
+     * Запуск обучения заданной сети. Основной метод, реализующий обучение. Сеть и выборка приводятся к точности из
+     * параметров обучения, поэтому все вычисления выполняются с этой точностью
      * @param parameters параметры обучения
      * @param network    сеть
      * @return           результаты корректировки
@@ -35,9 +37,21 @@ public class Trainer {
     private static FitResults fitSingleTry(FitParameters parameters, Network network) {
         long startTime = System.currentTimeMillis();  // фиксирование момента запуска метода
         double bestTestLoss = Double.MAX_VALUE;  // наилучшая потеря на тестовой выборке
+        network = network.toPrecision(parameters.getPrecision());
+        if (Network.isFlatEnabled())  // параметры в общем массиве: оптимизатор обновляет их одним проходом
+            network.flattenParameters();
         Network bestNetwork = network;  // сеть, обеспечившая наилучшую потерю
+        Matrix bestParameters = null;  // снимок общего массива параметров наилучшей сети
 
-        Dataset dataset = parameters.getDataset();  // получение обучающей выборки
+        // получение обучающей выборки
+        Dataset dataset = parameters.getDataset().toPrecision(parameters.getPrecision());
+
+        // адаптивная обучающая выборка, если задана
+        final AdaptiveSampling adaptiveSampling = parameters.getAdaptiveSampling();
+        final AdaptiveTrainData adaptiveTrainData = adaptiveSampling == null ? null :
+                new AdaptiveTrainData(adaptiveSampling, dataset.getTrainData(), dataset.getPoolData(),
+                        parameters.getBatchSize());
+        long trainedRows = 0;  // количество строк, по которым выполнено обучение, за все эпохи
 
         Map<Integer, Double> testLossesMap = new HashMap<>();  // мапа зависимости потери от эпохи
 
@@ -74,7 +88,15 @@ public class Trainer {
                 optimizer.step();  // корректировка параметров
             }
 
+            trainedRows += dataset.getTrainData().getRows();
             optimizer.decay();  // снижение скорости обучения
+
+            // пересборка адаптивной обучающей выборки
+            if (adaptiveTrainData != null && epoch % adaptiveSampling.getPeriod() == 0 &&
+                    epoch < parameters.getEpochs())
+                dataset = new Dataset(adaptiveTrainData.resample(network), dataset.getTestData(),
+                        dataset.getValidData(), dataset.getPoolData());
+
             if (!queryAt.contains(epoch))  // нужна ли оценка
                 continue;  // если не нужна, то запускается очередная эпоха обучения
 
@@ -90,7 +112,11 @@ public class Trainer {
 
             if (testLoss < bestTestLoss) {  // сохранение наилучших результатов
                 bestTestLoss = testLoss;
-                bestNetwork = network.deepCopy();
+                if (network.isFlat())  // снимок - копирование одного массива, сеть создаётся после обучения
+                    bestParameters = bestParameters == null ? network.getParameters().deepCopy() :
+                            bestParameters.copyFrom(network.getParameters());
+                else
+                    bestNetwork = network.deepCopy();
             }
 
             // сохранение значений потерь
@@ -110,15 +136,23 @@ public class Trainer {
                     EarlyStopLossType.TEST, parameters.getEarlyStoppingThreshold()))
                 break;  // если сработало условие ранней остановки, то цикл завершается
         }
+        if (bestParameters != null) {
+            bestNetwork = network.deepCopy();
+            bestNetwork.getParameters().copyFrom(bestParameters);
+        }
         logger.fine(String.format("В качестве результата обучения сохранена сеть, обеспечившая потерю на тестовой выборке: " +
                 parameters.getDoubleFormat(), bestTestLoss));
+        logger.fine(String.format("Обучение выполнено по %d строкам (суммарно по эпохам)", trainedRows));
+        // после первой эпохи количество промахов арены не должно расти
+        logger.fine("Арена временных матриц после обучения: " + network.getArena());
+        network.getArena().clear();  // пулы больше не нужны
 
         // формирование результатов обучения
         return new FitResults(testLossesMap,                                   // зависимость потери от эпохи
                 bestNetwork,                                                   // обученная сеть
                 new Errors(                                                    // ошибки
                     dataset.getValidData().getOutputs(),                       // целевые значения
-                    bestNetwork.forward(dataset.getValidData().getInputs())),  // вычисленные значения
+                    bestNetwork.predict(dataset.getValidData().getInputs())),  // вычисленные значения
                 dataset,                                                       // обучающая выборка
                 startTime,                                                     // время начала обучения
                 System.currentTimeMillis());                                   // время окончания обучения
@@ -1,5 +1,6 @@
 package options;
 
+import models.math.MatrixBackendType;
 import serialization.SerializationType;
 
 import java.io.File;
@@ -13,6 +14,9 @@ import java.util.logging.Logger;
  * Оболочка над файлом настроек "app.properties". Список настроек:
  * <pre><ul>
  *     <li>debugMode                     - включен ли режим отладки; при true выводится больше информации;</li>
+ *     <li>debugDefensiveCopies          - сохранять ли слоям, операциям и потере копии входов и градиентов вместо
+ *                                         ссылок (см. {@link utils.copy.CopyUtils}); замедляет обучение и нужно
+ *                                         только для поиска кода, изменяющего переданные сети матрицы;</li>
  *     <li>doubleFormat                  - формат вывода дробных чисел (до точки - общее количество цифр, после -
  *                                         количество цифр дробной части);</li>
  *     <li>printRequired                 - нужно ли выводить какую-либо информацию, флаг объединяется с другими
@@ -31,6 +35,20 @@ import java.util.logging.Logger;
  *     <li>saveExperimentBest            - сохранение сети по наилучшей попытке обучения для всех экспериментов;</li>
  *     <li>saveSerializationType         - тип сериализации;</li>
  *     <li>threadPoolSize                - максимальный размер пула тредов;</li>
+ *     <li>matrixParallelEnabled         - выполнять ли крупные матричные операции параллельно (см.
+ *                                         {@link models.math.MatrixParallelism}); имеет смысл, когда одновременно
+ *                                         выполняется меньше обучений, чем есть ядер;</li>
+ *     <li>matrixParallelThreads         - количество тредов для параллельных матричных операций;</li>
+ *     <li>matrixParallelThreshold       - минимальный объём работы матричной операции для её разбиения на части;</li>
+ *     <li>matrixBackendType             - бэкенд матричных операций (см. {@link models.math.MatrixBackends}):
+ *                                         REFERENCE - эталонный, OPTIMIZED - оптимизированный;</li>
+ *     <li>layersDenseFused              - выполнять ли проходы полносвязных слоёв слитно (см.
+ *                                         {@link models.layers.DenseLayer}): умножение на веса, сложение со смещениями
+ *                                         и функция активации без промежуточных матриц (по умолчанию false);</li>
+ *     <li>networkFlat                   - хранить ли параметры обучаемых сетей в общем массиве (см.
+ *                                         {@link models.networks.Network#flattenParameters()}): оптимизатор обновляет
+ *                                         все параметры одним проходом, снимок наилучшей сети - копирование массива
+ *                                         (по умолчанию false);</li>
  *     <li>experimentsSourceType         - откуда считывать описание экспериментов;</li>
  *     <li>experimentsSourceYamlPath     - папка с YAML-файлом с описанием экспериментов;</li>
  *     <li>experimentsSourceYamlFilename - имя YAML-файла с описанием экспериментов;</li>
@@ -43,6 +61,7 @@ public class AppProperties {
             File.separator + "app.properties";
 
     private final boolean debugMode;
+    private final boolean debugDefensiveCopies;
     private final String doubleFormat;
     private final boolean printRequired;
 
@@ -63,6 +82,13 @@ public class AppProperties {
 
     private final int threadPoolSize;
 
+    private final boolean matrixParallelEnabled;
+    private final int matrixParallelThreads;
+    private final long matrixParallelThreshold;
+    private final MatrixBackendType matrixBackendType;
+    private final boolean layersDenseFused;
+    private final boolean networkFlat;
+
     private final ExperimentsSourceType experimentsSourceType;
     private final String experimentsSourceYamlPath;
     private final String experimentsSourceYamlFilename;
@@ -78,6 +104,7 @@ public class AppProperties {
             properties.load(input);
 
             debugMode = Boolean.parseBoolean(properties.getProperty("debug.mode", "false"));
+            debugDefensiveCopies = Boolean.parseBoolean(properties.getProperty("debug.defensive.copies", "false"));
             doubleFormat = properties.getProperty("double.format", "%15.10f");
             printRequired = Boolean.parseBoolean(properties.getProperty("print.required", "false"));
             printConfigurationEach = readPrintOptions(properties, "configuration.each");
@@ -93,6 +120,13 @@ public class AppProperties {
             saveExperimentBest = Boolean.parseBoolean(properties.getProperty("save.experiment.best", "false"));
             saveSerializationType = SerializationType.valueOf(properties.getProperty("save.serialization.type", "JAVA"));
             threadPoolSize = Integer.parseInt(properties.getProperty("thread.pool.size", "10"));
+            matrixParallelEnabled = Boolean.parseBoolean(properties.getProperty("matrix.parallel.enabled", "false"));
+            matrixParallelThreads = Integer.parseInt(properties.getProperty("matrix.parallel.threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            matrixParallelThreshold = Long.parseLong(properties.getProperty("matrix.parallel.threshold", "65536"));
+            matrixBackendType = MatrixBackendType.valueOf(properties.getProperty("matrix.backend", "OPTIMIZED"));
+            layersDenseFused = Boolean.parseBoolean(properties.getProperty("layers.dense.fused", "false"));
+            networkFlat = Boolean.parseBoolean(properties.getProperty("network.flat", "false"));
             experimentsSourceType = ExperimentsSourceType.valueOf(properties.getProperty("experiments.source", "CODE"));
             experimentsSourceYamlPath = properties.getProperty("experiments.source.yaml.path", "");
             experimentsSourceYamlFilename = properties.getProperty("experiments.source.yaml.filename", "");
@@ -115,6 +149,10 @@ public class AppProperties {
         return debugMode;
     }
 
+    public boolean isDebugDefensiveCopies() {
+        return debugDefensiveCopies;
+    }
+
     public String getDoubleFormat() {
         return doubleFormat;
     }
@@ -175,6 +213,30 @@ public class AppProperties {
         return threadPoolSize;
     }
 
+    public boolean isMatrixParallelEnabled() {
+        return matrixParallelEnabled;
+    }
+
+    public int getMatrixParallelThreads() {
+        return matrixParallelThreads;
+    }
+
+    public long getMatrixParallelThreshold() {
+        return matrixParallelThreshold;
+    }
+
+    public MatrixBackendType getMatrixBackendType() {
+        return matrixBackendType;
+    }
+
+    public boolean isLayersDenseFused() {
+        return layersDenseFused;
+    }
+
+    public boolean isNetworkFlat() {
+        return networkFlat;
+    }
+
     public ExperimentsSourceType getExperimentsSourceType() {
         return experimentsSourceType;
     }
@@ -191,6 +253,7 @@ public class AppProperties {
     public String toString() {
         return "AppProperties{" +
                 "debugMode=" + debugMode +
+                ", debugDefensiveCopies=" + debugDefensiveCopies +
                 ", doubleFormat='" + doubleFormat + '\'' +
                 ", printRequired=" + printRequired +
                 ", printConfigurationEach=" + printConfigurationEach +
@@ -206,6 +269,12 @@ public class AppProperties {
                 ", saveExperimentBest=" + saveExperimentBest +
                 ", saveSerializationType=" + saveSerializationType +
                 ", threadPoolSize=" + threadPoolSize +
+                ", matrixParallelEnabled=" + matrixParallelEnabled +
+                ", matrixParallelThreads=" + matrixParallelThreads +
+                ", matrixParallelThreshold=" + matrixParallelThreshold +
+                ", matrixBackendType=" + matrixBackendType +
+                ", layersDenseFused=" + layersDenseFused +
+                ", networkFlat=" + networkFlat +
                 ", experimentsSourceType=" + experimentsSourceType +
                 ", experimentsSourceYamlPath='" + experimentsSourceYamlPath + '\'' +
                 ", experimentsSourceYamlFilename='" + experimentsSourceYamlFilename + '\'' +
@@ -9,10 +9,12 @@ import serialization.wrappers.Wrapper;
 import serialization.wrappers.WrapperFactory;
 import serialization.wrappers.complex.collections.CollectionWrapper;
 import serialization.wrappers.complex.collections.CollectionWrapperFactory;
+import serialization.wrappers.simple.SimpleWrapper;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
@@ -51,6 +53,15 @@ public class ObjectWrapper extends ComplexWrapper {
 
             Class<?> fieldClass = field.getType();
 
+            if (!tree.containsKey(innerFieldName) && !SimpleWrapper.isSimple(fieldClass)) {
+                try {  // объектные поля со значением null не записываются, см. writeValueComplex
+                    field.set(result, null);
+                } catch (IllegalAccessException e) {
+                    throw new SerializationException(e);
+                }
+                continue;
+            }
+
             Wrapper fieldWrapper = WrapperFactory.createWrapper(fieldClass, formatter);
             Object readFieldValue = fieldWrapper instanceof ComplexWrapper ?
                     ((ComplexWrapper) fieldWrapper).readValueComplex(innerFieldName, tree.get(innerFieldName)) :
@@ -67,11 +78,12 @@ public class ObjectWrapper extends ComplexWrapper {
                 throw new SerializationException(e);
             }
         }
-        return result;
+        return resolveAfterReading(result);
     }
 
     @Override
     public String writeValueComplex(String fieldName, Object value) throws SerializationException {
+        value = replaceForWriting(value);
         Field[] serializableFields = YamlSerializationUtils.getYamlFields(clazz);
 
         Map<String, String> result = new HashMap<>();
@@ -89,6 +101,8 @@ public class ObjectWrapper extends ComplexWrapper {
             } catch (IllegalAccessException e) {
                 throw new SerializationException(e);
             }
+            if (fieldValue == null)  // отсутствующее значение не записывается и читается как null
+                continue;
             Class<?> fieldClass = fieldValue.getClass();
 
             Wrapper fieldWrapper = WrapperFactory.createWrapper(fieldClass, formatter);
@@ -100,6 +114,52 @@ public class ObjectWrapper extends ComplexWrapper {
         return formatter.write(fieldName, result, OBJECT_CLASS_FIELD);
     }
 
+    /**
+     * Замена объекта перед записью: если сериализуемый класс объявляет метод writeReplace без параметров (как при
+     * Java-сериализации), то записывается результат этого метода (объект того же класса)
+     * @param value записываемый объект
+     * @return      записываемое значение
+     * @throws SerializationException если вызов writeReplace завершился ошибкой
+     */
+    private static Object replaceForWriting(Object value) throws SerializationException {
+        return invokeHook(value, "writeReplace");
+    }
+
+    /**
+     * Замена объекта после чтения: если сериализуемый класс объявляет метод readResolve без параметров (как при
+     * Java-сериализации), то результатом чтения является результат этого метода
+     * @param value прочитанный объект
+     * @return      результат чтения
+     * @throws SerializationException если вызов readResolve завершился ошибкой
+     */
+    private static Object resolveAfterReading(Object value) throws SerializationException {
+        return invokeHook(value, "readResolve");
+    }
+
+    /**
+     * Вызов метода без параметров, объявленного классом объекта
+     * @param value  объект
+     * @param name   имя метода
+     * @return       результат метода или исходный объект, если метод не объявлен
+     * @throws SerializationException если вызов завершился ошибкой
+     */
+    private static Object invokeHook(Object value, String name) throws SerializationException {
+        if (!isObject(value.getClass()))
+            return value;
+        final Method method;
+        try {
+            method = value.getClass().getDeclaredMethod(name);
+        } catch (NoSuchMethodException e) {
+            return value;
+        }
+        try {
+            method.setAccessible(true);
+            return method.invoke(value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new SerializationException(e);
+        }
+    }
+
     @Override
     protected String getMsgIfCanNotBeWrapped() {
         return "Класс не является сериализуемым объектом: " + clazz.getCanonicalName();
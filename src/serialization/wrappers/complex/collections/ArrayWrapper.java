@@ -109,11 +109,24 @@ public class ArrayWrapper extends CollectionWrapper {
         } else {
             unboxed = Array.newInstance(targetClassItemsClass, size);
             for (int i = 0; i < size; i++)
-                Array.set(unboxed, i, Array.get(value, i));
+                Array.set(unboxed, i, convertItem(Array.get(value, i), targetClassItemsClass));
         }
         return unboxed;
     }
 
+    /**
+     * Приведение прочитанного элемента к типу элементов целевого массива. Вещественные числа читаются как Double,
+     * поэтому для массивов float[] требуется явное преобразование
+     * @param item        элемент
+     * @param targetClazz тип элементов массива
+     * @return            приведённый элемент
+     */
+    protected Object convertItem(Object item, Class<?> targetClazz) {
+        if ((targetClazz == float.class || targetClazz == Float.class) && item instanceof Number)
+            return ((Number) item).floatValue();
+        return item;
+    }
+
     protected Object toCollection(Object value, Class<?> targetClazz) {
         int size = Array.getLength(value);
         Collection<Object> result = (Collection<Object>) createCollection(targetClazz);
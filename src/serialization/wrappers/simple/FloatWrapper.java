@@ -0,0 +1,43 @@
+package serialization.wrappers.simple;
+
+import serialization.formatters.Formatter;
+
+/**
+ * Обёртка для чисел одинарной точности. Записываются и читаются так же, как числа двойной точности (при чтении по
+ * строке получается Double, приведение к float выполняется по типу поля)
+ */
+public class FloatWrapper extends SimpleWrapper{
+    public FloatWrapper(Class<?> clazz, Formatter formatter) {
+        super(clazz, formatter);
+    }
+
+    @Override
+    public Object readValue(String yaml) {
+        if (yaml == null)
+            return 0.0f;
+        return (float) formatter.readDouble(yaml);
+    }
+
+    @Override
+    public String writeValue(Object value) {
+        return formatter.write((double) (float) value);
+    }
+
+    public static boolean isFloat(Class<?> clazz) {
+        return contains(getWrappedClassesStatic(), clazz);
+    }
+
+    @Override
+    protected String getMsgIfCanNotBeWrapped() {
+        return "Класс не является вещественным числом одинарной точности: " + clazz.getCanonicalName();
+    }
+
+    @Override
+    protected Class<?>[] getWrappedClasses() {
+        return getWrappedClassesStatic();
+    }
+
+    protected static Class<?>[] getWrappedClassesStatic() {
+        return new Class<?>[]{float.class, Float.TYPE, Float.class};
+    }
+}
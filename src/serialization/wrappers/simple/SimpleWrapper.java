@@ -9,7 +9,7 @@ public abstract class SimpleWrapper extends Wrapper {
     }
 
     public static boolean isSimple(Class<?> clazz) {
-        return BooleanWrapper.isBoolean(clazz) || DoubleWrapper.isDouble(clazz) ||
+        return BooleanWrapper.isBoolean(clazz) || DoubleWrapper.isDouble(clazz) || FloatWrapper.isFloat(clazz) ||
                 IntegerWrapper.isInteger(clazz) || StringWrapper.isString(clazz);
     }
 
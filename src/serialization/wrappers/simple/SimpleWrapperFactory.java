@@ -21,6 +21,8 @@ public class SimpleWrapperFactory extends WrapperFactory {
             return new IntegerWrapper(clazz, formatter);
         if (DoubleWrapper.isDouble(clazz))
             return new DoubleWrapper(clazz, formatter);
+        if (FloatWrapper.isFloat(clazz))
+            return new FloatWrapper(clazz, formatter);
         if (StringWrapper.isString(clazz))
             return new StringWrapper(clazz, formatter);
         throw ExceptionUtils.newUnknownClassException(clazz);
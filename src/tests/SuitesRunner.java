@@ -2,6 +2,13 @@ package tests;
 
 import tests.cases.CaseWrapper;
 import tests.suites.Suite;
+import tests.suites.approximation.FunctionExpressions;
+import tests.suites.data.DataSets;
+import tests.suites.math.BackendConformance;
+import tests.suites.math.FusedLayers;
+import tests.suites.math.MatrixArenas;
+import tests.suites.math.MatrixViews;
+import tests.suites.math.NetworkInference;
 import tests.suites.serialization.yaml.YamlSerialization;
 
 import java.util.*;
@@ -12,6 +19,13 @@ public class SuitesRunner {
 //                new BinaryCoding(),
 //                new Noise(),
                 new YamlSerialization(),
+                new BackendConformance(),
+                new MatrixViews(),
+                new MatrixArenas(),
+                new FusedLayers(),
+                new NetworkInference(),
+                new FunctionExpressions(),
+                new DataSets(),
         };
     }
     public static void main(String[] args) {
@@ -0,0 +1,89 @@
+package tests.cases.approximation;
+
+import models.data.approximation.functions.expressions.Expression;
+import models.data.approximation.functions.expressions.ExpressionParser;
+import models.math.Matrix;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+
+/**
+ * Проверка разбора строкового представления функции: приоритет и ассоциативность операций, унарный минус, имена
+ * переменных (с заголовком и без), свёртка константных подвыражений. Для каждого выражения сравнивается структура
+ * дерева (toString) и значения (для одной строки и пакетом) с вычислением той же формулы на Java
+ */
+public class ExpressionParsing extends CaseWrapper {
+    private interface Formula {
+        double calculate(double[] x);
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Разбор выражений функций";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final boolean result =
+                check("sin(x)", 1, "sin(x)", x -> Math.sin(x[0])) &
+                check("x1 * x1", 1, "(x1 * x1)", x -> x[0] * x[0]) &
+                check("f(t) = 3 * t", 1, "(3.0 * t)", x -> 3 * x[0]) &
+                check("1 + 2 * x1 - x2 / 4", 2, "((1.0 + (2.0 * x1)) - (x2 / 4.0))",
+                        x -> 1 + 2 * x[0] - x[1] / 4) &
+                check("-x^2", 1, "(-(x ^ 2.0))", x -> -Math.pow(x[0], 2)) &
+                check("2 ^ x ^ 2", 1, "(2.0 ^ (x ^ 2.0))", x -> Math.pow(2, Math.pow(x[0], 2))) &
+                check("f(x, y) = y * sin(x) + max(x, y)", 2, "((y * sin(x)) + max(x, y))",
+                        x -> x[1] * Math.sin(x[0]) + Math.max(x[0], x[1])) &
+                check("sin(pi / 2) * x + 2 * 3", 1, "((1.0 * x) + 6.0)", x -> 1.0 * x[0] + 6.0);
+        return result ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Разбор выражения и сравнение результата с ожидаемым
+     * @param source         строковое представление функции
+     * @param variablesCount количество переменных
+     * @param tree           ожидаемое строковое представление дерева
+     * @param formula        та же формула на Java
+     * @return               совпал ли результат
+     */
+    private static boolean check(String source, int variablesCount, String tree, Formula formula) {
+        final Expression expression;
+        try {
+            expression = ExpressionParser.parse(source, variablesCount);
+        } catch (IllegalArgumentException e) {
+            System.out.println(new Date() + "    " + "Ошибка разбора \"" + source + "\": " + e.getMessage());
+            return false;
+        }
+        if (!expression.toString().equals(tree)) {
+            System.out.println(new Date() + "    " + String.format("Дерево выражения \"%s\": ожидалось %s, получено %s",
+                    source, tree, expression));
+            return false;
+        }
+        final Matrix inputs = new Matrix(new double[][]{
+                {0.5, -1.5},
+                {-2, 0.25},
+                {1.25, 3},
+        }).getColSlice(0, variablesCount, 1);
+        final double[] outputs = new double[inputs.getRows()];
+        expression.calculate(inputs, 0, inputs.getRows(), outputs);
+        for (int i = 0; i < inputs.getRows(); i++) {
+            final double[] row = new double[variablesCount];
+            for (int j = 0; j < variablesCount; j++)
+                row[j] = inputs.getValue(i, j);
+            final double expected = formula.calculate(row);
+            if (expression.calculate(row) != expected || outputs[i] != expected) {
+                System.out.println(new Date() + "    " + String.format(
+                        "Значение выражения \"%s\" для строки %d: ожидалось %s, получено %s (пакетом %s)",
+                        source, i, expected, expression.calculate(row), outputs[i]));
+                return false;
+            }
+        }
+        return true;
+    }
+}
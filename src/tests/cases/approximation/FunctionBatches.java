@@ -0,0 +1,111 @@
+package tests.cases.approximation;
+
+import models.data.approximation.functions.ExpressionFunction;
+import models.data.approximation.functions.Function;
+import models.data.approximation.functions.VariableRange;
+import models.data.approximation.functions.impl.CosPiSqrtX;
+import models.data.approximation.functions.impl.Sin2X;
+import models.data.approximation.functions.impl.SinX;
+import models.data.approximation.functions.impl.SinX1_mul_X2;
+import models.data.approximation.functions.impl.X;
+import models.math.Matrix;
+import models.math.MatrixParallelism;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка пакетного вычисления функций ({@link Function#calculateBatch}): для каждой функции значения пакетом
+ * совпадают с построчным вызовом {@link Function#calculate} как при выключенном, так и при включённом параллельном
+ * режиме с минимальным порогом, для матрицы входов с непрерывным хранением и для транспонированного представления
+ */
+public class FunctionBatches extends CaseWrapper {
+    private static final int ROWS = 5000;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Пакетное вычисление функций совпадает с построчным";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Function[] functions = {
+                new SinX(),
+                new Sin2X(),
+                new CosPiSqrtX(),
+                new SinX1_mul_X2(),
+                new X(),
+                new ExpressionFunction("f(x, y) = y * sin(x) + max(x, y)",
+                        new VariableRange[]{new VariableRange(0.0, 1.0), new VariableRange(1.0, 2.0)})
+        };
+        final boolean previousEnabled = MatrixParallelism.isEnabled();
+        final int previousParallelism = MatrixParallelism.getParallelism();
+        final long previousThreshold = MatrixParallelism.getThreshold();
+        final Random random = new Random(42);
+        boolean result = true;
+        try {
+            for (boolean parallel: new boolean[] {false, true}) {
+                MatrixParallelism.configure(parallel, Math.max(4, previousParallelism),
+                        parallel ? 1 : previousThreshold);
+                for (Function function: functions)
+                    result &= check(function, getInputs(function, random), parallel);
+            }
+        } finally {
+            MatrixParallelism.configure(previousEnabled, previousParallelism, previousThreshold);
+        }
+        return result ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Получение входов из диапазонов функции: в виде транспонированного представления матрицы (столбцы - переменные)
+     * @param function функция
+     * @param random   генератор
+     * @return         матрица входов размерности (ROWS; getInputsCount())
+     */
+    private static Matrix getInputs(Function function, Random random) {
+        final int cols = function.getInputsCount();
+        final double[] values = new double[cols * ROWS];
+        for (int col = 0; col < cols; col++) {
+            final VariableRange range = function.getVariableRanges()[col];
+            for (int row = 0; row < ROWS; row++)
+                values[col * ROWS + row] = range.getLeft() + random.nextDouble() * (range.getRight() - range.getLeft());
+        }
+        return new Matrix(cols, ROWS, values).transpose();
+    }
+
+    /**
+     * Сравнение пакетного и построчного вычисления для представления и его копии с непрерывным хранением
+     * @param function функция
+     * @param inputs   входы
+     * @param parallel включён ли параллельный режим (для сообщения)
+     * @return         совпали ли значения
+     */
+    private static boolean check(Function function, Matrix inputs, boolean parallel) {
+        final double[] expected = new double[inputs.getRows()];
+        final double[] arguments = new double[inputs.getCols()];
+        for (int row = 0; row < expected.length; row++) {
+            for (int col = 0; col < arguments.length; col++)
+                arguments[col] = inputs.getValue(row, col);
+            expected[row] = function.calculate(arguments);
+        }
+        for (Matrix matrix: new Matrix[] {inputs, inputs.materialize()}) {
+            final double[] actual = new double[expected.length];
+            function.calculateBatch(matrix, actual);
+            for (int row = 0; row < expected.length; row++)
+                if (Double.doubleToLongBits(actual[row]) != Double.doubleToLongBits(expected[row])) {
+                    System.out.println(new Date() + "    " + String.format(
+                            "%s (параллельный режим: %b, представление: %b): строка %d, пакетом %s, построчно %s",
+                            function.getExpression(), parallel, matrix.isView(), row, actual[row], expected[row]));
+                    return false;
+                }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,157 @@
+package tests.cases.data;
+
+import models.data.Data;
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.TanhActivation;
+import models.trainers.AdaptiveSampling;
+import models.trainers.AdaptiveTrainData;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+import tests.cases.math.BaseForBackends;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Проверка пересборки адаптивной обучающей выборки ({@link AdaptiveTrainData#resample}) с заданным генератором
+ * случайных чисел. Выход каждой строки равен её номеру среди кандидатов, поэтому по выборке восстанавливается набор
+ * строк. На каждом шаге проверяются:
+ * <pre><ul>
+ *  <li>количество удалённых строк (доля dropPart, но хотя бы одна строка остаётся) и то, что удалены строки с
+ *  наименьшей ошибкой;</li>
+ *  <li>количество добавленных строк (доля addPart, не больше maxRows минус оставшиеся и не больше доступных
+ *  кандидатов) и то, что размер выборки не превышает maxRows;</li>
+ *  <li>то, что удалённые на шаге строки не добавляются на том же шаге (пул меньше addPart, поэтому иначе они бы
+ *  добавились);</li>
+ *  <li>воспроизводимость при одинаковом генераторе.</li>
+ * </ul></pre>
+ */
+public class AdaptiveResampling extends CaseWrapper {
+    private static final int TRAIN_ROWS = 20;
+    private static final int STEPS = 4;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Пересборка адаптивной обучающей выборки";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Random random = new Random(42);
+        final Network network = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new LinearActivation())
+                .sizes(2, 4, 1)
+                .build();
+        boolean result = true;
+        // пул меньше добавляемой доли: удалённые на шаге строки были бы добавлены, если бы не исключались
+        result &= check(network, random, 4, new AdaptiveSampling(1, 0.5, 0.25, 30));
+        // большой пул: количество добавляемых строк ограничено maxRows
+        result &= check(network, random, 40, new AdaptiveSampling(1, 0.5, 0.2, 24));
+        // большая доля удаления, наибольший размер по умолчанию - размер исходной выборки
+        result &= check(network, random, 10, new AdaptiveSampling(1, 0.3, 0.9, 0));
+        return result ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Проверка нескольких шагов пересборки
+     * @param network    сеть, по ошибкам которой пересобирается выборка
+     * @param random     генератор значений выборки
+     * @param poolRows   размер пула кандидатов
+     * @param parameters параметры адаптивной выборки
+     * @return           прошла ли проверка
+     */
+    private static boolean check(Network network, Random random, int poolRows, AdaptiveSampling parameters) {
+        final int rows = TRAIN_ROWS + poolRows;
+        final Matrix inputs = BaseForBackends.getMatrix(random, rows, 2);
+        final double[][] numbers = new double[rows][1];
+        for (int row = 0; row < rows; row++)
+            numbers[row][0] = row;
+        final Matrix outputs = new Matrix(numbers);
+        final Data trainData = new Data(inputs.getRowSlice(0, TRAIN_ROWS, 1).materialize(),
+                outputs.getRowSlice(0, TRAIN_ROWS, 1).materialize());
+        final Data poolData = new Data(inputs.getRowSlice(TRAIN_ROWS, rows, 1).materialize(),
+                outputs.getRowSlice(TRAIN_ROWS, rows, 1).materialize());
+        final Matrix predictions = network.predict(inputs);
+        final double[] errors = new double[rows];
+        for (int row = 0; row < rows; row++)
+            errors[row] = Math.abs(predictions.getValue(row, 0) - row);
+        final int maxRows = parameters.getMaxRows() > 0 ? parameters.getMaxRows() : TRAIN_ROWS;
+        final AdaptiveTrainData adaptive = new AdaptiveTrainData(parameters, trainData, poolData, 7, new Random(1));
+        final AdaptiveTrainData same = new AdaptiveTrainData(parameters, trainData, poolData, 7, new Random(1));
+        Set<Integer> active = new HashSet<>();
+        for (int row = 0; row < TRAIN_ROWS; row++)
+            active.add(row);
+        for (int step = 0; step < STEPS; step++) {
+            final Data resampled = adaptive.resample(network);
+            final Set<Integer> current = getRows(resampled);
+            final Set<Integer> dropped = new HashSet<>(active);
+            dropped.removeAll(current);
+            final Set<Integer> added = new HashSet<>(current);
+            added.removeAll(active);
+            final int dropCount = Math.min((int) (parameters.getDropPart() * active.size()), active.size() - 1);
+            // доступны кандидаты вне выборки, кроме удалённых на этом шаге
+            final int available = rows - active.size();
+            final int addCount = Math.min(Math.min((int) Math.ceil(parameters.getAddPart() * active.size()),
+                    maxRows - (active.size() - dropCount)), available);
+            final double maxDropped = dropped.stream().mapToDouble(row -> errors[row]).max().orElse(-1.0);
+            String error = null;
+            if (current.size() != resampled.getRows())
+                error = "строки выборки повторяются";
+            else if (dropped.size() != dropCount)
+                error = String.format("удалено строк %d вместо %d", dropped.size(), dropCount);
+            else if (added.size() != addCount)
+                error = String.format("добавлено строк %d вместо %d", added.size(), addCount);
+            else if (current.size() > maxRows)
+                error = String.format("размер выборки %d больше %d", current.size(), maxRows);
+            else if (active.stream().anyMatch(row -> !dropped.contains(row) && errors[row] < maxDropped))
+                error = "удалены строки не с наименьшей ошибкой";
+            else if (!sameValues(resampled, same.resample(network)))
+                error = "пересборка с тем же генератором дала другую выборку";
+            if (error != null) {
+                System.out.println(new Date() + "    " + String.format(
+                        "Адаптивная выборка %s, шаг %d: %s", parameters, step, error));
+                return false;
+            }
+            active = current;
+        }
+        return true;
+    }
+
+    /**
+     * Получение номеров строк выборки среди кандидатов (выход строки равен её номеру)
+     */
+    private static Set<Integer> getRows(Data data) {
+        final Set<Integer> result = new HashSet<>();
+        for (int row = 0; row < data.getRows(); row++)
+            result.add((int) data.getOutputs().getValue(row, 0));
+        return result;
+    }
+
+    /**
+     * Точное сравнение выборок
+     */
+    private static boolean sameValues(Data actual, Data expected) {
+        return actual.getRows() == expected.getRows() &&
+                Arrays.deepEquals(toArray(actual.getInputs()), toArray(expected.getInputs())) &&
+                Arrays.deepEquals(toArray(actual.getOutputs()), toArray(expected.getOutputs()));
+    }
+
+    private static double[][] toArray(Matrix matrix) {
+        final double[][] result = new double[matrix.getRows()][];
+        for (int row = 0; row < result.length; row++)
+            result[row] = matrix.getValue(row);
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+package tests.cases.data;
+
+import com.sun.management.ThreadMXBean;
+import models.data.CartesianData;
+import models.data.Data;
+import models.math.CartesianProduct;
+import models.math.Matrix;
+import models.math.Precision;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Проверка разбиения выборки на пакеты (см. {@link Data#getBatchesGenerator}) для хранимой выборки (в куче и вне
+ * кучи) и выборки с входами-декартовым произведением (выходы вычисляются для каждого пакета, двойной и одинарной
+ * точности):
+ * <pre><ul>
+ *  <li>без перемешивания, с перемешиванием и с зашумлением каждая строка встречается за обход ровно один раз с
+ *  теми же выходами, а последний пакет неполный;</li>
+ *  <li>пакеты, собираемые в буферы, используют один буфер для всех полных пакетов и отдельный для последнего;</li>
+ *  <li>шум генерируется заново для каждого пакета и не изменяет выборку;</li>
+ *  <li>обход перемешанной выборки без зашумления после прогрева выделяет не больше MAX_ALLOCATED_PER_BATCH байт на
+ *  пакет, не считая перестановки номеров (по данным {@link ThreadMXBean#getThreadAllocatedBytes}).</li>
+ * </ul></pre>
+ */
+public class BatchIteration extends CaseWrapper {
+    private static final int BATCH_SIZE = 5;
+
+    /**
+     * Допустимый объём памяти, выделяемой на пакет (сам пакет из 500 строк занимает 16 КБ)
+     */
+    private static final long MAX_ALLOCATED_PER_BATCH = 1024;
+
+    private static final CartesianData.OutputsFunction FUNCTION = (inputs, outputs) ->
+            outputs[0] = inputs[0] + inputs[1] + inputs[2];
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Разбиение выборки на пакеты: буферы, шум, неполный пакет и выделение памяти";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final double[][] inputs = new double[23][];  // 23 строки - последний пакет из 3 строк
+        final double[][] outputs = new double[inputs.length][];
+        for (int row = 0; row < inputs.length; row++) {
+            inputs[row] = new double[]{row, row % 7 * 2, -row / 4.0};
+            outputs[row] = new double[]{row};
+        }
+        final Data stored = new Data(new Matrix(inputs), new Matrix(outputs));
+        // 24 строки - последний пакет из 4 строк, выходы (сумма входов) различны для всех строк
+        final CartesianData computed = new CartesianData(getGrid(new int[]{4, 3, 2}), 1, FUNCTION, false, false);
+        final Data[] datasets = {stored, stored.toOffHeap(), computed, computed.toPrecision(Precision.SINGLE)};
+        final String[] names = {"в куче", "вне кучи", "декартово произведение", "декартово произведение (SINGLE)"};
+        boolean result = true;
+        for (int i = 0; i < datasets.length; i++)
+            for (boolean shuffle: new boolean[] {false, true})
+                for (boolean noise: new boolean[] {false, true}) {
+                    final String error = checkEpoch(datasets[i], shuffle, noise);
+                    if (error != null) {
+                        System.out.println(new Date() + "    " + String.format(
+                                "Выборка %s (перемешивание: %b, зашумление: %b): %s", names[i], shuffle, noise, error));
+                        result = false;
+                    }
+                }
+        result &= checkAllocation();
+        return result ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Получение сетки, i-й вектор которой состоит из чисел 0, 10^i, 2 * 10^i, ...
+     * @param sizes длины векторов
+     * @return      декартово произведение
+     */
+    private static CartesianProduct getGrid(int[] sizes) {
+        final Matrix[] factors = new Matrix[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            final double[][] values = new double[sizes[i]][1];
+            for (int j = 0; j < sizes[i]; j++)
+                values[j][0] = j * Math.pow(10, i);
+            factors[i] = new Matrix(values);
+        }
+        return new CartesianProduct(factors);
+    }
+
+    /**
+     * Проверка одного обхода пакетов
+     * @param data    выборка (выходы всех строк различны)
+     * @param shuffle требуется ли перемешивание
+     * @param noise   требуется ли зашумление
+     * @return        описание ошибки или null
+     */
+    private static String checkEpoch(Data data, boolean shuffle, boolean noise) {
+        final Matrix inputs = data.getInputs();
+        final Matrix outputs = data.getOutputs();
+        final Matrix snapshot = inputs.deepCopy();
+        final Map<String, Integer> rows = new HashMap<>();
+        for (int row = 0; row < outputs.getRows(); row++)
+            rows.put(Arrays.toString(outputs.getValue(row)), row);
+        final boolean[] seen = new boolean[data.getRows()];
+        final boolean buffered = shuffle || noise || data instanceof CartesianData;
+        Data first = null;
+        Matrix firstNoise = null;
+        int from = 0;
+        int batches = 0;
+        for (Data batch: data.getBatchesGenerator(BATCH_SIZE, shuffle, noise)) {
+            final int size = Math.min(BATCH_SIZE, data.getRows() - from);
+            if (batch.getRows() != size)
+                return String.format("пакет %d из %d строк вместо %d", batches, batch.getRows(), size);
+            final boolean last = from + size == data.getRows();
+            if (buffered && first != null && (batch == first) == last)
+                return String.format("пакет %d %s буфер первого пакета", batches,
+                        last ? "(последний, неполный) использует" : "не использует");
+            if (!buffered && !batch.getInputs().isView())
+                return String.format("пакет %d без перемешивания и зашумления не является срезом", batches);
+            final double[][] expected = new double[size][];
+            for (int i = 0; i < size; i++) {
+                final Integer row = rows.get(Arrays.toString(batch.getOutputs().getValue(i)));
+                if (row == null || seen[row] || (!shuffle && row != from + i))
+                    return String.format("строка %d пакета %d: неожиданные выходы %s", i, batches,
+                            Arrays.toString(batch.getOutputs().getValue(i)));
+                seen[row] = true;
+                expected[i] = inputs.getValue(row);
+            }
+            final Matrix batchNoise = batch.getInputs().sub(new Matrix(expected));
+            final double maxNoise = batchNoise.abs().max();
+            if (noise ? maxNoise == 0.0 || maxNoise > 1.0 : batchNoise.abs().sum() != 0.0)
+                return String.format("входы пакета %d отличаются от входов выборки на %s", batches, maxNoise);
+            if (noise && batches == 1 && batchNoise.sub(firstNoise).abs().sum() == 0.0)
+                return "шум первых двух пакетов совпадает";
+            if (batches == 0) {
+                first = batch;
+                firstNoise = batchNoise;
+            }
+            from += size;
+            batches++;
+        }
+        if (from != data.getRows())
+            return String.format("за обход получено %d строк из %d", from, data.getRows());
+        if (data.getInputs().sub(snapshot).abs().sum() != 0.0)
+            return "обход изменил входы выборки";
+        return null;
+    }
+
+    /**
+     * Проверка объёма памяти, выделяемой при обходе перемешанной выборки без зашумления (после прогрева)
+     * @return прошла ли проверка
+     */
+    private static boolean checkAllocation() {
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // без поддержки измерения выделенной памяти (getThreadAllocatedBytes возвращает -1) объём не проверяется
+        if (!threads.isThreadAllocatedMemoryEnabled())
+            return true;
+        final long thread = Thread.currentThread().getId();
+        final int rows = 20_000;
+        final int batchSize = 500;
+        final Data stored = new Data(new Matrix(rows, 3), new Matrix(rows, 1));
+        final CartesianData computed = new CartesianData(getGrid(new int[]{100, 20, 10}), 1, FUNCTION, false, false);
+        boolean result = true;
+        for (Data data: new Data[] {stored, computed, computed.toPrecision(Precision.SINGLE)}) {
+            long allocated = 0;
+            int batches = 0;
+            for (int epoch = 0; epoch < 20; epoch++) {
+                final long before = threads.getThreadAllocatedBytes(thread);
+                batches = 0;
+                for (Data ignored: data.getBatchesGenerator(batchSize, true, false))
+                    batches++;
+                allocated = threads.getThreadAllocatedBytes(thread) - before;
+            }
+            // перестановка хранимой выборки - массив из rows номеров
+            final long permutation = data instanceof CartesianData ? 0 : (long) Integer.BYTES * rows;
+            if (allocated > permutation + MAX_ALLOCATED_PER_BATCH * batches) {
+                System.out.println(new Date() + "    " + String.format(
+                        "Обход %d пакетов выборки %s выделил %d байт (допустимо %d)", batches,
+                        data.getClass().getSimpleName(), allocated, permutation + MAX_ALLOCATED_PER_BATCH * batches));
+                result = false;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package tests.cases.data;
+
+import models.data.CartesianData;
+import models.data.Data;
+import models.math.CartesianProduct;
+import models.math.Matrix;
+import models.math.Precision;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Проверка выборки, входы которой вычисляются по номеру строки: пакеты (без перемешивания и с ним) совпадают с
+ * пакетами той же выборки, построенной полностью; вычисленные заранее и вычисляемые для каждого пакета выходы
+ * совпадают; toPrecision и deepCopy сохраняют значения
+ */
+public class CartesianDataBatches extends CaseWrapper {
+    private static final int BATCH_SIZE = 7;  // 60 строк - последний пакет неполный
+
+    private static final CartesianData.OutputsFunction FUNCTION = (inputs, outputs) -> {
+        outputs[0] = Math.sin(inputs[0]) + inputs[1] * inputs[2];
+        outputs[1] = inputs[0] - inputs[2];
+    };
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Пакеты выборки с входами-декартовым произведением";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Matrix[] factors = {
+                new Matrix(new double[][]{{0.5}, {-1}, {2.25}, {3}, {-0.125}}),
+                new Matrix(new double[][]{{1}, {0.1}, {-2}}),
+                new Matrix(new double[][]{{4}, {0.3}, {-0.7}, {1.5}}),
+        };
+        final Data expected = materialize(factors);
+        final CartesianData cached = new CartesianData(new CartesianProduct(factors), 2, FUNCTION, true, false);
+        final CartesianData computed = new CartesianData(new CartesianProduct(factors), 2, FUNCTION, false, false);
+        final CartesianData single = cached.toPrecision(Precision.SINGLE);
+        final CartesianData copy = computed.deepCopy();
+        boolean result = check("вычисленные заранее выходы", sameValues(cached.getInputs(), expected.getInputs()) &&
+                sameValues(cached.getOutputs(), expected.getOutputs()));
+        result &= check("выходы, вычисляемые по требованию",
+                sameValues(computed.getOutputs(), expected.getOutputs()));
+        result &= check("пакеты без перемешивания", sameBatches(cached, expected) && sameBatches(computed, expected));
+        result &= check("перемешанные пакеты", sameShuffledBatches(cached, expected) &&
+                sameShuffledBatches(computed, expected));
+        result &= check("одинарная точность", single.getOutputs().getPrecision() == Precision.SINGLE &&
+                sameBatches(single, expected.toPrecision(Precision.SINGLE)));
+        result &= check("глубокая копия", copy.equals(computed) && copy != computed && sameBatches(copy, expected));
+        return result ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Построение той же выборки полностью: строки перебираются так, что последний столбец меняется быстрее всего
+     * @param factors векторы-столбцы
+     * @return        выборка
+     */
+    private static Data materialize(Matrix[] factors) {
+        final List<double[]> inputs = new ArrayList<>();
+        for (int i = 0; i < factors[0].getRows(); i++)
+            for (int j = 0; j < factors[1].getRows(); j++)
+                for (int k = 0; k < factors[2].getRows(); k++)
+                    inputs.add(new double[]{factors[0].getValue(i, 0), factors[1].getValue(j, 0),
+                            factors[2].getValue(k, 0)});
+        final double[][] outputs = new double[inputs.size()][2];
+        for (int row = 0; row < outputs.length; row++)
+            FUNCTION.calculate(inputs.get(row), outputs[row]);
+        return new Data(new Matrix(inputs.toArray(new double[0][])), new Matrix(outputs));
+    }
+
+    /**
+     * Сравнение пакетов без перемешивания: пакеты должны совпадать со срезами полностью построенной выборки
+     */
+    private static boolean sameBatches(Data actual, Data expected) {
+        int from = 0;
+        for (Data batch: actual.getBatchesGenerator(BATCH_SIZE, false, false)) {
+            final int to = Math.min(from + BATCH_SIZE, expected.getRows());
+            if (batch.getRows() != to - from ||
+                    batch.getInputs().getPrecision() != expected.getInputs().getPrecision() ||
+                    !sameValues(batch.getInputs(), expected.getInputs().getRowSlice(from, to, 1)) ||
+                    !sameValues(batch.getOutputs(), expected.getOutputs().getRowSlice(from, to, 1)))
+                return false;
+            from = to;
+        }
+        return from == expected.getRows();
+    }
+
+    /**
+     * Сравнение перемешанных пакетов: каждая строка полностью построенной выборки встречается за обход ровно один раз
+     * с теми же выходами
+     */
+    private static boolean sameShuffledBatches(Data actual, Data expected) {
+        final Map<String, Integer> rows = new HashMap<>();
+        for (int row = 0; row < expected.getRows(); row++)
+            rows.put(Arrays.toString(expected.getInputs().getValue(row)), row);
+        final boolean[] seen = new boolean[expected.getRows()];
+        int count = 0;
+        for (Data batch: actual.getBatchesGenerator(BATCH_SIZE, true, false))
+            for (int i = 0; i < batch.getRows(); i++, count++) {
+                final Integer row = rows.get(Arrays.toString(batch.getInputs().getValue(i)));
+                if (row == null || seen[row] ||
+                        !Arrays.equals(batch.getOutputs().getValue(i), expected.getOutputs().getValue(row)))
+                    return false;
+                seen[row] = true;
+            }
+        return count == expected.getRows();
+    }
+
+    /**
+     * Точное сравнение значений матриц одинаковой размерности
+     */
+    private static boolean sameValues(Matrix actual, Matrix expected) {
+        return actual.getRows() == expected.getRows() && actual.getCols() == expected.getCols() &&
+                actual.sub(expected).abs().sum() == 0.0;
+    }
+
+    private static boolean check(String what, boolean passed) {
+        if (!passed)
+            System.out.println(new Date() + "    " + "Выборка с входами-декартовым произведением: не совпали " + what);
+        return passed;
+    }
+}
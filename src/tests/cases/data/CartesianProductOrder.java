@@ -0,0 +1,99 @@
+package tests.cases.data;
+
+import models.math.CartesianProduct;
+import models.math.Matrix;
+import models.math.MatrixUtils;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+import tests.cases.math.BaseForBackends;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка порядка строк декартового произведения: toMatrix, toOffHeapMatrix, getRow, gatherRows и
+ * MatrixUtils.cartesianProduct должны давать те же строки, что и прежний алгоритм (расширение и вертикальная
+ * конкатенация каждого вектора с последующей горизонтальной конкатенацией столбцов), для 1, 2 и 3 векторов разной
+ * длины
+ */
+public class CartesianProductOrder extends CaseWrapper {
+    private static final int[][] SIZES = {
+            {5},
+            {3, 4},
+            {2, 5, 3},
+    };
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Порядок строк декартового произведения";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Random random = new Random(42);
+        for (int[] sizes: SIZES) {
+            final Matrix[] factors = new Matrix[sizes.length];
+            for (int i = 0; i < sizes.length; i++)
+                factors[i] = BaseForBackends.getMatrix(random, sizes[i], 1);
+            final Matrix expected = extendAndStack(factors);
+            final CartesianProduct product = new CartesianProduct(factors);
+            final Matrix rows = new Matrix(expected.getRows(), expected.getCols());
+            final double[] values = new double[expected.getCols()];
+            rows.fillRows((row, result) -> {
+                product.getRow(row, values);
+                System.arraycopy(values, 0, result, 0, values.length);
+            });
+            final int[] indices = random.ints(2 * expected.getRows(), 0, expected.getRows()).toArray();
+            final boolean passed = sameValues(product.toMatrix(), expected) &&
+                    sameValues(product.toOffHeapMatrix(), expected) &&
+                    sameValues(MatrixUtils.cartesianProduct(factors), expected) &&
+                    sameValues(rows, expected) &&
+                    sameValues(product.gatherRows(indices), expected.gatherRows(indices));
+            if (!passed) {
+                System.out.println(new Date() + "    " + String.format(
+                        "Строки декартового произведения векторов длины %s не совпали с прежним алгоритмом",
+                        Arrays.toString(sizes)));
+                return TestStatus.FAILED;
+            }
+        }
+        return TestStatus.PASSED;
+    }
+
+    /**
+     * Декартово произведение по прежнему алгоритму: i-й вектор расширяется в (произведение длин следующих векторов)
+     * раз и конкатенируется вертикально (произведение длин предыдущих векторов) раз, полученные столбцы
+     * конкатенируются горизонтально
+     * @param factors векторы-столбцы
+     * @return        произведение
+     */
+    private static Matrix extendAndStack(Matrix[] factors) {
+        int totalRows = 1;
+        for (Matrix factor: factors)
+            totalRows *= factor.getRows();
+        Matrix result = null;
+        int previousRows = 1;  // произведение длин предыдущих векторов
+        for (Matrix factor: factors) {
+            final Matrix extended = factor.extend(totalRows / (previousRows * factor.getRows()), 0);
+            Matrix column = extended;
+            for (int j = 1; j < previousRows; j++)
+                column = column.stack(extended, 1);
+            result = result == null ? column : result.stack(column, 0);
+            previousRows *= factor.getRows();
+        }
+        return result;
+    }
+
+    /**
+     * Точное сравнение значений матриц
+     */
+    private static boolean sameValues(Matrix actual, Matrix expected) {
+        return actual.getRows() == expected.getRows() && actual.getCols() == expected.getCols() &&
+                actual.sub(expected).abs().sum() == 0.0;
+    }
+}
@@ -0,0 +1,63 @@
+package tests.cases.data;
+
+import models.math.RandomPermutation;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка перестановки, вычисляемой по номеру: для небольших размеров каждый элемент диапазона встречается ровно
+ * один раз, для размеров около предела int (в том числе больше 2^30, когда сеть Фейстеля работает на 32 битах)
+ * элементы не выходят за пределы [0; size)
+ */
+public class RandomPermutationRange extends CaseWrapper {
+    private static final int[] LARGE_SIZES = {(1 << 30) - 1, (1 << 30) + 5, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+    private static final int LARGE_CHECKS = 10_000;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Перестановка, вычисляемая по номеру: взаимная однозначность и диапазон значений";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Random random = new Random(42);
+        for (int size = 1; size <= 1100; size += size < 70 ? 1 : 97) {
+            final RandomPermutation permutation = new RandomPermutation(size, random);
+            final boolean[] seen = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                final int value = permutation.get(i);
+                if (value < 0 || value >= size || seen[value]) {
+                    System.out.println(new Date() + "    " + String.format(
+                            "Перестановка из %d элементов не взаимно однозначна: %d-й элемент равен %d",
+                            size, i, value));
+                    return TestStatus.FAILED;
+                }
+                seen[value] = true;
+            }
+        }
+        for (int size: LARGE_SIZES) {
+            final RandomPermutation permutation = new RandomPermutation(size, random);
+            for (int check = 0; check < LARGE_CHECKS; check++) {
+                // первые и последние номера, затем случайные
+                final int index = check < 1000 ? check : check < 2000 ? size - 1 - (check - 1000) :
+                        random.nextInt(size);
+                final int value = permutation.get(index);
+                if (value < 0 || value >= size) {
+                    System.out.println(new Date() + "    " + String.format(
+                            "Элемент %d перестановки из %d элементов выходит за пределы диапазона: %d",
+                            index, size, value));
+                    return TestStatus.FAILED;
+                }
+            }
+        }
+        return TestStatus.PASSED;
+    }
+}
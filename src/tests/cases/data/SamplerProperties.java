@@ -0,0 +1,153 @@
+package tests.cases.data;
+
+import models.data.approximation.SamplingMode;
+import models.data.approximation.sampling.HaltonSampler;
+import models.data.approximation.sampling.LatinHypercubeSampler;
+import models.data.approximation.sampling.Sampler;
+import models.data.approximation.sampling.SobolSampler;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Проверка свойств генераторов точек:
+ * <pre><ul>
+ *  <li>первые 2^k точек последовательности Соболя (вместе с невыдаваемым началом координат) по каждому измерению
+ *  попадают ровно по одной в каждый из 2^k равных интервалов;</li>
+ *  <li>латинский гиперкуб по каждому измерению помещает ровно одну точку в каждый интервал;</li>
+ *  <li>i-е измерение последовательности Холтона построено по i-му простому основанию p: первая точка равна 1/p, а
+ *  первые p^2 точек (вместе с началом координат) попадают ровно по одной в каждый из p^2 интервалов;</li>
+ *  <li>наборы точек с пропусками, которые использует загрузчик для обучающей, тестовой и валидационной выборок (0,
+ *  samples, samples + testSamples), не пересекаются и вместе совпадают с началом последовательности.</li>
+ * </ul></pre>
+ */
+public class SamplerProperties extends CaseWrapper {
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29};
+    private static final double EPSILON = 1e-9;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Генераторы точек: равномерность по интервалам, простые основания и непересекающиеся наборы";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final int dimensions = SobolSampler.MAX_DIMENSIONS;
+        for (int k = 1; k <= 10; k++) {
+            final String error = checkStrata(new SobolSampler(dimensions, 0), 1 << k, true);
+            if (error != null)
+                return fail(String.format("Последовательность Соболя, первые 2^%d точек: %s", k, error));
+        }
+        final Random random = new Random(42);
+        for (int count: new int[] {1, 2, 7, 100, 1000}) {
+            final String error = checkStrata(new LatinHypercubeSampler(5, count, random), count, false);
+            if (error != null)
+                return fail(String.format("Латинский гиперкуб из %d точек: %s", count, error));
+        }
+        final double[] point = new double[PRIMES.length];
+        new HaltonSampler(PRIMES.length, 0).next(point);
+        for (int i = 0; i < PRIMES.length; i++)
+            if (point[i] != 1.0 / PRIMES[i])
+                return fail(String.format(
+                        "Первая точка последовательности Холтона по измерению %d равна %s вместо 1/%d",
+                        i, point[i], PRIMES[i]));
+        for (int i = 0; i < PRIMES.length; i++) {
+            final int count = PRIMES[i] * PRIMES[i];
+            final String error = checkStrata(new HaltonSampler(PRIMES.length, 0), count, true, i);
+            if (error != null)
+                return fail(String.format("Последовательность Холтона, основание %d: %s", PRIMES[i], error));
+        }
+        for (SamplingMode mode: new SamplingMode[] {SamplingMode.HALTON, SamplingMode.SOBOL}) {
+            final String error = checkDisjoint(mode, 4, 300, 70, 50);
+            if (error != null)
+                return fail(mode + ": " + error);
+        }
+        return TestStatus.PASSED;
+    }
+
+    private static TestStatus fail(String message) {
+        System.out.println(new Date() + "    " + message);
+        return TestStatus.FAILED;
+    }
+
+    /**
+     * Проверка того, что точки попадают ровно по одной в каждый из count равных интервалов по всем измерениям
+     * @param sampler    генератор
+     * @param count      количество точек и интервалов
+     * @param withOrigin учитывать невыдаваемую точку с номером 0 (тогда берётся count - 1 точка)
+     * @return           описание ошибки или null
+     */
+    private static String checkStrata(Sampler sampler, int count, boolean withOrigin) {
+        return checkStrata(sampler, count, withOrigin, -1);
+    }
+
+    /**
+     * Проверка того, что точки попадают ровно по одной в каждый из count равных интервалов
+     * @param sampler    генератор
+     * @param count      количество точек и интервалов
+     * @param withOrigin учитывать невыдаваемую точку с номером 0 (тогда берётся count - 1 точка)
+     * @param dimension  номер проверяемого измерения (-1 - все измерения)
+     * @return           описание ошибки или null
+     */
+    private static String checkStrata(Sampler sampler, int count, boolean withOrigin, int dimension) {
+        final int dimensions = sampler.getDimensions();
+        final int[][] hits = new int[dimensions][count];
+        final double[] point = new double[dimensions];
+        for (int i = 0; i < count; i++) {
+            if (withOrigin && i == 0)
+                Arrays.fill(point, 0.0);
+            else
+                sampler.next(point);
+            for (int j = 0; j < dimensions; j++) {
+                if (point[j] < 0.0 || point[j] >= 1.0)
+                    return String.format("координата %d точки %d вне [0; 1): %s", j, i, point[j]);
+                // точки Холтона лежат на границах интервалов и вычисляются с ошибкой округления в младшем разряде
+                hits[j][Math.min(count - 1, (int) (point[j] * count + EPSILON))]++;
+            }
+        }
+        for (int j = dimension < 0 ? 0 : dimension; j < (dimension < 0 ? dimensions : dimension + 1); j++)
+            for (int interval = 0; interval < count; interval++)
+                if (hits[j][interval] != 1)
+                    return String.format("в интервал %d из %d по измерению %d попало %d точек",
+                            interval, count, j, hits[j][interval]);
+        return null;
+    }
+
+    /**
+     * Проверка наборов точек с пропусками, как у обучающей, тестовой и валидационной выборок загрузчика
+     * @return описание ошибки или null
+     */
+    private static String checkDisjoint(SamplingMode mode, int dimensions, int samples, int testSamples,
+                                        int validSamples) {
+        final Set<String> all = new HashSet<>();
+        final Sampler reference = Sampler.of(mode, dimensions, 0, 0);
+        final double[] point = new double[dimensions];
+        final int[] counts = {samples, testSamples, validSamples};
+        long skip = 0;
+        for (int set = 0; set < counts.length; set++) {
+            final Sampler sampler = Sampler.of(mode, dimensions, counts[set], skip);
+            final double[] expected = new double[dimensions];
+            for (int i = 0; i < counts[set]; i++) {
+                sampler.next(point);
+                reference.next(expected);
+                if (!Arrays.equals(point, expected))
+                    return String.format("точка %d набора %d не совпадает с точкой %d последовательности",
+                            i, set, skip + i);
+                if (!all.add(Arrays.toString(point)))
+                    return String.format("точка %d набора %d уже встречалась в предыдущих наборах", i, set);
+            }
+            skip += counts[set];
+        }
+        return null;
+    }
+}
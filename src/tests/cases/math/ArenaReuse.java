@@ -0,0 +1,116 @@
+package tests.cases.math;
+
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.math.MatrixArena;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.ParametrizedOperation;
+import models.operations.TanhActivation;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка арены временных матриц: обучение по пакетам с ареной должно давать побитово те же параметры, что и без
+ * неё, а после первой эпохи арена не должна создавать новые матрицы, и обучение по пакету должно выделять не больше
+ * MAX_ALLOCATED_PER_BATCH байт (по данным {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes})
+ */
+public class ArenaReuse extends CaseWrapper {
+    /**
+     * Наибольший объём памяти, выделяемой при обучении по пакету после первой эпохи: узлы выражений, представления и
+     * т.п. (временные матрицы пакета из 16 строк без переиспользования занимают около 75 КБ)
+     */
+    private static final long MAX_ALLOCATED_PER_BATCH = 16 * 1024;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Переиспользование временных матриц при обучении по пакетам";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Random random = new Random(42);
+        final Matrix inputs = BaseForBackends.getMatrix(random, 50, 2);
+        final Matrix outputs = BaseForBackends.getMatrix(random, 50, 1);
+        final Network withArena = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new LinearActivation())
+                .sizes(2, 8, 1)
+                .build();
+        final Network withoutArena = withArena.deepCopy();
+        final MatrixArena arena = withArena.getArena();
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        long missesAfterFirstEpoch = 0;
+        long allocated = 0;  // память, выделенная при обучении по пакетам после первой эпохи
+        int batches = 0;
+        for (int epoch = 0; epoch < 3; epoch++) {
+            for (int from = 0; from < inputs.getRows(); from += 16) {  // последний пакет короче
+                final int to = Math.min(from + 16, inputs.getRows());
+                final Matrix x = inputs.getRowSlice(from, to, 1);
+                final Matrix y = outputs.getRowSlice(from, to, 1);
+                final long before = threads.getThreadAllocatedBytes(thread);
+                withArena.trainBatch(x, y);
+                if (epoch > 0) {
+                    allocated += threads.getThreadAllocatedBytes(thread) - before;
+                    batches++;
+                }
+                step(withArena);
+                withoutArena.getLoss().forward(withoutArena.forward(x), y);
+                withoutArena.backward(withoutArena.getLoss().backward());
+                step(withoutArena);
+            }
+            if (epoch == 0)
+                missesAfterFirstEpoch = arena.getMisses();
+        }
+        boolean passed = sameParameters(withArena, withoutArena);
+        passed &= arena.getMisses() == missesAfterFirstEpoch && arena.getHits() > 0;
+        // без поддержки измерения выделенной памяти (getThreadAllocatedBytes возвращает -1) объём не проверяется
+        passed &= !threads.isThreadAllocatedMemoryEnabled() || allocated <= MAX_ALLOCATED_PER_BATCH * batches;
+        if (!passed)
+            System.out.println(new Date() + "    " + String.format(
+                    "Обучение с ареной не совпало с обучением без арены, арена создавала матрицы после первой " +
+                            "эпохи (%d промахов после первой эпохи) или обучение выделяло больше %d байт на пакет " +
+                            "(%d байт на %d пакетов): %s", missesAfterFirstEpoch, MAX_ALLOCATED_PER_BATCH,
+                    allocated, batches, arena));
+        return passed ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Побитовое сравнение параметров сетей одинаковой структуры
+     * @param first  первая сеть
+     * @param second вторая сеть
+     * @return       совпадают ли все параметры
+     */
+    private static boolean sameParameters(Network first, Network second) {
+        for (int l = 0; l < first.layersCount(); l++) {
+            final ParametrizedOperation[] a = first.getLayer(l).getParametrizedOperations();
+            final ParametrizedOperation[] b = second.getLayer(l).getParametrizedOperations();
+            for (int i = 0; i < a.length; i++)  // сумма модулей разностей равна нулю - значения равны
+                if (a[i].getParameter().sub(b[i].getParameter()).abs().sum() != 0.0)
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Шаг стохастического градиентного спуска по всем параметрам сети
+     * @param network сеть
+     */
+    private static void step(Network network) {
+        for (int l = 0; l < network.layersCount(); l++)
+            for (ParametrizedOperation operation: network.getLayer(l).getParametrizedOperations())
+                operation.getParameter().axpy(-0.01, operation.getParameterGradient());
+    }
+}
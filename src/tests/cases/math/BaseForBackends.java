@@ -0,0 +1,105 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+import models.math.MatrixBackend;
+import models.math.MatrixBackendType;
+import models.math.MatrixBackends;
+import models.math.MatrixParallelism;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Основа проверок соответствия бэкенда матричных операций эталонному. Одни и те же вычисления выполняются сначала на
+ * {@link MatrixBackendType#REFERENCE}, затем на проверяемом бэкенде, результаты сравниваются методом
+ * {@link Matrix#equalValues(Matrix, double)}. Аргументы кейса:
+ * <pre><ul>
+ *  <li>тип проверяемого бэкенда ({@link MatrixBackendType});</li>
+ *  <li>допустимая погрешность (Double);</li>
+ *  <li>включать ли параллельный режим с минимальным порогом (Boolean).</li>
+ * </ul></pre>
+ */
+public abstract class BaseForBackends extends CaseWrapper {
+    protected final static long seed = 42;
+
+    /**
+     * Вычисления, результаты которых сравниваются
+     * @return список матриц-результатов
+     */
+    protected abstract List<Matrix> compute();
+
+    @Override
+    public TestStatus process(Object... args) {
+        final MatrixBackendType type = (MatrixBackendType) args[0];
+        final double epsilon = (Double) args[1];
+        final boolean parallel = (Boolean) args[2];
+        final MatrixBackend previousBackend = MatrixBackends.get();
+        final boolean previousEnabled = MatrixParallelism.isEnabled();
+        final int previousParallelism = MatrixParallelism.getParallelism();
+        final long previousThreshold = MatrixParallelism.getThreshold();
+        final List<Matrix> expected;
+        final List<Matrix> actual;
+        try {
+            MatrixParallelism.configure(false, previousParallelism, previousThreshold);
+            MatrixBackends.configure(MatrixBackendType.REFERENCE);
+            expected = compute();
+            MatrixParallelism.configure(parallel, Math.max(4, previousParallelism), parallel ? 1 : previousThreshold);
+            MatrixBackends.configure(type);
+            actual = compute();
+        } catch (RuntimeException e) {
+            System.out.println(new Date() + "    " + e);
+            return TestStatus.BROKEN;
+        } finally {
+            MatrixParallelism.configure(previousEnabled, previousParallelism, previousThreshold);
+            MatrixBackends.set(previousBackend);
+        }
+        TestStatus result = TestStatus.PASSED;
+        for (int i = 0; i < expected.size(); i++) {
+            final Matrix e = expected.get(i);
+            final Matrix a = actual.get(i);
+            if (e.getRows() != a.getRows() || e.getCols() != a.getCols() || !e.equalValues(a, epsilon)) {
+                System.out.println(new Date() + "    " + String.format(
+                        "Результат %d не совпал с эталонным:\nexpected: %s\nactual: %s", i, e, a));
+                result = TestStatus.FAILED;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    /**
+     * Получение матрицы со значениями из нормального распределения
+     * @param random генератор
+     * @param rows   количество строк
+     * @param cols   количество столбцов
+     * @return       матрица
+     */
+    public static Matrix getMatrix(Random random, int rows, int cols) {
+        final double[] values = new double[rows * cols];
+        for (int i = 0; i < values.length; i++)
+            values[i] = random.nextGaussian();
+        return new Matrix(rows, cols, values);
+    }
+
+    /**
+     * Наибольшее абсолютное отклонение значений матриц одной размерности (в отличие от
+     * {@link Matrix#equalValues(Matrix, double)} возвращает само отклонение для сообщения об ошибке)
+     * @param expected ожидаемая матрица
+     * @param actual   полученная матрица
+     * @return         отклонение
+     */
+    public static double getMaxDifference(Matrix expected, Matrix actual) {
+        double result = 0.0;
+        for (int row = 0; row < expected.getRows(); row++)
+            for (int col = 0; col < expected.getCols(); col++)
+                result = Math.max(result, Math.abs(expected.getValue(row, col) - actual.getValue(row, col)));
+        return result;
+    }
+}
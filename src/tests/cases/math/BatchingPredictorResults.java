@@ -0,0 +1,80 @@
+package tests.cases.math;
+
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.networks.BatchingPredictor;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.TanhActivation;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Проверка сервиса вывода с объединением запросов: ответ на каждый запрос, отправленный из нескольких тредов, должен
+ * совпадать с выводом сети по этой строке
+ */
+public class BatchingPredictorResults extends CaseWrapper {
+    private static final int CLIENTS = 4;
+    private static final int REQUESTS = 200;
+    private static final double EPSILON = 1e-12;  // порядок суммирования в пакете может отличаться
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Совпадение ответов сервиса вывода с выводом сети";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Network network = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new LinearActivation())
+                .sizes(3, 16, 2)
+                .build();
+        final Matrix inputs = BaseForBackends.getMatrix(new Random(42), CLIENTS * REQUESTS, 3);
+        final List<CompletableFuture<double[]>> results = new ArrayList<>(Collections.nCopies(inputs.getRows(), null));
+        try (BatchingPredictor predictor = new BatchingPredictor(network, 16, 200)) {
+            final Thread[] threads = new Thread[CLIENTS];
+            for (int t = 0; t < CLIENTS; t++) {
+                final int client = t;
+                threads[t] = new Thread(() -> {
+                    for (int row = client; row < results.size(); row += CLIENTS)
+                        results.set(row, predictor.submit(inputs.getValue(row)));
+                });
+                threads[t].start();
+            }
+            for (Thread thread: threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            return TestStatus.BROKEN;
+        }
+        double difference = 0.0;
+        try {
+            for (int row = 0; row < results.size(); row++) {
+                final double[] expected = network.predict(inputs.getRowSlice(row, row + 1, 1)).getValue(0);
+                final double[] actual = results.get(row).get();
+                for (int col = 0; col < expected.length; col++)
+                    difference = Math.max(difference, Math.abs(expected[col] - actual[col]));
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println(new Date() + "    " + "Запрос к сервису вывода не выполнен: " + e);
+            return TestStatus.FAILED;
+        }
+        if (difference > EPSILON)
+            System.out.println(new Date() + "    " + String.format(
+                    "Ответы сервиса вывода отличаются от вывода сети на %e", difference));
+        return difference <= EPSILON ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+}
@@ -0,0 +1,80 @@
+package tests.cases.math;
+
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.SigmoidActivation;
+import models.operations.TanhActivation;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Проверка вывода сети: одновременные вызовы predict из нескольких потоков на одном экземпляре должны давать
+ * (побитово) тот же выход, что и прямой проход, и не сохранять состояние в слоях
+ */
+public class ConcurrentPredict extends CaseWrapper {
+    private static final int THREADS = 4;
+    private static final int CALLS = 50;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Одновременный вывод сети из нескольких потоков";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Random random = new Random(42);
+        final Network network = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new SigmoidActivation(), new LinearActivation())
+                .sizes(3, 16, 8, 2)
+                .build();
+        final Matrix[] inputs = new Matrix[THREADS];
+        final Matrix[] expected = new Matrix[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            inputs[i] = BaseForBackends.getMatrix(random, 20 + i, 3);
+            expected[i] = network.deepCopy().forward(inputs[i]);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        boolean passed = true;
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                futures.add(executor.submit(() -> {
+                    boolean result = true;
+                    for (int call = 0; call < CALLS; call++)
+                        result &= network.predict(inputs[thread]).equals(expected[thread]);
+                    return result;
+                }));
+            }
+            for (Future<Boolean> future: futures)
+                passed &= future.get();
+        } catch (Exception e) {
+            System.out.println(new Date() + "    " + "Ошибка при одновременном выводе: " + e);
+            passed = false;
+        } finally {
+            executor.shutdown();
+        }
+        for (int l = 0; l < network.layersCount(); l++)
+            passed &= network.getLayer(l).getInput() == null && network.getLayer(l).getOutput() == null;
+        if (!passed)
+            System.out.println(new Date() + "    " +
+                    "Вывод сети отличается от прямого прохода или сохраняет состояние в слоях");
+        return passed ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+}
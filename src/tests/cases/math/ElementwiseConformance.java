@@ -0,0 +1,61 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+import models.math.functions.MatrixFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ElementwiseConformance extends BaseForBackends {
+    private final static int[][] shapes = {
+            {1, 1},
+            {3, 7},
+            {100, 16},
+            {17, 1},
+            {1, 33},
+    };
+
+    @Override
+    public String getDescription() {
+        return "Соответствие эталону поэлементных операций, операций с векторами и функций";
+    }
+
+    @Override
+    protected List<Matrix> compute() {
+        final Random random = new Random(seed);
+        final List<Matrix> result = new ArrayList<>();
+        for (int[] shape: shapes) {
+            final int rows = shape[0], cols = shape[1];
+            final Matrix a = getMatrix(random, rows, cols);
+            final Matrix b = getMatrix(random, rows, cols).abs().add(0.5);
+            final Matrix row = getMatrix(random, 1, cols).abs().add(0.5);
+            final Matrix col = getMatrix(random, rows, 1).abs().add(0.5);
+            final double number = random.nextGaussian();
+            result.add(a.add(b));
+            result.add(a.sub(b));
+            result.add(a.mul(b));
+            result.add(a.div(b));
+            result.add(a.add(number));
+            result.add(a.sub(number));
+            result.add(a.mul(number));
+            result.add(a.div(number));
+            result.add(a.addRow(row));
+            result.add(a.subRow(row));
+            result.add(a.mulRow(row));
+            result.add(a.divRow(row));
+            result.add(a.addCol(col));
+            result.add(a.subCol(col));
+            result.add(a.mulCol(col));
+            result.add(a.divCol(col));
+            result.add(a.mulCol(b));  // используется первый столбец b
+            result.add(a.deepCopy().addInPlace(b).subInPlace(col.mulMatrix(row)).mulInPlace(b).divInPlace(number));
+            result.add(a.deepCopy().axpy(number, b));
+            result.add(MatrixFunctions.exp(a));
+            result.add(MatrixFunctions.tanh(a));
+            result.add(MatrixFunctions.abs(a));
+            result.add(MatrixFunctions.pow(b, 3));
+        }
+        return result;
+    }
+}
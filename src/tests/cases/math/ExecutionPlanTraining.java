@@ -0,0 +1,70 @@
+package tests.cases.math;
+
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.networks.ExecutionPlan;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.SigmoidActivation;
+import models.operations.TanhActivation;
+import models.optimizers.Optimizer;
+import models.optimizers.SGD;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка плана выполнения: обучение по пакетам (полным и неполным) и вывод должны совпадать с обучением и выводом
+ * исходной сети, а параметры, записанные из плана в сеть, - с параметрами сети, обученной без плана
+ */
+public class ExecutionPlanTraining extends CaseWrapper {
+    private static final int STEPS = 20;
+    private static final double EPSILON = 1e-12;  // потеря суммируется в другом порядке
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Совпадение обучения по плану выполнения с обучением сети";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Network network = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new SigmoidActivation(), new LinearActivation())
+                .sizes(3, 16, 8, 2)
+                .build();
+        final Network compiled = network.deepCopy();
+        final ExecutionPlan plan = compiled.compile(32);
+        final Optimizer optimizer = new SGD(network, 0.05, 0);
+        final Optimizer planOptimizer = new SGD(compiled, 0.05, 0);
+        final Random random = new Random(42);
+        double difference = 0.0;
+        for (int step = 0; step < STEPS; step++) {
+            final int rows = step % 4 == 3 ? 7 : 32;  // неполный пакет использует свои буферы
+            final Matrix inputs = BaseForBackends.getMatrix(random, rows, 3);
+            final Matrix targets = BaseForBackends.getMatrix(random, rows, 2);
+            final double expected = network.trainBatch(inputs, targets);
+            optimizer.step();
+            final double actual = plan.trainBatch(inputs, targets);
+            planOptimizer.step(plan);
+            difference = Math.max(difference, Math.abs(expected - actual));
+        }
+        final Matrix inputs = BaseForBackends.getMatrix(random, 32, 3);
+        difference = Math.max(difference,
+                BaseForBackends.getMaxDifference(network.predict(inputs), plan.predict(inputs)));
+        plan.writeTo(compiled);
+        difference = Math.max(difference,
+                BaseForBackends.getMaxDifference(network.predict(inputs), compiled.predict(inputs)));
+        if (difference > EPSILON)
+            System.out.println(new Date() + "    " + String.format(
+                    "Результаты плана выполнения отличаются от результатов сети на %e", difference));
+        return difference <= EPSILON ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+}
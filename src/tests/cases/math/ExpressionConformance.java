@@ -0,0 +1,66 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+import models.math.MatrixExpression;
+import models.math.Precision;
+import models.math.functions.MatrixFunctions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ExpressionConformance extends BaseForBackends {
+    private final static int[][] shapes = {
+            {1, 1},
+            {7, 3},
+            {65, 40},
+    };
+
+    @Override
+    public String getDescription() {
+        return "Соответствие эталону ленивых выражений (результаты совпадают с неленивыми операциями)";
+    }
+
+    @Override
+    protected List<Matrix> compute() {
+        final Random random = new Random(seed);
+        final List<Matrix> result = new ArrayList<>();
+        for (int[] shape: shapes) {
+            final int m = shape[0], n = shape[1];
+            final Matrix a = getMatrix(random, m, n);
+            final Matrix b = getMatrix(random, n, m).transpose();
+            final Matrix c = getMatrix(random, m, n).toPrecision(Precision.SINGLE);
+
+            final MatrixExpression d = a.lazy().sub(b);
+            check(result, d.mul(d).materialize(), a.sub(b).mul(a.sub(b)));
+            check(result, new Matrix(1, 1, new double[]{d.mul(d).sum()}),
+                    new Matrix(1, 1, new double[]{a.sub(b).mul(a.sub(b)).sum()}));
+            check(result, a.lazy().onesLike().div(MatrixFunctions.exp(a.lazy().mul(-1)).add(1)).materialize(),
+                    a.onesLike().div(MatrixFunctions.exp(a.mul(-1)).add(1)));
+            check(result, MatrixFunctions.tanh(b.lazy()).mul(a).add(2).div(b.lazy().mul(b).add(1)).materialize(),
+                    MatrixFunctions.tanh(b).mul(a).add(2).div(b.mul(b).add(1)));
+            check(result, c.lazy().mul(c).sub(1).materialize(), c.mul(c).sub(1));
+            check(result, c.lazy().add(a).materialize(), c.add(a));
+
+            final Matrix destination = a.deepCopy();
+            destination.lazy().mul(2).add(b).into(destination);
+            check(result, destination, a.mul(2).add(b));
+        }
+        return result;
+    }
+
+    /**
+     * Сравнение результата ленивого выражения с результатом неленивых операций (точность и значения)
+     * @param result   список результатов
+     * @param actual   результат выражения
+     * @param expected результат неленивых операций
+     */
+    private static void check(List<Matrix> result, Matrix actual, Matrix expected) {
+        if (actual.getPrecision() != expected.getPrecision() ||
+                !actual.equalValues(expected, actual.getPrecision() == Precision.SINGLE ? 1e-5 : 1e-9))
+            throw new IllegalStateException(String.format(
+                    "Результат выражения не совпал с неленивыми операциями:\nexpected: %s\nactual: %s",
+                    expected.valuesToString(), actual.valuesToString()));
+        result.add(actual);
+    }
+}
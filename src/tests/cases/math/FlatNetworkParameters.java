@@ -0,0 +1,80 @@
+package tests.cases.math;
+
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.TanhActivation;
+import models.optimizers.Optimizer;
+import models.optimizers.SGD;
+import serialization.exceptions.SerializationException;
+import serialization.serializers.YamlSerializer;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка сети с общими массивами параметров и градиентов: обучение должно совпадать с обучением сети с отдельными
+ * параметрами, снимок общего массива - восстанавливать параметры, а YAML сети - не отличаться от YAML обычной сети
+ */
+public class FlatNetworkParameters extends CaseWrapper {
+    private static final int STEPS = 20;
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Обучение и сериализация сети с общими массивами параметров";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Network network = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new LinearActivation())
+                .sizes(3, 16, 2)
+                .build();
+        final Network flat = network.deepCopy().flattenParameters();
+        if (!flat.deepCopy().isFlat() || flat.getParameters().size() != (3 + 1) * 16 + (16 + 1) * 2) {
+            System.out.println(new Date() + "    " + "Неверный общий массив параметров");
+            return TestStatus.FAILED;
+        }
+        final Optimizer optimizer = new SGD(network, 0.05, 0);
+        final Optimizer flatOptimizer = new SGD(flat, 0.05, 0);
+        final Random random = new Random(42);
+        Matrix snapshot = null;
+        Network snapshotNetwork = null;
+        for (int step = 0; step < STEPS; step++) {
+            final Matrix inputs = BaseForBackends.getMatrix(random, 16, 3);
+            final Matrix targets = BaseForBackends.getMatrix(random, 16, 2);
+            network.trainBatch(inputs, targets);
+            optimizer.step();
+            flat.trainBatch(inputs, targets);
+            flatOptimizer.step();
+            if (step == STEPS / 2) {
+                snapshot = flat.getParameters().deepCopy();
+                snapshotNetwork = network.deepCopy();
+            }
+        }
+        try {
+            final YamlSerializer serializer = new YamlSerializer("%.17g");
+            if (!network.equals(flat) || !new String(serializer.serialize(network))
+                    .equals(new String(serializer.serialize(flat)))) {
+                System.out.println(new Date() + "    " + "Обучение или YAML сети с общими массивами отличается");
+                return TestStatus.FAILED;
+            }
+            flat.getParameters().copyFrom(snapshot);  // восстановление снимка
+            final Matrix inputs = BaseForBackends.getMatrix(random, 16, 3);
+            return snapshotNetwork.predict(inputs).equals(flat.predict(inputs)) ?
+                    TestStatus.PASSED : TestStatus.FAILED;
+        } catch (SerializationException e) {
+            System.out.println(new Date() + "    " + "Ошибка сериализации: " + e);
+            return TestStatus.BROKEN;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package tests.cases.math;
+
+import models.layers.DenseLayer;
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.math.Precision;
+import models.networks.Network;
+import models.operations.LinearActivation;
+import models.operations.ParametrizedOperation;
+import models.operations.SigmoidActivation;
+import models.operations.TanhActivation;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Проверка слитых проходов полносвязного слоя: выходы сети и градиенты по всем параметрам должны совпадать с
+ * обычными проходами (при двойной точности - побитово, при одинарной - с точностью до ошибки округления)
+ */
+public class FusedDenseLayer extends CaseWrapper {
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Совпадение слитых и обычных проходов полносвязного слоя";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final boolean fused = DenseLayer.isFused();
+        try {
+            return check(Precision.DOUBLE, 0.0) && check(Precision.SINGLE, 1e-5) ?
+                    TestStatus.PASSED : TestStatus.FAILED;
+        } finally {
+            DenseLayer.configureFused(fused);
+        }
+    }
+
+    /**
+     * Сравнение слитых и обычных проходов
+     * @param precision точность
+     * @param epsilon   допустимое отклонение
+     * @return          результат проверки
+     */
+    private static boolean check(Precision precision, double epsilon) {
+        final Random random = new Random(42);
+        final Matrix inputs = BaseForBackends.getMatrix(random, 37, 3).toPrecision(precision);
+        final Matrix outputs = BaseForBackends.getMatrix(random, 37, 2).toPrecision(precision);
+        final Network plain = Network.newAnotherBuilder()
+                .loss(new MeanSquaredError())
+                .activations(new TanhActivation(), new SigmoidActivation(), new LinearActivation())
+                .sizes(3, 9, 5, 2)
+                .build()
+                .toPrecision(precision);
+        final Network fused = plain.deepCopy();
+        DenseLayer.configureFused(false);
+        plain.trainBatch(inputs, outputs);
+        DenseLayer.configureFused(true);
+        fused.trainBatch(inputs, outputs);
+        double difference = BaseForBackends.getMaxDifference(plain.forward(inputs), fused.forward(inputs));
+        for (int l = 0; l < plain.layersCount(); l++) {
+            final ParametrizedOperation[] expected = plain.getLayer(l).getParametrizedOperations();
+            final ParametrizedOperation[] actual = fused.getLayer(l).getParametrizedOperations();
+            for (int i = 0; i < expected.length; i++)
+                difference = Math.max(difference, BaseForBackends.getMaxDifference(
+                        expected[i].getParameterGradient(), actual[i].getParameterGradient()));
+        }
+        if (difference > epsilon)
+            System.out.println(new Date() + "    " + String.format(
+                    "Слитые проходы (%s) отличаются от обычных на %e (допустимо %e)", precision, difference, epsilon));
+        return difference <= epsilon;
+    }
+}
@@ -0,0 +1,46 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class GemmConformance extends BaseForBackends {
+    /**
+     * Размерности (m; k; n): узкие, широкие, не кратные размерам блоков и регистровых тайлов
+     */
+    private final static int[][] shapes = {
+            {1, 1, 1},
+            {7, 3, 1},
+            {33, 16, 5},
+            {10, 130, 9},
+            {65, 17, 520},
+            {200, 300, 40},
+    };
+
+    @Override
+    public String getDescription() {
+        return "Соответствие эталону матричного умножения (mulMatrix, mulMatrixTransA/B и варианты Into)";
+    }
+
+    @Override
+    protected List<Matrix> compute() {
+        final Random random = new Random(seed);
+        final List<Matrix> result = new ArrayList<>();
+        for (int[] shape: shapes) {
+            final int m = shape[0], k = shape[1], n = shape[2];
+            final Matrix a = getMatrix(random, m, k);
+            final Matrix b = getMatrix(random, k, n);
+            final Matrix aT = getMatrix(random, k, m);
+            final Matrix bT = getMatrix(random, n, k);
+            result.add(a.mulMatrix(b));
+            result.add(aT.mulMatrixTransA(b));
+            result.add(a.mulMatrixTransB(bT));
+            result.add(a.mulMatrixInto(b, new Matrix(m, n).fill(1.0)));
+            result.add(aT.mulMatrixTransAInto(b, new Matrix(m, n).fill(1.0)));
+            result.add(a.mulMatrixTransBInto(bT, new Matrix(m, n).fill(1.0)));
+        }
+        return result;
+    }
+}
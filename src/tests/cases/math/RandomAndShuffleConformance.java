@@ -0,0 +1,44 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+import models.math.MatrixBackends;
+import models.math.RandomType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RandomAndShuffleConformance extends BaseForBackends {
+    @Override
+    public String getDescription() {
+        return "Соответствие эталону заполнения случайными числами и перемешивания строк/столбцов";
+    }
+
+    @Override
+    protected List<Matrix> compute() {
+        final List<Matrix> result = new ArrayList<>();
+        for (RandomType type: RandomType.values()) {
+            final double[] values = new double[37 * 11];
+            MatrixBackends.get().fillRandom(type, new Random(seed), -1.0, 2.0, values, 0, values.length);
+            result.add(new Matrix(37, 11, values));
+        }
+        final Matrix a = getMatrix(new Random(seed), 37, 11);
+        final Random random = new Random(seed);
+        result.add(a.shuffle(getPermutation(random, a.getRows()), 0));
+        result.add(a.shuffle(getPermutation(random, a.getCols()), 1));
+        return result;
+    }
+
+    private static int[] getPermutation(Random random, int size) {
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++)
+            result[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int tmp = result[i];
+            result[i] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+}
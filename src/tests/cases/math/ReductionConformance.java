@@ -0,0 +1,38 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ReductionConformance extends BaseForBackends {
+    private final static int[][] shapes = {
+            {1, 1},
+            {5, 3},
+            {1000, 16},
+            {16, 1000},
+    };
+
+    @Override
+    public String getDescription() {
+        return "Соответствие эталону суммирования и поиска минимума/максимума";
+    }
+
+    @Override
+    protected List<Matrix> compute() {
+        final Random random = new Random(seed);
+        final List<Matrix> result = new ArrayList<>();
+        for (int[] shape: shapes) {
+            final Matrix a = getMatrix(random, shape[0], shape[1]);
+            result.add(new Matrix(new double[][] {{a.sum(), a.min(), a.max()}}));
+            result.add(a.sum(0));
+            result.add(a.sum(1));
+            result.add(a.min(0));
+            result.add(a.min(1));
+            result.add(a.max(0));
+            result.add(a.max(1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package tests.cases.math;
+
+import models.layers.DenseLayer;
+import models.layers.Layer;
+import models.losses.MeanSquaredError;
+import models.math.Matrix;
+import models.math.Precision;
+import models.math.functions.MatrixFunctions;
+import models.networks.Network;
+import models.operations.BiasAdd;
+import models.operations.Operation;
+import models.operations.TanhActivation;
+import models.operations.WeightMultiply;
+import models.optimizers.SGD;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SinglePrecisionConformance extends BaseForBackends {
+    private final static int[][] shapes = {
+            {1, 1, 1},
+            {7, 3, 9},
+            {65, 17, 33},
+    };
+
+    @Override
+    public String getDescription() {
+        return "Соответствие эталону операций над матрицами одинарной точности (результаты сохраняют точность)";
+    }
+
+    @Override
+    protected List<Matrix> compute() {
+        final Random random = new Random(seed);
+        final List<Matrix> result = new ArrayList<>();
+        for (int[] shape: shapes) {
+            final int m = shape[0], k = shape[1], n = shape[2];
+            final Matrix a = getSingle(random, m, k);
+            final Matrix b = getSingle(random, k, n);
+            final Matrix c = getSingle(random, m, k).abs().add(0.5);
+            final Matrix row = getSingle(random, 1, k);
+            final Matrix col = getSingle(random, m, 1);
+            result.add(a.mulMatrix(b));
+            result.add(a.transpose().mulMatrixTransA(b));
+            result.add(a.mulMatrixTransB(b.transpose()));
+            result.add(a.add(c).sub(0.25).mul(c).div(c));
+            result.add(a.addRow(row).mulCol(col));
+            result.add(a.deepCopy().axpy(-0.1, c).mulInPlace(2));
+            result.add(a.sum(0));
+            result.add(a.max(1));
+            result.add(new Matrix(1, 1, new float[]{(float) a.sum()}));
+            result.add(MatrixFunctions.tanh(a));
+            result.add(a.shuffle(reversed(m), 0));
+        }
+        final Network network = new Network(new Layer[]{
+                new DenseLayer(4, new Operation[]{
+                        new WeightMultiply(getSingle(random, 2, 4)), new BiasAdd(getSingle(random, 4, 1)),
+                        new TanhActivation()}),
+        }, new MeanSquaredError());
+        final SGD optimizer = new SGD(network, 0.1, 0.0);
+        final Matrix x = getSingle(random, 16, 2);
+        final Matrix y = getSingle(random, 16, 4);
+        for (int i = 0; i < 5; i++) {
+            network.trainBatch(x, y);
+            optimizer.step();
+        }
+        result.add(network.forward(x));
+        for (Matrix matrix: result)
+            if (matrix.getPrecision() != Precision.SINGLE)
+                throw new IllegalStateException("Результат операции потерял одинарную точность: " + matrix);
+        return result;
+    }
+
+    private static Matrix getSingle(Random random, int rows, int cols) {
+        return getMatrix(random, rows, cols).toPrecision(Precision.SINGLE);
+    }
+
+    private static int[] reversed(int length) {
+        final int[] result = new int[length];
+        for (int i = 0; i < length; i++)
+            result[i] = length - 1 - i;
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package tests.cases.math;
+
+import models.math.Matrix;
+import models.math.Precision;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Проверка представлений матриц (в том числе хранящихся вне кучи): результаты операций над представлениями должны
+ * совпадать (побитово) с результатами над их плотными копиями, изменяющие методы должны выбрасывать исключение
+ */
+public class ViewOperations extends CaseWrapper {
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Операции над представлениями (срезы, строки, столбцы, транспонирование, хранение вне кучи)";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final Random random = new Random(42);
+        final Matrix a = BaseForBackends.getMatrix(random, 12, 9);
+        final Matrix b = BaseForBackends.getMatrix(random, 9, 12);
+        final Matrix[] views = {
+                a.transpose(),
+                a.getRowSlice(2, 11, 3),
+                a.getColSlice(1, 8, 2),
+                a.getRowSlice(3, 9, 1),
+                a.getRow(4),
+                a.getCol(5),
+                a.transpose().getRowSlice(1, 7, 2).transpose(),
+                a.toOffHeap(),
+                a.toOffHeap().transpose().getColSlice(2, 12, 3),
+                a.toPrecision(Precision.SINGLE).toOffHeap().getRowSlice(1, 12, 2),
+        };
+        boolean passed = true;
+        for (Matrix view: views) {
+            final Matrix copy = view.materialize();
+            passed &= check(view, copy, "copy", m -> m);
+            passed &= check(view, copy, "transpose.mulMatrix", m -> m.transpose().mulMatrix(m));
+            passed &= check(view, copy, "mulMatrix.transpose", m -> m.mulMatrix(m.transpose()));
+            passed &= check(view, copy, "transpose.mulMatrixTransB", m -> m.transpose().mulMatrixTransB(m.transpose()));
+            passed &= check(view, copy, "mulMatrixTransA", m -> m.mulMatrixTransA(m));
+            passed &= check(view, copy, "add.mul", m -> m.add(m.mul(2)).div(m.abs().add(1)));
+            passed &= check(view, copy, "addRow.mulCol", m -> m.addRow(m.getRow(0)).mulCol(m.getCol(0)));
+            passed &= check(view, copy, "sum", m -> new Matrix(new double[][] {{m.sum(), m.min(), m.max()}}));
+            passed &= check(view, copy, "sum(0).max(1)", m -> m.sum(0).stack(m.max(1).transpose(), 1).flatten());
+            passed &= check(view, copy, "extend.stack", m -> m.extend(2, 0).stack(m.extend(2, 0), 0));
+            passed &= check(view, copy, "extend(1)", m -> m.extend(3, 1).reshape(m.getCols() * 3, m.getRows()));
+            passed &= check(view, copy, "shuffle", m -> m.shuffle(new int[m.getRows()], 0));
+            passed &= check(view, copy, "slice.slice", m -> m.getRowSlice(0, m.getRows(), 2).getColSlice(0, 1, 1));
+            passed &= (view.isView() || view.isOffHeap()) && !copy.isView() && !copy.isOffHeap() && view.equals(copy);
+            try {
+                view.mulInPlace(2);
+                System.out.println(new Date() + "    " + "Изменение представления не вызвало исключения");
+                passed = false;
+            } catch (IllegalStateException e) {
+                // ожидаемое поведение
+            }
+        }
+        passed &= check(a.transpose(), a.transpose().materialize(), "mulMatrix(b.transpose())",
+                m -> m.transpose().mulMatrix(b.transpose().transpose()));
+        final Matrix parent = a.deepCopy();
+        final Matrix slice = parent.getRowSlice(1, 3, 1);
+        parent.mulInPlace(-1);
+        passed &= slice.getValue(0, 0) == parent.getValue(1, 0);
+        return passed ? TestStatus.PASSED : TestStatus.FAILED;
+    }
+
+    /**
+     * Сравнение результатов операции над представлением и над его копией
+     */
+    private static boolean check(Matrix view, Matrix copy, String title, Function<Matrix, Matrix> operation) {
+        final Matrix expected = operation.apply(copy);
+        final Matrix actual = operation.apply(view);
+        if (expected.getRows() == actual.getRows() && expected.getCols() == actual.getCols() &&
+                expected.hashCode() == actual.hashCode())
+            return true;
+        System.out.println(new Date() + "    " + String.format("Результаты не совпали (%s):\nexpected: %s\nactual: %s",
+                title, expected, actual));
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package tests.cases.serialization;
+
+import models.math.Matrix;
+import models.networks.Network;
+import serialization.exceptions.SerializationException;
+import serialization.serializers.YamlSerializer;
+import tests.TestStatus;
+import tests.cases.CaseWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Проверка чтения YAML, записанного до перехода матриц на одномерный массив: значения матрицы записаны построчно в
+ * двумерном массиве values. Прочитанные объекты должны совпадать с ожидаемыми, а повторная запись - с исходным YAML
+ */
+public class LegacyYamlFormat extends CaseWrapper {
+    private static final String MATRIX = String.join("\n",
+            "object.class: models.math.Matrix",
+            "cols: 3",
+            "rows: 2",
+            "values: ",
+            "  - - 1.0000000000000000",
+            "    - 2.0000000000000000",
+            "    - 3.0000000000000000",
+            "  - - 4.0000000000000000",
+            "    - 5.0000000000000000",
+            "    - 6.0000000000000000");
+
+    private static final String NETWORK = String.join("\n",
+            "object.class: models.networks.Network",
+            "loss: ",
+            "  object.class: models.losses.MeanSquaredError",
+            "layers: ",
+            "  - object.class: models.layers.DenseLayer",
+            "    neurons: 2",
+            "    operations: ",
+            "      - object.class: models.operations.WeightMultiply",
+            "        parameter: ",
+            "          object.class: models.math.Matrix",
+            "          cols: 2",
+            "          rows: 1",
+            "          values: ",
+            "            - - 0.50000000000000000",
+            "              - -0.25000000000000000",
+            "      - object.class: models.operations.BiasAdd",
+            "        parameter: ",
+            "          object.class: models.math.Matrix",
+            "          cols: 1",
+            "          rows: 2",
+            "          values: ",
+            "            - - 0.12500000000000000",
+            "            - - -0.75000000000000000",
+            "      - object.class: models.operations.TanhActivation",
+            "  - object.class: models.layers.DenseLayer",
+            "    neurons: 1",
+            "    operations: ",
+            "      - object.class: models.operations.WeightMultiply",
+            "        parameter: ",
+            "          object.class: models.math.Matrix",
+            "          cols: 1",
+            "          rows: 2",
+            "          values: ",
+            "            - - 1.0000000000000000",
+            "            - - 2.0000000000000000",
+            "      - object.class: models.operations.BiasAdd",
+            "        parameter: ",
+            "          object.class: models.math.Matrix",
+            "          cols: 1",
+            "          rows: 1",
+            "          values: ",
+            "            - - 0.25000000000000000",
+            "      - object.class: models.operations.LinearActivation");
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Чтение матрицы и сети из YAML с построчными значениями матриц";
+    }
+
+    @Override
+    public TestStatus process(Object... args) {
+        final YamlSerializer serializer = new YamlSerializer("%.17g");
+        try {
+            final Matrix matrix = (Matrix) serializer.deserialize(MATRIX.getBytes(StandardCharsets.UTF_8),
+                    Matrix.class);
+            final Network network = (Network) serializer.deserialize(NETWORK.getBytes(StandardCharsets.UTF_8),
+                    Network.class);
+            // выход сети для входа (1): tanh(0.5 + 0.125) * 1 + tanh(-0.25 - 0.75) * 2 + 0.25
+            final double expected = Math.tanh(0.625) + 2 * Math.tanh(-1.0) + 0.25;
+            final double actual = network.predict(new Matrix(new double[][]{{1}})).getValue(0, 0);
+            final boolean result = matrix.equals(new Matrix(new double[][]{{1, 2, 3}, {4, 5, 6}})) &&
+                    Math.abs(expected - actual) < 1e-15 &&
+                    new String(serializer.serialize(matrix), StandardCharsets.UTF_8).equals(MATRIX) &&
+                    new String(serializer.serialize(network), StandardCharsets.UTF_8).equals(NETWORK);
+            if (!result)
+                System.out.println(new Date() + "    " + "YAML с построчными значениями матриц прочитан неверно");
+            return result ? TestStatus.PASSED : TestStatus.FAILED;
+        } catch (SerializationException e) {
+            System.out.println(new Date() + "    " + "Ошибка чтения YAML: " + e);
+            return TestStatus.FAILED;
+        }
+    }
+}
@@ -2,14 +2,20 @@ package tests.cases.serialization;
 
 import models.data.approximation.ApproxDataLoader;
 import models.data.approximation.ApproxLoadParameters;
+import models.data.approximation.SamplingMode;
+import models.data.approximation.functions.ExpressionFunction;
+import models.data.approximation.functions.VariableRange;
 import models.data.approximation.functions.impl.SinX;
+import models.data.approximation.functions.impl.SinX1_mul_X2;
 import models.layers.DenseLayer;
 import models.losses.MeanSquaredError;
 import models.math.Matrix;
+import models.math.Precision;
 import models.networks.Network;
 import models.networks.NetworkBuilder;
 import models.operations.*;
 import models.optimizers.SGD;
+import models.trainers.AdaptiveSampling;
 import models.trainers.FitParameters;
 import serialization.serializers.Serializer;
 import tests.TestStatus;
@@ -61,6 +67,7 @@ public class ModelClassesSerialization extends BaseForSerialization {
                         .epochs(1000)
                         .networkBuilder(testNetworkBuilder1.deepCopy())
                         .optimizerBuilder(SGD.newBuilder().startLR(0.1).stopLR(0.0001))
+                        .adaptiveSampling(new AdaptiveSampling(50, 0.1, 0.1, 0))
                         .dataLoader(new ApproxDataLoader())
                         .loadParameters(ApproxLoadParameters.newBuilder()
                                 .function(new SinX())
@@ -73,6 +80,15 @@ public class ModelClassesSerialization extends BaseForSerialization {
                         testRunConfigurationBuilder1.description("Тестовая конфигурация 2"));
         return new Object[]{
                 testMatrix1.deepCopy(),
+                testMatrix1.toPrecision(Precision.SINGLE),
+                new ExpressionFunction("f(x, y) = y * sin(x) + 0.5", new VariableRange[]{
+                        new VariableRange(0.0, 1.57), new VariableRange(1.0, 2.0)}),
+                ApproxLoadParameters.newBuilder()
+                        .function(new SinX1_mul_X2())
+                        .samplingMode(SamplingMode.SOBOL)
+                        .samples(1000)
+                        .poolSamples(2000)
+                        .build(),
                 new TanhActivation(),
                 new WeightMultiply(testMatrix1.deepCopy()),
                 new DenseLayer(3, new Operation[] {
@@ -82,6 +98,7 @@ public class ModelClassesSerialization extends BaseForSerialization {
                 }),
                 testNetworkBuilder1.deepCopy(),
                 testNetworkBuilder1.deepCopy().build(),
+                testNetworkBuilder1.deepCopy().build().toPrecision(Precision.SINGLE),
                 testRunConfigurationBuilder1.deepCopy(),
                 testRunConfigurationBuilder1.deepCopy().build(),
                 testExperimentBuilder1.deepCopy(),
@@ -0,0 +1,34 @@
+package tests.suites.approximation;
+
+import tests.cases.CaseWrapper;
+import tests.cases.approximation.ExpressionParsing;
+import tests.cases.approximation.FunctionBatches;
+import tests.suites.Suite;
+
+public class FunctionExpressions extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new ExpressionParsing(),
+                new FunctionBatches(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        return new Object[][] {
+                {},
+                {},
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка разбора выражений функций и их пакетного вычисления";
+    }
+}
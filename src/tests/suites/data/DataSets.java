@@ -0,0 +1,46 @@
+package tests.suites.data;
+
+import tests.cases.CaseWrapper;
+import tests.cases.data.AdaptiveResampling;
+import tests.cases.data.BatchIteration;
+import tests.cases.data.CartesianDataBatches;
+import tests.cases.data.CartesianProductOrder;
+import tests.cases.data.RandomPermutationRange;
+import tests.cases.data.SamplerProperties;
+import tests.suites.Suite;
+
+public class DataSets extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new RandomPermutationRange(),
+                new CartesianDataBatches(),
+                new CartesianProductOrder(),
+                new SamplerProperties(),
+                new BatchIteration(),
+                new AdaptiveResampling(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        return new Object[][] {
+                {},
+                {},
+                {},
+                {},
+                {},
+                {},
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка выборок и их разбиения на пакеты";
+    }
+}
@@ -0,0 +1,61 @@
+package tests.suites.math;
+
+import models.math.MatrixBackendType;
+import tests.cases.CaseWrapper;
+import tests.cases.math.ElementwiseConformance;
+import tests.cases.math.ExpressionConformance;
+import tests.cases.math.GemmConformance;
+import tests.cases.math.RandomAndShuffleConformance;
+import tests.cases.math.ReductionConformance;
+import tests.cases.math.SinglePrecisionConformance;
+import tests.suites.Suite;
+
+public class BackendConformance extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new GemmConformance(),
+                new ElementwiseConformance(),
+                new ReductionConformance(),
+                new RandomAndShuffleConformance(),
+                new GemmConformance(),
+                new ElementwiseConformance(),
+                new ReductionConformance(),
+                new RandomAndShuffleConformance(),
+                new SinglePrecisionConformance(),
+                new SinglePrecisionConformance(),
+                new ExpressionConformance(),
+                new ExpressionConformance(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        final double epsilon = 1e-9;
+        final double singleEpsilon = 1e-4;
+        return new Object[][] {
+                {MatrixBackendType.OPTIMIZED, epsilon, false, },
+                {MatrixBackendType.OPTIMIZED, epsilon, false, },
+                {MatrixBackendType.OPTIMIZED, epsilon, false, },
+                {MatrixBackendType.OPTIMIZED, epsilon, false, },
+                {MatrixBackendType.OPTIMIZED, epsilon,  true, },
+                {MatrixBackendType.OPTIMIZED, epsilon,  true, },
+                {MatrixBackendType.OPTIMIZED, epsilon,  true, },
+                {MatrixBackendType.OPTIMIZED, epsilon,  true, },
+                {MatrixBackendType.OPTIMIZED, singleEpsilon, false, },
+                {MatrixBackendType.OPTIMIZED, singleEpsilon,  true, },
+                {MatrixBackendType.OPTIMIZED, epsilon, false, },
+                {MatrixBackendType.OPTIMIZED, epsilon,  true, },
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка соответствия бэкендов матричных операций эталонному";
+    }
+}
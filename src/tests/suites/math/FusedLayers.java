@@ -0,0 +1,37 @@
+package tests.suites.math;
+
+import tests.cases.CaseWrapper;
+import tests.cases.math.ExecutionPlanTraining;
+import tests.cases.math.FlatNetworkParameters;
+import tests.cases.math.FusedDenseLayer;
+import tests.suites.Suite;
+
+public class FusedLayers extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new FusedDenseLayer(),
+                new ExecutionPlanTraining(),
+                new FlatNetworkParameters(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        return new Object[][] {
+                {},
+                {},
+                {},
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка слитых проходов слоёв, плана выполнения и общих массивов параметров";
+    }
+}
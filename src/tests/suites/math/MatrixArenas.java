@@ -0,0 +1,31 @@
+package tests.suites.math;
+
+import tests.cases.CaseWrapper;
+import tests.cases.math.ArenaReuse;
+import tests.suites.Suite;
+
+public class MatrixArenas extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new ArenaReuse(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        return new Object[][] {
+                {},
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка арены временных матриц";
+    }
+}
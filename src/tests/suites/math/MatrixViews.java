@@ -0,0 +1,31 @@
+package tests.suites.math;
+
+import tests.cases.CaseWrapper;
+import tests.cases.math.ViewOperations;
+import tests.suites.Suite;
+
+public class MatrixViews extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new ViewOperations(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        return new Object[][] {
+                {},
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка представлений матриц";
+    }
+}
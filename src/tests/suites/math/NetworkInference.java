@@ -0,0 +1,34 @@
+package tests.suites.math;
+
+import tests.cases.CaseWrapper;
+import tests.cases.math.BatchingPredictorResults;
+import tests.cases.math.ConcurrentPredict;
+import tests.suites.Suite;
+
+public class NetworkInference extends Suite {
+    @Override
+    public CaseWrapper[] getCases() {
+        return new CaseWrapper[] {
+                new ConcurrentPredict(),
+                new BatchingPredictorResults(),
+        };
+    }
+
+    @Override
+    public Object[][] getArgs() {
+        return new Object[][] {
+                {},
+                {},
+        };
+    }
+
+    @Override
+    public String getId() {
+        return getClass().getCanonicalName();
+    }
+
+    @Override
+    public String getDescription() {
+        return "Проверка вывода обученной сети";
+    }
+}
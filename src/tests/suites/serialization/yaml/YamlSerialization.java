@@ -2,6 +2,7 @@ package tests.suites.serialization.yaml;
 
 import serialization.serializers.YamlSerializer;
 import tests.cases.CaseWrapper;
+import tests.cases.serialization.LegacyYamlFormat;
 import tests.cases.serialization.ModelClassesSerialization;
 import tests.cases.serialization.TestClassesSerialization;
 import tests.suites.Suite;
@@ -15,6 +16,7 @@ public class YamlSerialization extends Suite {
                 new TestClassesSerialization(),
                 new ModelClassesSerialization(),
                 new ModelClassesSerialization(),
+                new LegacyYamlFormat(),
         };
     }
 
@@ -26,6 +28,7 @@ public class YamlSerialization extends Suite {
                 {new RandomValuesProvider(), new YamlSerializer(doubleFormat),  true, },
                 {new RandomValuesProvider(), new YamlSerializer(doubleFormat),  true, },
                 {new RandomValuesProvider(), new YamlSerializer(doubleFormat), false, },
+                {},
         };
     }
 
@@ -92,7 +92,7 @@ public abstract class Utils {
     public static String networkOutputToTable(Data data, Network network, double part, String doubleFormat) {
         final Matrix x = data.getInputs();
         final Matrix t = data.getOutputs();
-        final Matrix y = network.forward(x);
+        final Matrix y = network.predict(x);
         final Matrix e = t.sub(y).abs();
         return networkIOToStringTable(x, t, y, e, part, doubleFormat);
     }
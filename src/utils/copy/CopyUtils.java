@@ -1,4 +1,41 @@
 package utils.copy;
 
-public class CopyUtils {
+/**
+ * Защитные копии промежуточных значений сети. По умолчанию слои, операции и потеря сохраняют ссылки на входы и
+ * градиенты, не копируя их: матрицы, переданные при прямом и обратном проходах, не изменяются ни сетью, ни (по
+ * контракту) вызывающим кодом до окончания обратного прохода. В режиме отладки (настройка "debug.defensive.copies" в
+ * "app.properties") сохраняются копии, что позволяет найти код, нарушающий этот контракт.
+ */
+public abstract class CopyUtils {
+    /**
+     * Включены ли защитные копии
+     */
+    private static volatile boolean defensiveCopies = false;
+
+    /**
+     * Проверка, включены ли защитные копии
+     * @return результат проверки
+     */
+    public static boolean isDefensiveCopies() {
+        return defensiveCopies;
+    }
+
+    /**
+     * Включение или выключение защитных копий
+     * @param enabled включить ли защитные копии
+     */
+    public static void configureDefensiveCopies(boolean enabled) {
+        defensiveCopies = enabled;
+    }
+
+    /**
+     * Получение защитной копии значения: глубокой копии, если защитные копии включены, иначе самого значения
+     * @param value значение
+     * @param <T>   тип значения
+     * @return      копия или исходное значение
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends DeepCopyable> T defensiveCopy(T value) {
+        return defensiveCopies ? (T) value.deepCopy() : value;
+    }
 }